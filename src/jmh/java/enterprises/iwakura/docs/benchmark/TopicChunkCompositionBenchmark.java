@@ -0,0 +1,123 @@
+package enterprises.iwakura.docs.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import enterprises.iwakura.docs.config.DocsConfig;
+import enterprises.iwakura.docs.object.DocsContext;
+import enterprises.iwakura.docs.object.InterfaceState;
+import enterprises.iwakura.docs.object.LocaleType;
+import enterprises.iwakura.docs.object.Topic;
+import enterprises.iwakura.docs.service.ConfigurationService;
+import enterprises.iwakura.docs.service.MarkdownService;
+import enterprises.iwakura.docs.ui.render.TopicContentRenderer;
+import enterprises.iwakura.docs.ui.render.TopicContentRenderer.TopicContentChunks;
+import enterprises.iwakura.docs.ui.render.TopicRenderer;
+import enterprises.iwakura.docs.util.Logger;
+
+/**
+ * Compares composing the chunks of a rendered topic into the page's builders with
+ * {@link DocsContext#openSegment()} against merging a fresh child context per chunk, as it was done before segments.
+ * Run with {@code ./gradlew jmh}, the gc profiler reports the allocated bytes per render.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TopicChunkCompositionBenchmark {
+
+    private static final int SECTIONS = 64;
+
+    /**
+     * Topic content chunk size, smaller chunks compose more segments per render
+     */
+    @Param({"2048", "16384"})
+    public int chunkSize;
+
+    private TopicRenderer topicRenderer;
+    private TopicContentChunks topicContent;
+    private DocsContext docsContext;
+
+    @Setup
+    public void setUp() {
+        var logger = new Logger("Benchmark");
+        var docsConfig = new DocsConfig();
+        docsConfig.setTopicContentChunkSize(chunkSize);
+        var configurationService = new ConfigurationService(logger, null, null) {
+            @Override
+            public DocsConfig getDocsConfig() {
+                return docsConfig;
+            }
+        };
+        var markdownService = new MarkdownService(logger);
+        // Topic has no images, so runtime image assets are not needed
+        var topicContentRenderer = new TopicContentRenderer(markdownService, null, configurationService, logger);
+        topicRenderer = new TopicRenderer(topicContentRenderer, markdownService);
+
+        var topic = new Topic("benchmark", "Benchmark", "Topic content composition", "Voile", LocaleType.ENGLISH, 0,
+            false, createMarkdown(), null, List.of());
+        docsContext = DocsContext.of(null, new InterfaceState(List.of(), topic));
+        // Rendered once, the benchmarks measure only resolving the chunks into the page's builders
+        topicContent = topicContentRenderer.renderChunked(docsContext, topic);
+    }
+
+    @Benchmark
+    public DocsContext segments() {
+        var pageContext = DocsContext.of(docsContext);
+        for (int i = 0; i < topicContent.getChunkCount(); i++) {
+            topicRenderer.appendChunkInline(pageContext, topicContent, i);
+        }
+        return pageContext;
+    }
+
+    @Benchmark
+    public DocsContext merging() {
+        var pageContext = DocsContext.of(docsContext);
+        for (int i = 0; i < topicContent.getChunkCount(); i++) {
+            var chunkContext = DocsContext.of(pageContext);
+            var chunkUI = topicContent.renderChunk(chunkContext, i);
+            pageContext.getCommandBuilder().appendInline(TopicRenderer.TOPIC_CONTENT_SELECTOR, chunkUI);
+            chunkContext.mergeInto(pageContext.getCommandBuilder(), pageContext.getEventBuilder());
+        }
+        return pageContext;
+    }
+
+    private static String createMarkdown() {
+        var markdown = new StringBuilder();
+        for (int section = 0; section < SECTIONS; section++) {
+            markdown.append("""
+                ## Section %1$d
+
+                Paragraph with **strong**, *emphasized* and `inline code` text of section %1$d, long enough to wrap
+                across a couple of lines in the topic content.
+
+                - First item
+                - Second item with [a link](https://example.com/%1$d)
+
+                ```java
+                var section = %1$d;
+                ```
+
+                | Name | Value |
+                |------|-------|
+                | Section | %1$d |
+
+                """.formatted(section));
+        }
+        return markdown.toString();
+    }
+}
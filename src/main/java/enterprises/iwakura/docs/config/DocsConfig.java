@@ -25,6 +25,16 @@ public class DocsConfig {
     private boolean outOfBoxExperience = true;
     private boolean updateCheckerEnabled = true;
     private boolean enableFullTextSearch = true;
+    private int maxRankedSearchResults = 8;
+    private long searchDebounceMillis = 150;
+    private int collapseDocumentationsAbove = 10;
+    private int documentationTreePageSize = 50;
+    private int topicContentChunkSize = 16384;
+    private boolean warmUpCachesAfterReload = true;
+    private int warmUpParallelism = 2;
+    private int maxConcurrentRenders = 4;
+    private int maxQueuedRendersPerPlayer = 4;
+    private int maxQueuedRenders = 256;
     private boolean persistInterfacePreferences = true;
     private boolean voileCommandRequiresPermission = false;
     private String loadDocumentationsFromDirectory = "documentation";
@@ -76,6 +86,9 @@ public class DocsConfig {
         private boolean showErrorsToPlayers = false;
         private boolean checkForRecentlyCrashedPlayers = true;
         private long inMemoryDumpTimeToLiveMillis = 2000;
+        private int inMemoryDumpsPerPlayer = 4;
+        private int inMemoryDumpBudgetKilobytes = 8192; // 8 MB
+        private int validationCacheSize = 1024;
     }
 
     @Data
@@ -106,6 +119,11 @@ public class DocsConfig {
         private boolean enabled = true;
         private int maxImageDownloadFileSizeKb = 1024 * 2; // 2MB
         private int inMemoryTimeToLiveSeconds = 3600; // Hour
+        private boolean downscaleImages = true;
+        private int pngCompressionLevel = 9;
+        private boolean quantizePalette = true;
+        private boolean stripImageMetadata = true;
+        private int maxConcurrentImageDownloads = 4;
     }
 
     @Data
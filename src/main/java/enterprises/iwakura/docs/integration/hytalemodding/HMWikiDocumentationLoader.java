@@ -23,6 +23,7 @@ import enterprises.iwakura.docs.object.DocumentationType;
 import enterprises.iwakura.docs.object.LoaderContext;
 import enterprises.iwakura.docs.object.LocaleType;
 import enterprises.iwakura.docs.object.Topic;
+import enterprises.iwakura.docs.service.DocumentationSearchService;
 import enterprises.iwakura.docs.service.FileSystemCacheService;
 import enterprises.iwakura.docs.service.PluginAssetLoaderService;
 import enterprises.iwakura.docs.service.loader.DocumentationLoader;
@@ -42,6 +43,7 @@ public class HMWikiDocumentationLoader extends DocumentationLoader {
 
     private final PluginAssetLoaderService pluginAssetLoaderService;
     private final FileSystemCacheService fileSystemCacheService;
+    private final DocumentationSearchService documentationSearchService;
     private final HMWikiApi hmWikiApi;
     private final Logger logger;
 
@@ -289,6 +291,7 @@ public class HMWikiDocumentationLoader extends DocumentationLoader {
             .map(modPage -> createTopicFromModPage(documentation, mod, modPage))
             .toList();
         documentation.addTopics(topics);
+        documentationSearchService.refreshTopicLookupIndex(documentation);
 
         // Load content into the index topic and replace the current one
         var page = Optional.ofNullable(mod.getIndexPage()).orElseGet(() -> modResponse.getPages().getFirst());
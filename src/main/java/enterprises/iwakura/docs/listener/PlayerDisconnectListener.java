@@ -3,6 +3,9 @@ package enterprises.iwakura.docs.listener;
 import com.hypixel.hytale.protocol.packets.connection.DisconnectType;
 import com.hypixel.hytale.server.core.event.events.player.PlayerDisconnectEvent;
 
+import enterprises.iwakura.docs.service.DocumentationSearchService;
+import enterprises.iwakura.docs.service.DocumentationViewerService;
+import enterprises.iwakura.docs.service.RenderSchedulerService;
 import enterprises.iwakura.docs.service.RuntimeImageAssetService;
 import enterprises.iwakura.docs.service.ValidatorService;
 import enterprises.iwakura.sigewine.core.annotations.Bean;
@@ -14,6 +17,9 @@ public class PlayerDisconnectListener implements BaseGlobalListener<PlayerDiscon
 
     private final ValidatorService validatorService;
     private final RuntimeImageAssetService runtimeImageAssetService;
+    private final DocumentationSearchService documentationSearchService;
+    private final RenderSchedulerService renderSchedulerService;
+    private final DocumentationViewerService documentationViewerService;
 
     @Override
     public Class<PlayerDisconnectEvent> getEventClass() {
@@ -25,6 +31,10 @@ public class PlayerDisconnectListener implements BaseGlobalListener<PlayerDiscon
         if (event.getDisconnectReason().getClientDisconnectType() == DisconnectType.Crash) {
             validatorService.handleCrashedPlayer(event.getPlayerRef());
         }
+        validatorService.clearValidationEntries(event.getPlayerRef().getUuid());
         runtimeImageAssetService.clearCacheForPlayer(event.getPlayerRef().getUuid());
+        documentationSearchService.clearTopicVisibility(event.getPlayerRef().getUuid());
+        documentationViewerService.clearOpenedPage(event.getPlayerRef().getUuid());
+        renderSchedulerService.cancel(event.getPlayerRef().getUuid());
     }
 }
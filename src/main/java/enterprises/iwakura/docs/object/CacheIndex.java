@@ -54,6 +54,8 @@ public class CacheIndex {
         @RequiredArgsConstructor
         public enum CacheFileType {
             IMAGE(86400L),
+            IMAGE_VARIANT(86400L),
+            CONVERTED_IMAGE(86400L),
             HYTALE_MODDING_WIKI_MOD_LIST(86400L),
             HYTALE_MODDING_WIKI_MOD(86400L),
             HYTALE_MODDING_WIKI_PAGE_CONTENT(86400L);
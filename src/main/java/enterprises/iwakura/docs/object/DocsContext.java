@@ -2,6 +2,7 @@ package enterprises.iwakura.docs.object;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import com.hypixel.hytale.common.util.ListUtil;
 import com.hypixel.hytale.server.core.ui.builder.UICommandBuilder;
@@ -10,9 +11,10 @@ import com.hypixel.hytale.server.core.universe.PlayerRef;
 
 import enterprises.iwakura.docs.service.FallbackTopicService;
 import enterprises.iwakura.docs.ui.DocumentationViewerPage;
+import enterprises.iwakura.docs.util.ListUtils;
 import enterprises.iwakura.docs.util.ReflectionUtils;
-import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 
 /**
@@ -20,13 +22,18 @@ import lombok.SneakyThrows;
  * events that will be added into the resulting command builder and event builder.
  */
 @Data
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class DocsContext {
 
     protected final PlayerRef playerRef;
     protected final UICommandBuilder commandBuilder;
     protected final UIEventBuilder eventBuilder;
     protected final InterfaceState interfaceState;
+    /**
+     * Rendered documentation tree, sent by {@link DocumentationViewerPage} as a diff against the tree it currently
+     * shows. Null if the documentation tree was not rendered.
+     */
+    protected RenderedTree documentationTree;
 
     public static DocsContext of(PlayerRef playerRef, InterfaceState interfaceState) {
         return new DocsContext(
@@ -50,11 +57,31 @@ public class DocsContext {
         );
     }
 
+    /**
+     * Opens a segment of this context. The segment writes commands and events directly into the builders of this
+     * context, so nothing has to be copied after it is rendered. Unless the segment is committed, closing it removes
+     * everything written since it was opened, so partial output of a failed render does not leak.
+     *
+     * @return Segment, to be used in try-with-resources
+     */
+    public Segment openSegment() {
+        return new Segment(this);
+    }
+
+    /**
+     * Copies commands and events of this context into the other context, along with the rendered documentation tree
+     *
+     * @param context Context to merge into
+     *
+     * @deprecated Render into a segment of the context instead, see {@link #openSegment()}, or merge into its builders
+     * with {@link #mergeInto(UICommandBuilder, UIEventBuilder)}
+     */
+    @Deprecated
     public void mergeInto(DocsContext context) {
-        ReflectionUtils.mergeInto(
-            this.getCommandBuilder(), context.getCommandBuilder(),
-            this.getEventBuilder(), context.getEventBuilder()
-        );
+        mergeInto(context.getCommandBuilder(), context.getEventBuilder());
+        if (documentationTree != null) {
+            context.setDocumentationTree(documentationTree);
+        }
     }
 
     @SneakyThrows
@@ -93,6 +120,59 @@ public class DocsContext {
         return interfaceState.getDocumentations();
     }
 
+    /**
+     * Part of the parent context that can be rolled back, see {@link #openSegment()}
+     */
+    public static class Segment extends DocsContext implements AutoCloseable {
+
+        private final DocsContext parent;
+        private final int commandStart;
+        private final int eventStart;
+        private boolean committed;
+
+        private Segment(DocsContext parent) {
+            super(parent.getPlayerRef(), parent.getCommandBuilder(), parent.getEventBuilder(), parent.getInterfaceState());
+            this.parent = parent;
+            this.commandStart = ReflectionUtils.getCommands(commandBuilder).size();
+            this.eventStart = ReflectionUtils.getEvents(eventBuilder).size();
+        }
+
+        /**
+         * Keeps everything written into the segment
+         */
+        public void commit() {
+            committed = true;
+            if (documentationTree != null) {
+                parent.setDocumentationTree(documentationTree);
+            }
+        }
+
+        /**
+         * Keeps everything written into the segment, with the specified commands placed before the commands of the
+         * segment. Used for appending the markup the commands of the segment refer to.
+         *
+         * @param commands Adds the commands
+         */
+        public void commitAfter(Consumer<UICommandBuilder> commands) {
+            var segmentCommands = ReflectionUtils.getCommands(commandBuilder);
+            int commandEnd = segmentCommands.size();
+            commands.accept(commandBuilder);
+            ListUtils.moveTailTo(segmentCommands, commandEnd, commandStart);
+            commit();
+        }
+
+        /**
+         * Removes everything written into the segment, unless it was committed
+         */
+        @Override
+        public void close() {
+            if (!committed) {
+                ListUtils.truncate(ReflectionUtils.getCommands(commandBuilder), commandStart);
+                ListUtils.truncate(ReflectionUtils.getEvents(eventBuilder), eventStart);
+            }
+        }
+    }
+
     @Override
     public String toString() {
         return "DocsContext{" +
@@ -0,0 +1,84 @@
+package enterprises.iwakura.docs.object;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Snapshot of expanded and collapsed nodes of the documentation tree, see
+ * {@link InterfaceState#getTreeNodeExpansions()}. Collapsed nodes do not render their children at all.
+ *
+ * @param treeNodeExpansions              Explicitly expanded (true) or collapsed (false) nodes by their keys
+ * @param documentationsExpandedByDefault If documentations that were not explicitly expanded or collapsed are expanded
+ */
+public record DocumentationTreeExpansion(Map<String, Boolean> treeNodeExpansions, boolean documentationsExpandedByDefault) {
+
+    public DocumentationTreeExpansion {
+        treeNodeExpansions = Map.copyOf(treeNodeExpansions);
+    }
+
+    /**
+     * Creates snapshot of the specified documentations' nodes and their category topics' nodes. Other nodes and nodes
+     * that are in their default state are left out, so equally expanded trees have equal snapshots.
+     *
+     * @param treeNodeExpansions              Explicitly expanded (true) or collapsed (false) nodes by their keys
+     * @param documentationsExpandedByDefault If documentations that were not explicitly expanded or collapsed are
+     *                                        expanded
+     * @param documentationKeys               Node keys of the documentations, see
+     *                                        {@link enterprises.iwakura.docs.ui.render.DocumentationRenderer#getNodeKey(Documentation)}
+     *
+     * @return Snapshot
+     */
+    public static DocumentationTreeExpansion of(
+        Map<String, Boolean> treeNodeExpansions,
+        boolean documentationsExpandedByDefault,
+        Set<String> documentationKeys
+    ) {
+        var expansions = new HashMap<String, Boolean>();
+        treeNodeExpansions.forEach((key, expanded) -> {
+            if (documentationKeys.contains(key)) {
+                if (expanded != documentationsExpandedByDefault) {
+                    expansions.put(key, expanded);
+                }
+            } else if (!expanded && isWithinAny(key, documentationKeys)) {
+                // Categories are expanded by default
+                expansions.put(key, false);
+            }
+        });
+        return new DocumentationTreeExpansion(expansions, documentationsExpandedByDefault);
+    }
+
+    /**
+     * Checks whenever the documentation's node is expanded
+     *
+     * @param key Node key
+     *
+     * @return True if yes, false otherwise
+     */
+    public boolean isDocumentationExpanded(String key) {
+        return treeNodeExpansions.getOrDefault(key, documentationsExpandedByDefault);
+    }
+
+    /**
+     * Checks whenever the category topic's node is expanded, categories are expanded by default
+     *
+     * @param key Node key
+     *
+     * @return True if yes, false otherwise
+     */
+    public boolean isCategoryExpanded(String key) {
+        return treeNodeExpansions.getOrDefault(key, true);
+    }
+
+    /**
+     * Checks whenever the node key is a key of a node within any of the documentations' nodes
+     */
+    private static boolean isWithinAny(String key, Set<String> documentationKeys) {
+        for (int slash = key.lastIndexOf('/'); slash > 0; slash = key.lastIndexOf('/', slash - 1)) {
+            if (documentationKeys.contains(key.substring(0, slash))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -2,6 +2,8 @@ package enterprises.iwakura.docs.object;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import enterprises.iwakura.docs.components.InterfacePreferencesComponent;
 import enterprises.iwakura.docs.config.DocsConfig.InterfacePreferencesDefaults;
@@ -35,6 +37,16 @@ public class InterfaceState {
     private String topicSearchQuery;
     private boolean fullTextSearch;
 
+    /**
+     * Documentation tree nodes that were explicitly expanded (true) or collapsed (false) by their keys. Nodes that are
+     * not present are in their default state.
+     */
+    private final Map<String, Boolean> treeNodeExpansions = new ConcurrentHashMap<>();
+    /**
+     * Number of documentations shown in the documentation tree, 0 if only the first page is shown
+     */
+    private int documentationTreeLimit;
+
     public InterfaceState(List<Documentation> documentations, Topic topic) {
         this.documentations = documentations;
         this.topic = topic;
@@ -130,6 +142,28 @@ public class InterfaceState {
         }
     }
 
+    /**
+     * Checks whenever the documentation tree node is expanded
+     *
+     * @param key               Node key
+     * @param expandedByDefault If the node is expanded if it was not explicitly expanded or collapsed
+     *
+     * @return True if yes, false otherwise
+     */
+    public boolean isTreeNodeExpanded(String key, boolean expandedByDefault) {
+        return treeNodeExpansions.getOrDefault(key, expandedByDefault);
+    }
+
+    /**
+     * Explicitly expands or collapses the documentation tree node
+     *
+     * @param key      Node key
+     * @param expanded If the node should be expanded
+     */
+    public void setTreeNodeExpanded(String key, boolean expanded) {
+        treeNodeExpansions.put(key, expanded);
+    }
+
     public boolean hasHistory() {
         return !topicIdentifierHistory.isEmpty();
     }
@@ -0,0 +1,13 @@
+package enterprises.iwakura.docs.object;
+
+import com.hypixel.hytale.math.vector.Vector2d;
+
+/**
+ * Image loaded as PNG
+ *
+ * @param pngData   PNG image data
+ * @param imageSize Size of the image, where x is the width and y is the height
+ */
+public record LoadedImage(byte[] pngData, Vector2d imageSize) {
+
+}
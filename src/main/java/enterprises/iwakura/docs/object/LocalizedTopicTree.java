@@ -0,0 +1,164 @@
+package enterprises.iwakura.docs.object;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Read-only projection of documentation topic trees for a single locale type, built when documentations are
+ * (re)loaded. Each {@link Node} already holds the locale preferred variant of its topic, so the tree can be traversed
+ * without resolving locale for each topic.
+ * <p>
+ * Nodes whose subtree has no localized variant for the locale type are shared with the tree without any preferred
+ * locale type.
+ */
+public class LocalizedTopicTree {
+
+    public static final LocalizedTopicTree EMPTY = new LocalizedTopicTree(null, new IdentityHashMap<>());
+
+    private final LocaleType localeType;
+    private final Map<Documentation, DocumentationTopics> documentationTopics;
+
+    private LocalizedTopicTree(LocaleType localeType, Map<Documentation, DocumentationTopics> documentationTopics) {
+        this.localeType = localeType;
+        this.documentationTopics = documentationTopics;
+    }
+
+    /**
+     * Builds the tree for the locale type
+     *
+     * @param documentations        Documentations
+     * @param localeType            Locale type, null for the tree without preferred locale type
+     * @param index                 Topic visibility index to take node IDs from
+     * @param localePreferredTopics Function resolving the locale preferred variant for a topic, see
+     *                              {@link enterprises.iwakura.docs.service.DocumentationSearchService#getLocalePreferredTopic(Topic, LocaleType)}
+     * @param primaryTree           Tree without preferred locale type built from the same documentations to share
+     *                              nodes with, nullable
+     *
+     * @return Built tree
+     */
+    public static LocalizedTopicTree build(
+        List<Documentation> documentations,
+        LocaleType localeType,
+        TopicVisibilityIndex index,
+        BiFunction<Topic, LocaleType, Topic> localePreferredTopics,
+        LocalizedTopicTree primaryTree
+    ) {
+        var documentationTopics = new IdentityHashMap<Documentation, DocumentationTopics>();
+        for (Documentation documentation : documentations) {
+            var roots = List.copyOf(documentation.getTopics());
+            var primaryTopics = primaryTree != null ? primaryTree.documentationTopics.get(documentation) : null;
+            documentationTopics.put(documentation, new DocumentationTopics(
+                roots,
+                project(roots, localeType, index, localePreferredTopics, primaryTopics != null ? primaryTopics.nodes() : null)
+            ));
+        }
+        return new LocalizedTopicTree(localeType, documentationTopics);
+    }
+
+    /**
+     * Projects the topics for the locale type
+     *
+     * @param topics                Topics to project
+     * @param localeType            Locale type, nullable
+     * @param index                 Topic visibility index to take node IDs from
+     * @param localePreferredTopics Function resolving the locale preferred variant for a topic
+     * @param primaryNodes          Nodes of the same topics without preferred locale type to share, nullable
+     *
+     * @return Unmodifiable list of nodes
+     */
+    public static List<Node> project(
+        List<Topic> topics,
+        LocaleType localeType,
+        TopicVisibilityIndex index,
+        BiFunction<Topic, LocaleType, Topic> localePreferredTopics,
+        List<Node> primaryNodes
+    ) {
+        var nodes = new ArrayList<Node>(topics.size());
+        boolean sameAsPrimary = primaryNodes != null && primaryNodes.size() == topics.size();
+        for (int i = 0; i < topics.size(); i++) {
+            var topic = topics.get(i);
+            var primaryNode = sameAsPrimary ? primaryNodes.get(i) : null;
+            var children = project(
+                topic.getTopics(), localeType, index, localePreferredTopics, primaryNode != null ? primaryNode.topics() : null
+            );
+            var localizedTopic = localePreferredTopics.apply(topic, localeType);
+
+            if (primaryNode != null && primaryNode.localizedTopic() == localizedTopic && primaryNode.topics() == children) {
+                nodes.add(primaryNode);
+            } else {
+                nodes.add(new Node(index.getNodeId(topic), topic, localizedTopic, children));
+                sameAsPrimary = false;
+            }
+        }
+        if (sameAsPrimary) {
+            return primaryNodes;
+        }
+        return List.copyOf(nodes);
+    }
+
+    /**
+     * Returns the locale type of the tree
+     *
+     * @return Locale type, null if the tree has no preferred locale type
+     */
+    public LocaleType getLocaleType() {
+        return localeType;
+    }
+
+    /**
+     * Returns the projected topics of the documentation
+     *
+     * @param documentation Documentation
+     *
+     * @return Unmodifiable list of nodes or null if the documentation is not part of the tree or its topics have
+     * changed since the tree was built
+     */
+    public List<Node> getTopics(Documentation documentation) {
+        var topics = documentationTopics.get(documentation);
+        if (topics == null || !topics.isCurrent(documentation)) {
+            return null;
+        }
+        return topics.nodes();
+    }
+
+    /**
+     * Topic in projected tree
+     *
+     * @param nodeId         Node ID within {@link TopicVisibilityIndex}, -1 if not indexed
+     * @param topic          Topic within the documentation tree
+     * @param localizedTopic Locale preferred variant of the topic
+     * @param topics         Projected sub-topics
+     */
+    public record Node(int nodeId, Topic topic, Topic localizedTopic, List<Node> topics) {
+
+    }
+
+    /**
+     * Projected topics of a documentation
+     *
+     * @param roots Topics of the documentation at the time of the projection
+     * @param nodes Projected topics
+     */
+    private record DocumentationTopics(List<Topic> roots, List<Node> nodes) {
+
+        /**
+         * Checks whenever the documentation still has the same topics (e.g. Hytale Modding Wiki pages replace them
+         * once loaded)
+         */
+        boolean isCurrent(Documentation documentation) {
+            var topics = documentation.getTopics();
+            if (topics.size() != roots.size()) {
+                return false;
+            }
+            for (int i = 0; i < roots.size(); i++) {
+                if (topics.get(i) != roots.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
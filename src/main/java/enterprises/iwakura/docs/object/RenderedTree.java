@@ -0,0 +1,447 @@
+package enterprises.iwakura.docs.object;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+import com.hypixel.hytale.server.core.ui.builder.UICommandBuilder;
+import com.hypixel.hytale.server.core.ui.builder.UIEventBuilder;
+
+/**
+ * Immutable model of a rendered UI tree made of nested groups, each with a header element followed by its child
+ * groups. Groups and headers must have stable selectors (see
+ * {@link enterprises.iwakura.docs.util.InterfaceUtils#generateSelector(String)}), so the tree can be compared with
+ * the previously rendered one and only the changed groups and headers are sent to the client, see
+ * {@link #diffInto(RenderedTree, HeaderSelectors, String, UICommandBuilder, UIEventBuilder)}.
+ */
+public class RenderedTree {
+
+    private static final String GROUP_END = "}\n";
+
+    private final List<Node> nodes;
+    /**
+     * Lazily computed result of {@link #hasUniqueSelectors()}
+     */
+    private volatile Boolean uniqueSelectors;
+
+    public RenderedTree(List<Node> nodes) {
+        this.nodes = List.copyOf(nodes);
+    }
+
+    /**
+     * Returns the top-level nodes
+     *
+     * @return Unmodifiable list of nodes
+     */
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns copy of the tree with the header of the specified group replaced. Only the groups on the path to the
+     * group are copied, the rest is shared with this tree.
+     *
+     * @param selector Selector of the group
+     * @param header   New header
+     *
+     * @return New tree or this tree if there's no such group
+     */
+    public RenderedTree withHeader(String selector, Header header) {
+        var replacedNodes = withHeader(nodes, selector, header);
+        return replacedNodes == nodes ? this : new RenderedTree(replacedNodes);
+    }
+
+    private static List<Node> withHeader(List<Node> nodes, String selector, Header header) {
+        for (int i = 0; i < nodes.size(); i++) {
+            var node = nodes.get(i);
+            Node replacedNode;
+            if (node.selector().equals(selector)) {
+                replacedNode = new Node(node.selector(), node.start(), header, node.children());
+            } else {
+                var replacedChildren = withHeader(node.children(), selector, header);
+                if (replacedChildren == node.children()) {
+                    continue;
+                }
+                replacedNode = new Node(node.selector(), node.start(), node.header(), replacedChildren);
+            }
+            var replacedNodes = new ArrayList<>(nodes);
+            replacedNodes.set(i, replacedNode);
+            return replacedNodes;
+        }
+        return nodes;
+    }
+
+    /**
+     * Returns the markup of the whole tree
+     *
+     * @return UI markup
+     */
+    public String toMarkup() {
+        var output = new StringBuilder();
+        for (Node node : nodes) {
+            node.appendTo(output);
+        }
+        return output.toString();
+    }
+
+    /**
+     * Emits commands changing the previously rendered tree into this tree. Removed groups are removed, new groups are
+     * inserted before their next unchanged sibling and changed headers are replaced, so groups that did not change
+     * are left as they are. Event bindings are added for every inserted header, headers that were sent before get
+     * new selectors, see {@link HeaderSelectors}. If the order of the remaining groups changed, the children of their
+     * parent are replaced instead. If either tree has a selector more than once, the groups cannot be told apart and
+     * the whole tree is replaced.
+     *
+     * @param previous        Tree that is currently shown in the parent element, null to replace its content
+     * @param headerSelectors Selectors of the headers the client was sent, updated with the inserted headers
+     * @param parentSelector  Selector of the element containing the tree
+     * @param commandBuilder  Command builder
+     * @param eventBuilder    Event builder
+     */
+    public void diffInto(
+        RenderedTree previous,
+        HeaderSelectors headerSelectors,
+        String parentSelector,
+        UICommandBuilder commandBuilder,
+        UIEventBuilder eventBuilder
+    ) {
+        if (previous == null || !hasUniqueSelectors() || !previous.hasUniqueSelectors()) {
+            commandBuilder.clear(parentSelector);
+            if (!nodes.isEmpty()) {
+                var output = new StringBuilder();
+                for (Node node : nodes) {
+                    insertNode(node, output, headerSelectors, eventBuilder);
+                }
+                commandBuilder.appendInline(parentSelector, output.toString());
+            }
+            return;
+        }
+        diffChildren(parentSelector, previous.nodes, nodes, headerSelectors, commandBuilder, eventBuilder);
+    }
+
+    /**
+     * Checks whenever no selector of a group is used more than once within the tree
+     *
+     * @return True if yes, false otherwise
+     */
+    public boolean hasUniqueSelectors() {
+        var uniqueSelectors = this.uniqueSelectors;
+        if (uniqueSelectors == null) {
+            uniqueSelectors = addSelectors(nodes, new HashSet<>());
+            this.uniqueSelectors = uniqueSelectors;
+        }
+        return uniqueSelectors;
+    }
+
+    private static boolean addSelectors(List<Node> nodes, Set<String> selectors) {
+        for (Node node : nodes) {
+            if (!selectors.add(node.selector()) || !addSelectors(node.children(), selectors)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void diffChildren(
+        String parentSelector,
+        List<Node> previousNodes,
+        List<Node> nodes,
+        HeaderSelectors headerSelectors,
+        UICommandBuilder commandBuilder,
+        UIEventBuilder eventBuilder
+    ) {
+        var previousNodesBySelector = new HashMap<String, Node>(previousNodes.size() * 2);
+        for (Node previousNode : previousNodes) {
+            previousNodesBySelector.put(previousNode.selector(), previousNode);
+        }
+        Map<String, Node> keptNodesBySelector = new HashMap<>(nodes.size() * 2);
+        for (Node node : nodes) {
+            var previousNode = previousNodesBySelector.get(node.selector());
+            if (previousNode != null && previousNode.start().equals(node.start())) {
+                keptNodesBySelector.put(node.selector(), previousNode);
+            }
+        }
+
+        if (!isSameOrder(previousNodes, nodes, keptNodesBySelector)) {
+            for (Node previousNode : previousNodes) {
+                commandBuilder.remove("#" + previousNode.selector());
+            }
+            for (Node node : nodes) {
+                commandBuilder.appendInline(parentSelector, insertNode(node, headerSelectors, eventBuilder));
+            }
+            return;
+        }
+
+        for (Node previousNode : previousNodes) {
+            if (keptNodesBySelector.get(previousNode.selector()) != previousNode) {
+                commandBuilder.remove("#" + previousNode.selector());
+            }
+        }
+
+        // Selector of the next kept sibling for each node, new nodes are inserted before it
+        var nextKeptSelectors = new String[nodes.size()];
+        String nextKeptSelector = null;
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            nextKeptSelectors[i] = nextKeptSelector;
+            if (keptNodesBySelector.containsKey(nodes.get(i).selector())) {
+                nextKeptSelector = nodes.get(i).selector();
+            }
+        }
+
+        for (int i = 0; i < nodes.size(); i++) {
+            var node = nodes.get(i);
+            var previousNode = keptNodesBySelector.get(node.selector());
+
+            if (previousNode != null) {
+                diffNode(previousNode, node, headerSelectors, commandBuilder, eventBuilder);
+            } else if (nextKeptSelectors[i] != null) {
+                commandBuilder.insertBeforeInline("#" + nextKeptSelectors[i], insertNode(node, headerSelectors, eventBuilder));
+            } else {
+                commandBuilder.appendInline(parentSelector, insertNode(node, headerSelectors, eventBuilder));
+            }
+        }
+    }
+
+    private static void diffNode(
+        Node previousNode,
+        Node node,
+        HeaderSelectors headerSelectors,
+        UICommandBuilder commandBuilder,
+        UIEventBuilder eventBuilder
+    ) {
+        if (previousNode == node) {
+            // Shared by both trees (e.g. taken from the same cached render)
+            return;
+        }
+
+        diffChildren("#" + node.selector(), previousNode.children(), node.children(), headerSelectors, commandBuilder, eventBuilder);
+
+        var header = node.header();
+        if (header.isSameAs(previousNode.header())) {
+            return;
+        }
+
+        // Children are already up-to-date, so the header goes before the first one
+        commandBuilder.remove("#" + headerSelectors.getSelector(node.selector(), previousNode.header().selector()));
+        var markup = insertHeader(node, headerSelectors, eventBuilder);
+        if (node.children().isEmpty()) {
+            commandBuilder.appendInline("#" + node.selector(), markup);
+        } else {
+            commandBuilder.insertBeforeInline("#" + node.children().getFirst().selector(), markup);
+        }
+    }
+
+    /**
+     * Returns the markup of the node with new selectors for the headers that were sent before and adds their event
+     * bindings
+     */
+    private static String insertNode(Node node, HeaderSelectors headerSelectors, UIEventBuilder eventBuilder) {
+        var output = new StringBuilder();
+        insertNode(node, output, headerSelectors, eventBuilder);
+        return output.toString();
+    }
+
+    private static void insertNode(Node node, StringBuilder output, HeaderSelectors headerSelectors, UIEventBuilder eventBuilder) {
+        output.append(node.start());
+        output.append(insertHeader(node, headerSelectors, eventBuilder));
+        for (Node child : node.children()) {
+            insertNode(child, output, headerSelectors, eventBuilder);
+        }
+        output.append(GROUP_END);
+    }
+
+    private static String insertHeader(Node node, HeaderSelectors headerSelectors, UIEventBuilder eventBuilder) {
+        var groupSelector = node.selector();
+        var prefix = headerSelectors.insert(groupSelector);
+        var header = node.header();
+        if (prefix.equals(groupSelector)) {
+            header.bindInto(eventBuilder);
+            return header.markup();
+        }
+        header.bindInto(eventBuilder, selector -> prefix + selector.substring(groupSelector.length()));
+        return header.markup().replace(groupSelector, prefix);
+    }
+
+    /**
+     * Checks whenever the kept nodes are in the same order in both lists
+     */
+    private static boolean isSameOrder(List<Node> previousNodes, List<Node> nodes, Map<String, Node> keptNodesBySelector) {
+        int previousIndex = 0;
+        for (Node node : nodes) {
+            var keptNode = keptNodesBySelector.get(node.selector());
+            if (keptNode == null) {
+                continue;
+            }
+            while (previousIndex < previousNodes.size() && previousNodes.get(previousIndex) != keptNode) {
+                previousIndex++;
+            }
+            if (previousIndex == previousNodes.size()) {
+                return false;
+            }
+            previousIndex++;
+        }
+        return true;
+    }
+
+    /**
+     * Group in the rendered tree
+     *
+     * @param selector Selector of the group (without hashtag), selectors of the header's elements must start with it
+     * @param start    Start of the group's markup up to its header, including the selector
+     * @param header   Header element of the group
+     * @param children Child groups, rendered after the header
+     */
+    public record Node(String selector, String start, Header header, List<Node> children) {
+
+        public Node {
+            if (!header.selector().startsWith(selector)) {
+                throw new IllegalArgumentException("Header selector %s does not start with the selector of its group %s".formatted(header.selector(), selector));
+            }
+            children = List.copyOf(children);
+        }
+
+        /**
+         * Appends the markup of the group into the output
+         *
+         * @param output Output
+         */
+        public void appendTo(StringBuilder output) {
+            output.append(start);
+            output.append(header.markup());
+            for (Node child : children) {
+                child.appendTo(output);
+            }
+            output.append(GROUP_END);
+        }
+
+        /**
+         * Returns the markup of the group
+         *
+         * @return UI markup
+         */
+        public String toMarkup() {
+            var output = new StringBuilder();
+            appendTo(output);
+            return output.toString();
+        }
+
+        /**
+         * Adds event bindings of the group's header and all of its children
+         *
+         * @param eventBuilder Event builder
+         */
+        public void bindInto(UIEventBuilder eventBuilder) {
+            header.bindInto(eventBuilder);
+            for (Node child : children) {
+                child.bindInto(eventBuilder);
+            }
+        }
+    }
+
+    /**
+     * Header element of a group
+     *
+     * @param selector    Selector of the element (without hashtag)
+     * @param markup      Markup of the element
+     * @param eventKey    Key identifying the event bound to the element, headers with different keys are always
+     *                    replaced, nullable
+     * @param eventBinder Adds event bindings of the element, nullable
+     */
+    public record Header(String selector, String markup, String eventKey, EventBinder eventBinder) {
+
+        /**
+         * Checks whenever the header renders the same element with the same event
+         *
+         * @param other Other header
+         *
+         * @return True if yes, false otherwise
+         */
+        public boolean isSameAs(Header other) {
+            return selector.equals(other.selector)
+                && markup.equals(other.markup)
+                && Objects.equals(eventKey, other.eventKey);
+        }
+
+        /**
+         * Adds event bindings of the element
+         *
+         * @param eventBuilder Event builder
+         */
+        public void bindInto(UIEventBuilder eventBuilder) {
+            bindInto(eventBuilder, UnaryOperator.identity());
+        }
+
+        /**
+         * Adds event bindings of the element inserted with other selectors
+         *
+         * @param eventBuilder Event builder
+         * @param selectors    Maps selectors of the header's markup to the selectors the element was inserted with
+         */
+        public void bindInto(UIEventBuilder eventBuilder, UnaryOperator<String> selectors) {
+            if (eventBinder != null) {
+                eventBinder.bindInto(eventBuilder, selectors);
+            }
+        }
+    }
+
+    /**
+     * Adds event bindings of a header element
+     */
+    @FunctionalInterface
+    public interface EventBinder {
+
+        /**
+         * Adds event bindings of the header's elements
+         *
+         * @param eventBuilder Event builder
+         * @param selectors    Maps selectors of the header's markup (without hashtag) to the selectors the element was
+         *                     inserted with
+         */
+        void bindInto(UIEventBuilder eventBuilder, UnaryOperator<String> selectors);
+    }
+
+    /**
+     * Selectors of the header elements sent to a client. The client keeps event bindings by selector, even after the
+     * bound element is removed, so a header that is inserted again after it was removed or replaced gets new selectors.
+     * Otherwise, the old and the new bindings would both fire for the same element.
+     */
+    public static class HeaderSelectors {
+
+        /**
+         * Prefix of the selectors of the header's elements by the selector of its group
+         */
+        private final Map<String, String> prefixes = new HashMap<>();
+        private int insertions;
+
+        /**
+         * Returns prefix of the selectors of the group's header that is being inserted
+         *
+         * @param groupSelector Selector of the group
+         *
+         * @return The group's selector if the header was not sent before, otherwise a new prefix
+         */
+        public synchronized String insert(String groupSelector) {
+            var prefix = prefixes.containsKey(groupSelector) ? groupSelector + "R" + ++insertions : groupSelector;
+            prefixes.put(groupSelector, prefix);
+            return prefix;
+        }
+
+        /**
+         * Returns selector of an element of the group's header, as it was last sent to the client
+         *
+         * @param groupSelector Selector of the group
+         * @param selector      Selector of the element in the header's markup
+         *
+         * @return Selector of the shown element
+         */
+        public synchronized String getSelector(String groupSelector, String selector) {
+            var prefix = prefixes.get(groupSelector);
+            return prefix == null ? selector : prefix + selector.substring(groupSelector.length());
+        }
+    }
+}
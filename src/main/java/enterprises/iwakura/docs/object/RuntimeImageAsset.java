@@ -9,12 +9,19 @@ import com.hypixel.hytale.math.vector.Vector2d;
 import lombok.Data;
 
 /**
- * Runtime asset that points to a filesystem file to preserve memory
+ * Runtime image asset identified by the hash of its content, so the same image loaded from different files or URLs is
+ * kept and sent to the players only once
  */
 @Data
 public class RuntimeImageAsset {
 
-    private final UUID id = UUID.randomUUID();
+    /**
+     * Derived from the hash of the data
+     */
+    private final UUID id;
+    /**
+     * File the asset was first loaded from
+     */
     private final Path filePath;
     private final Vector2d imageSize;
     private final byte[] data;
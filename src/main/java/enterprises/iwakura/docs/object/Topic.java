@@ -141,7 +141,8 @@ public class Topic {
     }
 
     /**
-     * Sets the markdown content. If null, sets an empty string.
+     * Sets the markdown content. If null, sets an empty string. Cached parsed document of the previous content is no
+     * longer used, see {@link enterprises.iwakura.docs.service.MarkdownService#parseTopicMarkdown(Topic, boolean)}.
      *
      * @param markdownContent Markdown content
      */
@@ -4,8 +4,10 @@ import java.util.Optional;
 import java.util.regex.Pattern;
 
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.NonNull;
 
+@Getter
 @AllArgsConstructor
 public class TopicIdentifier {
 
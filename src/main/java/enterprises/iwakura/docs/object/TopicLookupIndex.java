@@ -0,0 +1,220 @@
+package enterprises.iwakura.docs.object;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+import enterprises.iwakura.docs.util.Logger;
+
+/**
+ * Immutable hash index for resolving topic identifiers, built when documentations are (re)loaded.
+ * <p>
+ * Topics are keyed by documentation group, documentation ID and topic ID, with the locale-preferred variants
+ * precomputed for every {@link LocaleType}. A topic-ID-only multimap serves identifiers without documentation. Entries
+ * keep the order of documentations the index was built from.
+ */
+public class TopicLookupIndex {
+
+    public static final int MAX_CACHED_TOPIC_IDENTIFIERS = 4096;
+    public static final TopicLookupIndex EMPTY = new TopicLookupIndex(List.of(), Map.of(), Map.of());
+
+    private final List<Documentation> documentations;
+    private final Set<Documentation> indexedDocumentations;
+    private final Set<Documentation> indexedDocumentationInstances = Collections.newSetFromMap(new IdentityHashMap<>());
+    /**
+     * Entries keyed by {@code group:id} of the documentation and then by topic ID
+     */
+    private final Map<String, Map<String, Entry>> entriesByDocumentation;
+    /**
+     * Entries keyed by topic ID, in order of documentations
+     */
+    private final Map<String, List<Entry>> entriesByTopicId;
+    /**
+     * Parsed topic identifiers, empty if the identifier could not be parsed
+     */
+    private final Map<String, Optional<TopicIdentifier>> parsedTopicIdentifiers = new ConcurrentHashMap<>();
+
+    private TopicLookupIndex(
+        List<Documentation> documentations,
+        Map<String, Map<String, Entry>> entriesByDocumentation,
+        Map<String, List<Entry>> entriesByTopicId
+    ) {
+        this.documentations = documentations;
+        this.indexedDocumentations = Set.copyOf(documentations);
+        this.indexedDocumentationInstances.addAll(documentations);
+        this.entriesByDocumentation = entriesByDocumentation;
+        this.entriesByTopicId = entriesByTopicId;
+    }
+
+    /**
+     * Builds the index for the specified documentations. If more documentations share the same {@code group:id}, only
+     * the first one in the specified order (which is {@link enterprises.iwakura.docs.service.DocumentationService#DOCUMENTATION_ORDER}
+     * when built by the search service) is resolved by identifiers with documentation, the others are dropped with a
+     * warning. Identifiers without documentation still resolve topics of all of them.
+     *
+     * @param documentations        Documentations, in order in which topics should be resolved
+     * @param localePreferredTopics Function resolving the locale preferred variant for a topic, see
+     *                              {@link enterprises.iwakura.docs.service.DocumentationSearchService#getLocalePreferredTopic(Topic, LocaleType)}
+     * @param logger                Logger for dropped documentations
+     *
+     * @return Built index
+     */
+    public static TopicLookupIndex build(
+        List<Documentation> documentations,
+        BiFunction<Topic, LocaleType, Topic> localePreferredTopics,
+        Logger logger
+    ) {
+        var entriesByDocumentation = new HashMap<String, Map<String, Entry>>();
+        var entriesByTopicId = new HashMap<String, List<Entry>>();
+
+        for (Documentation documentation : documentations) {
+            var documentationEntries = new HashMap<String, Entry>();
+            documentation.getTopics().forEach(topic -> collectEntries(documentation, topic, documentationEntries, localePreferredTopics));
+            var documentationKey = createDocumentationKey(documentation.getGroup(), documentation.getId());
+            if (entriesByDocumentation.putIfAbsent(documentationKey, documentationEntries) != null) {
+                logger.warn("Documentation %s (%s) has the same group and ID as an earlier documentation, identifiers with %s resolve topics of the earlier one.".formatted(
+                    documentationKey, documentation.getName(), documentationKey
+                ));
+            }
+            documentationEntries.values().forEach(entry -> {
+                entriesByTopicId.computeIfAbsent(entry.topic().getId(), key -> new ArrayList<>()).add(entry);
+            });
+        }
+
+        entriesByTopicId.replaceAll((topicId, entries) -> List.copyOf(entries));
+        return new TopicLookupIndex(List.copyOf(documentations), entriesByDocumentation, entriesByTopicId);
+    }
+
+    /**
+     * Collects entries in the same order as {@link Documentation#findTopicById(String)} would find them
+     */
+    private static void collectEntries(
+        Documentation documentation,
+        Topic topic,
+        Map<String, Entry> documentationEntries,
+        BiFunction<Topic, LocaleType, Topic> localePreferredTopics
+    ) {
+        if (!documentationEntries.containsKey(topic.getId())) {
+            Topic[] localePreferredTopicsByOrdinal = null;
+            if (!topic.getLocalizedTopics().isEmpty()) {
+                localePreferredTopicsByOrdinal = new Topic[LocaleType.ALL.size()];
+                for (LocaleType localeType : LocaleType.ALL) {
+                    localePreferredTopicsByOrdinal[localeType.ordinal()] = localePreferredTopics.apply(topic, localeType);
+                }
+            }
+            documentationEntries.put(topic.getId(), new Entry(documentation, topic, localePreferredTopicsByOrdinal));
+        }
+        topic.getTopics().forEach(subTopic -> collectEntries(documentation, subTopic, documentationEntries, localePreferredTopics));
+    }
+
+    private static String createDocumentationKey(String documentationGroup, String documentationId) {
+        return documentationGroup + ":" + documentationId;
+    }
+
+    /**
+     * Returns the documentations the index was built from
+     *
+     * @return Unmodifiable list of documentations
+     */
+    public List<Documentation> getDocumentations() {
+        return documentations;
+    }
+
+    /**
+     * Checks whenever the specified documentation is indexed
+     *
+     * @param documentation Documentation
+     *
+     * @return True if yes, false otherwise
+     */
+    public boolean isIndexed(Documentation documentation) {
+        return indexedDocumentations.contains(documentation);
+    }
+
+    /**
+     * Checks whenever the specified documentation instance is the one that was indexed
+     *
+     * @param documentation Documentation
+     *
+     * @return True if yes, false otherwise
+     */
+    public boolean isIndexedInstance(Documentation documentation) {
+        return indexedDocumentationInstances.contains(documentation);
+    }
+
+    /**
+     * Parses the topic identifier, caching the result for repeated identifier strings
+     *
+     * @param topicIdentifier Topic identifier
+     *
+     * @return Optional of TopicIdentifier, empty if the specified topic identifier could not be parsed
+     */
+    public Optional<TopicIdentifier> parseTopicIdentifier(String topicIdentifier) {
+        var parsedTopicIdentifier = parsedTopicIdentifiers.get(topicIdentifier);
+        if (parsedTopicIdentifier == null) {
+            if (parsedTopicIdentifiers.size() >= MAX_CACHED_TOPIC_IDENTIFIERS) {
+                parsedTopicIdentifiers.clear();
+            }
+            parsedTopicIdentifier = TopicIdentifier.parse(topicIdentifier);
+            parsedTopicIdentifiers.put(topicIdentifier, parsedTopicIdentifier);
+        }
+        return parsedTopicIdentifier;
+    }
+
+    /**
+     * Gets entry for topic within the specified documentation
+     *
+     * @param documentationGroup Documentation group
+     * @param documentationId    Documentation ID
+     * @param topicId            Topic ID
+     *
+     * @return Nullable entry
+     */
+    public Entry get(String documentationGroup, String documentationId, String topicId) {
+        var documentationEntries = entriesByDocumentation.get(createDocumentationKey(documentationGroup, documentationId));
+        return documentationEntries != null ? documentationEntries.get(topicId) : null;
+    }
+
+    /**
+     * Gets entries for topic ID across all documentations
+     *
+     * @param topicId Topic ID
+     *
+     * @return Unmodifiable list of entries, in order of documentations
+     */
+    public List<Entry> getByTopicId(String topicId) {
+        return entriesByTopicId.getOrDefault(topicId, Collections.emptyList());
+    }
+
+    /**
+     * Indexed topic
+     *
+     * @param documentation                  Documentation of the topic
+     * @param topic                          Topic
+     * @param localePreferredTopicsByOrdinal Locale preferred variants indexed by {@link LocaleType#ordinal()}, null
+     *                                       if the topic has no localized variants
+     */
+    public record Entry(Documentation documentation, Topic topic, Topic[] localePreferredTopicsByOrdinal) {
+
+        /**
+         * Returns the locale preferred variant of the topic
+         *
+         * @param localeType Locale type, nullable
+         *
+         * @return Non-null topic
+         */
+        public Topic getLocalePreferredTopic(LocaleType localeType) {
+            if (localeType == null || localePreferredTopicsByOrdinal == null) {
+                return topic;
+            }
+            return localePreferredTopicsByOrdinal[localeType.ordinal()];
+        }
+    }
+}
@@ -0,0 +1,444 @@
+package enterprises.iwakura.docs.object;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import enterprises.iwakura.docs.util.BoyerMooreSearch.SearchPattern;
+import enterprises.iwakura.docs.util.InvertedIndex;
+import enterprises.iwakura.docs.util.LocaleUtils;
+import enterprises.iwakura.docs.util.StringUtils;
+import enterprises.iwakura.docs.util.TrigramIndex;
+
+/**
+ * Immutable full-text index over all topics of loaded documentations, built when documentations are (re)loaded.
+ * <p>
+ * Every topic within the documentation trees is a <i>node</i>. Every node and each of its
+ * {@link Topic#getLocalizedTopics()} is a <i>variant</i>. Names and contents of all variants are indexed once in
+ * shared {@link InvertedIndex}es, while the per-locale view is a bitmap of variants that are locale-preferred for the
+ * locale type. Searching then costs the number of matching variants instead of the size of all topics' content.
+ * <p>
+ * Names and markdown headings of all variants are also indexed in a {@link TrigramIndex} for ranked fuzzy search, see
+ * {@link #fuzzySearch(String, LocaleType, int)}. Headings require the topics to be parsed, so this index is built on
+ * the first fuzzy search instead of during the reload.
+ * <p>
+ * Topics that were added after the index was built (e.g. lazily loaded Hytale Modding Wiki pages) are not part of the
+ * index, see {@link #getNodeId(Topic)}.
+ */
+public class TopicSearchIndex {
+
+    public static final double MIN_FUZZY_SEARCH_SCORE = 0.8;
+    public static final int MIN_FUZZY_SEARCH_SHORTLIST_SIZE = 50;
+
+    public static final TopicSearchIndex EMPTY = new TopicSearchIndex(
+        new IdentityHashMap<>(), new Topic[0], new int[0][], new Topic[0], new int[0],
+        InvertedIndex.EMPTY, InvertedIndex.EMPTY, new EnumMap<>(LocaleType.class), new BitSet(), topic -> List.of()
+    );
+
+    /**
+     * Node IDs for nodes and their variants
+     */
+    private final Map<Topic, Integer> nodeIds;
+    private final Topic[] nodes;
+    /**
+     * Node IDs of sub-topics for each node
+     */
+    private final int[][] childNodeIds;
+    private final Topic[] variants;
+    private final int[] variantNodeIds;
+    private final InvertedIndex nameIndex;
+    private final InvertedIndex contentIndex;
+    /**
+     * Variants that are locale-preferred for specific locale type
+     */
+    private final Map<LocaleType, BitSet> localeVariants;
+    /**
+     * Variants that are the nodes themselves, used when there's no preferred locale type
+     */
+    private final BitSet nodeVariants;
+    /**
+     * Function resolving the distinct heading texts of a topic, used when building the fuzzy index
+     */
+    private final Function<Topic, List<String>> topicHeadings;
+    /**
+     * Fuzzy index, null until the first fuzzy search
+     */
+    private volatile FuzzyIndex fuzzyIndex;
+
+    private TopicSearchIndex(
+        Map<Topic, Integer> nodeIds,
+        Topic[] nodes,
+        int[][] childNodeIds,
+        Topic[] variants,
+        int[] variantNodeIds,
+        InvertedIndex nameIndex,
+        InvertedIndex contentIndex,
+        Map<LocaleType, BitSet> localeVariants,
+        BitSet nodeVariants,
+        Function<Topic, List<String>> topicHeadings
+    ) {
+        this.nodeIds = nodeIds;
+        this.nodes = nodes;
+        this.childNodeIds = childNodeIds;
+        this.variants = variants;
+        this.variantNodeIds = variantNodeIds;
+        this.nameIndex = nameIndex;
+        this.contentIndex = contentIndex;
+        this.localeVariants = localeVariants;
+        this.nodeVariants = nodeVariants;
+        this.topicHeadings = topicHeadings;
+    }
+
+    /**
+     * Builds the index over all topics within the specified documentations
+     *
+     * @param documentations        Documentations
+     * @param localePreferredTopics Function resolving the locale preferred variant for a node, see
+     *                              {@link enterprises.iwakura.docs.service.DocumentationSearchService#getLocalePreferredTopic(Topic, LocaleType)}
+     * @param topicHeadings         Function resolving the distinct heading texts of a topic, in order of occurrence,
+     *                              called for each variant on the first fuzzy search
+     *
+     * @return Built index
+     */
+    public static TopicSearchIndex build(
+        List<Documentation> documentations,
+        BiFunction<Topic, LocaleType, Topic> localePreferredTopics,
+        Function<Topic, List<String>> topicHeadings
+    ) {
+        var nodeIds = new IdentityHashMap<Topic, Integer>();
+        var nodes = new ArrayList<Topic>();
+        var variants = new ArrayList<Topic>();
+        var variantNodeIds = new ArrayList<Integer>();
+        var variantIds = new IdentityHashMap<Topic, Integer>();
+
+        for (Documentation documentation : documentations) {
+            documentation.getTopics().forEach(topic -> collectNodes(topic, nodes, nodeIds));
+        }
+
+        var nodeVariants = new BitSet();
+        for (int nodeId = 0; nodeId < nodes.size(); nodeId++) {
+            var node = nodes.get(nodeId);
+            nodeVariants.set(variants.size());
+            variantIds.put(node, variants.size());
+            variants.add(node);
+            variantNodeIds.add(nodeId);
+
+            for (Topic localizedTopic : node.getLocalizedTopics()) {
+                if (!variantIds.containsKey(localizedTopic)) {
+                    variantIds.put(localizedTopic, variants.size());
+                    variants.add(localizedTopic);
+                    variantNodeIds.add(nodeId);
+                }
+                nodeIds.putIfAbsent(localizedTopic, nodeId);
+            }
+        }
+
+        var childNodeIds = new int[nodes.size()][];
+        for (int nodeId = 0; nodeId < nodes.size(); nodeId++) {
+            childNodeIds[nodeId] = nodes.get(nodeId).getTopics().stream()
+                .mapToInt(nodeIds::get)
+                .toArray();
+        }
+
+        var localeVariants = new EnumMap<LocaleType, BitSet>(LocaleType.class);
+        for (LocaleType localeType : LocaleType.ALL) {
+            var bitSet = new BitSet(variants.size());
+            for (Topic node : nodes) {
+                var variantId = variantIds.get(localePreferredTopics.apply(node, localeType));
+                if (variantId != null) {
+                    bitSet.set(variantId);
+                }
+            }
+            localeVariants.put(localeType, bitSet);
+        }
+
+        var nameIndexBuilder = InvertedIndex.builder();
+        var contentIndexBuilder = InvertedIndex.builder();
+        for (int variantId = 0; variantId < variants.size(); variantId++) {
+            var additionalTopicData = variants.get(variantId).getAdditionalTopicData();
+            nameIndexBuilder.add(variantId, additionalTopicData.getNormalizedName());
+            contentIndexBuilder.add(variantId, additionalTopicData.getNormalizedMarkdownContent());
+        }
+
+        return new TopicSearchIndex(
+            nodeIds,
+            nodes.toArray(Topic[]::new),
+            childNodeIds,
+            variants.toArray(Topic[]::new),
+            variantNodeIds.stream().mapToInt(Integer::intValue).toArray(),
+            nameIndexBuilder.build(),
+            contentIndexBuilder.build(),
+            localeVariants,
+            nodeVariants,
+            topicHeadings
+        );
+    }
+
+    private static void collectNodes(Topic topic, List<Topic> nodes, Map<Topic, Integer> nodeIds) {
+        if (nodeIds.containsKey(topic)) {
+            return;
+        }
+        nodeIds.put(topic, nodes.size());
+        nodes.add(topic);
+        topic.getTopics().forEach(subTopic -> collectNodes(subTopic, nodes, nodeIds));
+    }
+
+    /**
+     * Returns the node ID for specified topic (node or any of its localized variants)
+     *
+     * @param topic Topic
+     *
+     * @return Node ID or -1 if the topic is not indexed
+     */
+    public int getNodeId(Topic topic) {
+        return nodeIds.getOrDefault(topic, -1);
+    }
+
+    /**
+     * Returns the number of indexed nodes
+     *
+     * @return Number of nodes
+     */
+    public int getNodeCount() {
+        return nodes.length;
+    }
+
+    /**
+     * Returns the number of indexed variants
+     *
+     * @return Number of variants
+     */
+    public int getVariantCount() {
+        return variants.length;
+    }
+
+    /**
+     * Returns the number of distinct indexed terms across names and contents
+     *
+     * @return Number of terms
+     */
+    public int getTermCount() {
+        return nameIndex.getTermCount() + contentIndex.getTermCount();
+    }
+
+    /**
+     * Searches for nodes whose locale-preferred variant's name (or content, if full text search) contains the search
+     * pattern. The result has the same semantics as {@link SearchPattern#containedIn(String)}, as all candidates found
+     * in the index are verified.
+     *
+     * @param searchPattern       Search pattern
+     * @param preferredLocaleType Preferred locale type, nullable
+     * @param fullTextSearch      If the content should be searched too
+     *
+     * @return Matching node IDs or null if the search pattern cannot be answered by the index
+     */
+    public BitSet search(SearchPattern searchPattern, LocaleType preferredLocaleType, boolean fullTextSearch) {
+        var nameCandidates = nameIndex.findCandidates(searchPattern.pattern());
+        if (nameCandidates == null) {
+            return null;
+        }
+
+        var allowedVariants = preferredLocaleType == null ? nodeVariants : localeVariants.get(preferredLocaleType);
+        var matchingNodes = new BitSet(nodes.length);
+
+        nameCandidates.and(allowedVariants);
+        for (int variantId = nameCandidates.nextSetBit(0); variantId >= 0; variantId = nameCandidates.nextSetBit(variantId + 1)) {
+            if (searchPattern.containedIn(variants[variantId].getAdditionalTopicData().getNormalizedName())) {
+                matchingNodes.set(variantNodeIds[variantId]);
+            }
+        }
+
+        if (fullTextSearch) {
+            var contentCandidates = contentIndex.findCandidates(searchPattern.pattern());
+            contentCandidates.and(allowedVariants);
+            for (int variantId = contentCandidates.nextSetBit(0); variantId >= 0; variantId = contentCandidates.nextSetBit(variantId + 1)) {
+                int nodeId = variantNodeIds[variantId];
+                if (!matchingNodes.get(nodeId)
+                    && !nodes[nodeId].isCategory() // Category has no content
+                    && searchPattern.containedIn(variants[variantId].getAdditionalTopicData().getNormalizedMarkdownContent())
+                ) {
+                    matchingNodes.set(nodeId);
+                }
+            }
+        }
+
+        return matchingNodes;
+    }
+
+    /**
+     * Searches for nodes whose locale-preferred variant's name or heading is similar to the query, tolerating typos.
+     * Candidates are shortlisted by shared trigrams and re-ranked by Jaro-Winkler similarity
+     * ({@link StringUtils#getSimilarityScore(String, String)}), each node is returned at most once with its best
+     * matching entry.
+     *
+     * @param normalizedQuery     Normalized query
+     * @param preferredLocaleType Preferred locale type, nullable
+     * @param limit               Maximum number of nodes to return
+     *
+     * @return Matches ordered by descending score
+     */
+    public List<TopicSearchMatch> fuzzySearch(String normalizedQuery, LocaleType preferredLocaleType, int limit) {
+        if (limit <= 0 || normalizedQuery == null || normalizedQuery.isBlank()) {
+            return List.of();
+        }
+
+        var fuzzyIndex = getFuzzyIndex();
+        var allowedVariants = preferredLocaleType == null ? nodeVariants : localeVariants.get(preferredLocaleType);
+        var shortlist = fuzzyIndex.index().shortlist(
+            normalizedQuery,
+            entryId -> allowedVariants.get(fuzzyIndex.entryVariantIds()[entryId]),
+            Math.max(MIN_FUZZY_SEARCH_SHORTLIST_SIZE, limit * 5)
+        );
+
+        var queryTerms = InvertedIndex.tokenize(normalizedQuery);
+        var bestMatches = new HashMap<Integer, TopicSearchMatch>();
+        for (int entryId : shortlist) {
+            double score = computeFuzzyScore(normalizedQuery, queryTerms, fuzzyIndex.entryTexts()[entryId]);
+            var heading = fuzzyIndex.entryHeadings()[entryId];
+            if (heading != null) {
+                score *= 0.95; // Prefer names over headings
+            }
+            if (score < MIN_FUZZY_SEARCH_SCORE) {
+                continue;
+            }
+
+            int variantId = fuzzyIndex.entryVariantIds()[entryId];
+            int nodeId = variantNodeIds[variantId];
+            var bestMatch = bestMatches.get(nodeId);
+            if (bestMatch == null || bestMatch.score() < score) {
+                bestMatches.put(nodeId, new TopicSearchMatch(nodes[nodeId], variants[variantId], heading, score));
+            }
+        }
+
+        return bestMatches.values().stream()
+            .sorted(Comparator.comparingDouble(TopicSearchMatch::score).reversed())
+            .limit(limit)
+            .toList();
+    }
+
+    /**
+     * Returns the fuzzy index, building it on the first call
+     */
+    private FuzzyIndex getFuzzyIndex() {
+        var index = fuzzyIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = fuzzyIndex;
+                if (index == null) {
+                    index = FuzzyIndex.build(variants, topicHeadings);
+                    fuzzyIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Computes similarity of the query and the entry's text. Texts containing the whole query score above all
+     * others, otherwise the better of the whole-text similarity and the average of each query term's best similarity
+     * to any of the text's terms is used.
+     */
+    private static double computeFuzzyScore(String normalizedQuery, List<String> queryTerms, String text) {
+        if (text.contains(normalizedQuery)) {
+            return 1.0 + (double) normalizedQuery.length() / text.length();
+        }
+
+        double score = StringUtils.getSimilarityScore(normalizedQuery, text);
+        var textTerms = InvertedIndex.tokenize(text);
+        if (!queryTerms.isEmpty() && !textTerms.isEmpty()) {
+            double termScoreSum = 0;
+            for (String queryTerm : queryTerms) {
+                double bestTermScore = 0;
+                for (String textTerm : textTerms) {
+                    bestTermScore = Math.max(bestTermScore, StringUtils.getSimilarityScore(queryTerm, textTerm));
+                }
+                termScoreSum += bestTermScore;
+            }
+            score = Math.max(score, termScoreSum / queryTerms.size());
+        }
+        return score;
+    }
+
+    /**
+     * Evaluates which nodes match or have any matching sub-topic (recursively). Walks the forest once.
+     *
+     * @param matchingNodes Matching node IDs, see {@link #search(SearchPattern, LocaleType, boolean)}
+     *
+     * @return Node IDs that match or have any matching sub-topic
+     */
+    public BitSet collectSubtreeMatches(BitSet matchingNodes) {
+        var evaluatedNodes = new BitSet(nodes.length);
+        var subtreeMatches = new BitSet(nodes.length);
+        for (int nodeId = 0; nodeId < nodes.length; nodeId++) {
+            evaluateSubtree(nodeId, matchingNodes, evaluatedNodes, subtreeMatches);
+        }
+        return subtreeMatches;
+    }
+
+    private boolean evaluateSubtree(int nodeId, BitSet matchingNodes, BitSet evaluatedNodes, BitSet subtreeMatches) {
+        if (evaluatedNodes.get(nodeId)) {
+            return subtreeMatches.get(nodeId);
+        }
+        evaluatedNodes.set(nodeId);
+
+        boolean matches = matchingNodes.get(nodeId);
+        for (int childNodeId : childNodeIds[nodeId]) {
+            matches |= evaluateSubtree(childNodeId, matchingNodes, evaluatedNodes, subtreeMatches);
+        }
+        if (matches) {
+            subtreeMatches.set(nodeId);
+        }
+        return matches;
+    }
+
+    /**
+     * Trigram index over fuzzy entries, which are names and headings of variants
+     *
+     * @param index           Trigram index of the entries' normalized texts
+     * @param entryVariantIds Variant ID of each entry
+     * @param entryTexts      Normalized text of each entry
+     * @param entryHeadings   Heading of each entry, null if the entry is the variant's name
+     */
+    private record FuzzyIndex(TrigramIndex index, int[] entryVariantIds, String[] entryTexts, String[] entryHeadings) {
+
+        static FuzzyIndex build(Topic[] variants, Function<Topic, List<String>> topicHeadings) {
+            var indexBuilder = TrigramIndex.builder();
+            var entryVariantIds = new ArrayList<Integer>();
+            var entryTexts = new ArrayList<String>();
+            var entryHeadings = new ArrayList<String>();
+            for (int variantId = 0; variantId < variants.length; variantId++) {
+                var variant = variants[variantId];
+                if (variant.isCategory()) {
+                    continue; // Categories cannot be opened
+                }
+                var normalizedName = variant.getAdditionalTopicData().getNormalizedName();
+                indexBuilder.add(normalizedName);
+                entryVariantIds.add(variantId);
+                entryTexts.add(normalizedName);
+                entryHeadings.add(null);
+
+                for (String heading : topicHeadings.apply(variant)) {
+                    var normalizedHeading = LocaleUtils.normalize(heading);
+                    indexBuilder.add(normalizedHeading);
+                    entryVariantIds.add(variantId);
+                    entryTexts.add(normalizedHeading);
+                    entryHeadings.add(heading);
+                }
+            }
+
+            return new FuzzyIndex(
+                indexBuilder.build(),
+                entryVariantIds.stream().mapToInt(Integer::intValue).toArray(),
+                entryTexts.toArray(String[]::new),
+                entryHeadings.toArray(String[]::new)
+            );
+        }
+    }
+}
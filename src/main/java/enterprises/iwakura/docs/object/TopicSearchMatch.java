@@ -0,0 +1,13 @@
+package enterprises.iwakura.docs.object;
+
+/**
+ * Ranked result of fuzzy topic search, see {@link TopicSearchIndex#fuzzySearch(String, LocaleType, int)}
+ *
+ * @param topic          Topic within the documentation tree
+ * @param localizedTopic Locale preferred variant of the topic that matched
+ * @param heading        Heading within the topic's content that matched, null if the topic's name matched
+ * @param score          Similarity score, higher is better
+ */
+public record TopicSearchMatch(Topic topic, Topic localizedTopic, String heading, double score) {
+
+}
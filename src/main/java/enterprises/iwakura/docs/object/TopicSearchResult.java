@@ -0,0 +1,91 @@
+package enterprises.iwakura.docs.object;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Result of evaluating a topic search query over the whole documentation forest. Computed once per (query, locale
+ * type, full-text search) and read by all renderers of the documentation tree, so each topic is tested with a bit
+ * lookup instead of recursively matching its sub-topics.
+ * <p>
+ * Topics that are not part of the {@link TopicSearchIndex} are matched with the fallback matcher, their results are
+ * memoized as well.
+ */
+public class TopicSearchResult {
+
+    private final TopicSearchIndex index;
+    /**
+     * Matching node IDs, null if the index could not answer the query
+     */
+    private final BitSet matchingNodes;
+    /**
+     * Node IDs matching or having any matching sub-topic, null if the index could not answer the query
+     */
+    private final BitSet subtreeMatchingNodes;
+    private final Predicate<Topic> fallbackMatcher;
+    private final Map<Topic, Boolean> fallbackSubtreeMatches = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    public TopicSearchResult(TopicSearchIndex index, BitSet matchingNodes, Predicate<Topic> fallbackMatcher) {
+        this.index = index;
+        this.matchingNodes = matchingNodes;
+        this.subtreeMatchingNodes = matchingNodes != null ? index.collectSubtreeMatches(matchingNodes) : null;
+        this.fallbackMatcher = fallbackMatcher;
+    }
+
+    /**
+     * Checks if the topic itself matches the search query
+     *
+     * @param topic Topic
+     *
+     * @return True if yes, false otherwise
+     */
+    public boolean matches(Topic topic) {
+        int nodeId = matchingNodes != null ? index.getNodeId(topic) : -1;
+        if (nodeId != -1) {
+            return matchingNodes.get(nodeId);
+        }
+        return fallbackMatcher.test(topic);
+    }
+
+    /**
+     * Checks if the topic or any of its sub-topics (recursively) matches the search query
+     *
+     * @param topic Topic
+     *
+     * @return True if yes, false otherwise
+     */
+    public boolean matchesSubtree(Topic topic) {
+        int nodeId = subtreeMatchingNodes != null ? index.getNodeId(topic) : -1;
+        if (nodeId != -1) {
+            return subtreeMatchingNodes.get(nodeId);
+        }
+
+        var cachedMatch = fallbackSubtreeMatches.get(topic);
+        if (cachedMatch != null) {
+            return cachedMatch;
+        }
+        boolean match = fallbackMatcher.test(topic) || matchesAnySubtree(topic.getTopics());
+        fallbackSubtreeMatches.put(topic, match);
+        return match;
+    }
+
+    /**
+     * Checks if any of the topics or their sub-topics (recursively) matches the search query
+     *
+     * @param topics Topics
+     *
+     * @return True if yes, false otherwise
+     */
+    public boolean matchesAnySubtree(List<Topic> topics) {
+        for (Topic topic : topics) {
+            if (matchesSubtree(topic)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
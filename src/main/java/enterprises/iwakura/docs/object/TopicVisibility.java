@@ -0,0 +1,90 @@
+package enterprises.iwakura.docs.object;
+
+import java.util.BitSet;
+
+import enterprises.iwakura.docs.config.DocsConfig;
+import lombok.Getter;
+
+/**
+ * Visibility of documentations and topics for a set of granted permissions, computed by
+ * {@link TopicVisibilityIndex#computeVisibility(BitSet, DocsConfig)}. Immutable, shared by all players with the same
+ * granted permissions.
+ */
+@Getter
+public class TopicVisibility {
+
+    private final TopicVisibilityIndex index;
+    private final BitSet grantedPermissions;
+    /**
+     * Docs config the visibility was computed with
+     */
+    private final DocsConfig docsConfig;
+    private final BitSet visibleDocumentations;
+    private final BitSet visibleNodes;
+    /**
+     * Nodes that are visible and are either non-category topics or have any such sub-topic
+     */
+    private final BitSet nodesWithVisibleTopic;
+
+    public TopicVisibility(
+        TopicVisibilityIndex index,
+        BitSet grantedPermissions,
+        DocsConfig docsConfig,
+        BitSet visibleDocumentations,
+        BitSet visibleNodes,
+        BitSet nodesWithVisibleTopic
+    ) {
+        this.index = index;
+        this.grantedPermissions = grantedPermissions;
+        this.docsConfig = docsConfig;
+        this.visibleDocumentations = visibleDocumentations;
+        this.visibleNodes = visibleNodes;
+        this.nodesWithVisibleTopic = nodesWithVisibleTopic;
+    }
+
+    /**
+     * Checks whenever the visibility was computed for the specified index, granted permissions and docs config
+     *
+     * @param index              Topic visibility index
+     * @param grantedPermissions Granted permissions
+     * @param docsConfig         Docs config
+     *
+     * @return True if yes, false otherwise
+     */
+    public boolean isComputedFor(TopicVisibilityIndex index, BitSet grantedPermissions, DocsConfig docsConfig) {
+        return this.index == index && this.docsConfig == docsConfig && this.grantedPermissions.equals(grantedPermissions);
+    }
+
+    /**
+     * Checks whenever the documentation is visible
+     *
+     * @param documentationId Documentation ID, see {@link TopicVisibilityIndex#getDocumentationId(Documentation)}
+     *
+     * @return True if yes, false otherwise
+     */
+    public boolean isDocumentationVisible(int documentationId) {
+        return visibleDocumentations.get(documentationId);
+    }
+
+    /**
+     * Checks whenever the node is visible
+     *
+     * @param nodeId Node ID, see {@link TopicVisibilityIndex#getNodeId(Topic)}
+     *
+     * @return True if yes, false otherwise
+     */
+    public boolean isNodeVisible(int nodeId) {
+        return visibleNodes.get(nodeId);
+    }
+
+    /**
+     * Checks whenever the node is visible and is a non-category topic or has any such sub-topic, recursively
+     *
+     * @param nodeId Node ID, see {@link TopicVisibilityIndex#getNodeId(Topic)}
+     *
+     * @return True if yes, false otherwise
+     */
+    public boolean hasVisibleTopic(int nodeId) {
+        return nodesWithVisibleTopic.get(nodeId);
+    }
+}
@@ -0,0 +1,307 @@
+package enterprises.iwakura.docs.object;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import enterprises.iwakura.docs.config.DocsConfig;
+
+/**
+ * Immutable flattened numbering of documentations, topics and their required permissions, built when documentations
+ * are (re)loaded.
+ * <p>
+ * Visibility of a topic depends only on the documentation, the docs config and on which of the required permissions
+ * the player has. Because of that, {@link TopicVisibility} is computed once for a set of granted permissions (see
+ * {@link #getPermissions()}) and can be shared by all players having the same set.
+ * <p>
+ * Topics that were added after the index was built (e.g. lazily loaded Hytale Modding Wiki pages) are not part of the
+ * index, see {@link #getNodeId(Topic)}.
+ */
+public class TopicVisibilityIndex {
+
+    private static final AtomicLong GENERATION_COUNTER = new AtomicLong();
+
+    public static final TopicVisibilityIndex EMPTY = build(List.of());
+
+    private final long generation;
+    private final Map<Documentation, Integer> documentationIds;
+    private final Documentation[] documentations;
+    private final int[][] documentationPermissionIds;
+    /**
+     * Node IDs for topics within the documentation trees (localized variants are not nodes)
+     */
+    private final Map<Topic, Integer> nodeIds;
+    private final Topic[] nodes;
+    private final int[][] childNodeIds;
+    /**
+     * Documentation ID of each node, -1 if the node has no documentation
+     */
+    private final int[] nodeDocumentationIds;
+    private final int[][] nodePermissionIds;
+    private final List<String> permissions;
+
+    private TopicVisibilityIndex(
+        Map<Documentation, Integer> documentationIds,
+        Documentation[] documentations,
+        int[][] documentationPermissionIds,
+        Map<Topic, Integer> nodeIds,
+        Topic[] nodes,
+        int[][] childNodeIds,
+        int[] nodeDocumentationIds,
+        int[][] nodePermissionIds,
+        List<String> permissions
+    ) {
+        this.generation = GENERATION_COUNTER.incrementAndGet();
+        this.documentationIds = documentationIds;
+        this.documentations = documentations;
+        this.documentationPermissionIds = documentationPermissionIds;
+        this.nodeIds = nodeIds;
+        this.nodes = nodes;
+        this.childNodeIds = childNodeIds;
+        this.nodeDocumentationIds = nodeDocumentationIds;
+        this.nodePermissionIds = nodePermissionIds;
+        this.permissions = permissions;
+    }
+
+    /**
+     * Builds the index over all documentations and their topics
+     *
+     * @param documentations Documentations
+     *
+     * @return Built index
+     */
+    public static TopicVisibilityIndex build(List<Documentation> documentations) {
+        var documentationIds = new IdentityHashMap<Documentation, Integer>();
+        var nodeIds = new IdentityHashMap<Topic, Integer>();
+        var nodes = new ArrayList<Topic>();
+        var permissionIds = new HashMap<String, Integer>();
+        var permissions = new ArrayList<String>();
+
+        for (Documentation documentation : documentations) {
+            documentationIds.putIfAbsent(documentation, documentationIds.size());
+            documentation.getTopics().forEach(topic -> collectNodes(topic, nodes, nodeIds));
+        }
+
+        var documentationArray = new Documentation[documentationIds.size()];
+        documentationIds.forEach((documentation, documentationId) -> documentationArray[documentationId] = documentation);
+        var documentationPermissionIds = new int[documentationArray.length][];
+        for (int documentationId = 0; documentationId < documentationArray.length; documentationId++) {
+            documentationPermissionIds[documentationId] = numberPermissions(
+                documentationArray[documentationId].getRequiredPermissions(), permissionIds, permissions
+            );
+        }
+
+        var childNodeIds = new int[nodes.size()][];
+        var nodeDocumentationIds = new int[nodes.size()];
+        var nodePermissionIds = new int[nodes.size()][];
+        for (int nodeId = 0; nodeId < nodes.size(); nodeId++) {
+            var node = nodes.get(nodeId);
+            childNodeIds[nodeId] = node.getTopics().stream()
+                .mapToInt(nodeIds::get)
+                .toArray();
+            nodeDocumentationIds[nodeId] = node.getDocumentation() != null
+                ? documentationIds.getOrDefault(node.getDocumentation(), -1)
+                : -1;
+            nodePermissionIds[nodeId] = numberPermissions(node.getRequiredPermissions(), permissionIds, permissions);
+        }
+
+        return new TopicVisibilityIndex(
+            documentationIds,
+            documentationArray,
+            documentationPermissionIds,
+            nodeIds,
+            nodes.toArray(Topic[]::new),
+            childNodeIds,
+            nodeDocumentationIds,
+            nodePermissionIds,
+            List.copyOf(permissions)
+        );
+    }
+
+    private static void collectNodes(Topic topic, List<Topic> nodes, Map<Topic, Integer> nodeIds) {
+        if (nodeIds.containsKey(topic)) {
+            return;
+        }
+        nodeIds.put(topic, nodes.size());
+        nodes.add(topic);
+        topic.getTopics().forEach(subTopic -> collectNodes(subTopic, nodes, nodeIds));
+    }
+
+    private static int[] numberPermissions(
+        List<String> requiredPermissions,
+        Map<String, Integer> permissionIds,
+        List<String> permissions
+    ) {
+        return requiredPermissions.stream()
+            .mapToInt(permission -> permissionIds.computeIfAbsent(permission, key -> {
+                permissions.add(key);
+                return permissions.size() - 1;
+            }))
+            .distinct()
+            .toArray();
+    }
+
+    /**
+     * Returns the reload generation of this index. Each built index has a unique, increasing generation.
+     *
+     * @return Generation
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns all distinct permissions required by indexed documentations and topics. The bit {@code i} of granted
+     * permissions passed to {@link #computeVisibility(BitSet, DocsConfig)} corresponds to the {@code i}-th permission.
+     *
+     * @return Unmodifiable list of permissions
+     */
+    public List<String> getPermissions() {
+        return permissions;
+    }
+
+    /**
+     * Returns the documentation ID for specified documentation
+     *
+     * @param documentation Documentation
+     *
+     * @return Documentation ID or -1 if the documentation is not indexed
+     */
+    public int getDocumentationId(Documentation documentation) {
+        return documentationIds.getOrDefault(documentation, -1);
+    }
+
+    /**
+     * Returns the node ID for specified topic. Localized variants are not nodes.
+     *
+     * @param topic Topic
+     *
+     * @return Node ID or -1 if the topic is not indexed
+     */
+    public int getNodeId(Topic topic) {
+        return nodeIds.getOrDefault(topic, -1);
+    }
+
+    /**
+     * Returns the node for specified node ID
+     *
+     * @param nodeId Node ID
+     *
+     * @return Topic
+     */
+    public Topic getNode(int nodeId) {
+        return nodes[nodeId];
+    }
+
+    /**
+     * Returns node IDs of sub-topics of the specified node
+     *
+     * @param nodeId Node ID
+     *
+     * @return Node IDs of sub-topics, must not be modified
+     */
+    public int[] getChildNodeIds(int nodeId) {
+        return childNodeIds[nodeId];
+    }
+
+    /**
+     * Returns the number of indexed nodes
+     *
+     * @return Number of nodes
+     */
+    public int getNodeCount() {
+        return nodes.length;
+    }
+
+    /**
+     * Computes visibility of all indexed documentations and topics for the set of granted permissions
+     *
+     * @param grantedPermissions Granted permissions, see {@link #getPermissions()}
+     * @param docsConfig         Docs config with disabled documentations and topics
+     *
+     * @return Topic visibility
+     */
+    public TopicVisibility computeVisibility(BitSet grantedPermissions, DocsConfig docsConfig) {
+        var disabledDocumentations = docsConfig.getDisabledDocumentations();
+        var disabledTopics = docsConfig.getParsedDisabledTopicIdentifiers();
+
+        var visibleDocumentations = new BitSet(documentations.length);
+        for (int documentationId = 0; documentationId < documentations.length; documentationId++) {
+            var documentation = documentations[documentationId];
+            if (disabledDocumentations.contains(documentation.getGroup() + ":" + documentation.getId())
+                || disabledDocumentations.contains(documentation.getGroup())
+                || disabledDocumentations.contains(documentation.getId())
+            ) {
+                continue;
+            }
+            if (hasAllPermissions(documentationPermissionIds[documentationId], grantedPermissions)) {
+                visibleDocumentations.set(documentationId);
+            }
+        }
+
+        var visibleNodes = new BitSet(nodes.length);
+        for (int nodeId = 0; nodeId < nodes.length; nodeId++) {
+            var node = nodes[nodeId];
+            int documentationId = nodeDocumentationIds[nodeId];
+            if (documentationId != -1 && !visibleDocumentations.get(documentationId)) {
+                continue;
+            }
+            if (!disabledTopics.isEmpty()) {
+                var topicIdentifier = node.getAdditionalTopicData().getTopicIdentifier();
+                if (disabledTopics.stream().anyMatch(disabledTopic -> disabledTopic.matches(topicIdentifier))) {
+                    continue;
+                }
+            }
+            if (hasAllPermissions(nodePermissionIds[nodeId], grantedPermissions)) {
+                visibleNodes.set(nodeId);
+            }
+        }
+
+        var evaluatedNodes = new BitSet(nodes.length);
+        var nodesWithVisibleTopic = new BitSet(nodes.length);
+        for (int nodeId = 0; nodeId < nodes.length; nodeId++) {
+            evaluateVisibleTopic(nodeId, visibleNodes, evaluatedNodes, nodesWithVisibleTopic);
+        }
+
+        return new TopicVisibility(this, grantedPermissions, docsConfig, visibleDocumentations, visibleNodes, nodesWithVisibleTopic);
+    }
+
+    private static boolean hasAllPermissions(int[] permissionIds, BitSet grantedPermissions) {
+        for (int permissionId : permissionIds) {
+            if (!grantedPermissions.get(permissionId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Evaluates whenever the node is visible and is either a non-category topic or has any such sub-topic (the same as
+     * {@code findFirstTopic} finding a topic)
+     */
+    private boolean evaluateVisibleTopic(int nodeId, BitSet visibleNodes, BitSet evaluatedNodes, BitSet nodesWithVisibleTopic) {
+        if (evaluatedNodes.get(nodeId)) {
+            return nodesWithVisibleTopic.get(nodeId);
+        }
+        evaluatedNodes.set(nodeId);
+
+        boolean hasVisibleTopic = false;
+        if (visibleNodes.get(nodeId)) {
+            if (!nodes[nodeId].isCategory()) {
+                hasVisibleTopic = true;
+            } else {
+                for (int childNodeId : childNodeIds[nodeId]) {
+                    hasVisibleTopic |= evaluateVisibleTopic(childNodeId, visibleNodes, evaluatedNodes, nodesWithVisibleTopic);
+                }
+            }
+        }
+        if (hasVisibleTopic) {
+            nodesWithVisibleTopic.set(nodeId);
+        }
+        return hasVisibleTopic;
+    }
+}
@@ -0,0 +1,156 @@
+package enterprises.iwakura.docs.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import enterprises.iwakura.docs.object.DocsContext;
+import enterprises.iwakura.docs.object.Documentation;
+import enterprises.iwakura.docs.object.InterfaceState;
+import enterprises.iwakura.docs.object.Topic;
+import enterprises.iwakura.docs.ui.render.TopicContentRenderer;
+import enterprises.iwakura.docs.util.Logger;
+import enterprises.iwakura.sigewine.core.annotations.Bean;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Fills render caches after documentations are (re)loaded, so the first player opening a topic does not have to
+ * parse and render it. Topics are warmed up in the background on a bounded {@link ForkJoinPool}.
+ */
+@Bean
+@RequiredArgsConstructor
+public class CacheWarmUpService {
+
+    private final ConfigurationService configurationService;
+    private final MarkdownService markdownService;
+    private final TopicContentRenderer topicContentRenderer;
+    private final Logger logger;
+
+    /**
+     * Currently running warm-up, null if there's none
+     */
+    private WarmUp runningWarmUp;
+
+    /**
+     * Starts warming up the caches for topics of the documentations, cancelling the previous warm-up if it is still
+     * running. Only as many topics as the caches can hold are warmed up, in the order they are shown in.
+     *
+     * @param documentations Documentations
+     */
+    public synchronized void warmUp(List<Documentation> documentations) {
+        cancel();
+
+        var docsConfig = configurationService.getDocsConfig();
+        if (!docsConfig.isWarmUpCachesAfterReload()) {
+            return;
+        }
+
+        var topics = new ArrayList<Topic>();
+        int maxTopics = Math.min(MarkdownService.MAX_PARSED_TOPIC_DOCUMENTS, TopicContentRenderer.MAX_RENDERED_TOPIC_CONTENTS);
+        for (Documentation documentation : documentations) {
+            collectTopics(documentation.getTopics(), topics, maxTopics);
+        }
+
+        if (topics.isEmpty()) {
+            return;
+        }
+
+        int parallelism = Math.max(1, Math.min(docsConfig.getWarmUpParallelism(), Runtime.getRuntime().availableProcessors()));
+        var warmUp = new WarmUp(topics, parallelism);
+        runningWarmUp = warmUp;
+        warmUp.start();
+    }
+
+    /**
+     * Cancels the running warm-up, if any. Topics that are being warmed up are finished.
+     */
+    public synchronized void cancel() {
+        if (runningWarmUp != null) {
+            runningWarmUp.cancel();
+            runningWarmUp = null;
+        }
+    }
+
+    private void collectTopics(List<Topic> topics, List<Topic> output, int maxTopics) {
+        for (Topic topic : topics) {
+            if (output.size() >= maxTopics) {
+                return;
+            }
+            output.add(topic);
+            for (Topic localizedTopic : topic.getLocalizedTopics()) {
+                if (output.size() < maxTopics) {
+                    output.add(localizedTopic);
+                }
+            }
+            collectTopics(topic.getTopics(), output, maxTopics);
+        }
+    }
+
+    private void warmUpTopic(Topic topic) {
+        // Parses the markdown into the cache, so the chapter tree and topic content reuse it
+        if (markdownService.parseTopicMarkdown(topic, true) == null) {
+            return;
+        }
+        // Image slots are resolved per player, so only the player independent part is rendered
+        topicContentRenderer.renderChunked(DocsContext.of(null, new InterfaceState()), topic);
+    }
+
+    /**
+     * Single warm-up of the topics
+     */
+    private class WarmUp {
+
+        private final List<Topic> topics;
+        private final ForkJoinPool pool;
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private final AtomicInteger warmedUpTopics = new AtomicInteger();
+
+        WarmUp(List<Topic> topics, int parallelism) {
+            this.topics = topics;
+            this.pool = new ForkJoinPool(parallelism, pool -> {
+                var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("Voile-Cache-Warm-Up-" + thread.getPoolIndex());
+                thread.setDaemon(true);
+                return thread;
+            }, null, false);
+        }
+
+        void start() {
+            logger.info("Warming up render caches for %d topics with parallelism of %d...".formatted(topics.size(), pool.getParallelism()));
+            long start = System.nanoTime();
+            int progressStep = Math.max(1, topics.size() / 4);
+
+            pool.execute(() -> {
+                topics.parallelStream().forEach(topic -> {
+                    if (cancelled.get()) {
+                        return;
+                    }
+                    try {
+                        warmUpTopic(topic);
+                    } catch (Exception exception) {
+                        logger.warn("Failed to warm up render caches for topic %s: %s".formatted(topic.getTopicIdentifier(), exception));
+                    }
+                    int warmedUp = warmedUpTopics.incrementAndGet();
+                    if (warmedUp % progressStep == 0 && warmedUp < topics.size()) {
+                        logger.info("Warmed up %d/%d topics".formatted(warmedUp, topics.size()));
+                    }
+                });
+
+                long tookMillis = (System.nanoTime() - start) / 1_000_000;
+                if (cancelled.get()) {
+                    logger.info("Render cache warm-up was cancelled after %d/%d topics (took %d ms)".formatted(warmedUpTopics.get(), topics.size(), tookMillis));
+                } else {
+                    logger.info("Warmed up render caches for %d topics (took %d ms)".formatted(topics.size(), tookMillis));
+                }
+                pool.shutdown();
+            });
+        }
+
+        void cancel() {
+            cancelled.set(true);
+            pool.shutdown();
+        }
+    }
+}
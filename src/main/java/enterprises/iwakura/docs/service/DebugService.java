@@ -17,6 +17,8 @@ import enterprises.iwakura.docs.object.CacheIndex;
 import enterprises.iwakura.docs.object.Documentation;
 import enterprises.iwakura.docs.object.DocumentationType;
 import enterprises.iwakura.docs.object.Topic;
+import enterprises.iwakura.docs.ui.render.DocumentationTreeRenderer;
+import enterprises.iwakura.docs.ui.render.TopicContentRenderer;
 import enterprises.iwakura.sigewine.core.annotations.Bean;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -38,6 +40,12 @@ public class DebugService {
     private final ServerService serverService;
     private final ConfigurationService configurationService;
     private final DocumentationService documentationService;
+    private final MarkdownService markdownService;
+    private final TopicContentRenderer topicContentRenderer;
+    private final DocumentationTreeRenderer documentationTreeRenderer;
+    private final ValidatorService validatorService;
+    private final RenderSchedulerService renderSchedulerService;
+    private final ImageService imageService;
 
     public void init() {
         installedPluginsMap.putAll(PluginManager.get().getPlugins().stream()
@@ -87,7 +95,58 @@ public class DebugService {
 
         content.append("# RuntimeImageAssertService\n");
         content.append("Size: ").append(RuntimeImageAssetService.getRUNTIME_IMAGE_ASSET_MAP().size()).append("\n");
+        content.append("Indexed Paths: ").append(RuntimeImageAssetService.getRUNTIME_IMAGE_ASSET_PATH_INDEX().size()).append("\n");
+        content.append("Variants: ").append(RuntimeImageAssetService.getRUNTIME_IMAGE_ASSET_VARIANT_INDEX().size()).append("\n");
         content.append("Players: ").append(RuntimeImageAssetService.getPLAYER_RUNTIME_IMAGE_ASSETS_MAP().size()).append("\n");
+        content.append("Players Waiting For Downloads: ").append(RuntimeImageAssetService.getPLAYER_PENDING_DOWNLOADS_MAP().size()).append("\n");
+        content.append("\n");
+
+        content.append("# ImageService\n");
+        content.append("Cached Image Sizes: ").append(imageService.getCommonAssetImageSizeCount()).append("\n");
+        content.append("Hits: ").append(imageService.getCommonAssetImageSizeHits()).append("\n");
+        content.append("Misses: ").append(imageService.getCommonAssetImageSizeMisses()).append("\n");
+        content.append("Stripped Images: ").append(imageService.getOptimizedImages()).append("\n");
+        content.append("Saved Bytes: ").append(imageService.getOptimizedImageSavedBytes()).append("\n");
+        content.append("Converted Images: ").append(imageService.getConvertedImages()).append("\n");
+        content.append("Downloads: ").append(imageService.getDownloadCount()).append("\n");
+        content.append("\n");
+
+        content.append("# MarkdownService\n");
+        content.append("Parsed Topic Documents: ").append(markdownService.getParsedTopicDocumentCount()).append("\n");
+        content.append("Hits: ").append(markdownService.getParsedTopicDocumentHits()).append("\n");
+        content.append("Misses: ").append(markdownService.getParsedTopicDocumentMisses()).append("\n");
+        content.append("\n");
+
+        content.append("# TopicContentRenderer\n");
+        content.append("Rendered Topic Contents: ").append(topicContentRenderer.getRenderedTopicContentCount()).append("\n");
+        content.append("Hits: ").append(topicContentRenderer.getRenderedTopicContentHits()).append("\n");
+        content.append("Misses: ").append(topicContentRenderer.getRenderedTopicContentMisses()).append("\n");
+        content.append("\n");
+
+        content.append("# DocumentationTreeRenderer\n");
+        content.append("Rendered Documentation Trees: ").append(documentationTreeRenderer.getRenderedDocumentationTreeCount()).append("\n");
+        content.append("Hits: ").append(documentationTreeRenderer.getRenderedDocumentationTreeHits()).append("\n");
+        content.append("Misses: ").append(documentationTreeRenderer.getRenderedDocumentationTreeMisses()).append("\n");
+        content.append("\n");
+
+        content.append("# ValidatorService\n");
+        content.append("Validated UI Fragments: ").append(validatorService.getValidatedFragmentCount()).append("\n");
+        content.append("Hits: ").append(validatorService.getValidatedFragmentHits()).append("\n");
+        content.append("Misses: ").append(validatorService.getValidatedFragmentMisses()).append("\n");
+        content.append("Validation Dumps: ").append(validatorService.getValidationDumpCount()).append("\n");
+        content.append("Compressed Bytes: ").append(validatorService.getValidationDumpCompressedBytes()).append("\n");
+        content.append("Uncompressed Bytes: ").append(validatorService.getValidationDumpUncompressedBytes()).append("\n");
+        content.append("\n");
+
+        content.append("# RenderSchedulerService\n");
+        content.append("Running Renders: ").append(renderSchedulerService.getRunningRenders()).append("\n");
+        content.append("Queued Renders: ").append(renderSchedulerService.getQueuedRenders()).append("\n");
+        content.append("Peak Queued Renders: ").append(renderSchedulerService.getPeakQueuedRenders()).append("\n");
+        content.append("Rendering Players: ").append(renderSchedulerService.getRenderingPlayers()).append("\n");
+        content.append("Submitted: ").append(renderSchedulerService.getSubmittedRenders()).append("\n");
+        content.append("Completed: ").append(renderSchedulerService.getCompletedRenders()).append("\n");
+        content.append("Superseded: ").append(renderSchedulerService.getSupersededRenders()).append("\n");
+        content.append("Shed: ").append(renderSchedulerService.getShedRenders()).append("\n");
         content.append("\n");
 
         content.append("=== Voile Configuration ===\n");
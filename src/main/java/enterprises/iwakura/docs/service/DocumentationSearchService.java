@@ -1,8 +1,17 @@
 package enterprises.iwakura.docs.service;
 
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import com.hypixel.hytale.server.core.permissions.PermissionsModule;
@@ -11,7 +20,14 @@ import com.hypixel.hytale.server.core.universe.PlayerRef;
 import enterprises.iwakura.docs.object.Documentation;
 import enterprises.iwakura.docs.object.InterfaceMode;
 import enterprises.iwakura.docs.object.LocaleType;
+import enterprises.iwakura.docs.object.LocalizedTopicTree;
 import enterprises.iwakura.docs.object.Topic;
+import enterprises.iwakura.docs.object.TopicLookupIndex;
+import enterprises.iwakura.docs.object.TopicSearchIndex;
+import enterprises.iwakura.docs.object.TopicSearchMatch;
+import enterprises.iwakura.docs.object.TopicSearchResult;
+import enterprises.iwakura.docs.object.TopicVisibility;
+import enterprises.iwakura.docs.object.TopicVisibilityIndex;
 import enterprises.iwakura.docs.util.BoyerMooreSearch.SearchPattern;
 import enterprises.iwakura.docs.util.Logger;
 import enterprises.iwakura.sigewine.core.annotations.Bean;
@@ -26,9 +42,238 @@ import lombok.RequiredArgsConstructor;
 public class DocumentationSearchService {
 
     public static final Pattern TOPIC_IDENTIFIER_PATTERN = Pattern.compile("^(?:([^:$]+):(?:([^:$]+):)?)?([^:$]+)(?:\\$([^:$]+))?$");
+    public static final int MAX_CACHED_SEARCH_RESULTS = 64;
+    public static final int MAX_SHARED_TOPIC_VISIBILITIES = 256;
 
     private final Logger logger;
     private final ConfigurationService configurationService;
+    private final MarkdownService markdownService;
+
+    /**
+     * Full-text index over loaded documentations, replaced on each reload
+     */
+    private volatile TopicSearchIndex topicSearchIndex = TopicSearchIndex.EMPTY;
+    /**
+     * Topic identifier lookup index over loaded documentations, replaced on each reload
+     */
+    private volatile TopicLookupIndex topicLookupIndex = TopicLookupIndex.EMPTY;
+    /**
+     * Flattened numbering of documentations and topics for visibility checks, replaced on each reload
+     */
+    private volatile TopicVisibilityIndex topicVisibilityIndex = TopicVisibilityIndex.EMPTY;
+    /**
+     * Topic tree without preferred locale type, replaced on each reload
+     */
+    private volatile LocalizedTopicTree primaryTopicTree = LocalizedTopicTree.EMPTY;
+    /**
+     * Topic trees projected for each locale type, replaced on each reload
+     */
+    private volatile Map<LocaleType, LocalizedTopicTree> localizedTopicTrees = new EnumMap<>(LocaleType.class);
+    /**
+     * Last computed topic visibility for each player
+     */
+    private final Map<UUID, TopicVisibility> topicVisibilities = new ConcurrentHashMap<>();
+    /**
+     * Computed topic visibilities keyed by granted permissions, so players with the same permissions share them
+     */
+    private final Map<BitSet, TopicVisibility> sharedTopicVisibilities = new ConcurrentHashMap<>();
+    /**
+     * Last documentation list that topics were looked up in. Callers usually pass the same list instance repeatedly.
+     */
+    private volatile DocumentationSet lastDocumentationSet;
+    /**
+     * Recently evaluated search queries, so players typing the same query share the evaluation.
+     */
+    private final Map<SearchQuery, TopicSearchResult> searchResults = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SearchQuery, TopicSearchResult> eldest) {
+                return size() > MAX_CACHED_SEARCH_RESULTS;
+            }
+        }
+    );
+
+    /**
+     * Rebuilds the full-text search index for the specified documentations
+     *
+     * @param documentations Documentations
+     */
+    public void rebuildSearchIndex(List<Documentation> documentations) {
+        long start = System.currentTimeMillis();
+        var index = TopicSearchIndex.build(documentations, this::getLocalePreferredTopic, this::extractHeadingTexts);
+        topicSearchIndex = index;
+        searchResults.clear();
+        logger.info("Built search index with %d topics (%d variants, %d terms) in %d ms".formatted(
+            index.getNodeCount(), index.getVariantCount(), index.getTermCount(), System.currentTimeMillis() - start
+        ));
+    }
+
+    /**
+     * Extracts distinct texts of the topic's markdown headings, the same headings that are shown in the topic's chapter
+     * tree. Called for all topics on the first fuzzy search after the reload, see {@link TopicSearchIndex}.
+     *
+     * @param topic Topic
+     *
+     * @return Heading texts, in order of occurrence
+     */
+    private List<String> extractHeadingTexts(Topic topic) {
+        // Reuses documents parsed by the warm-up or players, others are parsed w/o caching, so parsing all topics
+        // does not evict the recently opened ones
+        var node = markdownService.getParsedTopicDocument(topic);
+        if (node == null) {
+            node = markdownService.parseMarkdown(topic.getMarkdownContent(), true);
+        }
+        if (node == null) {
+            return List.of();
+        }
+        return markdownService.extractHeadings(node).stream()
+            .map(markdownService::extractText)
+            .filter(text -> !text.isBlank())
+            .distinct()
+            .toList();
+    }
+
+    /**
+     * Rebuilds the topic identifier lookup index for the specified documentations
+     *
+     * @param documentations Documentations
+     */
+    public void rebuildTopicLookupIndex(List<Documentation> documentations) {
+        long start = System.currentTimeMillis();
+        // Same order in which documentations are shown and searched thru
+        var sortedDocumentations = documentations.stream()
+            .sorted(DocumentationService.DOCUMENTATION_ORDER)
+            .toList();
+        topicLookupIndex = TopicLookupIndex.build(sortedDocumentations, this::getLocalePreferredTopic, logger);
+        logger.info("Built topic lookup index for %d documentations in %d ms".formatted(
+            sortedDocumentations.size(), System.currentTimeMillis() - start
+        ));
+    }
+
+    /**
+     * Rebuilds the topic visibility index and the per-locale topic trees for the specified documentations,
+     * invalidating all computed visibilities
+     *
+     * @param documentations Documentations
+     */
+    public void rebuildTopicVisibilityIndex(List<Documentation> documentations) {
+        long start = System.currentTimeMillis();
+        var index = TopicVisibilityIndex.build(documentations);
+        var primaryTree = LocalizedTopicTree.build(documentations, null, index, this::getLocalePreferredTopic, null);
+        var trees = new EnumMap<LocaleType, LocalizedTopicTree>(LocaleType.class);
+        for (LocaleType localeType : LocaleType.ALL) {
+            trees.put(localeType, LocalizedTopicTree.build(documentations, localeType, index, this::getLocalePreferredTopic, primaryTree));
+        }
+
+        topicVisibilityIndex = index;
+        primaryTopicTree = primaryTree;
+        localizedTopicTrees = trees;
+        clearTopicVisibilities();
+        logger.info("Built topic visibility index (generation %d) and %d locale topic trees with %d topics and %d distinct permissions in %d ms".formatted(
+            index.getGeneration(), trees.size(), index.getNodeCount(), index.getPermissions().size(), System.currentTimeMillis() - start
+        ));
+    }
+
+    /**
+     * Returns the topics of the documentation projected for the locale type, so each node already holds the locale
+     * preferred variant of its topic (see {@link #getLocalePreferredTopic(Topic, LocaleType)}).
+     *
+     * @param documentation Documentation
+     * @param localeType    Preferred locale type, nullable
+     *
+     * @return Unmodifiable list of nodes
+     */
+    public List<LocalizedTopicTree.Node> getLocalizedTopics(Documentation documentation, LocaleType localeType) {
+        var tree = localeType == null ? primaryTopicTree : localizedTopicTrees.getOrDefault(localeType, LocalizedTopicTree.EMPTY);
+        var topics = tree.getTopics(documentation);
+        if (topics == null) {
+            // Documentations that are not part of the tree or whose topics have changed are projected directly
+            topics = LocalizedTopicTree.project(documentation.getTopics(), localeType, topicVisibilityIndex, this::getLocalePreferredTopic, null);
+        }
+        return topics;
+    }
+
+    /**
+     * Checks whenever the documentation's topics are projected in the topic trees built on the last reload, so the
+     * visibility of all its topics is described by {@link TopicVisibility} without checking player's permissions
+     * directly
+     *
+     * @param documentation Documentation
+     * @param localeType    Preferred locale type, nullable
+     *
+     * @return True if yes, false otherwise (e.g. the documentation was registered or its topics were replaced after
+     * the reload)
+     */
+    public boolean hasIndexedLocalizedTopics(Documentation documentation, LocaleType localeType) {
+        var tree = localeType == null ? primaryTopicTree : localizedTopicTrees.getOrDefault(localeType, LocalizedTopicTree.EMPTY);
+        return tree.getTopics(documentation) != null;
+    }
+
+    /**
+     * Clears all computed topic visibilities
+     */
+    public void clearTopicVisibilities() {
+        topicVisibilities.clear();
+        sharedTopicVisibilities.clear();
+    }
+
+    /**
+     * Clears computed topic visibility for the specified player (e.g. when the player disconnects)
+     *
+     * @param playerUuid Player's UUID
+     */
+    public void clearTopicVisibility(UUID playerUuid) {
+        topicVisibilities.remove(playerUuid);
+    }
+
+    /**
+     * Returns the visibility of documentations and topics for the player. The player's granted permissions are
+     * checked on each invocation (only the distinct permissions that documentations and topics require), so the
+     * cached visibility is recomputed whenever the player's permissions, the docs config or loaded documentations
+     * change.
+     *
+     * @param playerRef Player reference
+     *
+     * @return Topic visibility
+     */
+    public TopicVisibility getTopicVisibility(PlayerRef playerRef) {
+        var index = topicVisibilityIndex;
+        var docsConfig = configurationService.getDocsConfig();
+        var grantedPermissions = new BitSet(index.getPermissions().size());
+        var permissions = index.getPermissions();
+        for (int permissionId = 0; permissionId < permissions.size(); permissionId++) {
+            if (PermissionsModule.get().hasPermission(playerRef.getUuid(), permissions.get(permissionId))) {
+                grantedPermissions.set(permissionId);
+            }
+        }
+
+        var topicVisibility = topicVisibilities.get(playerRef.getUuid());
+        if (topicVisibility == null || !topicVisibility.isComputedFor(index, grantedPermissions, docsConfig)) {
+            topicVisibility = sharedTopicVisibilities.get(grantedPermissions);
+            if (topicVisibility == null || !topicVisibility.isComputedFor(index, grantedPermissions, docsConfig)) {
+                topicVisibility = index.computeVisibility(grantedPermissions, docsConfig);
+                if (sharedTopicVisibilities.size() >= MAX_SHARED_TOPIC_VISIBILITIES) {
+                    sharedTopicVisibilities.clear();
+                }
+                sharedTopicVisibilities.put(grantedPermissions, topicVisibility);
+            }
+            topicVisibilities.put(playerRef.getUuid(), topicVisibility);
+        }
+        return topicVisibility;
+    }
+
+    /**
+     * Refreshes the topic identifier lookup index if the specified documentation is indexed. Should be invoked when
+     * topics of already loaded documentation change (e.g. when Hytale Modding Wiki pages are loaded).
+     *
+     * @param documentation Documentation whose topics have changed
+     */
+    public void refreshTopicLookupIndex(Documentation documentation) {
+        var index = topicLookupIndex;
+        if (index.isIndexedInstance(documentation)) {
+            topicLookupIndex = TopicLookupIndex.build(index.getDocumentations(), this::getLocalePreferredTopic, logger);
+        }
+    }
 
     /**
      * Finds a topic based on a colon-separated identifier string.
@@ -64,20 +309,21 @@ public class DocumentationSearchService {
             return Optional.empty();
         }
 
-        var matcher = TOPIC_IDENTIFIER_PATTERN.matcher(topicIdentifier);
+        var optionalTopicIdentifier = topicLookupIndex.parseTopicIdentifier(topicIdentifier);
 
-        if (!matcher.find()) {
+        if (optionalTopicIdentifier.isEmpty()) {
             return Optional.empty();
         }
 
-        String documentationGroup = Optional.ofNullable(matcher.group(1))
+        var parsedTopicIdentifier = optionalTopicIdentifier.get();
+        String documentationGroup = Optional.ofNullable(parsedTopicIdentifier.getDocumentationGroup())
             .or(() -> Optional.ofNullable(preferredDocumentation).map(Documentation::getGroup))
             .orElse(null);
-        String documentationId = Optional.ofNullable(matcher.group(2))
+        String documentationId = Optional.ofNullable(parsedTopicIdentifier.getDocumentationId())
             .or(() -> Optional.ofNullable(preferredDocumentation).map(Documentation::getId))
             .orElse(null);
-        String topicId = matcher.group(3); // Always non-null, because of matcher.find()
-        LocaleType localeType = Optional.ofNullable(matcher.group(4)).map(LocaleType::byCode)
+        String topicId = parsedTopicIdentifier.getTopicId();
+        LocaleType localeType = Optional.ofNullable(parsedTopicIdentifier.getLocaleType())
             .or(() -> Optional.ofNullable(preferredLocaleType))
             .orElse(LocaleType.ENGLISH);
 
@@ -133,25 +379,88 @@ public class DocumentationSearchService {
             logger.warn("topicId cannot be null when invoking #findTopic()!");
             return Optional.empty();
         }
-        return documentations.stream()
-            .filter(documentation -> {
-                if (documentationGroupOrId) {
-                    return (documentationGroup == null || documentation.getGroup().equals(documentationGroup)
-                        || documentationGroup.equals(documentationId))
-                        && (documentationId == null || documentation.getId().equals(documentationId)
-                        || documentation.getGroup().equals(documentationGroup));
-                } else {
-                    return (documentationGroup == null || documentation.getGroup().equals(documentationGroup))
-                        && (documentationId == null || documentation.getId().equals(documentationId));
-                }
-            })
+        var index = topicLookupIndex;
+        var documentationSet = getDocumentationSet(index, documentations);
+        var topicVisibility = getTopicVisibility(playerRef);
+
+        List<TopicLookupIndex.Entry> entries;
+        if (!documentationGroupOrId && documentationGroup != null && documentationId != null) {
+            entries = Optional.ofNullable(index.get(documentationGroup, documentationId, topicId))
+                .map(List::of)
+                .orElse(List.of());
+        } else {
+            entries = index.getByTopicId(topicId);
+        }
+
+        for (TopicLookupIndex.Entry entry : entries) {
+            if (documentationSet.documentations().contains(entry.documentation())
+                && matchesDocumentation(entry.documentation(), documentationGroup, documentationId, documentationGroupOrId)
+                && canSeeTopic(playerRef, topicVisibility, entry.topic())
+            ) {
+                return Optional.of(entry.getLocalePreferredTopic(preferredLocaleType));
+            }
+        }
+
+        // Documentations that are not indexed (e.g. registered after the reload) are searched thru directly
+        return documentationSet.unindexedDocumentations().stream()
+            .filter(documentation -> matchesDocumentation(documentation, documentationGroup, documentationId, documentationGroupOrId))
             .map(documentation -> documentation.findTopicById(topicId).orElse(null))
             .filter(Objects::nonNull)
-            .filter(topic -> canSeeTopic(playerRef, topic))
+            .filter(topic -> canSeeTopic(playerRef, topicVisibility, topic))
             .map(topic -> getLocalePreferredTopic(topic, preferredLocaleType))
             .findFirst();
     }
 
+    /**
+     * Checks whenever the documentation matches the documentation group and ID of a topic identifier
+     *
+     * @param documentation          Documentation
+     * @param documentationGroup     Optional documentation group
+     * @param documentationId        Optional documentation ID
+     * @param documentationGroupOrId If search should be done loosely on documentation group / id
+     *
+     * @return True if yes, false otherwise
+     */
+    private boolean matchesDocumentation(
+        Documentation documentation,
+        String documentationGroup,
+        String documentationId,
+        boolean documentationGroupOrId
+    ) {
+        if (documentationGroupOrId) {
+            return (documentationGroup == null || documentation.getGroup().equals(documentationGroup)
+                || documentationGroup.equals(documentationId))
+                && (documentationId == null || documentation.getId().equals(documentationId)
+                || documentation.getGroup().equals(documentationGroup));
+        } else {
+            return (documentationGroup == null || documentation.getGroup().equals(documentationGroup))
+                && (documentationId == null || documentation.getId().equals(documentationId));
+        }
+    }
+
+    /**
+     * Returns {@link DocumentationSet} for the specified documentation list, reusing the last one if the list and
+     * the index are the same
+     *
+     * @param index          Topic lookup index
+     * @param documentations Documentations
+     *
+     * @return Documentation set
+     */
+    private DocumentationSet getDocumentationSet(TopicLookupIndex index, List<Documentation> documentations) {
+        var documentationSet = lastDocumentationSet;
+        if (documentationSet == null || documentationSet.list() != documentations || documentationSet.index() != index) {
+            documentationSet = new DocumentationSet(
+                index,
+                documentations,
+                Set.copyOf(documentations),
+                documentations.stream().filter(documentation -> !index.isIndexed(documentation)).toList()
+            );
+            lastDocumentationSet = documentationSet;
+        }
+        return documentationSet;
+    }
+
     /**
      * Finds the default topic based on configuration, fallbacks to first visible topic for the player.
      * @param playerRef Player reference
@@ -177,9 +486,10 @@ public class DocumentationSearchService {
         }
 
         // First found topic
+        var topicVisibility = getTopicVisibility(playerRef);
         for (Documentation documentation : documentations) {
-            if (canSeeDocumentation(playerRef, documentation)) {
-                Optional<Topic> firstTopic = findFirstTopic(playerRef, documentation.getTopics());
+            if (canSeeDocumentation(playerRef, topicVisibility, documentation)) {
+                Optional<Topic> firstTopic = findFirstTopic(playerRef, topicVisibility, documentation.getTopics());
                 if (firstTopic.isPresent()) {
                     return firstTopic;
                 }
@@ -191,16 +501,26 @@ public class DocumentationSearchService {
     /**
      * Finds first visible non-category topic in list of topics for the player
      * @param playerRef Player reference
+     * @param topicVisibility Player's topic visibility
      * @param topics Topics
      * @return Optional of topic
      */
-    private Optional<Topic> findFirstTopic(PlayerRef playerRef, List<Topic> topics) {
+    private Optional<Topic> findFirstTopic(PlayerRef playerRef, TopicVisibility topicVisibility, List<Topic> topics) {
+        var index = topicVisibility.getIndex();
         for (Topic topic : topics) {
-            if (canSeeTopic(playerRef, topic)) {
+            int nodeId = index.getNodeId(topic);
+            if (nodeId != -1) {
+                if (topicVisibility.hasVisibleTopic(nodeId)) {
+                    var firstTopic = findFirstTopic(topicVisibility, nodeId);
+                    if (firstTopic.isPresent()) {
+                        return firstTopic;
+                    }
+                }
+            } else if (canSeeTopic(playerRef, topicVisibility, topic)) {
                 if (!topic.isCategory()) {
                     return Optional.of(topic);
                 } else {
-                    var optionalSubTopic = findFirstTopic(playerRef, topic.getTopics());
+                    var optionalSubTopic = findFirstTopic(playerRef, topicVisibility, topic.getTopics());
                     if (optionalSubTopic.isPresent()) {
                         return optionalSubTopic;
                     }
@@ -211,17 +531,48 @@ public class DocumentationSearchService {
         return Optional.empty();
     }
 
+    /**
+     * Finds first visible non-category topic within the node, only descending into sub-topics that have one
+     * @param topicVisibility Player's topic visibility
+     * @param nodeId Node ID that {@link TopicVisibility#hasVisibleTopic(int)}
+     * @return Optional of topic, empty if a category on the way has no child with a visible topic
+     */
+    private Optional<Topic> findFirstTopic(TopicVisibility topicVisibility, int nodeId) {
+        var index = topicVisibility.getIndex();
+        while (index.getNode(nodeId).isCategory()) {
+            int visibleChildNodeId = -1;
+            for (int childNodeId : index.getChildNodeIds(nodeId)) {
+                if (topicVisibility.hasVisibleTopic(childNodeId)) {
+                    visibleChildNodeId = childNodeId;
+                    break;
+                }
+            }
+            if (visibleChildNodeId == -1) {
+                return Optional.empty();
+            }
+            nodeId = visibleChildNodeId;
+        }
+        return Optional.of(index.getNode(nodeId));
+    }
+
     /**
      * Determines whenever the player can see the specified topic
      *
-     * @param playerRef Player reference
-     * @param topic     Topic
+     * @param playerRef       Player reference
+     * @param topicVisibility Player's topic visibility
+     * @param topic           Topic
      *
      * @return True if yes, false otherwise
      */
-    private boolean canSeeTopic(PlayerRef playerRef, Topic topic) {
+    private boolean canSeeTopic(PlayerRef playerRef, TopicVisibility topicVisibility, Topic topic) {
+        int nodeId = topicVisibility.getIndex().getNodeId(topic);
+        if (nodeId != -1) {
+            return topicVisibility.isNodeVisible(nodeId);
+        }
+
+        // Topics that are not indexed (e.g. added after the reload) are evaluated directly
         var disabledTopics = configurationService.getDocsConfig().getParsedDisabledTopicIdentifiers();
-        if (topic.getDocumentation() != null && !canSeeDocumentation(playerRef, topic.getDocumentation())) {
+        if (topic.getDocumentation() != null && !canSeeDocumentation(playerRef, topicVisibility, topic.getDocumentation())) {
             return false;
         }
         if (disabledTopics.stream().anyMatch(topicIdentifier -> topicIdentifier.matches(topic.getAdditionalTopicData().getTopicIdentifier()))) {
@@ -242,6 +593,25 @@ public class DocumentationSearchService {
      * @return True if yes, false otherwise
      */
     public boolean canSeeDocumentation(PlayerRef playerRef, Documentation documentation) {
+        return canSeeDocumentation(playerRef, getTopicVisibility(playerRef), documentation);
+    }
+
+    /**
+     * Determines whenever the player can see the specified documentation
+     *
+     * @param playerRef       Player ref
+     * @param topicVisibility Player's topic visibility, see {@link #getTopicVisibility(PlayerRef)}
+     * @param documentation   Documentation
+     *
+     * @return True if yes, false otherwise
+     */
+    public boolean canSeeDocumentation(PlayerRef playerRef, TopicVisibility topicVisibility, Documentation documentation) {
+        int documentationId = topicVisibility.getIndex().getDocumentationId(documentation);
+        if (documentationId != -1) {
+            return topicVisibility.isDocumentationVisible(documentationId);
+        }
+
+        // Documentations that are not indexed (e.g. registered after the reload) are evaluated directly
         var disabledDocumentations = configurationService.getDocsConfig().getDisabledDocumentations();
         if (disabledDocumentations.contains(documentation.getGroup() + ":" + documentation.getId())
             || disabledDocumentations.contains(documentation.getGroup())
@@ -264,7 +634,121 @@ public class DocumentationSearchService {
      * @return True if yes, false otherwise
      */
     public boolean canSeeAnyTopic(PlayerRef playerRef, List<Topic> topics) {
-        return findFirstTopic(playerRef, topics).isPresent();
+        return canSeeAnyTopic(playerRef, getTopicVisibility(playerRef), topics);
+    }
+
+    /**
+     * Determines whenever the player can see any topic within the specified topics (and its sub-topics, recursively)
+     *
+     * @param playerRef       Player reference
+     * @param topicVisibility Player's topic visibility, see {@link #getTopicVisibility(PlayerRef)}
+     * @param topics          Topics
+     *
+     * @return True if yes, false otherwise
+     */
+    public boolean canSeeAnyTopic(PlayerRef playerRef, TopicVisibility topicVisibility, List<Topic> topics) {
+        return findFirstTopic(playerRef, topicVisibility, topics).isPresent();
+    }
+
+    /**
+     * Determines whenever the player can see the specified projected topic or any of its sub-topics (recursively)
+     *
+     * @param playerRef       Player reference
+     * @param topicVisibility Player's topic visibility, see {@link #getTopicVisibility(PlayerRef)}
+     * @param node            Projected topic, see {@link #getLocalizedTopics(Documentation, LocaleType)}
+     *
+     * @return True if yes, false otherwise
+     */
+    public boolean canSeeAnyTopic(PlayerRef playerRef, TopicVisibility topicVisibility, LocalizedTopicTree.Node node) {
+        var index = topicVisibility.getIndex();
+        int nodeId = node.nodeId();
+        if (nodeId != -1 && nodeId < index.getNodeCount() && index.getNode(nodeId) == node.topic()) {
+            return topicVisibility.hasVisibleTopic(nodeId);
+        }
+        return canSeeAnyTopic(playerRef, topicVisibility, node.topic());
+    }
+
+    /**
+     * Determines whenever the player can see the specified topic or any of its sub-topics (recursively)
+     *
+     * @param playerRef       Player reference
+     * @param topicVisibility Player's topic visibility, see {@link #getTopicVisibility(PlayerRef)}
+     * @param topic           Topic
+     *
+     * @return True if yes, false otherwise
+     */
+    public boolean canSeeAnyTopic(PlayerRef playerRef, TopicVisibility topicVisibility, Topic topic) {
+        int nodeId = topicVisibility.getIndex().getNodeId(topic);
+        if (nodeId != -1) {
+            return topicVisibility.hasVisibleTopic(nodeId);
+        }
+        return canSeeAnyTopic(playerRef, topicVisibility, List.of(topic));
+    }
+
+    /**
+     * Evaluates the search query over all loaded topics. The result is computed once per (query, locale type,
+     * full-text search) and cached for recent queries.
+     *
+     * @param searchPattern       Topic search pattern
+     * @param preferredLocaleType Preferred topic locale type to search in
+     * @param fullTextSearch      If search should be done on the topic's content
+     *
+     * @return Search result
+     */
+    public TopicSearchResult evaluateSearch(
+        SearchPattern searchPattern,
+        LocaleType preferredLocaleType,
+        boolean fullTextSearch
+    ) {
+        var index = topicSearchIndex;
+        var searchQuery = new SearchQuery(index, searchPattern.pattern(), preferredLocaleType, fullTextSearch);
+        var searchResult = searchResults.get(searchQuery);
+        if (searchResult == null) {
+            searchResult = new TopicSearchResult(
+                index,
+                index.search(searchPattern, preferredLocaleType, fullTextSearch),
+                topic -> matchesTopicNameSearch(topic, searchPattern, preferredLocaleType)
+                    || (fullTextSearch && matchesTopicContentSearch(topic, searchPattern, preferredLocaleType))
+            );
+            searchResults.put(searchQuery, searchResult);
+        }
+        return searchResult;
+    }
+
+    /**
+     * Finds topics whose name or heading is similar to the search query (tolerating typos), ranked by similarity.
+     * Only topics visible to the player within the specified documentations are returned.
+     *
+     * @param playerRef           Player reference
+     * @param topicVisibility     Player's topic visibility, see {@link #getTopicVisibility(PlayerRef)}
+     * @param documentations      Documentations to search in
+     * @param searchPattern       Topic search pattern
+     * @param preferredLocaleType Preferred topic locale type to search in
+     * @param limit               Maximum number of topics to return
+     *
+     * @return Matches ordered by descending similarity
+     */
+    public List<TopicSearchMatch> findRankedTopics(
+        PlayerRef playerRef,
+        TopicVisibility topicVisibility,
+        List<Documentation> documentations,
+        SearchPattern searchPattern,
+        LocaleType preferredLocaleType,
+        int limit
+    ) {
+        if (limit <= 0) {
+            return List.of();
+        }
+
+        var searchedDocumentations = Collections.newSetFromMap(new IdentityHashMap<Documentation, Boolean>());
+        searchedDocumentations.addAll(documentations);
+
+        // Some of the matches may be hidden from the player
+        return topicSearchIndex.fuzzySearch(searchPattern.pattern(), preferredLocaleType, limit * 4).stream()
+            .filter(match -> searchedDocumentations.contains(match.topic().getDocumentation()))
+            .filter(match -> canSeeTopic(playerRef, topicVisibility, match.topic()))
+            .limit(limit)
+            .toList();
     }
 
     /**
@@ -283,7 +767,7 @@ public class DocumentationSearchService {
         LocaleType preferredLocaleType,
         boolean fullTextSearch
     ) {
-        return documentation.getTopics().stream().anyMatch(topic -> searchTopic(topic, searchPattern, preferredLocaleType, fullTextSearch));
+        return evaluateSearch(searchPattern, preferredLocaleType, fullTextSearch).matchesAnySubtree(documentation.getTopics());
     }
 
     /**
@@ -302,13 +786,7 @@ public class DocumentationSearchService {
         LocaleType preferredLocaleType,
         boolean fullTextSearch
     ) {
-        if (matchesTopicNameSearch(topic, searchPattern, preferredLocaleType)
-                || (fullTextSearch && matchesTopicContentSearch(topic, searchPattern, preferredLocaleType))
-        ) {
-            return true;
-        } else {
-            return topic.getTopics().stream().anyMatch(subTopic -> searchTopic(subTopic, searchPattern, preferredLocaleType, fullTextSearch));
-        }
+        return evaluateSearch(searchPattern, preferredLocaleType, fullTextSearch).matchesSubtree(topic);
     }
 
     /**
@@ -394,8 +872,38 @@ public class DocumentationSearchService {
      * @return List of available interface modes
      */
     public List<InterfaceMode> getAvailableInterfaceModes(PlayerRef playerRef, List<Documentation> documentations) {
+        var topicVisibility = getTopicVisibility(playerRef);
         return configurationService.getDocsConfig().getAvailableInterfaceModes().stream()
-            .filter(interfaceMode -> documentations.stream().anyMatch(documentation -> interfaceMode.has(documentation.getType()) && canSeeDocumentation(playerRef, documentation)))
+            .filter(interfaceMode -> documentations.stream().anyMatch(documentation -> interfaceMode.has(documentation.getType()) && canSeeDocumentation(playerRef, topicVisibility, documentation)))
             .toList();
     }
+
+    /**
+     * Key for cached search results
+     *
+     * @param index               Index the result was computed with
+     * @param pattern             Normalized search pattern
+     * @param preferredLocaleType Preferred locale type
+     * @param fullTextSearch      Full text search
+     */
+    private record SearchQuery(TopicSearchIndex index, String pattern, LocaleType preferredLocaleType, boolean fullTextSearch) {
+
+    }
+
+    /**
+     * Documentation list prepared for topic lookups
+     *
+     * @param index                    Index the set was prepared for
+     * @param list                     Original documentation list
+     * @param documentations           Documentations from the list
+     * @param unindexedDocumentations  Documentations from the list that are not indexed
+     */
+    private record DocumentationSet(
+        TopicLookupIndex index,
+        List<Documentation> list,
+        Set<Documentation> documentations,
+        List<Documentation> unindexedDocumentations
+    ) {
+
+    }
 }
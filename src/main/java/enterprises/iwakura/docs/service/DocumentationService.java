@@ -36,9 +36,17 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class DocumentationService {
 
+    /**
+     * Order in which documentations are shown
+     */
+    public static final Comparator<Documentation> DOCUMENTATION_ORDER = Comparator.comparing((Documentation doc) -> doc.getType().ordinal())
+        .thenComparing(Documentation::getSortIndex, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparing(Documentation::getName);
+
     private final DocumentationSearchService documentationSearchService;
     private final ConfigurationService configurationService;
     private final MarkdownService markdownService;
+    private final CacheWarmUpService cacheWarmUpService;
     private final Gson gson;
     private final Logger logger;
     private final DocsPlugin plugin;
@@ -114,10 +122,12 @@ public class DocumentationService {
     }
 
     /**
-     * Clears all loaded documentations and loads them again with registered documentation loaders
+     * Clears all loaded documentations and loads them again with registered documentation loaders. Render caches are
+     * warmed up in the background afterward, see {@link CacheWarmUpService}.
      */
     public void reloadDocumentations() {
         logger.info("Reloading documentations from %d loaders".formatted(documentationLoaders.size()));
+        cacheWarmUpService.cancel();
         loadedDocumentations.clear();
 
         var loaderContext = new LoaderContext(logger, gson, markdownService, configurationService);
@@ -146,6 +156,13 @@ public class DocumentationService {
         logger.info("Calculating the number of translated topics for all locale types...");
         numberOfTranslatedTopicsForLocaleType.clear();
         loadedDocumentations.forEach(documentation -> documentation.getTopics().forEach(this::sumLocalizedTopics));
+
+        logger.info("Building search index...");
+        documentationSearchService.rebuildSearchIndex(loadedDocumentations);
+        documentationSearchService.rebuildTopicLookupIndex(loadedDocumentations);
+        documentationSearchService.rebuildTopicVisibilityIndex(loadedDocumentations);
+        markdownService.clearParsedTopicDocuments();
+        cacheWarmUpService.warmUp(getEnabledDocumentations());
     }
 
     /**
@@ -203,9 +220,7 @@ public class DocumentationService {
     public List<Documentation> getDocumentations(List<DocumentationType> documentationTypes) {
         return loadedDocumentations.stream()
             .filter(documentation -> documentationTypes.contains(documentation.getType()))
-            .sorted(Comparator.comparing((Documentation doc) -> doc.getType().ordinal())
-                .thenComparing(Documentation::getSortIndex, Comparator.nullsLast(Comparator.naturalOrder()))
-                .thenComparing(Documentation::getName))
+            .sorted(DOCUMENTATION_ORDER)
             .toList();
     }
 }
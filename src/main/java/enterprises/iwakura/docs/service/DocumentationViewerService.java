@@ -2,20 +2,21 @@ package enterprises.iwakura.docs.service;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.jspecify.annotations.NonNull;
 
 import com.hypixel.hytale.component.Holder;
 import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.component.Store;
-import com.hypixel.hytale.logger.HytaleLogger;
 import com.hypixel.hytale.protocol.packets.interface_.Page;
 import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
@@ -25,6 +26,7 @@ import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import enterprises.iwakura.docs.components.Components;
 import enterprises.iwakura.docs.config.DocsConfig;
 import enterprises.iwakura.docs.object.DocsContext;
+import enterprises.iwakura.docs.object.Documentation;
 import enterprises.iwakura.docs.object.InterfaceMode;
 import enterprises.iwakura.docs.components.InterfacePreferencesComponent;
 import enterprises.iwakura.docs.object.InterfaceState;
@@ -34,7 +36,10 @@ import enterprises.iwakura.docs.object.Topic;
 import enterprises.iwakura.docs.ui.AboutVoilePage;
 import enterprises.iwakura.docs.ui.DocumentationViewerPage;
 import enterprises.iwakura.docs.ui.DocumentationViewerPage.PageData;
+import enterprises.iwakura.docs.ui.DocumentationViewerPage.PageData.InterfaceAction;
+import enterprises.iwakura.docs.ui.DocumentationViewerPage.RenderKind;
 import enterprises.iwakura.docs.ui.LocaleTypeSelectorPage;
+import enterprises.iwakura.docs.ui.render.DocumentationRenderer;
 import enterprises.iwakura.docs.ui.render.DocumentationTreeRenderer;
 import enterprises.iwakura.docs.ui.render.DocumentationViewerRenderer;
 import enterprises.iwakura.docs.ui.render.DocumentationViewerRenderer.RenderData;
@@ -52,12 +57,14 @@ import lombok.SneakyThrows;
 public class DocumentationViewerService {
 
     private static final Map<UUID, InterfacePreferencesComponent> lastInterfacePreferencesForPlayer = Collections.synchronizedMap(new HashMap<>());
-    private static final Executor RENDER_EXECUTOR = Executors.newCachedThreadPool(r -> {
-        Thread thread = new Thread(r);
-        thread.setUncaughtExceptionHandler((t, e) -> {
-            HytaleLogger.get("Voile-Render").atSevere().withCause(e).log("Exception occurred in the render thread!");
-            SentryService.captureException(e);
-        });
+    private static final Map<UUID, DocumentationViewerPage> openedPageForPlayer = Collections.synchronizedMap(new HashMap<>());
+    /**
+     * Key of renders opening the interface, see {@link RenderSchedulerService#submit(UUID, String, Runnable)}
+     */
+    private static final String OPEN_RENDER_KEY = "OPEN";
+    private static final ScheduledExecutorService SEARCH_DEBOUNCE_EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "Voile-Search-Debounce");
+        thread.setDaemon(true);
         return thread;
     });
 
@@ -72,6 +79,7 @@ public class DocumentationViewerService {
     private final TopicChapterTreeRenderer topicChapterTreeRenderer;
     private final RuntimeImageAssetService runtimeImageAssetService;
     private final DebugService debugService;
+    private final RenderSchedulerService renderSchedulerService;
     private final Logger logger;
 
     /**
@@ -135,6 +143,7 @@ public class DocumentationViewerService {
         }
 
         var interfaceState = new InterfaceState(documentations, topicToOpen.get());
+        interfaceState.setTreeNodeExpanded(DocumentationRenderer.getNodeKey(topicToOpen.get().getDocumentation()), true);
         switchToInterfaceMode.ifPresent(interfaceState::setInterfaceMode);
         return openFor(playerRef, DocsContext.of(playerRef, interfaceState));
     }
@@ -156,7 +165,6 @@ public class DocumentationViewerService {
         docsContext.getInterfaceState().loadFromPreferences(interfacePreferences);
         docsContext.getInterfaceState().setFullTextSearch(docsConfig.isEnableFullTextSearch() && docsContext.getInterfaceState().isFullTextSearch());
 
-        var docsContextRendered = DocsContext.of(docsContext);
         var ref = playerRef.getReference();
 
         if (ref == null) {
@@ -174,14 +182,12 @@ public class DocumentationViewerService {
 
         var future = new CompletableFuture<Boolean>();
 
-        RENDER_EXECUTOR.execute(() -> {
-            String ui;
-
+        renderSchedulerService.submit(playerRef.getUuid(), OPEN_RENDER_KEY, () -> {
             docsContext.getTopic().invokeOpenedCallback(docsContext);
 
-            try {
-                ui = documentationViewerRenderer.render(docsContextRendered, new RenderData(docsContext.getDocumentations(), docsContext.getTopic()));
-                docsContext.getCommandBuilder().appendInline(DocumentationViewerPage.MAIN_CONTENT_SELECTOR, ui);
+            try (var docsContextRendered = docsContext.openSegment()) {
+                var ui = documentationViewerRenderer.render(docsContextRendered, new RenderData(docsContext.getDocumentations(), docsContext.getTopic()));
+                docsContextRendered.commitAfter(commandBuilder -> commandBuilder.appendInline(DocumentationViewerPage.MAIN_CONTENT_SELECTOR, ui));
             } catch (Exception exception) {
                 logger.error("Failed to render DocumentationViewer!", exception);
                 ChatInfo.ERROR.send(playerRef, "Failed to render Docs interface. See console for more information.");
@@ -189,8 +195,6 @@ public class DocumentationViewerService {
                 return;
             }
 
-            docsContextRendered.mergeInto(docsContext);
-
             if (!validatorService.validateUI(playerRef, docsContext, docsContext.getCommandBuilder())) {
                 ChatInfo.ERROR.send(playerRef, "The generated UI for Docs is invalid. See console for more information.");
                 future.complete(false);
@@ -198,13 +202,32 @@ public class DocumentationViewerService {
             }
 
             runtimeImageAssetService.sendPendingAssets(playerRef);
-            player.getPageManager().openCustomPage(ref, store, new DocumentationViewerPage(playerRef, this, logger, docsContext));
+            var page = new DocumentationViewerPage(playerRef, this, logger, docsContext);
+            // Results of renders for the replaced page must not be sent to the new one
+            var previousPage = openedPageForPlayer.put(playerRef.getUuid(), page);
+            if (previousPage != null) {
+                previousPage.supersedeRenders();
+            }
+            player.getPageManager().openCustomPage(ref, store, page);
+            replaceTopicContentWhenDownloaded(player, page, docsContext, page.nextRenderSequence(RenderKind.TOPIC_CONTENT));
             future.complete(true);
-        });
+        }, () -> future.complete(false));
 
         return future;
     }
 
+    /**
+     * Supersedes renders of the player's opened page and forgets it
+     *
+     * @param playerUuid Player UUID
+     */
+    public void clearOpenedPage(UUID playerUuid) {
+        var page = openedPageForPlayer.remove(playerUuid);
+        if (page != null) {
+            page.supersedeRenders();
+        }
+    }
+
     /**
      * Replaces the topic content for page
      *
@@ -223,7 +246,16 @@ public class DocumentationViewerService {
         var ref = playerRef.getReference();
         var store = ref.getStore();
 
-        RENDER_EXECUTOR.execute(() -> {
+        // The tree is rendered with the topic content, so pending and in-flight tree renders are not needed anymore
+        page.nextRenderSequence(RenderKind.DOCUMENTATION_TREE);
+        page.setPendingDocumentationTreeRender(null);
+        long topicContentSequence = page.nextRenderSequence(RenderKind.TOPIC_CONTENT);
+
+        renderSchedulerService.submit(playerRef.getUuid(), RenderKind.TOPIC_CONTENT.name(), () -> {
+            if (!page.isLatestRender(RenderKind.TOPIC_CONTENT, topicContentSequence)) {
+                return;
+            }
+
             // Sve docs context to interface preferences, incl. currently open topic
             var interfacePreferences = getInterfacePreferences(playerRef, context.getInterfaceState());
             context.getInterfaceState().saveToPreferences(interfacePreferences);
@@ -231,7 +263,7 @@ public class DocumentationViewerService {
             context.getTopic().invokeOpenedCallback(context);
 
             documentationTreeRenderer.clearAndAppendInline(context, context.getDocumentations());
-            topicRenderer.clearAndAppendInline(context, context.getTopic());
+            var topicContent = topicRenderer.clearAndAppendFirstChunkInline(context, context.getTopic());
             topicChapterTreeRenderer.clearAndAppendInline(context, context.getTopic());
             context.getCommandBuilder().set("#ContainerTitleGroup[0].Text", "Voile // " + context.getTopic().getName());
 
@@ -246,12 +278,67 @@ public class DocumentationViewerService {
             // The pending assets will be cached, so it won't be re-loading them.
             if (runtimeImageAssetService.hasPendingAssets(playerRef)) {
                 player.getWorld().execute(() -> openFor(playerRef, DocsContext.of(context)));
-            } else {
-                page.updateWithContext(context, false);
+                return;
             }
+            if (!page.updateWithContextIfLatest(RenderKind.TOPIC_CONTENT, context, topicContentSequence)) {
+                return;
+            }
+
+            // Rest of the topic is sent after its start is already shown
+            for (int i = 1; i < topicContent.getChunkCount(); i++) {
+                if (!page.isLatestRender(RenderKind.TOPIC_CONTENT, topicContentSequence)) {
+                    return;
+                }
+
+                var chunkContext = DocsContext.of(context);
+                topicRenderer.appendChunkInline(chunkContext, topicContent, i);
+
+                if (!validatorService.validateUI(playerRef, chunkContext, chunkContext.getCommandBuilder())) {
+                    ChatInfo.ERROR.send(playerRef, "The generated UI for Docs is invalid. See console for more information.");
+                    player.getPageManager().setPage(ref, store, Page.None);
+                    return;
+                }
+
+                if (runtimeImageAssetService.hasPendingAssets(playerRef)) {
+                    player.getWorld().execute(() -> openFor(playerRef, DocsContext.of(context)));
+                    return;
+                }
+                page.appendWithContextIfLatest(RenderKind.TOPIC_CONTENT, chunkContext, topicContentSequence);
+            }
+
+            replaceTopicContentWhenDownloaded(player, page, context, topicContentSequence);
         });
     }
 
+    /**
+     * Replaces the topic content once the images that were rendered as placeholders are downloaded, unless the player
+     * has opened another page or topic since
+     *
+     * @param player               Player
+     * @param page                 Page
+     * @param context              Context the topic content was rendered with
+     * @param topicContentSequence Sequence of the topic content render
+     */
+    private void replaceTopicContentWhenDownloaded(
+        Player player,
+        DocumentationViewerPage page,
+        DocsContext context,
+        long topicContentSequence
+    ) {
+        var playerRef = page.getPlayerRef();
+        var pendingDownloads = runtimeImageAssetService.takePendingDownloads(playerRef);
+        if (pendingDownloads == null) {
+            return;
+        }
+
+        pendingDownloads.thenRun(() -> player.getWorld().execute(() -> {
+            if (openedPageForPlayer.get(playerRef.getUuid()) == page
+                && page.isLatestRender(RenderKind.TOPIC_CONTENT, topicContentSequence)) {
+                replaceTopicContent(page, DocsContext.of(context));
+            }
+        }));
+    }
+
     /**
      * Opens about voile page
      *
@@ -297,27 +384,78 @@ public class DocumentationViewerService {
      * @param context Context
      */
     public void updateDocumentationTree(DocumentationViewerPage page, DocsContext context) {
-        var playerRef = page.getPlayerRef();
         var player = page.getPlayer();
 
         if (player == null) {
             return;
         }
 
+        long sequence = page.nextRenderSequence(RenderKind.DOCUMENTATION_TREE);
+        page.setPendingDocumentationTreeRender(null);
+        renderSchedulerService.submit(page.getPlayerRef().getUuid(), RenderKind.DOCUMENTATION_TREE.name(), () -> renderDocumentationTree(page, player, context, sequence));
+    }
+
+    /**
+     * Updates the documentation tree with the search results once the search debounce window passes, so only the last
+     * of quickly typed queries is rendered. Any newer documentation tree update supersedes this one, whether it is still
+     * waiting or already rendering.
+     *
+     * @param page    Page
+     * @param context Context
+     */
+    public void searchDocumentationTree(DocumentationViewerPage page, DocsContext context) {
+        var player = page.getPlayer();
+
+        if (player == null) {
+            return;
+        }
+
+        long sequence = page.nextRenderSequence(RenderKind.DOCUMENTATION_TREE);
+        long debounceMillis = configurationService.getDocsConfig().getSearchDebounceMillis();
+
+        if (debounceMillis <= 0) {
+            page.setPendingDocumentationTreeRender(null);
+            renderSchedulerService.submit(page.getPlayerRef().getUuid(), RenderKind.DOCUMENTATION_TREE.name(), () -> renderDocumentationTree(page, player, context, sequence));
+            return;
+        }
+
+        page.setPendingDocumentationTreeRender(SEARCH_DEBOUNCE_EXECUTOR.schedule(() -> {
+            if (page.isLatestRender(RenderKind.DOCUMENTATION_TREE, sequence)) {
+                renderSchedulerService.submit(page.getPlayerRef().getUuid(), RenderKind.DOCUMENTATION_TREE.name(), () -> renderDocumentationTree(page, player, context, sequence));
+            }
+        }, debounceMillis, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Renders the documentation tree and sends it to the player, unless the render gets superseded
+     *
+     * @param page     Page
+     * @param player   Player
+     * @param context  Context
+     * @param sequence Sequence of the render, see {@link DocumentationViewerPage#nextRenderSequence(RenderKind)}
+     */
+    private void renderDocumentationTree(DocumentationViewerPage page, Player player, DocsContext context, long sequence) {
+        if (!page.isLatestRender(RenderKind.DOCUMENTATION_TREE, sequence)) {
+            return;
+        }
+
+        var playerRef = page.getPlayerRef();
         var ref = playerRef.getReference();
         var store = ref.getStore();
 
-        RENDER_EXECUTOR.execute(() -> {
-            documentationTreeRenderer.clearAndAppendInline(context, context.getDocumentations());
+        documentationTreeRenderer.clearAndAppendInline(context, context.getDocumentations());
 
-            if (!validatorService.validateUI(playerRef, context, context.getCommandBuilder())) {
-                ChatInfo.ERROR.send(playerRef, "The generated UI for Docs is invalid. See console for more information.");
-                player.getPageManager().setPage(ref, store, Page.None);
-                return;
-            }
+        if (!page.isLatestRender(RenderKind.DOCUMENTATION_TREE, sequence)) {
+            return;
+        }
 
-            page.updateWithContext(context, false);
-        });
+        if (!validatorService.validateUI(playerRef, context, context.getCommandBuilder())) {
+            ChatInfo.ERROR.send(playerRef, "The generated UI for Docs is invalid. See console for more information.");
+            player.getPageManager().setPage(ref, store, Page.None);
+            return;
+        }
+
+        page.updateWithContextIfLatest(RenderKind.DOCUMENTATION_TREE, context, sequence);
     }
 
     /**
@@ -357,6 +495,7 @@ public class DocumentationViewerService {
                 if (nextMode != null) {
                     var updatedDocsContext = DocsContext.of(docsContext);
                     state.setInterfaceMode(nextMode);
+                    state.setDocumentationTreeLimit(0);
                     getInterfacePreferences(page.getPlayerRef(), state).setLastInterfaceMode(nextMode);
                     updateDocumentationTree(page, updatedDocsContext);
                 }
@@ -390,7 +529,7 @@ public class DocumentationViewerService {
                     var updatedDocsContext = DocsContext.of(docsContext);
                     state.setTopicSearchQuery(data.getTopicSearchQuery());
                     getInterfacePreferences(page.getPlayerRef(), state).setLastTopicSearchQuery(data.getTopicSearchQuery());
-                    updateDocumentationTree(page, updatedDocsContext);
+                    searchDocumentationTree(page, updatedDocsContext);
                 } else {
                     logger.error("PageData with SEARCH action without search query to open!");
                 }
@@ -427,6 +566,24 @@ public class DocumentationViewerService {
                 getInterfacePreferences(page.getPlayerRef(), state).setFullTextSearch(state.isFullTextSearch());
                 updateDocumentationTree(page, updatedDocsContext);
             }
+            case EXPAND_TREE_NODE, COLLAPSE_TREE_NODE -> {
+                if (data.getTreeNode() == null) {
+                    logger.error("PageData with %s action without tree node!".formatted(action));
+                } else if (!isTreeNodeKey(docsContext.getDocumentations(), data.getTreeNode())) {
+                    // Kept per player, so only keys of existing nodes are accepted
+                    logger.error("PageData with %s action with unknown tree node: %s".formatted(action, data.getTreeNode()));
+                } else {
+                    var updatedDocsContext = DocsContext.of(docsContext);
+                    state.setTreeNodeExpanded(data.getTreeNode(), action == InterfaceAction.EXPAND_TREE_NODE);
+                    updateDocumentationTree(page, updatedDocsContext);
+                }
+            }
+            case LOAD_MORE_DOCUMENTATIONS -> {
+                var updatedDocsContext = DocsContext.of(docsContext);
+                int pageSize = Math.max(1, configurationService.getDocsConfig().getDocumentationTreePageSize());
+                state.setDocumentationTreeLimit(Math.max(pageSize, state.getDocumentationTreeLimit()) + pageSize);
+                updateDocumentationTree(page, updatedDocsContext);
+            }
             case SEND_CHAT_URL -> {
                 if (data.getSendChatUrl() != null) {
                     var url = data.getSendChatUrl().startsWith("http")
@@ -443,6 +600,45 @@ public class DocumentationViewerService {
         }
     }
 
+    /**
+     * Checks whenever the key is a key of a loaded documentation's node, see
+     * {@link DocumentationRenderer#getNodeKey(Documentation)}, or of any of its topics' nodes
+     *
+     * @param documentations Loaded documentations
+     * @param key            Node key
+     *
+     * @return True if yes, false otherwise
+     */
+    private static boolean isTreeNodeKey(List<Documentation> documentations, String key) {
+        for (Documentation documentation : documentations) {
+            var documentationKey = DocumentationRenderer.getNodeKey(documentation);
+            if (key.equals(documentationKey)) {
+                return true;
+            }
+            if (key.startsWith(documentationKey + "/") && isTopicNodeKey(documentation.getTopics(), key, documentationKey.length() + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whenever the key, from the offset on, is a path of topic IDs within the topics
+     */
+    private static boolean isTopicNodeKey(List<Topic> topics, String key, int offset) {
+        for (Topic topic : topics) {
+            var id = topic.getId();
+            if (!key.startsWith(id, offset)) {
+                continue;
+            }
+            int end = offset + id.length();
+            if (end == key.length() || (key.charAt(end) == '/' && isTopicNodeKey(topic.getTopics(), key, end + 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Opens and returns topic specified by the topic identifier. If not found, returns {@link InternalTopic}
      *
@@ -457,6 +653,8 @@ public class DocumentationViewerService {
         var topic = documentationSearchService.findTopic(docsContext.getPlayerRef(), docsContext.getDocumentations(), topicIdentifier, docsContext.getTopic().getDocumentation(), docsContext.getInterfaceState().getPreferredLocaleType())
             .orElseGet(() -> fallbackTopicService.createTopicNotFound(docsContext.getDocumentations(), topicIdentifier));
         updatedDocsContext.getInterfaceState().setTopic(topic);
+        // Opened topic must be visible within the documentation tree
+        updatedDocsContext.getInterfaceState().setTreeNodeExpanded(DocumentationRenderer.getNodeKey(topic.getDocumentation()), true);
         InterfaceMode.forType(topic.getDocumentation().getType()).ifPresent(mode -> updatedDocsContext.getInterfaceState().setInterfaceMode(mode));
         replaceTopicContent(page, updatedDocsContext);
         return topic;
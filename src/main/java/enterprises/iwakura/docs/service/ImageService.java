@@ -1,5 +1,6 @@
 package enterprises.iwakura.docs.service;
 
+import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -11,19 +12,35 @@ import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
+import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
 import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
 
 import com.hypixel.hytale.math.vector.Vector2d;
+import com.hypixel.hytale.server.core.asset.common.CommonAsset;
 
 import enterprises.iwakura.docs.DocsPlugin;
+import enterprises.iwakura.docs.config.DocsConfig;
 import enterprises.iwakura.docs.object.CacheIndex.Entry.CacheFileType;
+import enterprises.iwakura.docs.object.LoadedImage;
+import enterprises.iwakura.docs.util.ImageHeaderUtils;
 import enterprises.iwakura.docs.util.Logger;
+import enterprises.iwakura.docs.util.PngUtils;
+import enterprises.iwakura.docs.util.ResizeUtils;
 import enterprises.iwakura.sigewine.core.annotations.Bean;
 import lombok.RequiredArgsConstructor;
 
@@ -32,6 +49,15 @@ import lombok.RequiredArgsConstructor;
 public class ImageService {
 
     private static final String IMAGE_FORMAT_PNG = "png";
+    private static final int MAX_CACHED_IMAGE_SIZES = 4096;
+    /**
+     * How long finished downloads are remembered. Renders waiting for a download find it even if the file system cache
+     * is disabled, and failed downloads are not retried by every render.
+     */
+    private static final long FINISHED_DOWNLOAD_RETENTION_SECONDS = 60;
+    private static final ExecutorService DOWNLOAD_EXECUTOR = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("Voile-Image-Download-", 0).factory()
+    );
     private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
         .followRedirects(HttpClient.Redirect.NORMAL)
         .build();
@@ -42,8 +68,33 @@ public class ImageService {
     private final Logger logger;
     private final DocsPlugin plugin;
 
+    /**
+     * Sizes of common asset images, the least recently used first
+     */
+    private final Map<ImageSizeKey, Vector2d> commonAssetImageSizes = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ImageSizeKey, Vector2d> eldest) {
+            return size() > MAX_CACHED_IMAGE_SIZES;
+        }
+    };
+    private final AtomicLong commonAssetImageSizeHits = new AtomicLong();
+    private final AtomicLong commonAssetImageSizeMisses = new AtomicLong();
+    private final AtomicLong optimizedImages = new AtomicLong();
+    private final AtomicLong optimizedImageSavedBytes = new AtomicLong();
+    private final AtomicLong convertedImages = new AtomicLong();
+    /**
+     * Running and recently finished downloads by their URL
+     */
+    private final Map<String, CompletableFuture<Path>> downloads = new ConcurrentHashMap<>();
+    /**
+     * Limits concurrent downloads. Created with the default limit, so downloads started before {@link #init()} are
+     * limited too, and replaced with the configured limit on init.
+     */
+    private volatile Semaphore downloadPermits = new Semaphore(new DocsConfig.RuntimeImageAssets().getMaxConcurrentImageDownloads());
+
     public void init() {
         logger.info("Initializing ImageDownloaderService...");
+        downloadPermits = new Semaphore(Math.max(1, configurationService.getDocsConfig().getRuntimeImageAssets().getMaxConcurrentImageDownloads()));
 
         // Use Voile's class loader when scanning for plugins, otherwise
         // ImageIO won't find webp and other plugins.
@@ -56,15 +107,36 @@ public class ImageService {
         }
     }
 
+    /**
+     * Downloads the image into the file system cache. At most {@code maxConcurrentImageDownloads} images are downloaded
+     * at once and the same URL is downloaded only once at a time.
+     *
+     * @param url Image URL
+     *
+     * @return Future of the downloaded file path, completed right away if the image is already cached
+     */
     public CompletableFuture<Path> downloadImageFrom(String url) {
-        var maxFileSizeBytes = configurationService.getDocsConfig().getRuntimeImageAssets().getMaxImageDownloadFileSizeKb() * 1024;
-
         var loadedEntry = fileSystemCacheService.getByName(url, CacheFileType.IMAGE);
         if (loadedEntry.isPresent()) {
             return CompletableFuture.completedFuture(loadedEntry.get().getFilePath());
         }
 
-        return CompletableFuture.supplyAsync(() -> {
+        return downloads.computeIfAbsent(url, this::startDownload);
+    }
+
+    private CompletableFuture<Path> startDownload(String url) {
+        var maxFileSizeBytes = configurationService.getDocsConfig().getRuntimeImageAssets().getMaxImageDownloadFileSizeKb() * 1024;
+
+        var download = CompletableFuture.supplyAsync(() -> {
+            // Released into the same semaphore, even if init() replaced it in the meantime
+            var downloadPermits = this.downloadPermits;
+            try {
+                downloadPermits.acquire();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting to download image from: " + url, exception);
+            }
+
             try {
                 // TODO: Reimplement HEAD request to check the file size
 //                var headRequest = HttpRequest.newBuilder()
@@ -98,8 +170,15 @@ public class ImageService {
                 return savedEntry.getFilePath();
             } catch (Exception e) {
                 throw new RuntimeException("Failed to download image from: " + url, e);
+            } finally {
+                downloadPermits.release();
             }
-        });
+        }, DOWNLOAD_EXECUTOR);
+
+        download.whenComplete((filePath, throwable) -> CompletableFuture
+            .delayedExecutor(FINISHED_DOWNLOAD_RETENTION_SECONDS, TimeUnit.SECONDS)
+            .execute(() -> downloads.remove(url, download)));
+        return download;
     }
 
     private String cleanUrl(String url) {
@@ -116,7 +195,37 @@ public class ImageService {
     }
 
     /**
-     * Reads the image and returns the image size.
+     * Returns the size of the common asset image. Sizes are cached by the asset name and hash, so the asset is read
+     * only once until it changes.
+     *
+     * @param commonAsset Common asset
+     *
+     * @return {@link Vector2d} where x is the width and y is the height
+     *
+     * @throws IOException If error occurs while reading the image
+     */
+    public Vector2d getImageSize(CommonAsset commonAsset) throws IOException {
+        var key = new ImageSizeKey(commonAsset.getName(), commonAsset.getHash());
+
+        synchronized (commonAssetImageSizes) {
+            var imageSize = commonAssetImageSizes.get(key);
+            if (imageSize != null) {
+                commonAssetImageSizeHits.incrementAndGet();
+                return imageSize;
+            }
+        }
+        commonAssetImageSizeMisses.incrementAndGet();
+
+        var imageSize = getImageSize(commonAsset.getBlob().join());
+        synchronized (commonAssetImageSizes) {
+            commonAssetImageSizes.put(key, imageSize);
+        }
+        return imageSize;
+    }
+
+    /**
+     * Reads the image size from the image header without decoding the image. Formats unknown to
+     * {@link ImageHeaderUtils} are read by ImageIO, which also reads only the header.
      *
      * @param imageData Image Data
      *
@@ -125,71 +234,235 @@ public class ImageService {
      * @throws IOException If error occurs while reading the image
      */
     public Vector2d getImageSize(byte[] imageData) throws IOException {
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(imageData)) {
-            var image = ImageIO.read(bais);
-            if (image == null) {
+        var imageSize = ImageHeaderUtils.readImageSize(imageData);
+        if (imageSize != null) {
+            return imageSize;
+        }
+
+        try (var imageInputStream = ImageIO.createImageInputStream(new ByteArrayInputStream(imageData))) {
+            var readers = ImageIO.getImageReaders(imageInputStream);
+            if (!readers.hasNext()) {
                 throw new IOException("Failed to read image data");
             }
-            return new Vector2d(image.getWidth(), image.getHeight());
+
+            var reader = readers.next();
+            try {
+                reader.setInput(imageInputStream, true, true);
+                return new Vector2d(reader.getWidth(0), reader.getHeight(0));
+            } finally {
+                reader.dispose();
+            }
         }
     }
 
     /**
-     * Converts the file to PNG if it's not. Loads the image from the file system
+     * Loads the image from the file system as PNG, converting it if it's not. The file is read once and decoded at most
+     * once: size of PNG images is read from the header without decoding them, other images are decoded and converted.
+     * Converted images are stored in the file system cache by the hash of the file, the file itself is never modified.
      *
      * @param filePath File path
      *
-     * @return Image data
+     * @return Loaded image
      *
-     * @throws IOException Exception if checking the image format, converting the image or writing the converted image
+     * @throws IOException Exception if reading the image or converting the image
      */
-    public byte[] convertToPngOrLoad(Path filePath) throws IOException {
+    public LoadedImage loadPngImage(Path filePath) throws IOException {
         byte[] fileData = Files.readAllBytes(filePath);
 
+        // File is png, return the data w/o conversion
+        if (ImageHeaderUtils.isPng(fileData)) {
+            var pngData = fileData;
+            if (configurationService.getDocsConfig().getRuntimeImageAssets().isStripImageMetadata()) {
+                pngData = PngUtils.stripAncillaryChunks(fileData);
+                if (pngData != fileData) {
+                    recordOptimizedImage(fileData.length, pngData.length);
+                }
+            }
+            return new LoadedImage(pngData, getImageSize(pngData));
+        }
+
+        // File is not png, use the converted image if it was already converted
+        var convertedName = UUID.nameUUIDFromBytes(fileData) + "@png";
+        var convertedEntry = fileSystemCacheService.loadByName(convertedName, CacheFileType.CONVERTED_IMAGE, byte[].class);
+        if (convertedEntry.isPresent() && ImageHeaderUtils.isPng(convertedEntry.get().getData())) {
+            var pngData = convertedEntry.get().getData();
+            return new LoadedImage(pngData, getImageSize(pngData));
+        }
+
+        // Convert, save and return
+        BufferedImage image;
         try (var inputStream = new ByteArrayInputStream(fileData)) {
-            var readers = ImageIO.getImageReaders(ImageIO.createImageInputStream(inputStream));
+            image = ImageIO.read(inputStream);
+        }
 
-            if (readers.hasNext()) {
-                var reader = readers.next();
-                String formatName = reader.getFormatName().toLowerCase();
-                reader.dispose();
+        if (image == null) {
+            String mimeType;
 
-                // File is png, return the data w/o conversion
-                if (IMAGE_FORMAT_PNG.equals(formatName)) {
-                    return fileData;
-                }
+            try {
+                mimeType = Files.probeContentType(filePath);
+            } catch (IOException exception) {
+                mimeType = "Unknown (error: " + exception.getMessage() + ")";
             }
+
+            throw new IOException("Failed to read image data from %s (format unknown to ImageIO: %s)".formatted(
+                filePath, mimeType
+            ));
         }
 
-        // File is not png, convert, save and return
-        byte[] pngData;
-        try (var inputStream = new ByteArrayInputStream(fileData)) {
-            var image = ImageIO.read(inputStream);
+        var pngData = encodePng(image);
+        // Not an optimization, the PNG may be larger than a lossy original
+        convertedImages.incrementAndGet();
+        logger.info("Converted image %s to PNG (%d -> %d bytes)".formatted(filePath, fileData.length, pngData.length));
 
-            if (image == null) {
-                String mimeType;
+        try {
+            fileSystemCacheService.saveByName(convertedName, CacheFileType.CONVERTED_IMAGE, pngData);
+        } catch (Exception exception) {
+            logger.error("Failed to cache converted image " + filePath, exception);
+        }
+        return new LoadedImage(pngData, new Vector2d(image.getWidth(), image.getHeight()));
+    }
 
-                try {
-                    mimeType = Files.probeContentType(filePath);
-                } catch (IOException exception) {
-                    mimeType = "Unknown (error: " + exception.getMessage() + ")";
-                }
+    /**
+     * Encodes the image as PNG with the configured compression level. Images with few colors are encoded with a
+     * palette if enabled, which makes them several times smaller without changing them.
+     *
+     * @param image Image
+     *
+     * @return PNG data
+     *
+     * @throws IOException If error occurs while writing the image
+     */
+    public byte[] encodePng(BufferedImage image) throws IOException {
+        var runtimeImageAssets = configurationService.getDocsConfig().getRuntimeImageAssets();
 
-                throw new IOException("Failed to read image data from %s (format unknown to ImageIO: %s)".formatted(
-                    filePath, mimeType
-                ));
+        if (runtimeImageAssets.isQuantizePalette()) {
+            var paletteImage = PngUtils.toPaletteImage(image);
+            if (paletteImage != null) {
+                image = paletteImage;
             }
+        }
 
-            try (var baos = new ByteArrayOutputStream()) {
-                if (!ImageIO.write(image, IMAGE_FORMAT_PNG, baos)) {
-                    throw new IOException("Failed to write PNG image");
-                }
-                pngData = baos.toByteArray();
+        var writers = ImageIO.getImageWritersByFormatName(IMAGE_FORMAT_PNG);
+        if (!writers.hasNext()) {
+            throw new IOException("Failed to write PNG image");
+        }
+
+        var writer = writers.next();
+        try (var baos = new ByteArrayOutputStream()) {
+            var writeParam = writer.getDefaultWriteParam();
+            if (writeParam.canWriteCompressed()) {
+                // PNG writer maps the quality to deflate level as 9 - quality * 9
+                int compressionLevel = Math.clamp(runtimeImageAssets.getPngCompressionLevel(), 0, 9);
+                writeParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                writeParam.setCompressionQuality(1f - compressionLevel / 9f);
             }
+
+            try (var imageOutputStream = ImageIO.createImageOutputStream(baos)) {
+                writer.setOutput(imageOutputStream);
+                // No metadata is written
+                writer.write(null, new IIOImage(image, null, null), writeParam);
+            }
+            return baos.toByteArray();
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Creates a downscaled copy of the image
+     *
+     * @param imageData Image data
+     * @param width     Width of the copy
+     * @param height    Height of the copy
+     *
+     * @return PNG data of the copy
+     *
+     * @throws IOException If error occurs while reading or writing the image
+     */
+    public byte[] createDownscaledPng(byte[] imageData, int width, int height) throws IOException {
+        BufferedImage image;
+        try (var inputStream = new ByteArrayInputStream(imageData)) {
+            image = ImageIO.read(inputStream);
+        }
+
+        if (image == null) {
+            throw new IOException("Failed to read image data");
+        }
+
+        return encodePng(ResizeUtils.downscale(image, width, height));
+    }
+
+    /**
+     * Records the image stripped of metadata, see {@link PngUtils#stripAncillaryChunks(byte[])}
+     */
+    private void recordOptimizedImage(long originalBytes, long optimizedBytes) {
+        optimizedImages.incrementAndGet();
+        optimizedImageSavedBytes.addAndGet(originalBytes - optimizedBytes);
+    }
+
+    /**
+     * Returns the number of cached common asset image sizes
+     *
+     * @return Number of image sizes
+     */
+    public int getCommonAssetImageSizeCount() {
+        synchronized (commonAssetImageSizes) {
+            return commonAssetImageSizes.size();
         }
+    }
 
-        Files.write(filePath, pngData);
-        return pngData;
+    /**
+     * Returns the number of common asset image sizes that were reused
+     *
+     * @return Number of hits
+     */
+    public long getCommonAssetImageSizeHits() {
+        return commonAssetImageSizeHits.get();
+    }
+
+    /**
+     * Returns the number of common asset image sizes that had to be read
+     *
+     * @return Number of misses
+     */
+    public long getCommonAssetImageSizeMisses() {
+        return commonAssetImageSizeMisses.get();
+    }
+
+    /**
+     * Returns the number of running and recently finished downloads
+     *
+     * @return Number of downloads
+     */
+    public int getDownloadCount() {
+        return downloads.size();
+    }
+
+    /**
+     * Returns the number of PNG images that were stripped of metadata
+     *
+     * @return Number of images
+     */
+    public long getOptimizedImages() {
+        return optimizedImages.get();
+    }
+
+    /**
+     * Returns the number of bytes saved by stripping metadata from PNG images
+     *
+     * @return Number of bytes
+     */
+    public long getOptimizedImageSavedBytes() {
+        return optimizedImageSavedBytes.get();
+    }
+
+    /**
+     * Returns the number of images that were converted to PNG, not counting those reused from the file system cache
+     *
+     * @return Number of images
+     */
+    public long getConvertedImages() {
+        return convertedImages.get();
     }
 
     private static HttpResponse.BodyHandler<byte[]> limitedBodyHandler(long maxBytes) {
@@ -241,4 +514,14 @@ public class ImageService {
             }
         };
     }
+
+    /**
+     * Identifies the common asset image
+     *
+     * @param name Asset name
+     * @param hash Asset hash
+     */
+    private record ImageSizeKey(String name, String hash) {
+
+    }
 }
@@ -1,10 +1,12 @@
 package enterprises.iwakura.docs.service;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.commonmark.ext.front.matter.YamlFrontMatterExtension;
 import org.commonmark.ext.front.matter.YamlFrontMatterVisitor;
@@ -29,8 +31,126 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class MarkdownService {
 
+    /**
+     * Maximum number of parsed topic documents kept in memory
+     */
+    public static final int MAX_PARSED_TOPIC_DOCUMENTS = 256;
+
     private final Logger logger;
 
+    /**
+     * Parser is immutable and thread-safe, so it is shared by all parse calls
+     */
+    private final Parser parser = Parser.builder()
+        .extensions(List.of(
+            YamlFrontMatterExtension.create(),
+            TablesExtension.create(),
+            NotificationsExtension.create()
+        ))
+        .build();
+
+    /**
+     * Parsed topic documents keyed by topic identity, the least recently used first
+     */
+    private final Map<TopicKey, ParsedTopicDocument> parsedTopicDocuments = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TopicKey, ParsedTopicDocument> eldest) {
+            return size() > MAX_PARSED_TOPIC_DOCUMENTS;
+        }
+    };
+    private final AtomicLong parsedTopicDocumentHits = new AtomicLong();
+    private final AtomicLong parsedTopicDocumentMisses = new AtomicLong();
+
+    /**
+     * Parses markdown content of the topic. Parsed documents are cached per topic and reused for as long as the topic's
+     * content does not change (e.g. by {@link Topic#setMarkdownContent(String)}).
+     * <p>
+     * The returned document is shared and must not be modified.
+     *
+     * @param topic          Topic
+     * @param catchException If method should return null on error
+     *
+     * @return Resulting document node (null if catchException is set to true and parsing failed)
+     */
+    public Node parseTopicMarkdown(Topic topic, boolean catchException) {
+        var content = topic.getMarkdownContent();
+        var key = new TopicKey(topic);
+        int contentHash = content.hashCode();
+
+        synchronized (parsedTopicDocuments) {
+            var parsedTopicDocument = parsedTopicDocuments.get(key);
+            if (parsedTopicDocument != null && parsedTopicDocument.isParsedFrom(content, contentHash)) {
+                parsedTopicDocumentHits.incrementAndGet();
+                return parsedTopicDocument.document();
+            }
+        }
+
+        parsedTopicDocumentMisses.incrementAndGet();
+        var document = parseMarkdown(content, catchException);
+        if (document != null) {
+            synchronized (parsedTopicDocuments) {
+                parsedTopicDocuments.put(key, new ParsedTopicDocument(content, contentHash, document));
+            }
+        }
+        return document;
+    }
+
+    /**
+     * Returns the cached parsed document of the topic without parsing it, see
+     * {@link #parseTopicMarkdown(Topic, boolean)}. The returned document is shared and must not be modified.
+     *
+     * @param topic Topic
+     *
+     * @return Parsed document or null if the topic's current content is not cached
+     */
+    public Node getParsedTopicDocument(Topic topic) {
+        var content = topic.getMarkdownContent();
+        synchronized (parsedTopicDocuments) {
+            var parsedTopicDocument = parsedTopicDocuments.get(new TopicKey(topic));
+            return parsedTopicDocument != null && parsedTopicDocument.isParsedFrom(content, content.hashCode())
+                ? parsedTopicDocument.document()
+                : null;
+        }
+    }
+
+    /**
+     * Clears cached parsed topic documents, e.g. when documentations are reloaded
+     */
+    public void clearParsedTopicDocuments() {
+        synchronized (parsedTopicDocuments) {
+            parsedTopicDocuments.clear();
+        }
+    }
+
+    /**
+     * Returns the number of cached parsed topic documents
+     *
+     * @return Number of documents
+     */
+    public int getParsedTopicDocumentCount() {
+        synchronized (parsedTopicDocuments) {
+            return parsedTopicDocuments.size();
+        }
+    }
+
+    /**
+     * Returns the number of {@link #parseTopicMarkdown(Topic, boolean)} calls served from the cache
+     *
+     * @return Number of hits
+     */
+    public long getParsedTopicDocumentHits() {
+        return parsedTopicDocumentHits.get();
+    }
+
+    /**
+     * Returns the number of {@link #parseTopicMarkdown(Topic, boolean)} calls that had to parse the content
+     *
+     * @return Number of misses
+     */
+    public long getParsedTopicDocumentMisses() {
+        return parsedTopicDocumentMisses.get();
+    }
+
     /**
      * Parses markdown content
      *
@@ -45,13 +165,6 @@ public class MarkdownService {
         }
 
         try {
-            var parser = Parser.builder()
-                .extensions(List.of(
-                    YamlFrontMatterExtension.create(),
-                    TablesExtension.create(),
-                    NotificationsExtension.create()
-                ))
-                .build();
             return parser.parse(content);
         } catch (Exception exception) {
             if (catchException) {
@@ -208,4 +321,34 @@ public class MarkdownService {
         }
         return content;
     }
+
+    /**
+     * Compares topics by identity, as topics with the same fields may still be different topics
+     */
+    private record TopicKey(Topic topic) {
+
+        @Override
+        public boolean equals(Object object) {
+            return object instanceof TopicKey other && other.topic == topic;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(topic);
+        }
+    }
+
+    /**
+     * Parsed document of topic's content
+     *
+     * @param content     Content the document was parsed from
+     * @param contentHash Hash of the content
+     * @param document    Parsed document
+     */
+    private record ParsedTopicDocument(String content, int contentHash, Node document) {
+
+        boolean isParsedFrom(String content, int contentHash) {
+            return this.contentHash == contentHash && this.content.equals(content);
+        }
+    }
 }
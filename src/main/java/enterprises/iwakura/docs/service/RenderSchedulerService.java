@@ -0,0 +1,320 @@
+package enterprises.iwakura.docs.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadFactory;
+
+import enterprises.iwakura.docs.util.Logger;
+import enterprises.iwakura.sigewine.core.annotations.Bean;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Runs interface renders on virtual threads. Renders of a single player run one after another in the order they were
+ * submitted, while renders of different players run in parallel up to {@code maxConcurrentRenders}.
+ * <p>
+ * Renders may have a key. A queued render is dropped once a newer render with the same key is submitted for the same
+ * player, since it would be superseded anyway. When the queue of a player or all queues together are full, the
+ * oldest queued render of the player is dropped or the new render is rejected, respectively. Dropped renders run their
+ * drop callback instead.
+ */
+@Bean
+@RequiredArgsConstructor
+public class RenderSchedulerService {
+
+    private static final ThreadFactory RENDER_THREAD_FACTORY = Thread.ofVirtual().name("Voile-Render-", 0).factory();
+
+    private final ConfigurationService configurationService;
+    private final Logger logger;
+
+    /**
+     * Render queues of players that have queued or running renders
+     */
+    private final Map<UUID, Lane> lanes = new HashMap<>();
+    /**
+     * Lanes that have queued renders and no running render, waiting for a free render slot
+     */
+    private final ArrayDeque<Lane> readyLanes = new ArrayDeque<>();
+    private int runningRenders;
+    private int queuedRenders;
+    private int peakQueuedRenders;
+    private long submittedRenders;
+    private long completedRenders;
+    private long supersededRenders;
+    private long shedRenders;
+    private boolean saturated;
+
+    /**
+     * Submits render for player
+     *
+     * @param playerUuid Player UUID
+     * @param key        Key of the render, a queued render with the same key is dropped, nullable
+     * @param render     Render
+     */
+    public void submit(UUID playerUuid, String key, Runnable render) {
+        submit(playerUuid, key, render, null);
+    }
+
+    /**
+     * Submits render for player
+     *
+     * @param playerUuid Player UUID
+     * @param key        Key of the render, a queued render with the same key is dropped, nullable
+     * @param render     Render
+     * @param onDropped  Invoked if the render gets dropped without running, nullable
+     */
+    public void submit(UUID playerUuid, String key, Runnable render, Runnable onDropped) {
+        var docsConfig = configurationService.getDocsConfig();
+        var task = new Task(key, render, onDropped);
+        var droppedTasks = new ArrayList<Task>();
+
+        synchronized (this) {
+            submittedRenders++;
+            var lane = lanes.computeIfAbsent(playerUuid, Lane::new);
+
+            if (key != null) {
+                dropQueued(lane, key, droppedTasks);
+            }
+
+            if (!lane.queue.isEmpty() && lane.queue.size() >= Math.max(1, docsConfig.getMaxQueuedRendersPerPlayer())) {
+                droppedTasks.add(lane.queue.pollFirst());
+                queuedRenders--;
+                shedRenders++;
+            }
+
+            if (queuedRenders >= docsConfig.getMaxQueuedRenders()) {
+                shedRenders++;
+                droppedTasks.add(task);
+                if (!saturated) {
+                    saturated = true;
+                    logger.warn("Render queue is full (%d queued renders), new renders are dropped until it drains.".formatted(queuedRenders));
+                }
+                removeLaneIfIdle(lane);
+                dispatch();
+            } else {
+                lane.queue.addLast(task);
+                queuedRenders++;
+                peakQueuedRenders = Math.max(peakQueuedRenders, queuedRenders);
+                if (!lane.active) {
+                    lane.active = true;
+                    readyLanes.addLast(lane);
+                }
+                dispatch();
+            }
+        }
+
+        droppedTasks.forEach(this::runDropped);
+    }
+
+    /**
+     * Drops queued renders of player, e.g. after the player disconnects
+     *
+     * @param playerUuid Player UUID
+     */
+    public void cancel(UUID playerUuid) {
+        var droppedTasks = new ArrayList<Task>();
+
+        synchronized (this) {
+            var lane = lanes.get(playerUuid);
+            if (lane == null) {
+                return;
+            }
+            droppedTasks.addAll(lane.queue);
+            queuedRenders -= lane.queue.size();
+            supersededRenders += lane.queue.size();
+            lane.queue.clear();
+            readyLanes.remove(lane);
+            if (!lane.running) {
+                lane.active = false;
+            }
+            removeLaneIfIdle(lane);
+        }
+
+        droppedTasks.forEach(this::runDropped);
+    }
+
+    /**
+     * Starts queued renders of ready lanes while there are free render slots. Must be called with the lock held.
+     */
+    private void dispatch() {
+        int maxConcurrentRenders = Math.max(1, configurationService.getDocsConfig().getMaxConcurrentRenders());
+
+        while (runningRenders < maxConcurrentRenders && !readyLanes.isEmpty()) {
+            var lane = readyLanes.pollFirst();
+            var task = lane.queue.pollFirst();
+            if (task == null) {
+                // All of its renders were dropped while waiting
+                lane.active = false;
+                removeLaneIfIdle(lane);
+                continue;
+            }
+            queuedRenders--;
+            runningRenders++;
+            lane.running = true;
+            RENDER_THREAD_FACTORY.newThread(() -> run(lane, task)).start();
+        }
+
+        if (saturated && queuedRenders < configurationService.getDocsConfig().getMaxQueuedRenders() / 2) {
+            saturated = false;
+        }
+    }
+
+    private void run(Lane lane, Task task) {
+        try {
+            task.render.run();
+        } catch (Throwable throwable) {
+            logger.error("Exception occurred in the render thread!", throwable);
+            SentryService.captureException(throwable);
+        }
+
+        synchronized (this) {
+            runningRenders--;
+            completedRenders++;
+            lane.running = false;
+
+            if (lane.queue.isEmpty()) {
+                lane.active = false;
+                removeLaneIfIdle(lane);
+            } else {
+                // Goes after other waiting players, so a player with many renders does not hold the slot
+                readyLanes.addLast(lane);
+            }
+            dispatch();
+        }
+    }
+
+    private void dropQueued(Lane lane, String key, List<Task> droppedTasks) {
+        Iterator<Task> iterator = lane.queue.iterator();
+        while (iterator.hasNext()) {
+            var queuedTask = iterator.next();
+            if (key.equals(queuedTask.key)) {
+                iterator.remove();
+                droppedTasks.add(queuedTask);
+                queuedRenders--;
+                supersededRenders++;
+            }
+        }
+    }
+
+    private void removeLaneIfIdle(Lane lane) {
+        if (!lane.active && !lane.running && lane.queue.isEmpty()) {
+            lanes.remove(lane.playerUuid, lane);
+        }
+    }
+
+    private void runDropped(Task task) {
+        if (task.onDropped == null) {
+            return;
+        }
+        try {
+            task.onDropped.run();
+        } catch (Exception exception) {
+            logger.error("Failed to handle dropped render", exception);
+        }
+    }
+
+    /**
+     * Returns the number of renders that are currently running
+     *
+     * @return Number of renders
+     */
+    public synchronized int getRunningRenders() {
+        return runningRenders;
+    }
+
+    /**
+     * Returns the number of renders that wait in queues
+     *
+     * @return Number of renders
+     */
+    public synchronized int getQueuedRenders() {
+        return queuedRenders;
+    }
+
+    /**
+     * Returns the highest number of renders that waited in queues at once
+     *
+     * @return Number of renders
+     */
+    public synchronized int getPeakQueuedRenders() {
+        return peakQueuedRenders;
+    }
+
+    /**
+     * Returns the number of players with queued or running renders
+     *
+     * @return Number of players
+     */
+    public synchronized int getRenderingPlayers() {
+        return lanes.size();
+    }
+
+    /**
+     * Returns the number of submitted renders
+     *
+     * @return Number of renders
+     */
+    public synchronized long getSubmittedRenders() {
+        return submittedRenders;
+    }
+
+    /**
+     * Returns the number of finished renders
+     *
+     * @return Number of renders
+     */
+    public synchronized long getCompletedRenders() {
+        return completedRenders;
+    }
+
+    /**
+     * Returns the number of renders that were dropped because a newer render replaced them
+     *
+     * @return Number of renders
+     */
+    public synchronized long getSupersededRenders() {
+        return supersededRenders;
+    }
+
+    /**
+     * Returns the number of renders that were dropped because the queues were full
+     *
+     * @return Number of renders
+     */
+    public synchronized long getShedRenders() {
+        return shedRenders;
+    }
+
+    /**
+     * Render queue of a single player
+     */
+    private static final class Lane {
+
+        private final UUID playerUuid;
+        private final ArrayDeque<Task> queue = new ArrayDeque<>();
+        /**
+         * Whenever the lane is running a render or waits for a free render slot
+         */
+        private boolean active;
+        private boolean running;
+
+        private Lane(UUID playerUuid) {
+            this.playerUuid = playerUuid;
+        }
+    }
+
+    /**
+     * Queued render
+     *
+     * @param key       Key of the render, nullable
+     * @param render    Render
+     * @param onDropped Invoked if the render gets dropped, nullable
+     */
+    private record Task(String key, Runnable render, Runnable onDropped) {
+
+    }
+}
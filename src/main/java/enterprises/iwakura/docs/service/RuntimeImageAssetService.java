@@ -4,14 +4,19 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
 
 import com.hypixel.hytale.common.util.ArrayUtil;
 import com.hypixel.hytale.math.vector.Vector2d;
@@ -25,6 +30,8 @@ import com.hypixel.hytale.server.core.asset.common.CommonAssetRegistry;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 
 import enterprises.iwakura.docs.DocsPlugin;
+import enterprises.iwakura.docs.object.CacheIndex.Entry.CacheFileType;
+import enterprises.iwakura.docs.object.CacheIndex.LoadedEntry;
 import enterprises.iwakura.docs.object.DocumentationType;
 import enterprises.iwakura.docs.object.PlayerRuntimeImageAssets;
 import enterprises.iwakura.docs.object.ResolvedImageCommonAsset;
@@ -42,21 +49,34 @@ public class RuntimeImageAssetService {
     public static final String RUNTIME_IMAGE_RESOURCE_PATH = "UI/Custom/Docs/Images/Runtime/runtime_image_%03d.png";
     public static final String IMAGE_NOT_FOUND_PATH = "UI/Custom/Docs/Images/image_not_found.png";
     public static final String IMAGES_DISABLED_PATH = "UI/Custom/Docs/Images/images_disabled.png";
+    public static final String IMAGE_LOADING_PATH = "UI/Custom/Docs/Images/image_loading.png";
     public static final Vector2d IMAGE_NOT_FOUND_SIZE = new Vector2d(251, 64);
+    /**
+     * Estimated size of images that are being downloaded, resize hints are applied to it
+     */
+    public static final Vector2d IMAGE_LOADING_SIZE = new Vector2d(480, 270);
 
     public static final int RUNTIME_ASSET_COUNT = 100;
+    public static final int IMAGE_VARIANT_WIDTH_STEP = 128;
     public static final int MAX_PACKET_SIZE = 2621440;
 
     @Getter
     private static final Map<Integer, CommonAsset> COMMON_ASSET_MAP = Collections.synchronizedMap(new HashMap<>());
     @Getter
-    private static final Map<UUID, RuntimeImageAsset> RUNTIME_IMAGE_ASSET_MAP = Collections.synchronizedMap(new HashMap<>()); // UUID is RuntimeImageAsset.id
+    private static final Map<UUID, RuntimeImageAsset> RUNTIME_IMAGE_ASSET_MAP = new ConcurrentHashMap<>(); // UUID is RuntimeImageAsset.id
+    @Getter
+    private static final Map<Path, UUID> RUNTIME_IMAGE_ASSET_PATH_INDEX = new ConcurrentHashMap<>(); // UUID is RuntimeImageAsset.id
+    @Getter
+    private static final Map<String, UUID> RUNTIME_IMAGE_ASSET_VARIANT_INDEX = new ConcurrentHashMap<>(); // String is variant name, UUID is RuntimeImageAsset.id
     @Getter
     private static final Map<UUID, PlayerRuntimeImageAssets> PLAYER_RUNTIME_IMAGE_ASSETS_MAP = Collections.synchronizedMap(new HashMap<>()); // UUID is playerRef.uuid
+    @Getter
+    private static final Map<UUID, Set<CompletableFuture<Path>>> PLAYER_PENDING_DOWNLOADS_MAP = new ConcurrentHashMap<>(); // UUID is playerRef.uuid
     private static final Timer timer = new Timer();
 
     private final ConfigurationService configurationService;
     private final ImageService imageService;
+    private final FileSystemCacheService fileSystemCacheService;
     private final DocsPlugin plugin;
     private final Logger logger;
 
@@ -109,6 +129,8 @@ public class RuntimeImageAssetService {
         if (!fileIdsToRemove.isEmpty()) {
             logger.info("Removing %d runtime image assets from memory".formatted(fileIdsToRemove.size()));
             fileIdsToRemove.forEach(RUNTIME_IMAGE_ASSET_MAP::remove);
+            RUNTIME_IMAGE_ASSET_PATH_INDEX.values().removeAll(fileIdsToRemove);
+            RUNTIME_IMAGE_ASSET_VARIANT_INDEX.values().removeAll(fileIdsToRemove);
             PLAYER_RUNTIME_IMAGE_ASSETS_MAP.values().forEach(playerRuntimeImageAssets ->
                 playerRuntimeImageAssets.removeFileIds(fileIdsToRemove));
         }
@@ -122,6 +144,7 @@ public class RuntimeImageAssetService {
     public void clearCacheForPlayer(UUID playerUuid) {
         logger.info("Unloading runtime images for player " + playerUuid);
         PLAYER_RUNTIME_IMAGE_ASSETS_MAP.remove(playerUuid);
+        PLAYER_PENDING_DOWNLOADS_MAP.remove(playerUuid);
     }
 
     /**
@@ -131,6 +154,8 @@ public class RuntimeImageAssetService {
         logger.info("Clearing RuntimeImageAssetService's cache... All players will receive all runtime image assets as if "
             + "they have never received them before.");
         RUNTIME_IMAGE_ASSET_MAP.clear();
+        RUNTIME_IMAGE_ASSET_PATH_INDEX.clear();
+        RUNTIME_IMAGE_ASSET_VARIANT_INDEX.clear();
         PLAYER_RUNTIME_IMAGE_ASSETS_MAP.clear();
     }
 
@@ -179,14 +204,23 @@ public class RuntimeImageAssetService {
      * @param imageSource image source
      * @param topicFilePath topic path to apply with the image source when searching for file system images
      * @param topic Topic
+     * @param displaySize Returns the size the image is shown at from its size. Runtime images larger than that are
+     *                    sent downscaled.
      *
-     * @return Never-null ResolvedImageCommonAsset, if image is not found, it references NOT FOUND image.
+     * @return Never-null ResolvedImageCommonAsset with the display size, if image is not found, it references NOT FOUND
+     * image.
      */
-    public ResolvedImageCommonAsset resolve(PlayerRef playerRef, String imageSource, Topic topic, Path topicFilePath) {
+    public ResolvedImageCommonAsset resolve(
+        PlayerRef playerRef,
+        String imageSource,
+        Topic topic,
+        Path topicFilePath,
+        UnaryOperator<Vector2d> displaySize
+    ) {
         if (!configurationService.getDocsConfig().getRuntimeImageAssets().isEnabled()) {
             var imagesDisabledCommonAsset = CommonAssetRegistry.getByName(IMAGES_DISABLED_PATH);
             if (imagesDisabledCommonAsset != null) {
-                return new ResolvedImageCommonAsset(imagesDisabledCommonAsset.getName(), IMAGE_NOT_FOUND_SIZE);
+                return new ResolvedImageCommonAsset(imagesDisabledCommonAsset.getName(), displaySize.apply(IMAGE_NOT_FOUND_SIZE));
             } else {
                 throw new IllegalStateException("Could not found %s! Try restarting the server.".formatted(
                     IMAGES_DISABLED_PATH
@@ -200,8 +234,23 @@ public class RuntimeImageAssetService {
 
         if (imageSource.startsWith("http")) {
             // online
+            var download = imageService.downloadImageFrom(imageSource);
+            if (!download.isDone()) {
+                // Rendering does not wait for the download, the placeholder is replaced once it finishes
+                PLAYER_PENDING_DOWNLOADS_MAP.computeIfAbsent(playerRef.getUuid(), uuid -> ConcurrentHashMap.newKeySet())
+                    .add(download);
+                var imageLoadingCommonAsset = CommonAssetRegistry.getByName(IMAGE_LOADING_PATH);
+                if (imageLoadingCommonAsset != null) {
+                    return new ResolvedImageCommonAsset(imageLoadingCommonAsset.getName(), displaySize.apply(IMAGE_LOADING_SIZE));
+                } else {
+                    throw new IllegalStateException("Could not found %s! Try restarting the server.".formatted(
+                        IMAGE_LOADING_PATH
+                    ));
+                }
+            }
+
             try {
-                filePath = imageService.downloadImageFrom(imageSource).join();
+                filePath = download.join();
             } catch (Exception exception) {
                 logger.error("Failed to download image from " + imageSource, exception);
             }
@@ -218,7 +267,7 @@ public class RuntimeImageAssetService {
 
             if (commonAsset != null) {
                 try {
-                    imageSize = imageService.getImageSize(commonAsset.getBlob().join());
+                    imageSize = imageService.getImageSize(commonAsset);
                 } catch (IOException exception) {
                     logger.error("Failed to read image size from resource image asset " + imageSource, exception);
                     commonAsset = null;
@@ -234,6 +283,8 @@ public class RuntimeImageAssetService {
             var runtimeImageAsset = registerRuntimeImageAsset(filePath);
             if (runtimeImageAsset != null) {
                 imageSize = runtimeImageAsset.getImageSize();
+                runtimeImageAsset.setLastUsedAt(OffsetDateTime.now());
+                runtimeImageAsset = getVariantFor(runtimeImageAsset, displaySize.apply(imageSize));
                 commonAsset = registerForPlayer(playerRef, runtimeImageAsset);
 
                 if (commonAsset == null) {
@@ -256,33 +307,130 @@ public class RuntimeImageAssetService {
             imageSize = IMAGE_NOT_FOUND_SIZE;
         }
 
-        return new ResolvedImageCommonAsset(commonAsset.getName(), imageSize);
+        return new ResolvedImageCommonAsset(commonAsset.getName(), displaySize.apply(imageSize));
+    }
+
+    /**
+     * Starts downloading online images, so they are downloaded in parallel before they are resolved
+     *
+     * @param imageSources Image sources, sources that are not online images are skipped
+     */
+    public void prefetch(Collection<String> imageSources) {
+        if (!configurationService.getDocsConfig().getRuntimeImageAssets().isEnabled()) {
+            return;
+        }
+
+        for (String imageSource : imageSources) {
+            if (imageSource.startsWith("http")) {
+                imageService.downloadImageFrom(imageSource);
+            }
+        }
     }
 
     /**
-     * Registers runtime image asset from specified file path. If file does not exist or error occurs while
-     * reading it, null is returned.
+     * Returns a future that completes once all downloads of images that were resolved as placeholders for the player
+     * finish, successfully or not. The downloads are forgotten afterward.
+     *
+     * @param playerRef Player reference
+     *
+     * @return Nullable future, null if there are no pending downloads
+     */
+    public CompletableFuture<Void> takePendingDownloads(PlayerRef playerRef) {
+        var pendingDownloads = PLAYER_PENDING_DOWNLOADS_MAP.remove(playerRef.getUuid());
+        if (pendingDownloads == null || pendingDownloads.isEmpty()) {
+            return null;
+        }
+
+        return CompletableFuture.allOf(pendingDownloads.stream()
+            .map(download -> download.exceptionally(throwable -> null))
+            .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Returns the smallest variant of the runtime image asset that is at least as large as the display size. Variants
+     * are downscaled to widths in steps of {@link #IMAGE_VARIANT_WIDTH_STEP} and cached in the file system cache.
+     * Returns the runtime image asset itself if it is not larger than the variant or the variant could not be created.
+     *
+     * @param runtimeImageAsset Runtime image asset
+     * @param displaySize       Size the image is shown at
+     *
+     * @return Variant or the runtime image asset
+     */
+    private RuntimeImageAsset getVariantFor(RuntimeImageAsset runtimeImageAsset, Vector2d displaySize) {
+        if (!configurationService.getDocsConfig().getRuntimeImageAssets().isDownscaleImages()) {
+            return runtimeImageAsset;
+        }
+
+        var imageSize = runtimeImageAsset.getImageSize();
+        // Keeps the aspect ratio, so the variant must cover both of the displayed dimensions
+        double scale = Math.max(displaySize.getX() / imageSize.getX(), displaySize.getY() / imageSize.getY());
+        int variantWidth = (int) Math.ceil(imageSize.getX() * scale / IMAGE_VARIANT_WIDTH_STEP) * IMAGE_VARIANT_WIDTH_STEP;
+
+        if (!(scale > 0) || variantWidth >= imageSize.getX()) {
+            return runtimeImageAsset;
+        }
+
+        var variantName = "%s@%dw".formatted(runtimeImageAsset.getId(), variantWidth);
+        var variantId = RUNTIME_IMAGE_ASSET_VARIANT_INDEX.get(variantName);
+        if (variantId != null) {
+            var variant = RUNTIME_IMAGE_ASSET_MAP.get(variantId);
+            if (variant != null) {
+                return variant;
+            }
+        }
+
+        var variantPath = fileSystemCacheService.getByName(variantName, CacheFileType.IMAGE_VARIANT)
+            .map(LoadedEntry::getFilePath)
+            .orElse(null);
+
+        if (variantPath == null) {
+            int variantHeight = Math.max(1, (int) Math.round(imageSize.getY() * variantWidth / imageSize.getX()));
+            try {
+                var variantData = imageService.createDownscaledPng(runtimeImageAsset.getData(), variantWidth, variantHeight);
+                variantPath = fileSystemCacheService.saveByName(variantName, CacheFileType.IMAGE_VARIANT, variantData).getFilePath();
+            } catch (Exception exception) {
+                logger.error("Failed to create variant %s of runtime image asset %s".formatted(
+                    variantName, runtimeImageAsset.getFilePath()
+                ), exception);
+                return runtimeImageAsset;
+            }
+        }
+
+        var variant = registerRuntimeImageAsset(variantPath);
+        if (variant == null) {
+            return runtimeImageAsset;
+        }
+        RUNTIME_IMAGE_ASSET_VARIANT_INDEX.put(variantName, variant.getId());
+        return variant;
+    }
+
+    /**
+     * Registers runtime image asset from specified file path. Assets are identified by their content, so the same image
+     * loaded from different paths is registered only once. If file does not exist or error occurs while reading it,
+     * null is returned.
      *
      * @param filePath File path
      *
      * @return Nullable RuntimeImageAsset
      */
     public RuntimeImageAsset registerRuntimeImageAsset(Path filePath) {
-        var existingRuntimeImageAsset = RUNTIME_IMAGE_ASSET_MAP.values().stream()
-            .filter(asset -> asset.getFilePath().equals(filePath))
-            .findFirst();
-
-        if (existingRuntimeImageAsset.isPresent()) {
-            return existingRuntimeImageAsset.get();
+        var indexedFileId = RUNTIME_IMAGE_ASSET_PATH_INDEX.get(filePath);
+        if (indexedFileId != null) {
+            var indexedRuntimeImageAsset = RUNTIME_IMAGE_ASSET_MAP.get(indexedFileId);
+            if (indexedRuntimeImageAsset != null) {
+                return indexedRuntimeImageAsset;
+            }
         }
 
         if (Files.exists(filePath)) {
             try {
-                // FIXME: This reads the file two times, little optimization needed
-                var pngFileBytes = imageService.convertToPngOrLoad(filePath);
-                var imageSize = imageService.getImageSize(pngFileBytes);
-                var runtimeImageAsset = new RuntimeImageAsset(filePath, imageSize, pngFileBytes);
-                RUNTIME_IMAGE_ASSET_MAP.put(runtimeImageAsset.getId(), runtimeImageAsset);
+                var loadedImage = imageService.loadPngImage(filePath);
+                var fileId = UUID.nameUUIDFromBytes(loadedImage.pngData());
+                // Same image may have been already loaded from a different path
+                var runtimeImageAsset = RUNTIME_IMAGE_ASSET_MAP.computeIfAbsent(fileId, id -> new RuntimeImageAsset(
+                    id, filePath, loadedImage.imageSize(), loadedImage.pngData()
+                ));
+                RUNTIME_IMAGE_ASSET_PATH_INDEX.put(filePath, fileId);
                 return runtimeImageAsset;
             } catch (IOException exception) {
                 logger.error("Failed to register runtime image asset " + filePath, exception);
@@ -6,11 +6,11 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import com.hypixel.hytale.common.plugin.PluginIdentifier;
@@ -26,11 +26,13 @@ import app.ultradev.hytaleuiparser.Validator;
 import app.ultradev.hytaleuiparser.ValidatorError;
 import enterprises.iwakura.docs.DocsPlugin;
 import enterprises.iwakura.docs.object.DocsContext;
-import enterprises.iwakura.docs.object.LastValidationEntry;
+import enterprises.iwakura.docs.ui.render.DocumentationTreeRenderer;
 import enterprises.iwakura.docs.util.ChatInfo;
+import enterprises.iwakura.docs.util.CompressedDumpBuffer;
 import enterprises.iwakura.docs.util.ExceptionUtils;
 import enterprises.iwakura.docs.util.Logger;
 import enterprises.iwakura.docs.util.ReflectionUtils;
+import enterprises.iwakura.docs.util.StringUtils;
 import enterprises.iwakura.sigewine.core.annotations.Bean;
 import io.sentry.SentryLevel;
 import lombok.RequiredArgsConstructor;
@@ -103,13 +105,26 @@ public class ValidatorService {
             // We're sorry for the inconvenience.
             """;
 
-    private static final List<LastValidationEntry> LAST_VALIDATION_ENTRIES = Collections.synchronizedList(
-        new ArrayList<>());
-    private static final Timer timer = new Timer();
-
     private final ConfigurationService configurationService;
     private final Logger logger;
 
+    /**
+     * Validation errors of already validated UI fragments, the least recently used first. Valid fragments have no
+     * errors.
+     */
+    private final Map<FragmentKey, List<String>> validatedFragments = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FragmentKey, List<String>> eldest) {
+            return size() > configurationService.getDocsConfig().getValidator().getValidationCacheSize();
+        }
+    };
+    private final AtomicLong validatedFragmentHits = new AtomicLong();
+    private final AtomicLong validatedFragmentMisses = new AtomicLong();
+    /**
+     * Dumps of the last validated UI for each player, dumped to a file if the player crashes
+     */
+    private final CompressedDumpBuffer validationDumps = new CompressedDumpBuffer();
+
     private Path uiDumpDirectory;
 
     /**
@@ -129,31 +144,27 @@ public class ValidatorService {
                     exception);
             }
         }
-
-        timer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                var validatorConfig = configurationService.getDocsConfig().getValidator();
-                try {
-                    LAST_VALIDATION_ENTRIES.removeIf(entry ->
-                        System.currentTimeMillis() - entry.getCreatedAt()
-                            > validatorConfig.getInMemoryDumpTimeToLiveMillis());
-                } catch (Exception exception) {
-                    logger.error("Failed to remove last validation entries", exception);
-                }
-            }
-        }, 0, 1000);
     }
 
     /**
-     * Puts validation entry for player
+     * Puts validation entry for player. Only the last few entries of each player are kept, compressed.
      *
      * @param playerRef Player ref
      * @param dump      Dump
      */
     public void putValidationEntry(PlayerRef playerRef, String dump) {
-        LAST_VALIDATION_ENTRIES.removeIf(entry -> entry.getPlayerUuid().equals(playerRef.getUuid()));
-        LAST_VALIDATION_ENTRIES.add(new LastValidationEntry(playerRef.getUuid(), dump));
+        var validatorConfig = configurationService.getDocsConfig().getValidator();
+        validationDumps.put(playerRef.getUuid(), dump, validatorConfig.getInMemoryDumpsPerPlayer(),
+            validatorConfig.getInMemoryDumpBudgetKilobytes() * 1024L);
+    }
+
+    /**
+     * Removes validation entries of player
+     *
+     * @param playerUuid Player UUID
+     */
+    public void clearValidationEntries(UUID playerUuid) {
+        validationDumps.remove(playerUuid);
     }
 
     /**
@@ -172,8 +183,8 @@ public class ValidatorService {
             return true;
         }
 
-        var ui = extractAllUI(commandBuilder);
-        List<String> errors = validateIfKytaleInstalled(playerRef, docsContext, ui);
+        var fragments = extractAllUI(docsContext, commandBuilder);
+        List<String> errors = validateIfKytaleInstalled(playerRef, docsContext, fragments);
 
         if (errors == null) {
             // Validation resulted in an exception
@@ -194,18 +205,24 @@ public class ValidatorService {
             }
 
             if (validatorConfig.isDumpInvalidUI()) {
-                dumpErrorsAndUI(String.valueOf(playerRef.getUuid()), docsContext, errors, ui);
+                dumpErrorsAndUI(String.valueOf(playerRef.getUuid()), docsContext, errors, joinFragments(fragments));
             } else {
                 logger.warn("Error dumping is disabled, no dump will be made.");
             }
             return !validatorConfig.isAggressive();
         }
 
-        putValidationEntry(playerRef, createDumpString(PLAYER_CRASHED_HEADER.formatted(docsContext), ui));
+        putValidationEntry(playerRef, createDumpString(PLAYER_CRASHED_HEADER.formatted(docsContext), joinFragments(fragments)));
         return true;
     }
 
-    private List<String> validateIfKytaleInstalled(PlayerRef playerRef, DocsContext docsContext, String ui) {
+    /**
+     * Validates the UI fragments one by one. Fragments that were already validated are not parsed again, their
+     * previous errors are used instead.
+     *
+     * @return Errors of all fragments, null if validation resulted in an exception
+     */
+    private List<String> validateIfKytaleInstalled(PlayerRef playerRef, DocsContext docsContext, List<UIFragment> fragments) {
         if (PluginManager.get().getPlugin(PluginIdentifier.fromString("AmoAster:Kytale")) == null) {
             if (!showedKytaleWarning) {
                 logger.warn("Kytale is not installed! HytaleUIParser cannot validate generated UI.");
@@ -215,22 +232,45 @@ public class ValidatorService {
         }
 
         var validatorConfig = configurationService.getDocsConfig().getValidator();
-        Validator validator;
-        try {
-            var root = new Parser(new Tokenizer(new StringReader(ui))).finish();
-            validator = new Validator(Map.of("inline.ui", root), false, null);
-            validator.validate();
-            return filterErrors(validator.getValidationErrors());
-        } catch (Exception exception) {
-            logger.error("Failed to parse UI by validator for docs context: %s".formatted(docsContext), exception);
-            if (validatorConfig.isDumpInvalidUI()) {
-                dumpString(String.valueOf(playerRef.getUuid()),
-                    createDumpString("%s\n%s".formatted(VALIDATOR_EXCEPTION_HEADER.formatted(docsContext), ExceptionUtils.dumpExceptionStacktrace("// ", exception)), ui));
+        var errors = new ArrayList<String>();
+
+        for (UIFragment fragment : fragments) {
+            var key = new FragmentKey(StringUtils.hash64(fragment.ui()), fragment.ui());
+            List<String> fragmentErrors;
+            synchronized (validatedFragments) {
+                fragmentErrors = validatedFragments.get(key);
+            }
+
+            if (fragmentErrors != null) {
+                validatedFragmentHits.incrementAndGet();
             } else {
-                logger.warn("Error dumping is disabled, no dump will be made.");
+                validatedFragmentMisses.incrementAndGet();
+                try {
+                    var root = new Parser(new Tokenizer(new StringReader(fragment.ui()))).finish();
+                    var validator = new Validator(Map.of("inline.ui", root), false, null);
+                    validator.validate();
+                    fragmentErrors = filterErrors(validator.getValidationErrors());
+                } catch (Exception exception) {
+                    logger.error("Failed to parse UI by validator for docs context: %s".formatted(docsContext), exception);
+                    if (validatorConfig.isDumpInvalidUI()) {
+                        dumpString(String.valueOf(playerRef.getUuid()),
+                            createDumpString("%s\n%s".formatted(VALIDATOR_EXCEPTION_HEADER.formatted(docsContext), ExceptionUtils.dumpExceptionStacktrace("// ", exception)), joinFragments(fragments)));
+                    } else {
+                        logger.warn("Error dumping is disabled, no dump will be made.");
+                    }
+                    return null;
+                }
+                synchronized (validatedFragments) {
+                    validatedFragments.put(key, fragmentErrors);
+                }
+            }
+
+            for (String error : fragmentErrors) {
+                errors.add("%s: %s".formatted(fragment.source(), error));
             }
-            return null;
         }
+
+        return errors;
     }
 
     private List<String> filterErrors(List<ValidatorError> errors) {
@@ -240,20 +280,41 @@ public class ValidatorService {
             .toList();
     }
 
-    private String extractAllUI(UICommandBuilder commandBuilder) {
-        StringBuilder ui = new StringBuilder();
+    /**
+     * Extracts UI fragments that are sent to the client, each is parsed by the client on its own
+     */
+    private List<UIFragment> extractAllUI(DocsContext docsContext, UICommandBuilder commandBuilder) {
+        var fragments = new ArrayList<UIFragment>();
 
         for (CustomUICommand command : ReflectionUtils.getCommands(commandBuilder)) {
             if (command.type == CustomUICommandType.AppendInline
                 || command.type == CustomUICommandType.InsertBeforeInline) {
-                ui.append("// ===========================================\n");
-                ui.append("// = AppendInline/InsertBeforeInline Command =\n");
-                ui.append("// Selector: ").append(command.selector).append("\n");
-                ui.append("\n");
-                ui.append(command.text);
+                fragments.add(new UIFragment(command.type + " Command", "Selector " + command.selector, command.text));
             }
         }
 
+        // Sent later as a diff, so the whole tree is validated
+        if (docsContext.getDocumentationTree() != null) {
+            fragments.add(new UIFragment("Documentation Tree", "Selector " + DocumentationTreeRenderer.DOCUMENTATION_TREE_SELECTOR, docsContext.getDocumentationTree().toMarkup()));
+        }
+
+        return fragments;
+    }
+
+    /**
+     * Joins the UI fragments into a single dump
+     */
+    private String joinFragments(List<UIFragment> fragments) {
+        StringBuilder ui = new StringBuilder();
+
+        for (UIFragment fragment : fragments) {
+            ui.append("// ===========================================\n");
+            ui.append("// = ").append(fragment.label()).append(" =\n");
+            ui.append("// ").append(fragment.source()).append("\n");
+            ui.append("\n");
+            ui.append(fragment.ui());
+        }
+
         return ui.toString();
     }
 
@@ -292,6 +353,62 @@ public class ValidatorService {
         }
     }
 
+    /**
+     * Returns the number of cached validation results of UI fragments
+     *
+     * @return Number of validated fragments
+     */
+    public int getValidatedFragmentCount() {
+        synchronized (validatedFragments) {
+            return validatedFragments.size();
+        }
+    }
+
+    /**
+     * Returns the number of UI fragments whose validation result was reused
+     *
+     * @return Number of hits
+     */
+    public long getValidatedFragmentHits() {
+        return validatedFragmentHits.get();
+    }
+
+    /**
+     * Returns the number of UI fragments that had to be parsed and validated
+     *
+     * @return Number of misses
+     */
+    public long getValidatedFragmentMisses() {
+        return validatedFragmentMisses.get();
+    }
+
+    /**
+     * Returns the number of validation entries kept in memory
+     *
+     * @return Number of entries
+     */
+    public int getValidationDumpCount() {
+        return validationDumps.size();
+    }
+
+    /**
+     * Returns the size of validation entries kept in memory, compressed
+     *
+     * @return Number of bytes
+     */
+    public long getValidationDumpCompressedBytes() {
+        return validationDumps.getCompressedBytes();
+    }
+
+    /**
+     * Returns the size of validation entries kept in memory, uncompressed
+     *
+     * @return Number of bytes
+     */
+    public long getValidationDumpUncompressedBytes() {
+        return validationDumps.getUncompressedBytes();
+    }
+
     /**
      * Handles crashed player
      *
@@ -301,14 +418,49 @@ public class ValidatorService {
         var validatorConfig = configurationService.getDocsConfig().getValidator();
 
         if (validatorConfig.isCheckForRecentlyCrashedPlayers()) {
-            LAST_VALIDATION_ENTRIES.stream()
-                .filter(x -> x.getPlayerUuid().equals(playerRef.getUuid()))
-                .findAny().ifPresent(lastValidationEntry -> {
-                    logger.error("It is possible that player %s has crashed due to generated UI! The last validated UI has been dumped to a file.".formatted(
-                        playerRef.getUuid()
-                    ));
-                    dumpString(String.valueOf(playerRef.getUuid()), lastValidationEntry.getDump());
-                });
+            var dumps = validationDumps.getDumps(playerRef.getUuid(), validatorConfig.getInMemoryDumpTimeToLiveMillis());
+            if (dumps.isEmpty()) {
+                return;
+            }
+
+            logger.error("It is possible that player %s has crashed due to generated UI! The last %d validated UIs have been dumped to a file.".formatted(
+                playerRef.getUuid(), dumps.size()
+            ));
+            dumpString(String.valueOf(playerRef.getUuid()), dumps.stream()
+                .map(CompressedDumpBuffer.Dump::content)
+                .collect(Collectors.joining("\n")));
+        }
+    }
+
+    /**
+     * UI markup that is parsed by the client on its own
+     *
+     * @param label  What the fragment is, used in dumps
+     * @param source Where the fragment is sent, used in errors and dumps
+     * @param ui     UI markup
+     */
+    private record UIFragment(String label, String source, String ui) {
+
+    }
+
+    /**
+     * Identifies the UI fragment by its markup. The hash (see {@link StringUtils#hash64(CharSequence)}) is used as the
+     * hash code and to tell most fragments apart, the markup is compared only if the hashes are equal, so colliding
+     * fragments do not share validation errors.
+     *
+     * @param hash Hash of the markup
+     * @param ui   UI markup
+     */
+    private record FragmentKey(long hash, String ui) {
+
+        @Override
+        public boolean equals(Object other) {
+            return this == other || other instanceof FragmentKey key && hash == key.hash && ui.equals(key.ui);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(hash);
         }
     }
 }
@@ -1,5 +1,8 @@
 package enterprises.iwakura.docs.ui;
 
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
 import org.jspecify.annotations.NonNull;
 
 import com.hypixel.hytale.codec.Codec;
@@ -16,8 +19,10 @@ import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 
 import enterprises.iwakura.docs.object.DocsContext;
+import enterprises.iwakura.docs.object.RenderedTree;
 import enterprises.iwakura.docs.service.DocumentationViewerService;
 import enterprises.iwakura.docs.ui.DocumentationViewerPage.PageData;
+import enterprises.iwakura.docs.ui.render.DocumentationTreeRenderer;
 import enterprises.iwakura.docs.util.Logger;
 import lombok.Data;
 
@@ -28,6 +33,22 @@ public class DocumentationViewerPage extends InteractiveCustomUIPage<PageData> {
     private final DocumentationViewerService documentationViewerService;
     private final Logger logger;
     private DocsContext docsContext;
+    /**
+     * Sequence of the latest requested render of each {@link RenderKind}, results of older renders are dropped
+     */
+    private final AtomicLongArray renderSequences = new AtomicLongArray(RenderKind.values().length);
+    /**
+     * Documentation tree render waiting for the search debounce window to pass
+     */
+    private Future<?> pendingDocumentationTreeRender;
+    /**
+     * Documentation tree the client currently shows, new trees are sent as a diff against it
+     */
+    private RenderedTree renderedDocumentationTree;
+    /**
+     * Selectors of the documentation tree's headers sent to the client, kept for the whole lifetime of the page
+     */
+    private final RenderedTree.HeaderSelectors documentationTreeHeaderSelectors = new RenderedTree.HeaderSelectors();
 
     public DocumentationViewerPage(
         PlayerRef playerRef,
@@ -51,6 +72,7 @@ public class DocumentationViewerPage extends InteractiveCustomUIPage<PageData> {
         // Base page UI
         commandBuilder.append("Docs/Pages/DocumentationViewerPage.ui");
         docsContext.mergeInto(commandBuilder, eventBuilder);
+        applyDocumentationTree(docsContext, commandBuilder, eventBuilder, true);
     }
 
     /**
@@ -59,11 +81,124 @@ public class DocumentationViewerPage extends InteractiveCustomUIPage<PageData> {
      * @param context UI Context
      * @param clear   If the interface should be cleared
      */
-    public void updateWithContext(DocsContext context, boolean clear) {
+    public synchronized void updateWithContext(DocsContext context, boolean clear) {
         docsContext = context;
+        applyDocumentationTree(context, context.getCommandBuilder(), context.getEventBuilder(), clear);
         sendUpdate(context.getCommandBuilder(), context.getEventBuilder(), clear);
     }
 
+    /**
+     * Adds commands replacing the shown documentation tree with the one rendered in the context, if any
+     *
+     * @param context        UI Context
+     * @param commandBuilder Command builder
+     * @param eventBuilder   Event builder
+     * @param replace        If the whole tree should be replaced instead of sending only the difference
+     */
+    private synchronized void applyDocumentationTree(
+        DocsContext context,
+        UICommandBuilder commandBuilder,
+        UIEventBuilder eventBuilder,
+        boolean replace
+    ) {
+        var documentationTree = context.getDocumentationTree();
+
+        if (documentationTree == null) {
+            return;
+        }
+
+        documentationTree.diffInto(
+            replace ? null : renderedDocumentationTree,
+            documentationTreeHeaderSelectors,
+            DocumentationTreeRenderer.DOCUMENTATION_TREE_SELECTOR,
+            commandBuilder,
+            eventBuilder
+        );
+        renderedDocumentationTree = documentationTree;
+    }
+
+    /**
+     * Replaces the content using the {@link DocsContext} if no other render of the same kind was requested since the
+     * specified one
+     *
+     * @param kind     Kind of the render
+     * @param context  UI Context
+     * @param sequence Sequence of the render, see {@link #nextRenderSequence(RenderKind)}
+     *
+     * @return True if the content was replaced, false if the render was superseded
+     */
+    public synchronized boolean updateWithContextIfLatest(RenderKind kind, DocsContext context, long sequence) {
+        if (!isLatestRender(kind, sequence)) {
+            return false;
+        }
+        updateWithContext(context, false);
+        return true;
+    }
+
+    /**
+     * Appends the content using the {@link DocsContext} if no other render of the same kind was requested since the
+     * specified one. The context of the page is kept.
+     *
+     * @param kind     Kind of the render
+     * @param context  UI Context with next chunk of the topic content
+     * @param sequence Sequence of the render, see {@link #nextRenderSequence(RenderKind)}
+     *
+     * @return True if the content was appended, false if the render was superseded
+     */
+    public synchronized boolean appendWithContextIfLatest(RenderKind kind, DocsContext context, long sequence) {
+        if (!isLatestRender(kind, sequence)) {
+            return false;
+        }
+        sendUpdate(context.getCommandBuilder(), context.getEventBuilder(), false);
+        return true;
+    }
+
+    /**
+     * Supersedes all previously requested renders of the kind
+     *
+     * @param kind Kind of the render
+     *
+     * @return Sequence of the new render
+     */
+    public long nextRenderSequence(RenderKind kind) {
+        return renderSequences.incrementAndGet(kind.ordinal());
+    }
+
+    /**
+     * Checks whenever the render is the latest requested one of its kind
+     *
+     * @param kind     Kind of the render
+     * @param sequence Sequence of the render
+     *
+     * @return True if yes, false otherwise
+     */
+    public boolean isLatestRender(RenderKind kind, long sequence) {
+        return renderSequences.get(kind.ordinal()) == sequence;
+    }
+
+    /**
+     * Supersedes all previously requested renders of all kinds, e.g. when the page gets replaced by a new one
+     */
+    public void supersedeRenders() {
+        for (RenderKind kind : RenderKind.values()) {
+            nextRenderSequence(kind);
+        }
+        setPendingDocumentationTreeRender(null);
+    }
+
+    /**
+     * Sets the documentation tree render that is waiting for the search debounce window, cancelling the previous
+     * one if it did not start yet
+     *
+     * @param pendingRender Pending render
+     */
+    public synchronized void setPendingDocumentationTreeRender(Future<?> pendingRender) {
+        if (pendingDocumentationTreeRender != null) {
+            pendingDocumentationTreeRender.cancel(false);
+        }
+        pendingDocumentationTreeRender = pendingRender;
+    }
+
     @Override
     public void handleDataEvent(
         @NonNull Ref<EntityStore> ref,
@@ -115,6 +250,14 @@ public class DocumentationViewerPage extends InteractiveCustomUIPage<PageData> {
         return player;
     }
 
+    /**
+     * Kind of render sent to the page. Renders of the same kind replace each other, so only the latest one is sent.
+     */
+    public enum RenderKind {
+        DOCUMENTATION_TREE,
+        TOPIC_CONTENT
+    }
+
     @Data
     public static class PageData {
 
@@ -122,18 +265,21 @@ public class DocumentationViewerPage extends InteractiveCustomUIPage<PageData> {
         public static final String SEND_CHAT_URL_FIELD = "SendChatUrl";
         public static final String TOPIC_SEARCH_QUERY_FIELD = "@TopicSearchQuery";
         public static final String INTERFACE_ACTION_FIELD = "InterfaceAction";
+        public static final String TREE_NODE_FIELD = "TreeNode";
 
         public static final BuilderCodec<PageData> CODEC = BuilderCodec.builder(PageData.class, PageData::new)
             .append(new KeyedCodec<>(OPEN_TOPIC_FIELD, Codec.STRING), PageData::setOpenTopic, PageData::getOpenTopic).add()
             .append(new KeyedCodec<>(SEND_CHAT_URL_FIELD, Codec.STRING), PageData::setSendChatUrl, PageData::getSendChatUrl).add()
             .append(new KeyedCodec<>(TOPIC_SEARCH_QUERY_FIELD, Codec.STRING), PageData::setTopicSearchQuery, PageData::getTopicSearchQuery).add()
             .append(new KeyedCodec<>(INTERFACE_ACTION_FIELD, Codec.STRING), PageData::setInterfaceActionValue, PageData::getInterfaceActionValue).add()
+            .append(new KeyedCodec<>(TREE_NODE_FIELD, Codec.STRING), PageData::setTreeNode, PageData::getTreeNode).add()
             .build();
 
         private String openTopic;
         private String sendChatUrl;
         private String topicSearchQuery;
         private String interfaceActionValue;
+        private String treeNode;
 
         public InterfaceAction getInterfaceAction() {
             return interfaceActionValue != null ? InterfaceAction.valueOf(interfaceActionValue) : null;
@@ -149,7 +295,10 @@ public class DocumentationViewerPage extends InteractiveCustomUIPage<PageData> {
             SEARCH,
             OPEN_ABOUT_VOILE_PAGE,
             TOGGLE_FULL_TEXT_SEARCH,
-            OPEN_LOCALE_TYPE_SELECTOR_PAGE;
+            OPEN_LOCALE_TYPE_SELECTOR_PAGE,
+            EXPAND_TREE_NODE,
+            COLLAPSE_TREE_NODE,
+            LOAD_MORE_DOCUMENTATIONS;
         }
     }
 }
@@ -1,34 +1,72 @@
 package enterprises.iwakura.docs.ui.render;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import enterprises.iwakura.docs.object.Documentation;
 import enterprises.iwakura.docs.object.DocsContext;
+import enterprises.iwakura.docs.object.DocumentationTreeExpansion;
+import enterprises.iwakura.docs.object.LocalizedTopicTree;
+import enterprises.iwakura.docs.object.RenderedTree;
+import enterprises.iwakura.docs.object.Topic;
+import enterprises.iwakura.docs.object.TopicSearchResult;
+import enterprises.iwakura.docs.object.TopicVisibility;
 import enterprises.iwakura.docs.service.DocumentationSearchService;
 import enterprises.iwakura.docs.service.DocumentationService;
 import enterprises.iwakura.docs.service.MarkdownService;
-import enterprises.iwakura.docs.ui.render.DocumentationTreeTopicRenderer.RenderData;
-import enterprises.iwakura.docs.util.BoyerMooreSearch.SearchPattern;
+import enterprises.iwakura.docs.ui.CommonStyles;
+import enterprises.iwakura.docs.ui.render.DocumentationRenderer.RenderData;
+import enterprises.iwakura.docs.util.InterfaceUtils;
+import enterprises.iwakura.docs.util.UITemplate;
 import enterprises.iwakura.sigewine.core.annotations.Bean;
+import lombok.Data;
 import lombok.RequiredArgsConstructor;
 
 @Bean
 @RequiredArgsConstructor
-public class DocumentationRenderer implements Renderer<Documentation> {
+public class DocumentationRenderer implements Renderer<RenderData> {
 
-    private final DocumentationTreeTopicRenderer documentationTreeTopicRenderer;
-    private final MarkdownService markdownService;
-    private final DocumentationSearchService documentationSearchService;
+    /**
+     * Start of the documentation's group, followed by {@link #DOCUMENTATION_HEADER_TEMPLATE} and groups of its topics
+     */
+    private static final UITemplate DOCUMENTATION_START_TEMPLATE = UITemplate.compile(
+        """
+        // DocumentationRenderer#render()
+        Group #{{group-selector}} {
+            LayoutMode: Top;
+            Padding: (Bottom: 10);
 
-    @Override
-    public String render(DocsContext ctx, Documentation documentation) {
-        var treeUI = """
-            // DocumentationRenderer#render()
-            Group {
-                LayoutMode: Top;
-                Padding: (Bottom: 10);
+        """, "group-selector");
+    private static final UITemplate DOCUMENTATION_HEADER_TEMPLATE = UITemplate.compile(
+        """
+            Label #{{label-selector}} {
+                Text: "{{name}}";
+                Style: (
+                    FontSize: 16,
+                    FontName: "Secondary",
+                    Wrap: true,
+                    RenderUppercase: true
+                );
+            }
+
+        """, "label-selector", "name");
+    /**
+     * Header of documentation with topics, which can be expanded and collapsed
+     */
+    private static final UITemplate COLLAPSIBLE_DOCUMENTATION_HEADER_TEMPLATE = UITemplate.builder(
+        """
+            Group #{{header-selector}} {
+                LayoutMode: Left;
+
+                TextButton #{{toggle-selector}} {
+                    Anchor: (Width: 20);
+                    Text: "{{toggle-text}}";
+                    Style: {{toggle-style}}
+                }
 
                 Label {
+                    FlexWeight: 1;
                     Text: "{{name}}";
                     Style: (
                         FontSize: 16,
@@ -37,24 +75,107 @@ public class DocumentationRenderer implements Renderer<Documentation> {
                         RenderUppercase: true
                     );
                 }
+            }
+
+        """)
+        .constant("toggle-style", CommonStyles.NORMAL_TOPIC_BUTTON_STYLE)
+        .slots("header-selector", "toggle-selector", "toggle-text", "name")
+        .build();
+
+    private final DocumentationTreeTopicRenderer documentationTreeTopicRenderer;
+    private final MarkdownService markdownService;
+    private final DocumentationSearchService documentationSearchService;
 
-                {{topics}}
+    @Override
+    public String render(DocsContext ctx, RenderData renderData) {
+        var node = renderNode(ctx, renderData);
+        node.bindInto(ctx.getEventBuilder());
+        return node.toMarkup();
+    }
+
+    /**
+     * Renders the documentation with its visible topics as a node of the documentation tree
+     *
+     * @param ctx        Docs context
+     * @param renderData Render data
+     *
+     * @return Rendered node, its event bindings are not added to the context
+     */
+    public RenderedTree.Node renderNode(DocsContext ctx, RenderData renderData) {
+        var documentation = renderData.getDocumentation();
+        var searchResult = renderData.getSearchResult();
+        var topicVisibility = renderData.getTopicVisibility();
+
+        var key = getNodeKey(documentation);
+        var groupSelector = InterfaceUtils.generateSelector(key);
+        var headerSelector = groupSelector + "Header";
+        var name = markdownService.escapeText(documentation.getName());
+        var expansion = renderData.getExpansion();
+
+        if (documentation.getTopics().isEmpty()) {
+            return new RenderedTree.Node(
+                groupSelector,
+                DOCUMENTATION_START_TEMPLATE.render(groupSelector),
+                new RenderedTree.Header(headerSelector, DOCUMENTATION_HEADER_TEMPLATE.render(headerSelector, name), null, null),
+                List.of()
+            );
+        }
+
+        boolean expanded = expansion == null || expansion.isDocumentationExpanded(key);
+        var toggleSelector = groupSelector + "Toggle";
+        var header = new RenderedTree.Header(
+            headerSelector,
+            COLLAPSIBLE_DOCUMENTATION_HEADER_TEMPLATE.render(headerSelector, toggleSelector, expanded ? "-" : "+", name),
+            DocumentationTreeTopicRenderer.getToggleEventKey(key, expanded),
+            DocumentationTreeTopicRenderer.createToggleEventBinder(toggleSelector, key, expanded)
+        );
+
+        // Topics of collapsed documentations are not rendered at all
+        var topics = new ArrayList<RenderedTree.Node>();
+        if (expanded) {
+            for (LocalizedTopicTree.Node node : documentationSearchService.getLocalizedTopics(documentation, ctx.getInterfaceState().getPreferredLocaleType())) {
+                if ((searchResult == null || searchResult.matchesSubtree(node.topic()))
+                    && documentationSearchService.canSeeAnyTopic(ctx.getPlayerRef(), topicVisibility, node)) {
+                    topics.add(documentationTreeTopicRenderer.renderNode(ctx, new DocumentationTreeTopicRenderer.RenderData(documentation, key, node, searchResult, topicVisibility, renderData.getSelectableTopics(), expansion)));
+                }
             }
-            """;
-
-        StringBuilder topicsUI = new StringBuilder();
-
-        var searchPattern = ctx.hasTopicSearchQuery() ? SearchPattern.of(ctx.getInterfaceState().getTopicSearchQuery()) : null;
-        documentation.getTopics()
-            .stream()
-            .filter(topic -> !ctx.hasTopicSearchQuery() || documentationSearchService.searchTopic(topic, searchPattern, ctx.getInterfaceState().getPreferredLocaleType(), ctx.getInterfaceState().isFullTextSearch()))
-            .filter(topic -> documentationSearchService.canSeeAnyTopic(ctx.getPlayerRef(), List.of(topic)))
-            .forEach(topic -> {
-                topicsUI.append(documentationTreeTopicRenderer.render(ctx, new RenderData(documentation, documentationSearchService.getLocalePreferredTopic(topic, ctx.getInterfaceState().getPreferredLocaleType()))));
-            });
-
-        return treeUI
-            .replace("{{name}}", markdownService.escapeText(documentation.getName()))
-            .replace("{{topics}}", topicsUI);
+        }
+
+        return new RenderedTree.Node(groupSelector, DOCUMENTATION_START_TEMPLATE.render(groupSelector), header, topics);
+    }
+
+    /**
+     * Returns key of the documentation's node in the documentation tree, see
+     * {@link InterfaceUtils#generateSelector(String)} and {@link DocumentationTreeExpansion}
+     *
+     * @param documentation Documentation
+     *
+     * @return Node key
+     */
+    public static String getNodeKey(Documentation documentation) {
+        return "DocumentationTree/%s:%s".formatted(documentation.getGroup(), documentation.getId());
+    }
+
+    @Data
+    public static class RenderData {
+
+        private final Documentation documentation;
+        /**
+         * Evaluated topic search, null if there's no search query
+         */
+        private final TopicSearchResult searchResult;
+        /**
+         * Player's topic visibility, evaluated once for the whole tree
+         */
+        private final TopicVisibility topicVisibility;
+        /**
+         * Collects rendered topics by their identity, see
+         * {@link DocumentationTreeTopicRenderer.RenderData#getSelectableTopics()}. Nullable.
+         */
+        private final Map<Topic, DocumentationTreeTopicRenderer.SelectableTopic> selectableTopics;
+        /**
+         * Expanded and collapsed nodes of the documentation tree, null if all nodes are expanded
+         */
+        private final DocumentationTreeExpansion expansion;
     }
 }
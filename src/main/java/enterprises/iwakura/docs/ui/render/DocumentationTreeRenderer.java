@@ -1,7 +1,15 @@
 package enterprises.iwakura.docs.ui.render;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 import com.hypixel.hytale.protocol.packets.interface_.CustomUIEventBindingType;
 import com.hypixel.hytale.server.core.Message;
@@ -12,16 +20,26 @@ import com.hypixel.hytale.server.core.ui.builder.EventData;
 import enterprises.iwakura.docs.object.Documentation;
 import enterprises.iwakura.docs.object.DocumentationType;
 import enterprises.iwakura.docs.object.DocsContext;
+import enterprises.iwakura.docs.object.DocumentationTreeExpansion;
 import enterprises.iwakura.docs.object.InterfaceMode;
 import enterprises.iwakura.docs.object.LocaleType;
+import enterprises.iwakura.docs.object.RenderedTree;
+import enterprises.iwakura.docs.object.Topic;
+import enterprises.iwakura.docs.object.TopicSearchMatch;
+import enterprises.iwakura.docs.object.TopicSearchResult;
+import enterprises.iwakura.docs.object.TopicVisibility;
 import enterprises.iwakura.docs.service.ConfigurationService;
 import enterprises.iwakura.docs.service.DocumentationSearchService;
 import enterprises.iwakura.docs.service.DocumentationService;
 import enterprises.iwakura.docs.service.DocumentationViewerService;
+import enterprises.iwakura.docs.service.MarkdownService;
 import enterprises.iwakura.docs.ui.CommonStyles;
 import enterprises.iwakura.docs.ui.DocumentationViewerPage.PageData;
 import enterprises.iwakura.docs.ui.DocumentationViewerPage.PageData.InterfaceAction;
+import enterprises.iwakura.docs.ui.render.DocumentationTreeTopicRenderer.SelectableTopic;
 import enterprises.iwakura.docs.util.BoyerMooreSearch.SearchPattern;
+import enterprises.iwakura.docs.util.InterfaceUtils;
+import enterprises.iwakura.docs.util.UITemplate;
 import enterprises.iwakura.sigewine.core.annotations.Bean;
 import enterprises.iwakura.sigewine.core.utils.BeanAccessor;
 import io.github.insideranh.talemessage.TaleMessage;
@@ -32,6 +50,7 @@ import lombok.RequiredArgsConstructor;
 public class DocumentationTreeRenderer implements Renderer<List<Documentation>> {
 
     public static final int MAX_HISTORY = 20;
+    public static final int MAX_RENDERED_DOCUMENTATION_TREES = 64;
     public static final String DOCUMENTATION_TREE_SELECTOR = "#DocumentationTree";
     public static final String CHANGE_MODE_BUTTON_SELECTOR = "#ChangeModeButton";
     public static final String CHANGE_MODE_BUTTON_ICON_SELECTOR = "#ChangeModeButtonIcon";
@@ -41,6 +60,245 @@ public class DocumentationTreeRenderer implements Renderer<List<Documentation>>
     public static final String FULL_TEXT_SEARCH_BUTTON_SELECTOR = "#FullTextSearchButton";
     public static final String LOCALE_TYPE_SELECTOR_BUTTON_SELECTOR = "#LocaleTypeSelectorButton";
     public static final String TOPIC_SEARCH_BAR_SELECTOR = "#TopicSearchBar";
+    public static final String SEARCH_RESULTS_SELECTOR = "#SearchResults";
+
+    private static final UITemplate RENDER_TEMPLATE = UITemplate.builder(
+        """
+        // DocumentationTreeRenderer#render()
+        Group {
+            Padding: (Vertical: 40);
+            LayoutMode: Top;
+            FlexWeight: 1;
+
+            Group {
+                LayoutMode: Left;
+                Padding: (Left: 10, Right: 10, Bottom: 10);
+
+                Group {
+                    Padding: (Right: 10);
+
+                    TextButton {{locale-type-selector-button-selector}} {
+                        Anchor: (Width: 40, Height: 40);
+                        Style: {{interface-button-style}};
+                        TooltipText: "Changes your preferred language";
+                        TextTooltipStyle: {{interface-button-tooltip-style-short}};
+                    }
+
+                    AssetImage {
+                        Anchor: (Width: 24, Height: 24);
+                        AssetPath: "UI/Custom/Docs/Images/Flags/{{current-locale-type-flag-code}}.png";
+                    }
+                }
+
+                Group {
+                    Padding: (Right: 10);
+
+                    TextButton {{change-mode-button-selector}} {
+                        Anchor: (Width: 40, Height: 40);
+                        Style: {{interface-button-style}};
+                        TextTooltipStyle: {{interface-button-tooltip-style-short}};
+                        TextTooltipShowDelay: 0.1;
+                    }
+
+                    AssetImage {{change-mode-button-icon-selector}} {
+                        Anchor: (Width: 24, Height: 24);
+                        AssetPath: "UI/Custom/Docs/Images/left-arrow.png";
+                    }
+                }
+
+
+                Group {
+                    Padding: (Right: 10);
+
+                    TextButton {{go-back-button-selector}} {
+                        Anchor: (Width: 40, Height: 40);
+                        Style: {{interface-button-style}};
+                        TextTooltipStyle: {{interface-button-tooltip-style-wide}};
+                        TextTooltipShowDelay: 0.1;
+                    }
+
+                    AssetImage {
+                        Anchor: (Width: 24, Height: 24);
+                        AssetPath: "UI/Custom/Docs/Images/left-arrow.png";
+                    }
+                }
+
+                Group {
+                    Padding: (Right: 10);
+
+                    TextButton {{go-forward-button-selector}} {
+                        Anchor: (Width: 40, Height: 40);
+                        Style: {{interface-button-style}};
+                        TextTooltipStyle: {{interface-button-tooltip-style-wide}};
+                        TextTooltipShowDelay: 0.1;
+                    }
+
+                    AssetImage {
+                        Anchor: (Width: 24, Height: 24);
+                        AssetPath: "UI/Custom/Docs/Images/right-arrow.png";
+                    }
+                }
+
+                Group {
+                    Padding: (Right: 10);
+
+                    TextButton {{go-home-button-selector}} {
+                        Anchor: (Width: 40, Height: 40);
+                        Style: {{interface-button-style}};
+                        TooltipText: "Opens the default topic";
+                        TextTooltipStyle: {{interface-button-tooltip-style-wide}};
+                    }
+
+                    AssetImage {
+                        Anchor: (Width: 24, Height: 24);
+                        AssetPath: "UI/Custom/Docs/Images/home.png";
+                    }
+                }
+
+                Group {
+                    Padding: (Right: 10);
+
+                    TextButton {{full-text-search-button-selector}} {
+                        Anchor: (Width: 40, Height: 40);
+                        Style: {{interface-button-style}};
+                        TooltipText: "Enables/disables full-text search";
+                        TextTooltipStyle: {{interface-button-tooltip-style-wide}};
+                    }
+
+                    AssetImage {
+                        Anchor: (Width: 24, Height: 24);
+                        AssetPath: "UI/Custom/Docs/Images/search-icon.png";
+                    }
+                }
+            }
+
+            Group {
+                LayoutMode: Left;
+                Padding: (Left: 10, Right: 10, Bottom: 10);
+
+                @TextField {{topic-search-bar-selector}} {
+                    @Anchor = (Height: 40, Width: 285);
+                    PlaceholderText: "Search for topic...";
+                }
+            }
+
+            Group {
+                Padding: (Left: 10, Right: 10, Bottom: 10);
+                Anchor: (Height: 750);
+                Background: #121a24;
+                OutlineColor: #203651;
+                OutlineSize: 2;
+
+                Group {
+                    Padding: (Horizontal: 5, Top: 10);
+                    LayoutMode: TopScrolling;
+                    ScrollbarStyle: (
+                        Spacing: 6,
+                        Size: 6,
+                        Background: (TexturePath: "Common/Scrollbar.png", Border: 3),
+                        Handle: (TexturePath: "Common/ScrollbarHandle.png", Border: 3),
+                        HoveredHandle: (TexturePath: "Common/ScrollbarHandleHovered.png", Border: 3),
+                        DraggedHandle: (TexturePath: "Common/ScrollbarHandleDragged.png", Border: 3),
+                        OnlyVisibleWhenHovered: true
+                    );
+
+                    Group {{search-results-selector}} {
+                        LayoutMode: Top;
+                    }
+
+                    Group {{documentation-tree-selector}} {
+                        Padding: (Horizontal: 5);
+                        LayoutMode: Top;
+                    }
+                }
+            }
+        }
+        """)
+        .constant("change-mode-button-selector", CHANGE_MODE_BUTTON_SELECTOR)
+        .constant("change-mode-button-icon-selector", CHANGE_MODE_BUTTON_ICON_SELECTOR)
+        .constant("go-back-button-selector", GO_BACK_BUTTON_SELECTOR)
+        .constant("go-forward-button-selector", GO_FORWARD_BUTTON_SELECTOR)
+        .constant("go-home-button-selector", GO_HOME_BUTTON_SELECTOR)
+        .constant("full-text-search-button-selector", FULL_TEXT_SEARCH_BUTTON_SELECTOR)
+        .constant("locale-type-selector-button-selector", LOCALE_TYPE_SELECTOR_BUTTON_SELECTOR)
+        .constant("topic-search-bar-selector", TOPIC_SEARCH_BAR_SELECTOR)
+        .constant("documentation-tree-selector", DOCUMENTATION_TREE_SELECTOR)
+        .constant("search-results-selector", SEARCH_RESULTS_SELECTOR)
+        .constant("interface-button-style", CommonStyles.INTERFACE_SECONDARY_BUTTON_STYLE)
+        .constant("interface-button-tooltip-style-short", CommonStyles.TOOLTIP_STYLE_SHORT)
+        .constant("interface-button-tooltip-style-wide", CommonStyles.TOOLTIP_STYLE_WIDE)
+        .slots("current-locale-type-flag-code")
+        .build();
+
+    private static final UITemplate DOCUMENTATION_TYPE_START_TEMPLATE = UITemplate.compile(
+        """
+        Group #{{group-selector}} {
+            Padding: (Bottom: 5);
+
+        """, "group-selector");
+    private static final UITemplate DOCUMENTATION_TREE_LABEL_TEMPLATE = UITemplate.compile(
+        """
+            Label #{{label-selector}} {
+                Text: "{{text}}";
+                Style: (
+                    TextColor: #4b6b96,
+                    HorizontalAlignment: Center
+                );
+            }
+        """, "label-selector", "text");
+    private static final UITemplate NO_DOCUMENTATIONS_START_TEMPLATE = UITemplate.compile(
+        """
+        // DocumentationTreeRenderer#clearAndAppendInline()
+        Group #{{group-selector}} {
+        """, "group-selector");
+
+    private static final UITemplate LOAD_MORE_START_TEMPLATE = UITemplate.compile(
+        """
+        // DocumentationTreeRenderer#renderDocumentationTree()[load-more]
+        Group #{{group-selector}} {
+            Padding: (Bottom: 10);
+
+        """, "group-selector");
+    private static final UITemplate LOAD_MORE_BUTTON_TEMPLATE = UITemplate.builder(
+        """
+            TextButton #{{button-selector}} {
+                Text: "Load more ({{remaining}} more documentations)";
+                Style: {{button-style}}
+            }
+        """)
+        .constant("button-style", CommonStyles.MATCHES_SEARCH_TOPIC_BUTTON_STYLE)
+        .slots("button-selector", "remaining")
+        .build();
+
+    private static final UITemplate RANKED_TOPIC_TEMPLATE = UITemplate.builder(
+        """
+        TextButton #{{button-selector}} {
+            Text: "{{name}}";
+            Style: {{button-style}}
+        }
+        """)
+        .constant("button-style", CommonStyles.MATCHES_SEARCH_TOPIC_BUTTON_STYLE)
+        .slots("button-selector", "name")
+        .build();
+
+    private static final UITemplate RANKED_TOPICS_TEMPLATE = UITemplate.compile(
+        """
+        // DocumentationTreeRenderer#renderRankedTopics()
+        Group {
+            Padding: (Horizontal: 5, Bottom: 10);
+            LayoutMode: Top;
+
+            Label {
+                Text: "——— Best matches ———";
+                Style: (
+                    TextColor: #4b6b96,
+                    HorizontalAlignment: Center
+                );
+            }
+
+            {{ranked-topics}}
+        }
+        """, "ranked-topics");
 
     @Bean
     private final BeanAccessor<DocumentationViewerService> documentationViewerService = new BeanAccessor<>(DocumentationViewerService.class);
@@ -48,6 +306,20 @@ public class DocumentationTreeRenderer implements Renderer<List<Documentation>>
     private final DocumentationService documentationService;
     private final DocumentationSearchService documentationSearchService;
     private final ConfigurationService configurationService;
+    private final MarkdownService markdownService;
+    private final DocumentationTreeTopicRenderer documentationTreeTopicRenderer;
+
+    /**
+     * Rendered documentation trees, the least recently used first
+     */
+    private final Map<DocumentationTreeKey, RenderedDocumentationTree> renderedDocumentationTrees = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<DocumentationTreeKey, RenderedDocumentationTree> eldest) {
+            return size() > MAX_RENDERED_DOCUMENTATION_TREES;
+        }
+    };
+    private final AtomicLong renderedDocumentationTreeHits = new AtomicLong();
+    private final AtomicLong renderedDocumentationTreeMisses = new AtomicLong();
 
     @Override
     public String render(DocsContext ctx, List<Documentation> documentations) {
@@ -115,179 +387,50 @@ public class DocumentationTreeRenderer implements Renderer<List<Documentation>>
             false
         );
 
-        return """
-            // DocumentationTreeRenderer#render()
-            Group {
-                Padding: (Vertical: 40);
-                LayoutMode: Top;
-                FlexWeight: 1;
-
-                Group {
-                    LayoutMode: Left;
-                    Padding: (Left: 10, Right: 10, Bottom: 10);
-
-                    Group {
-                        Padding: (Right: 10);
-
-                        TextButton {{locale-type-selector-button-selector}} {
-                            Anchor: (Width: 40, Height: 40);
-                            Style: {{interface-button-style}};
-                            TooltipText: "Changes your preferred language";
-                            TextTooltipStyle: {{interface-button-tooltip-style-short}};
-                        }
-
-                        AssetImage {
-                            Anchor: (Width: 24, Height: 24);
-                            AssetPath: "UI/Custom/Docs/Images/Flags/{{current-locale-type-flag-code}}.png";
-                        }
-                    }
-
-                    Group {
-                        Padding: (Right: 10);
-
-                        TextButton {{change-mode-button-selector}} {
-                            Anchor: (Width: 40, Height: 40);
-                            Style: {{interface-button-style}};
-                            TextTooltipStyle: {{interface-button-tooltip-style-short}};
-                            TextTooltipShowDelay: 0.1;
-                        }
-
-                        AssetImage {{change-mode-button-icon-selector}} {
-                            Anchor: (Width: 24, Height: 24);
-                            AssetPath: "UI/Custom/Docs/Images/left-arrow.png";
-                        }
-                    }
-
-
-                    Group {
-                        Padding: (Right: 10);
-
-                        TextButton {{go-back-button-selector}} {
-                            Anchor: (Width: 40, Height: 40);
-                            Style: {{interface-button-style}};
-                            TextTooltipStyle: {{interface-button-tooltip-style-wide}};
-                            TextTooltipShowDelay: 0.1;
-                        }
-
-                        AssetImage {
-                            Anchor: (Width: 24, Height: 24);
-                            AssetPath: "UI/Custom/Docs/Images/left-arrow.png";
-                        }
-                    }
-
-                    Group {
-                        Padding: (Right: 10);
-
-                        TextButton {{go-forward-button-selector}} {
-                            Anchor: (Width: 40, Height: 40);
-                            Style: {{interface-button-style}};
-                            TextTooltipStyle: {{interface-button-tooltip-style-wide}};
-                            TextTooltipShowDelay: 0.1;
-                        }
-
-                        AssetImage {
-                            Anchor: (Width: 24, Height: 24);
-                            AssetPath: "UI/Custom/Docs/Images/right-arrow.png";
-                        }
-                    }
-
-                    Group {
-                        Padding: (Right: 10);
-
-                        TextButton {{go-home-button-selector}} {
-                            Anchor: (Width: 40, Height: 40);
-                            Style: {{interface-button-style}};
-                            TooltipText: "Opens the default topic";
-                            TextTooltipStyle: {{interface-button-tooltip-style-wide}};
-                        }
-
-                        AssetImage {
-                            Anchor: (Width: 24, Height: 24);
-                            AssetPath: "UI/Custom/Docs/Images/home.png";
-                        }
-                    }
-
-                    Group {
-                        Padding: (Right: 10);
-
-                        TextButton {{full-text-search-button-selector}} {
-                            Anchor: (Width: 40, Height: 40);
-                            Style: {{interface-button-style}};
-                            TooltipText: "Enables/disables full-text search";
-                            TextTooltipStyle: {{interface-button-tooltip-style-wide}};
-                        }
-
-                        AssetImage {
-                            Anchor: (Width: 24, Height: 24);
-                            AssetPath: "UI/Custom/Docs/Images/search-icon.png";
-                        }
-                    }
-                }
-
-                Group {
-                    LayoutMode: Left;
-                    Padding: (Left: 10, Right: 10, Bottom: 10);
-
-                    @TextField {{topic-search-bar-selector}} {
-                        @Anchor = (Height: 40, Width: 285);
-                        PlaceholderText: "Search for topic...";
-                    }
-                }
-
-                Group {
-                    Padding: (Left: 10, Right: 10, Bottom: 10);
-                    Anchor: (Height: 750);
-                    Background: #121a24;
-                    OutlineColor: #203651;
-                    OutlineSize: 2;
-
-                    Group {
-                        Padding: (Horizontal: 5, Top: 10);
-                        LayoutMode: TopScrolling;
-                        ScrollbarStyle: (
-                            Spacing: 6,
-                            Size: 6,
-                            Background: (TexturePath: "Common/Scrollbar.png", Border: 3),
-                            Handle: (TexturePath: "Common/ScrollbarHandle.png", Border: 3),
-                            HoveredHandle: (TexturePath: "Common/ScrollbarHandleHovered.png", Border: 3),
-                            DraggedHandle: (TexturePath: "Common/ScrollbarHandleDragged.png", Border: 3),
-                            OnlyVisibleWhenHovered: true
-                        );
-
-                        Group {{documentation-tree-selector}} {
-                        }
-                    }
-                }
-            }
-            """
-            .replace("{{change-mode-button-selector}}", CHANGE_MODE_BUTTON_SELECTOR)
-            .replace("{{change-mode-button-icon-selector}}", CHANGE_MODE_BUTTON_ICON_SELECTOR)
-            .replace("{{go-back-button-selector}}", GO_BACK_BUTTON_SELECTOR)
-            .replace("{{go-forward-button-selector}}", GO_FORWARD_BUTTON_SELECTOR)
-            .replace("{{go-home-button-selector}}", GO_HOME_BUTTON_SELECTOR)
-            .replace("{{full-text-search-button-selector}}", FULL_TEXT_SEARCH_BUTTON_SELECTOR)
-            .replace("{{locale-type-selector-button-selector}}", LOCALE_TYPE_SELECTOR_BUTTON_SELECTOR)
-            .replace("{{topic-search-bar-selector}}", TOPIC_SEARCH_BAR_SELECTOR)
-            .replace("{{documentation-tree-selector}}", DOCUMENTATION_TREE_SELECTOR)
-            .replace("{{interface-full-text-search-button-style}}", ctx.getInterfaceState().isFullTextSearch() ? CommonStyles.INTERFACE_PRIMARY_BUTTON_STYLE : CommonStyles.INTERFACE_SECONDARY_BUTTON_STYLE)
-            .replace("{{current-locale-type-flag-code}}", Optional.ofNullable(ctx.getInterfaceState().getPreferredLocaleType()).orElse(LocaleType.ENGLISH).getCode())
-            .replaceAll("\\{\\{interface-button-style}}", CommonStyles.INTERFACE_SECONDARY_BUTTON_STYLE)
-            .replaceAll("\\{\\{interface-button-tooltip-style-short}}", CommonStyles.TOOLTIP_STYLE_SHORT)
-            .replaceAll("\\{\\{interface-button-tooltip-style-wide}}", CommonStyles.TOOLTIP_STYLE_WIDE);
+        return RENDER_TEMPLATE.render(
+            Optional.ofNullable(ctx.getInterfaceState().getPreferredLocaleType()).orElse(LocaleType.ENGLISH).getCode()
+        );
     }
 
+    /**
+     * Renders the documentation tree, search results and interface buttons into the context. The documentation tree
+     * itself is only set as {@link DocsContext#getDocumentationTree()}, the page sends just the difference from the
+     * tree it currently shows.
+     *
+     * @param ctx            Docs context
+     * @param documentations Documentations
+     */
     public void clearAndAppendInline(DocsContext ctx, List<Documentation> documentations) {
         var interfaceState = ctx.getInterfaceState();
 
-        var searchPattern = ctx.hasTopicSearchQuery() ? SearchPattern.of(ctx.getInterfaceState().getTopicSearchQuery()) : null;
-        documentations = documentations.stream()
+        // Evaluated once for the whole tree, shared by the documentation and topic renderers
+        var searchPattern = ctx.hasTopicSearchQuery() ? SearchPattern.of(interfaceState.getTopicSearchQuery()) : null;
+        var searchResult = searchPattern != null
+            ? documentationSearchService.evaluateSearch(searchPattern, interfaceState.getPreferredLocaleType(), interfaceState.isFullTextSearch())
+            : null;
+        var topicVisibility = documentationSearchService.getTopicVisibility(ctx.getPlayerRef());
+        var visibleDocumentations = documentations.stream()
             .filter(documentation -> interfaceState.getInterfaceMode() == null || interfaceState.getInterfaceMode().has(documentation.getType()))
-            .filter(documentation -> documentationSearchService.canSeeDocumentation(ctx.getPlayerRef(), documentation))
+            .filter(documentation -> documentationSearchService.canSeeDocumentation(ctx.getPlayerRef(), topicVisibility, documentation))
             // Allow seeing empty documentations w/o any topics (UX)
-            .filter(documentation -> documentation.getTopics().isEmpty() || documentationSearchService.canSeeAnyTopic(ctx.getPlayerRef(), documentation.getTopics()))
-            .filter(documentation -> !ctx.hasTopicSearchQuery() || documentationSearchService.searchForTopic(documentation, searchPattern, interfaceState.getPreferredLocaleType(), interfaceState.isFullTextSearch()))
+            .filter(documentation -> documentation.getTopics().isEmpty() || documentationSearchService.canSeeAnyTopic(ctx.getPlayerRef(), topicVisibility, documentation.getTopics()))
+            .toList();
+        documentations = visibleDocumentations.stream()
+            .filter(documentation -> searchResult == null || searchResult.matchesAnySubtree(documentation.getTopics()))
             .toList();
 
+        // Ranked results tolerate typos, so they are searched for in all visible documentations
+        List<TopicSearchMatch> rankedTopics = searchPattern != null
+            ? documentationSearchService.findRankedTopics(
+                ctx.getPlayerRef(),
+                topicVisibility,
+                visibleDocumentations,
+                searchPattern,
+                interfaceState.getPreferredLocaleType(),
+                configurationService.getDocsConfig().getMaxRankedSearchResults()
+            )
+            : List.of();
+
         var currentInterfaceMode = interfaceState.getInterfaceMode();
         var availableInterfaceModes = documentationSearchService.getAvailableInterfaceModes(ctx.getPlayerRef(), ctx.getDocumentations()); // Context non-filtered documentations
         // Enable the change mode button if there are more modes than one or player has mode
@@ -295,63 +438,39 @@ public class DocumentationTreeRenderer implements Renderer<List<Documentation>>
         boolean changeModeButtonEnabled = availableInterfaceModes.size() > 1
             || !availableInterfaceModes.contains(currentInterfaceMode);
 
-        var documentationsUIContext = DocsContext.of(ctx);
-        StringBuilder documentationsUI = new StringBuilder();
-        DocumentationType lastType = null;
-
-        for (Documentation documentation : documentations) {
-            if (lastType != documentation.getType()) {
-                lastType = documentation.getType();
-
-                documentationsUI.append(
-                    """
-                    Group {
-                        Padding: (Bottom: 5);
-
-                        Label {
-                            Text: "——— {{type}} ———";
-                            Style: (
-                                TextColor: #4b6b96,
-                                HorizontalAlignment: Center
-                            );
-                        }
-                    }
-                    """.replace("{{type}}", lastType.getHumanReadable())
-                );
-            }
-
-            documentationsUI.append(documentationRenderer.render(documentationsUIContext, documentation));
-        }
+        // Documentations are collapsed by default when there are many of them, unless searching
+        var docsConfig = configurationService.getDocsConfig();
+        int pageSize = Math.max(1, docsConfig.getDocumentationTreePageSize());
+        int documentationLimit = Math.min(documentations.size(), Math.max(pageSize, interfaceState.getDocumentationTreeLimit()));
+        // Only nodes of the rendered documentations, so the expansion state of other nodes does not split the cache
+        var expansion = DocumentationTreeExpansion.of(
+            interfaceState.getTreeNodeExpansions(),
+            searchPattern != null || documentations.size() <= docsConfig.getCollapseDocumentationsAbove(),
+            documentations.subList(0, documentationLimit).stream()
+                .map(DocumentationRenderer::getNodeKey)
+                .collect(Collectors.toSet())
+        );
 
-        if (documentationsUI.isEmpty()) {
-            documentationsUI.append(
-                """
-                Label {
-                    Text: "No documentations found";
-                    Style: (
-                        TextColor: #4b6b96,
-                        HorizontalAlignment: Center
-                    );
-                }
-                """
-            );
+        var renderedDocumentationTree = getRenderedDocumentationTree(ctx, documentations, documentationLimit, expansion, searchPattern, searchResult, topicVisibility);
+        var documentationTree = renderedDocumentationTree.tree();
+        // Selected topic is highlighted over the shared tree
+        var selectedTopic = renderedDocumentationTree.findSelectableTopic(ctx.getTopic());
+        if (selectedTopic != null) {
+            documentationTree = documentationTree.withHeader(selectedTopic.groupSelector(), documentationTreeTopicRenderer.renderSelectedHeader(selectedTopic));
         }
 
-        var ui = """
-            // DocumentationTreeRenderer#clearAndAppendInline()
-            Group {
-                Padding: (Horizontal: 5);
-                LayoutMode: Top;
-
-                {{documentations}}
-            }
-            """.replace("{{documentations}}", documentationsUI);
-
         var topicHistoryMessage = createTopicHistoryMessage(ctx);
         var fullTextSearchEnabledInConfig = configurationService.getDocsConfig().isEnableFullTextSearch();
 
-        ctx.getCommandBuilder().clear(DOCUMENTATION_TREE_SELECTOR);
-        ctx.getCommandBuilder().appendInline(DOCUMENTATION_TREE_SELECTOR, ui);
+        ctx.getCommandBuilder().clear(SEARCH_RESULTS_SELECTOR);
+        if (!rankedTopics.isEmpty()) {
+            try (var rankedTopicsUIContext = ctx.openSegment()) {
+                var rankedTopicsUI = renderRankedTopics(rankedTopicsUIContext, rankedTopics);
+                rankedTopicsUIContext.commitAfter(commandBuilder -> commandBuilder.appendInline(SEARCH_RESULTS_SELECTOR, rankedTopicsUI));
+            }
+        }
+        // Sent as a diff against the tree the page currently shows, see DocumentationViewerPage#updateWithContext()
+        ctx.setDocumentationTree(documentationTree);
         ctx.getCommandBuilder().set(CHANGE_MODE_BUTTON_ICON_SELECTOR + ".AssetPath", "UI/Custom/Docs/Images/" + currentInterfaceMode.getLogoName());
         ctx.getCommandBuilder().set(CHANGE_MODE_BUTTON_SELECTOR + ".Disabled", !changeModeButtonEnabled);
         ctx.getCommandBuilder().set(GO_BACK_BUTTON_SELECTOR + ".Disabled", !interfaceState.canGoBack());
@@ -373,8 +492,222 @@ public class DocumentationTreeRenderer implements Renderer<List<Documentation>>
         ctx.getCommandBuilder().setObject(FULL_TEXT_SEARCH_BUTTON_SELECTOR + ".Style.Hovered.Background", interfaceState.isFullTextSearch()
             ? new PatchStyle(Value.of("Common/Buttons/Primary_Hovered.png"), Value.of(12))
             : new PatchStyle(Value.of("Common/Buttons/Secondary_Hovered.png"), Value.of(12)));
+    }
+
+    /**
+     * Returns the rendered documentation tree from the cache or renders it. Trees are shared by all players with the
+     * same visibility of documentations and topics, interface mode, locale type and search query. Trees with
+     * documentations whose topics are not indexed (e.g. replaced after the reload) depend on player's permissions,
+     * so they are not cached.
+     *
+     * @param ctx                Docs context
+     * @param documentations     Visible documentations
+     * @param documentationLimit Number of documentations to render
+     * @param expansion          Expanded and collapsed nodes
+     * @param searchPattern      Topic search pattern, nullable
+     * @param searchResult       Evaluated topic search, nullable
+     * @param topicVisibility    Player's topic visibility
+     *
+     * @return Rendered documentation tree without any selected topic
+     */
+    private RenderedDocumentationTree getRenderedDocumentationTree(
+        DocsContext ctx,
+        List<Documentation> documentations,
+        int documentationLimit,
+        DocumentationTreeExpansion expansion,
+        SearchPattern searchPattern,
+        TopicSearchResult searchResult,
+        TopicVisibility topicVisibility
+    ) {
+        var interfaceState = ctx.getInterfaceState();
+        var localeType = interfaceState.getPreferredLocaleType();
+
+        for (Documentation documentation : documentations) {
+            if (!documentationSearchService.hasIndexedLocalizedTopics(documentation, localeType)) {
+                renderedDocumentationTreeMisses.incrementAndGet();
+                return renderDocumentationTree(ctx, documentations, documentationLimit, expansion, searchResult, topicVisibility);
+            }
+        }
+
+        long generation = topicVisibility.getIndex().getGeneration();
+        var key = new DocumentationTreeKey(
+            generation,
+            interfaceState.getInterfaceMode(),
+            localeType,
+            searchPattern != null ? searchPattern.pattern() : null,
+            searchPattern != null && interfaceState.isFullTextSearch(),
+            documentationLimit,
+            expansion,
+            topicVisibility.getVisibleDocumentations(),
+            topicVisibility.getVisibleNodes(),
+            topicVisibility.getNodesWithVisibleTopic()
+        );
+
+        synchronized (renderedDocumentationTrees) {
+            var renderedDocumentationTree = renderedDocumentationTrees.get(key);
+            if (renderedDocumentationTree != null && renderedDocumentationTree.isRenderedFrom(documentations)) {
+                renderedDocumentationTreeHits.incrementAndGet();
+                return renderedDocumentationTree;
+            }
+        }
+
+        renderedDocumentationTreeMisses.incrementAndGet();
+        var renderedDocumentationTree = renderDocumentationTree(ctx, documentations, documentationLimit, expansion, searchResult, topicVisibility);
+        synchronized (renderedDocumentationTrees) {
+            // Trees of previous reloads won't be used anymore
+            renderedDocumentationTrees.keySet().removeIf(cachedKey -> cachedKey.generation() != generation);
+            renderedDocumentationTrees.put(key, renderedDocumentationTree);
+        }
+        return renderedDocumentationTree;
+    }
+
+    /**
+     * Renders the documentation tree without any selected topic. Documentations over the limit are replaced by a
+     * button that loads more of them.
+     *
+     * @param ctx                Docs context
+     * @param documentations     Visible documentations
+     * @param documentationLimit Number of documentations to render
+     * @param expansion          Expanded and collapsed nodes
+     * @param searchResult       Evaluated topic search, nullable
+     * @param topicVisibility    Player's topic visibility
+     *
+     * @return Rendered documentation tree
+     */
+    private RenderedDocumentationTree renderDocumentationTree(
+        DocsContext ctx,
+        List<Documentation> documentations,
+        int documentationLimit,
+        DocumentationTreeExpansion expansion,
+        TopicSearchResult searchResult,
+        TopicVisibility topicVisibility
+    ) {
+        var selectableTopics = new IdentityHashMap<Topic, SelectableTopic>();
+        var nodes = new ArrayList<RenderedTree.Node>();
+        DocumentationType lastType = null;
+
+        for (Documentation documentation : documentations.subList(0, documentationLimit)) {
+            if (lastType != documentation.getType()) {
+                lastType = documentation.getType();
+
+                nodes.add(renderLabelNode(DOCUMENTATION_TYPE_START_TEMPLATE, "DocumentationTree/type/" + lastType.name(), "——— %s ———".formatted(lastType.getHumanReadable())));
+            }
+
+            nodes.add(documentationRenderer.renderNode(ctx, new DocumentationRenderer.RenderData(documentation, searchResult, topicVisibility, selectableTopics, expansion)));
+        }
+
+        if (nodes.isEmpty()) {
+            nodes.add(renderLabelNode(NO_DOCUMENTATIONS_START_TEMPLATE, "DocumentationTree/empty", "No documentations found"));
+        }
+
+        if (documentationLimit < documentations.size()) {
+            var groupSelector = InterfaceUtils.generateSelector("DocumentationTree/load-more");
+            var buttonSelector = groupSelector + "Button";
+            var eventData = new EventData().append(PageData.INTERFACE_ACTION_FIELD, InterfaceAction.LOAD_MORE_DOCUMENTATIONS.name());
+
+            nodes.add(new RenderedTree.Node(
+                groupSelector,
+                LOAD_MORE_START_TEMPLATE.render(groupSelector),
+                new RenderedTree.Header(
+                    buttonSelector,
+                    LOAD_MORE_BUTTON_TEMPLATE.render(buttonSelector, String.valueOf(documentations.size() - documentationLimit)),
+                    InterfaceAction.LOAD_MORE_DOCUMENTATIONS.name(),
+                    (eventBuilder, selectors) -> eventBuilder.addEventBinding(CustomUIEventBindingType.Activating, "#" + selectors.apply(buttonSelector), eventData, false)
+                ),
+                List.of()
+            ));
+        }
+
+        return new RenderedDocumentationTree(List.copyOf(documentations), new RenderedTree(nodes), selectableTopics);
+    }
+
+    /**
+     * Returns the number of cached rendered documentation trees
+     *
+     * @return Number of rendered documentation trees
+     */
+    public int getRenderedDocumentationTreeCount() {
+        synchronized (renderedDocumentationTrees) {
+            return renderedDocumentationTrees.size();
+        }
+    }
+
+    /**
+     * Returns the number of documentation trees served from the cache
+     *
+     * @return Number of hits
+     */
+    public long getRenderedDocumentationTreeHits() {
+        return renderedDocumentationTreeHits.get();
+    }
 
-        documentationsUIContext.mergeInto(ctx);
+    /**
+     * Returns the number of documentation trees that had to be rendered
+     *
+     * @return Number of misses
+     */
+    public long getRenderedDocumentationTreeMisses() {
+        return renderedDocumentationTreeMisses.get();
+    }
+
+    /**
+     * Renders node of the documentation tree with a single label and no children
+     *
+     * @param startTemplate Template of the group's start
+     * @param key           Key of the node, see {@link InterfaceUtils#generateSelector(String)}
+     * @param text          Text of the label
+     *
+     * @return Rendered node
+     */
+    private RenderedTree.Node renderLabelNode(UITemplate startTemplate, String key, String text) {
+        var groupSelector = InterfaceUtils.generateSelector(key);
+        var labelSelector = groupSelector + "Label";
+
+        return new RenderedTree.Node(
+            groupSelector,
+            startTemplate.render(groupSelector),
+            new RenderedTree.Header(labelSelector, DOCUMENTATION_TREE_LABEL_TEMPLATE.render(labelSelector, markdownService.escapeText(text)), null, null),
+            List.of()
+        );
+    }
+
+    /**
+     * Renders ranked search results, each opening the matched topic
+     *
+     * @param ctx          Docs context
+     * @param rankedTopics Ranked topics
+     *
+     * @return UI markup
+     */
+    private String renderRankedTopics(DocsContext ctx, List<TopicSearchMatch> rankedTopics) {
+        StringBuilder rankedTopicsUI = new StringBuilder();
+
+        for (TopicSearchMatch rankedTopic : rankedTopics) {
+            var topic = rankedTopic.localizedTopic();
+            var documentation = rankedTopic.topic().getDocumentation();
+            var buttonSelector = InterfaceUtils.generateSelector();
+            var name = rankedTopic.heading() != null
+                ? "%s > %s".formatted(topic.getName(), rankedTopic.heading())
+                : topic.getName();
+
+            ctx.getEventBuilder().addEventBinding(
+                CustomUIEventBindingType.Activating,
+                "#" + buttonSelector,
+                new EventData()
+                    .append(PageData.INTERFACE_ACTION_FIELD, InterfaceAction.OPEN_TOPIC)
+                    .append(PageData.OPEN_TOPIC_FIELD, "%s:%s:%s$%s".formatted(
+                        documentation.getGroup(),
+                        documentation.getId(),
+                        topic.getId(),
+                        topic.getLocaleType().getCode()
+                    )),
+                true
+            );
+
+            RANKED_TOPIC_TEMPLATE.appendTo(rankedTopicsUI, buttonSelector, markdownService.escapeText(name));
+        }
+
+        return RANKED_TOPICS_TEMPLATE.render(rankedTopicsUI);
     }
 
     private Message createModeMessage(DocsContext ctx, List<InterfaceMode> availableInterfaceModes) {
@@ -462,4 +795,86 @@ public class DocumentationTreeRenderer implements Renderer<List<Documentation>>
             return TaleMessage.parse("<gray>Empty topic history</gray>");
         }
     }
+
+    /**
+     * Everything the rendered documentation tree depends on, besides the rendered documentations
+     *
+     * @param generation            Reload generation of the topic visibility index
+     * @param interfaceMode         Interface mode, nullable
+     * @param localeType            Preferred locale type, nullable
+     * @param searchQuery           Normalized search query, null if there's no search query
+     * @param fullTextSearch        If the search query is searched for in topic's content
+     * @param documentationLimit    Number of rendered documentations
+     * @param expansion             Expanded and collapsed nodes of the rendered documentations
+     * @param visibleDocumentations Visible documentations, see {@link TopicVisibility}
+     * @param visibleNodes          Visible topic nodes
+     * @param nodesWithVisibleTopic Topic nodes with any visible non-category topic
+     */
+    private record DocumentationTreeKey(
+        long generation,
+        InterfaceMode interfaceMode,
+        LocaleType localeType,
+        String searchQuery,
+        boolean fullTextSearch,
+        int documentationLimit,
+        DocumentationTreeExpansion expansion,
+        BitSet visibleDocumentations,
+        BitSet visibleNodes,
+        BitSet nodesWithVisibleTopic
+    ) {
+
+    }
+
+    /**
+     * Documentation tree rendered without any selected topic
+     *
+     * @param documentations   Rendered documentations
+     * @param tree             Rendered tree
+     * @param selectableTopics Rendered topics by their identity
+     */
+    private record RenderedDocumentationTree(
+        List<Documentation> documentations,
+        RenderedTree tree,
+        Map<Topic, SelectableTopic> selectableTopics
+    ) {
+
+        /**
+         * Checks whenever the tree was rendered from the same documentations
+         */
+        boolean isRenderedFrom(List<Documentation> documentations) {
+            if (documentations.size() != this.documentations.size()) {
+                return false;
+            }
+            for (int i = 0; i < documentations.size(); i++) {
+                if (documentations.get(i) != this.documentations.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Finds the rendered topic that is the specified topic
+         *
+         * @param topic Topic, nullable
+         *
+         * @return Selectable topic or null if the topic is not in the tree
+         */
+        SelectableTopic findSelectableTopic(Topic topic) {
+            if (topic == null) {
+                return null;
+            }
+            var selectableTopic = selectableTopics.get(topic);
+            if (selectableTopic != null) {
+                return selectableTopic;
+            }
+            // Equal topic that is not the same instance
+            for (SelectableTopic candidate : selectableTopics.values()) {
+                if (candidate.topic().getId().equals(topic.getId()) && Objects.equals(candidate.topic(), topic)) {
+                    return candidate;
+                }
+            }
+            return null;
+        }
+    }
 }
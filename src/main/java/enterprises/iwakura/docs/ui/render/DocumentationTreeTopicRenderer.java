@@ -1,22 +1,28 @@
 package enterprises.iwakura.docs.ui.render;
 
-import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
 import java.util.Objects;
 
 import com.hypixel.hytale.protocol.packets.interface_.CustomUIEventBindingType;
 import com.hypixel.hytale.server.core.ui.builder.EventData;
 
 import enterprises.iwakura.docs.object.Documentation;
-import enterprises.iwakura.docs.object.Topic;
+import enterprises.iwakura.docs.object.LocalizedTopicTree;
 import enterprises.iwakura.docs.object.DocsContext;
+import enterprises.iwakura.docs.object.DocumentationTreeExpansion;
+import enterprises.iwakura.docs.object.RenderedTree;
+import enterprises.iwakura.docs.object.Topic;
+import enterprises.iwakura.docs.object.TopicSearchResult;
+import enterprises.iwakura.docs.object.TopicVisibility;
 import enterprises.iwakura.docs.service.DocumentationSearchService;
 import enterprises.iwakura.docs.service.MarkdownService;
 import enterprises.iwakura.docs.ui.CommonStyles;
 import enterprises.iwakura.docs.ui.DocumentationViewerPage.PageData;
 import enterprises.iwakura.docs.ui.DocumentationViewerPage.PageData.InterfaceAction;
 import enterprises.iwakura.docs.ui.render.DocumentationTreeTopicRenderer.RenderData;
-import enterprises.iwakura.docs.util.BoyerMooreSearch.SearchPattern;
 import enterprises.iwakura.docs.util.InterfaceUtils;
+import enterprises.iwakura.docs.util.UITemplate;
 import enterprises.iwakura.sigewine.core.annotations.Bean;
 import enterprises.iwakura.sigewine.core.utils.BeanAccessor;
 import lombok.Data;
@@ -26,6 +32,51 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class DocumentationTreeTopicRenderer implements Renderer<RenderData> {
 
+    /**
+     * Start of the topic's group, followed by {@link #TOPIC_HEADER_TEMPLATE} and groups of its sub-topics
+     */
+    private static final UITemplate TOPIC_START_TEMPLATE = UITemplate.compile(
+        """
+        // DocumentationTreeTopicRenderer#render()
+        Group #{{group-selector}} {
+            LayoutMode: Top;
+            Padding: (Left: 15);
+
+        """, "group-selector");
+    private static final UITemplate TOPIC_HEADER_TEMPLATE = UITemplate.compile(
+        """
+            {{topic-markup-element}} #{{button-selector}} {
+                Text: "{{name}}";
+                Style: {{button-style}}
+            }
+
+        """, "topic-markup-element", "button-selector", "name", "button-style");
+    /**
+     * Header of category topic with sub-topics, which can be expanded and collapsed
+     */
+    private static final UITemplate COLLAPSIBLE_CATEGORY_HEADER_TEMPLATE = UITemplate.builder(
+        """
+            Group #{{header-selector}} {
+                LayoutMode: Left;
+
+                TextButton #{{toggle-selector}} {
+                    Anchor: (Width: 20);
+                    Text: "{{toggle-text}}";
+                    Style: {{toggle-style}}
+                }
+
+                Label {
+                    FlexWeight: 1;
+                    Text: "{{name}}";
+                    Style: {{label-style}}
+                }
+            }
+
+        """)
+        .constant("toggle-style", CommonStyles.NORMAL_TOPIC_BUTTON_STYLE)
+        .slots("header-selector", "toggle-selector", "toggle-text", "name", "label-style")
+        .build();
+
     @Bean
     private final BeanAccessor<DocumentationTreeTopicRenderer> documentationTreeTopicRenderer =
         new BeanAccessor<>(DocumentationTreeTopicRenderer.class);
@@ -34,73 +85,221 @@ public class DocumentationTreeTopicRenderer implements Renderer<RenderData> {
 
     @Override
     public String render(DocsContext ctx, RenderData renderData) {
+        var node = renderNode(ctx, renderData);
+        node.bindInto(ctx.getEventBuilder());
+        return node.toMarkup();
+    }
+
+    /**
+     * Renders the topic with its visible sub-topics as a node of the documentation tree. Selectors are derived from
+     * the topic's path within the tree, so they stay the same between renders.
+     *
+     * @param ctx        Docs context
+     * @param renderData Render data
+     *
+     * @return Rendered node, its event bindings are not added to the context
+     */
+    public RenderedTree.Node renderNode(DocsContext ctx, RenderData renderData) {
         var documentation = renderData.getDocumentation();
-        var topic = renderData.getTopic();
-
-        var buttonSelector = InterfaceUtils.generateSelector();
-        var treeUI = """
-            // DocumentationTreeTopicRenderer#render()
-            Group {
-                LayoutMode: Top;
-                Padding: (Left: 15);
-            
-                {{topic-markup-element}} #{{button-selector}} {
-                    Text: "{{name}}";
-                    Style: {{button-style}}
+        var node = renderData.getNode();
+        var topic = node.localizedTopic();
+        var searchResult = renderData.getSearchResult();
+        var topicVisibility = renderData.getTopicVisibility();
+
+        var key = renderData.getParentKey() + "/" + node.topic().getId();
+        var groupSelector = InterfaceUtils.generateSelector(key);
+        var selectableTopics = renderData.getSelectableTopics();
+
+        String buttonStyle;
+
+        if (selectableTopics == null && Objects.equals(ctx.getTopic(), topic)) {
+            buttonStyle = topic.isCategory() ? CommonStyles.SELECTED_TOPIC_CATEGORY_STYLE : CommonStyles.SELECTED_TOPIC_BUTTON_STYLE;
+        } else if (searchResult != null && searchResult.matches(topic)) {
+            buttonStyle = topic.isCategory() ? CommonStyles.MATCHES_SEARCH_TOPIC_CATEGORY_STYLE : CommonStyles.MATCHES_SEARCH_TOPIC_BUTTON_STYLE;
+        } else {
+            buttonStyle = topic.isCategory() ? CommonStyles.NORMAL_TOPIC_CATEGORY_STYLE : CommonStyles.NORMAL_TOPIC_BUTTON_STYLE;
+        }
+
+        var expansion = renderData.getExpansion();
+        // Only categories with sub-topics can be collapsed, null if the topic cannot be
+        Boolean expanded = topic.isCategory() && !node.topics().isEmpty()
+            ? expansion == null || expansion.isCategoryExpanded(key)
+            : null;
+
+        if (selectableTopics != null) {
+            selectableTopics.put(topic, new SelectableTopic(documentation, topic, key, groupSelector, expanded));
+        }
+
+        var header = renderHeader(documentation, topic, key, groupSelector, buttonStyle, expanded);
+
+        // Sub-topics of collapsed categories are not rendered at all
+        var children = new ArrayList<RenderedTree.Node>();
+        if (expanded == null || expanded) {
+            for (LocalizedTopicTree.Node childNode : node.topics()) {
+                if ((searchResult == null || searchResult.matchesSubtree(childNode.topic()))
+                    && documentationSearchService.canSeeAnyTopic(ctx.getPlayerRef(), topicVisibility, childNode)) {
+                    children.add(documentationTreeTopicRenderer.getBeanInstance().renderNode(ctx, new RenderData(documentation, key, childNode, searchResult, topicVisibility, selectableTopics, expansion)));
                 }
-            
-                {{topics}}
             }
-            """;
+        }
 
-        StringBuilder topicsUI = new StringBuilder();
+        return new RenderedTree.Node(groupSelector, TOPIC_START_TEMPLATE.render(groupSelector), header, children);
+    }
 
-        var searchPattern = ctx.hasTopicSearchQuery() ? SearchPattern.of(ctx.getInterfaceState().getTopicSearchQuery()) : null;
-        topic.getTopics().stream()
-            .filter(childTopic -> !ctx.hasTopicSearchQuery() || documentationSearchService.searchTopic(childTopic, searchPattern, ctx.getInterfaceState().getPreferredLocaleType(), ctx.getInterfaceState().isFullTextSearch()))
-            .filter(childTopic -> documentationSearchService.canSeeAnyTopic(ctx.getPlayerRef(), List.of(childTopic)))
-            .forEach(childTopic -> {
-                topicsUI.append(documentationTreeTopicRenderer.getBeanInstance().render(ctx, new RenderData(documentation, documentationSearchService.getLocalePreferredTopic(childTopic, ctx.getInterfaceState().getPreferredLocaleType()))));
-            });
+    /**
+     * Renders the header of the topic's node with the selected style
+     *
+     * @param selectableTopic Selectable topic, see {@link RenderData#getSelectableTopics()}
+     *
+     * @return Rendered header
+     */
+    public RenderedTree.Header renderSelectedHeader(SelectableTopic selectableTopic) {
+        var topic = selectableTopic.topic();
+        return renderHeader(
+            selectableTopic.documentation(),
+            topic,
+            selectableTopic.key(),
+            selectableTopic.groupSelector(),
+            topic.isCategory() ? CommonStyles.SELECTED_TOPIC_CATEGORY_STYLE : CommonStyles.SELECTED_TOPIC_BUTTON_STYLE,
+            selectableTopic.expanded()
+        );
+    }
+
+    /**
+     * Returns key identifying the toggle event of a node, see {@link RenderedTree.Header#eventKey()}
+     *
+     * @param key      Node key
+     * @param expanded If the node is expanded
+     *
+     * @return Event key
+     */
+    public static String getToggleEventKey(String key, boolean expanded) {
+        return (expanded ? "collapse:" : "expand:") + key;
+    }
+
+    /**
+     * Creates event binder for the button that expands or collapses a node of the documentation tree
+     *
+     * @param toggleSelector Selector of the toggle button (without hashtag)
+     * @param key            Node key
+     * @param expanded       If the node is expanded, so the button collapses it
+     *
+     * @return Event binder
+     */
+    public static RenderedTree.EventBinder createToggleEventBinder(String toggleSelector, String key, boolean expanded) {
+        var eventData = new EventData()
+            .append(PageData.INTERFACE_ACTION_FIELD, expanded ? InterfaceAction.COLLAPSE_TREE_NODE : InterfaceAction.EXPAND_TREE_NODE)
+            .append(PageData.TREE_NODE_FIELD, key);
+        return (eventBuilder, selectors) -> eventBuilder.addEventBinding(
+            CustomUIEventBindingType.Activating,
+            "#" + selectors.apply(toggleSelector),
+            eventData,
+            true
+        );
+    }
+
+    private RenderedTree.Header renderHeader(
+        Documentation documentation,
+        Topic topic,
+        String key,
+        String groupSelector,
+        String buttonStyle,
+        Boolean expanded
+    ) {
+        if (expanded != null) {
+            var headerSelector = groupSelector + "Header";
+            var toggleSelector = groupSelector + "Toggle";
+            return new RenderedTree.Header(
+                headerSelector,
+                COLLAPSIBLE_CATEGORY_HEADER_TEMPLATE.render(
+                    headerSelector,
+                    toggleSelector,
+                    expanded ? "-" : "+",
+                    markdownService.escapeText(topic.getName()),
+                    buttonStyle
+                ),
+                getToggleEventKey(key, expanded),
+                createToggleEventBinder(toggleSelector, key, expanded)
+            );
+        }
+
+        var buttonSelector = groupSelector + "Button";
+
+        String openTopicIdentifier = null;
+        RenderedTree.EventBinder eventBinder = null;
 
         if (!topic.isCategory()) {
-            ctx.getEventBuilder().addEventBinding(
+            openTopicIdentifier = "%s:%s:%s$%s".formatted(
+                documentation.getGroup(),
+                documentation.getId(),
+                topic.getId(),
+                topic.getLocaleType().getCode()
+            );
+            var eventData = new EventData()
+                .append(PageData.INTERFACE_ACTION_FIELD, InterfaceAction.OPEN_TOPIC)
+                .append(PageData.OPEN_TOPIC_FIELD, openTopicIdentifier);
+            eventBinder = (eventBuilder, selectors) -> eventBuilder.addEventBinding(
                 CustomUIEventBindingType.Activating,
-                "#" + buttonSelector,
-                new EventData()
-                    .append(PageData.INTERFACE_ACTION_FIELD, InterfaceAction.OPEN_TOPIC)
-                    .append(PageData.OPEN_TOPIC_FIELD, "%s:%s:%s$%s".formatted(
-                        documentation.getGroup(),
-                        documentation.getId(),
-                        topic.getId(),
-                        topic.getLocaleType().getCode()
-                    )),
+                "#" + selectors.apply(buttonSelector),
+                eventData,
                 true
             );
         }
 
-        String buttonStyle;
+        return new RenderedTree.Header(
+            buttonSelector,
+            TOPIC_HEADER_TEMPLATE.render(
+                topic.isCategory() ? "Label" : "TextButton",
+                buttonSelector,
+                markdownService.escapeText(topic.getName()),
+                buttonStyle
+            ),
+            openTopicIdentifier,
+            eventBinder
+        );
+    }
 
-        if (Objects.equals(ctx.getTopic(), topic)) {
-            buttonStyle = topic.isCategory() ? CommonStyles.SELECTED_TOPIC_CATEGORY_STYLE : CommonStyles.SELECTED_TOPIC_BUTTON_STYLE;
-        } else if (ctx.hasTopicSearchQuery() && documentationSearchService.searchTopic(topic, searchPattern, ctx.getInterfaceState().getPreferredLocaleType(), ctx.getInterfaceState().isFullTextSearch())) {
-            buttonStyle = topic.isCategory() ? CommonStyles.MATCHES_SEARCH_TOPIC_CATEGORY_STYLE : CommonStyles.MATCHES_SEARCH_TOPIC_BUTTON_STYLE;
-        } else {
-            buttonStyle = topic.isCategory() ? CommonStyles.NORMAL_TOPIC_CATEGORY_STYLE : CommonStyles.NORMAL_TOPIC_BUTTON_STYLE;
-        }
+    /**
+     * Topic whose node can be highlighted as selected after the tree is rendered
+     *
+     * @param documentation Documentation of the topic
+     * @param topic         Topic projected for the player's preferred locale type
+     * @param key           Key of the topic's node
+     * @param groupSelector Selector of the topic's node
+     * @param expanded      If the topic's node is expanded, null if it cannot be collapsed
+     */
+    public record SelectableTopic(Documentation documentation, Topic topic, String key, String groupSelector, Boolean expanded) {
 
-        return treeUI
-            .replace("{{topic-markup-element}}", topic.isCategory() ? "Label" : "TextButton")
-            .replace("{{button-selector}}", buttonSelector)
-            .replace("{{button-style}}", buttonStyle)
-            .replace("{{name}}", markdownService.escapeText(topic.getName()))
-            .replace("{{topics}}", topicsUI);
     }
 
     @Data
     public static class RenderData {
 
         private final Documentation documentation;
-        private final Topic topic;
+        /**
+         * Key of the parent node in the documentation tree, see {@link InterfaceUtils#generateSelector(String)}
+         */
+        private final String parentKey;
+        /**
+         * Topic projected for the player's preferred locale type
+         */
+        private final LocalizedTopicTree.Node node;
+        /**
+         * Evaluated topic search, null if there's no search query
+         */
+        private final TopicSearchResult searchResult;
+        /**
+         * Player's topic visibility, evaluated once for the whole tree
+         */
+        private final TopicVisibility topicVisibility;
+        /**
+         * Collects rendered topics by their identity, so the selected one can be highlighted later. If null, the
+         * context's topic is highlighted while rendering.
+         */
+        private final Map<Topic, SelectableTopic> selectableTopics;
+        /**
+         * Expanded and collapsed nodes of the documentation tree, null if all nodes are expanded
+         */
+        private final DocumentationTreeExpansion expansion;
     }
 }
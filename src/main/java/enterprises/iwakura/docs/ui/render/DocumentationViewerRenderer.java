@@ -15,6 +15,7 @@ import enterprises.iwakura.docs.ui.CommonStyles;
 import enterprises.iwakura.docs.ui.DocumentationViewerPage.PageData;
 import enterprises.iwakura.docs.ui.DocumentationViewerPage.PageData.InterfaceAction;
 import enterprises.iwakura.docs.ui.render.DocumentationViewerRenderer.RenderData;
+import enterprises.iwakura.docs.util.UITemplate;
 import enterprises.iwakura.sigewine.core.annotations.Bean;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
@@ -25,6 +26,92 @@ public class DocumentationViewerRenderer implements Renderer<RenderData> {
 
     public static final String ABOUT_VOILE_BUTTON_SELECTOR = "#AboutVoileButton";
 
+    private static final UITemplate RENDER_TEMPLATE = UITemplate.builder(
+        """
+        {{hytale-common}}
+
+        // PageOverlay darkens the background
+        @PageOverlay {
+
+            // Classic Hytale container
+            @Container #WindowContainer {
+                Anchor: (Width: 1850, Height: 990);
+
+
+                // Title for the container (from @Container)
+                #Title {
+                    Group #ContainerTitleGroup {
+                        @Title {
+                            @Text = "Voile // {{topic-title}}";
+                        }
+                    }
+                }
+
+                // Content for the container (from @Container)
+                #Content {
+                    Group {
+                        LayoutMode: Left;
+
+                        {{documentation-tree}}
+                        {{topic}}
+                        {{chapter-tree}}
+                    }
+                }
+            }
+        }
+
+        Group {
+            LayoutMode: Top;
+            Anchor: (Left: 5, Top: 5);
+            Group {
+                LayoutMode: Left;
+
+                TextButton {{about-voile-button-selector}} {
+                    Text: "Voile {{version}}";
+                    Style: (
+                        Default: (LabelStyle: (FontSize: 17, RenderBold: true, RenderUppercase: false, HorizontalAlignment: Center, VerticalAlignment: Center, TextColor: #bfbfbf)),
+                        Hovered: (LabelStyle: (FontSize: 17, RenderBold: true, RenderUppercase: false, HorizontalAlignment: Center, VerticalAlignment: Center, TextColor: #ffffffff)),
+                        Pressed: (LabelStyle: (FontSize: 17, RenderBold: true, RenderUppercase: false, HorizontalAlignment: Center, VerticalAlignment: Center, TextColor: #e1e1e1)),
+                        Sounds: (
+                            Activate: (
+                                SoundPath: "Sounds/ButtonsLightActivate.ogg",
+                                MinPitch: -0.4,
+                                MaxPitch: 0.4,
+                                Volume: 4
+                            ),
+                            MouseHover: (
+                                SoundPath: "Sounds/ButtonsLightHover.ogg",
+                                Volume: 6
+                            )
+                        )
+                    );
+                    TooltipText: "Show information about Voile";
+                    TextTooltipStyle: {{interface-button-tooltip-style-short}};
+                    TextTooltipShowDelay: 0.1;
+                }
+
+                Group { Padding: (Left: 10); }
+
+                Label {
+                    Text: "{{update-available-text}}";
+                    Style: (
+                        TextColor: #8a90f0,
+                        RenderBold: true,
+                        RenderUppercase: true
+                    );
+                }
+            }
+        }
+
+        // Adds UX back button to the bottom left of the screen
+        @BackButton {}
+        """)
+        .constant("about-voile-button-selector", ABOUT_VOILE_BUTTON_SELECTOR)
+        .constant("version", Version.VERSION)
+        .constant("interface-button-tooltip-style-short", CommonStyles.TOOLTIP_STYLE_SHORT)
+        .slots("hytale-common", "topic-title", "documentation-tree", "topic", "chapter-tree", "update-available-text")
+        .build();
+
     private final HytaleCommonRenderer hytaleCommonRenderer;
     private final DocumentationTreeRenderer documentationTreeRenderer;
     private final TopicRenderer topicRenderer;
@@ -47,95 +134,14 @@ public class DocumentationViewerRenderer implements Renderer<RenderData> {
             false
         );
 
-        return
-            """
-            {{hytale-common}}
-
-            // PageOverlay darkens the background
-            @PageOverlay {
-
-                // Classic Hytale container
-                @Container #WindowContainer {
-                    Anchor: (Width: 1850, Height: 990);
-
-
-                    // Title for the container (from @Container)
-                    #Title {
-                        Group #ContainerTitleGroup {
-                            @Title {
-                                @Text = "Voile // {{topic-title}}";
-                            }
-                        }
-                    }
-
-                    // Content for the container (from @Container)
-                    #Content {
-                        Group {
-                            LayoutMode: Left;
-
-                            {{documentation-tree}}
-                            {{topic}}
-                            {{chapter-tree}}
-                        }
-                    }
-                }
-            }
-
-            Group {
-                LayoutMode: Top;
-                Anchor: (Left: 5, Top: 5);
-                Group {
-                    LayoutMode: Left;
-
-                    TextButton {{about-voile-button-selector}} {
-                        Text: "Voile {{version}}";
-                        Style: (
-                            Default: (LabelStyle: (FontSize: 17, RenderBold: true, RenderUppercase: false, HorizontalAlignment: Center, VerticalAlignment: Center, TextColor: #bfbfbf)),
-                            Hovered: (LabelStyle: (FontSize: 17, RenderBold: true, RenderUppercase: false, HorizontalAlignment: Center, VerticalAlignment: Center, TextColor: #ffffffff)),
-                            Pressed: (LabelStyle: (FontSize: 17, RenderBold: true, RenderUppercase: false, HorizontalAlignment: Center, VerticalAlignment: Center, TextColor: #e1e1e1)),
-                            Sounds: (
-                                Activate: (
-                                    SoundPath: "Sounds/ButtonsLightActivate.ogg",
-                                    MinPitch: -0.4,
-                                    MaxPitch: 0.4,
-                                    Volume: 4
-                                ),
-                                MouseHover: (
-                                    SoundPath: "Sounds/ButtonsLightHover.ogg",
-                                    Volume: 6
-                                )
-                            )
-                        );
-                        TooltipText: "Show information about Voile";
-                        TextTooltipStyle: {{interface-button-tooltip-style-short}};
-                        TextTooltipShowDelay: 0.1;
-                    }
-
-                    Group { Padding: (Left: 10); }
-
-                    Label {
-                        Text: "{{update-available-text}}";
-                        Style: (
-                            TextColor: #8a90f0,
-                            RenderBold: true,
-                            RenderUppercase: true
-                        );
-                    }
-                }
-            }
-
-            // Adds UX back button to the bottom left of the screen
-            @BackButton {}
-            """
-                .replace("{{about-voile-button-selector}}", ABOUT_VOILE_BUTTON_SELECTOR)
-                .replace("{{hytale-common}}", hytaleCommonUI)
-                .replace("{{documentation-tree}}", documentationTreeUI)
-                .replace("{{topic}}", topicUI)
-                .replace("{{topic-title}}", markdownService.escapeText(renderData.getTopic().getName()))
-                .replace("{{chapter-tree}}", topicChapterTreeUI)
-                .replace("{{version}}", Version.VERSION)
-                .replaceAll("\\{\\{interface-button-tooltip-style-short}}", CommonStyles.TOOLTIP_STYLE_SHORT)
-                .replace("{{update-available-text}}", updateCheckerService.isUpdateAvailable() ? markdownService.escapeText("Update available: " + updateCheckerService.getUpdateVersion()) : "");
+        return RENDER_TEMPLATE.render(
+            hytaleCommonUI,
+            markdownService.escapeText(renderData.getTopic().getName()),
+            documentationTreeUI,
+            topicUI,
+            topicChapterTreeUI,
+            updateCheckerService.isUpdateAvailable() ? markdownService.escapeText("Update available: " + updateCheckerService.getUpdateVersion()) : ""
+        );
     }
 
     @Data
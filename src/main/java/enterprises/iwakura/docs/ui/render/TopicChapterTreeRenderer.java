@@ -11,6 +11,7 @@ import org.commonmark.node.Text;
 import enterprises.iwakura.docs.object.Topic;
 import enterprises.iwakura.docs.object.DocsContext;
 import enterprises.iwakura.docs.service.MarkdownService;
+import enterprises.iwakura.docs.util.UITemplate;
 import enterprises.iwakura.sigewine.core.annotations.Bean;
 import io.github.insideranh.talemessage.TaleMessage;
 import lombok.RequiredArgsConstructor;
@@ -22,28 +23,63 @@ public class TopicChapterTreeRenderer implements Renderer<Topic> {
     public static final String TOPIC_CHAPTER_TREE_SELECTOR = "#TopicChapterTree";
     public static final Pattern COLOR_CODE_PATTERN = Pattern.compile("[&|§][(\\d)|a-f]");
 
-    private final MarkdownService markdownService;
+    private static final UITemplate RENDER_TEMPLATE = UITemplate.builder(
+        """
+        // TopicChapterTreeRenderer#render()
+        Group {
+            Padding: (Vertical: 40);
+            FlexWeight: 1;
 
-    @Override
-    public String render(DocsContext ctx, Topic topic) {
-        clearAndAppendInline(ctx, topic);
-        return """
-            // TopicChapterTreeRenderer#render()
             Group {
-                Padding: (Vertical: 40);
-                FlexWeight: 1;
-
-                Group {
-                    Padding: (Top: 5, Left: 10, Right: 10, Bottom: 10);
-                    Background: #121a24;
-                    OutlineColor: #203651;
-                    OutlineSize: 2;
+                Padding: (Top: 5, Left: 10, Right: 10, Bottom: 10);
+                Background: #121a24;
+                OutlineColor: #203651;
+                OutlineSize: 2;
 
-                    Group {{chapters-selector}} {
-                    }
+                Group {{chapters-selector}} {
                 }
             }
-            """.replace("{{chapters-selector}}", TOPIC_CHAPTER_TREE_SELECTOR);
+        }
+        """)
+        .constant("chapters-selector", TOPIC_CHAPTER_TREE_SELECTOR)
+        .build();
+
+    private static final UITemplate HEADING_TEMPLATE = UITemplate.compile(
+        """
+        // TopicChapterTreeRenderer#clearAndAppendInline()[heading]
+        Group {
+            LayoutMode: Left;
+            Padding: (Left: {{padding}}, Bottom: 4);
+
+            TextButton {
+                Text: "{{title}}";
+                Style: (
+                    Default: (LabelStyle: (TextColor: #bfbfbf, Wrap: true)),
+                    Hovered: (LabelStyle: (TextColor: #ffffffff, Wrap: true)),
+                    Pressed: (LabelStyle: (TextColor: #e1e1e1, Wrap: true)),
+                    Sounds: (
+                        Activate: (
+                            SoundPath: "Sounds/ButtonsLightActivate.ogg",
+                            MinPitch: -0.4,
+                            MaxPitch: 0.4,
+                            Volume: 4
+                        ),
+                        MouseHover: (
+                            SoundPath: "Sounds/ButtonsLightHover.ogg",
+                            Volume: 6
+                        )
+                    )
+                );
+            }
+        }
+        """, "padding", "title");
+
+    private final MarkdownService markdownService;
+
+    @Override
+    public String render(DocsContext ctx, Topic topic) {
+        clearAndAppendInline(ctx, topic);
+        return RENDER_TEMPLATE.render();
     }
 
     public void clearAndAppendInline(DocsContext ctx, Topic topic) {
@@ -64,7 +100,7 @@ public class TopicChapterTreeRenderer implements Renderer<Topic> {
                 );
             """);
 
-        var node = markdownService.parseMarkdown(topic.getMarkdownContent(), true);
+        var node = markdownService.parseTopicMarkdown(topic, true);
 
         if (node != null) {
             for (Heading heading : markdownService.extractHeadings(node)) {
@@ -77,38 +113,7 @@ public class TopicChapterTreeRenderer implements Renderer<Topic> {
                     ).replaceAll("")
                 );
 
-                chaptersUI.append(
-                    """
-                    // TopicChapterTreeRenderer#clearAndAppendInline()[heading]
-                    Group {
-                        LayoutMode: Left;
-                        Padding: (Left: {{padding}}, Bottom: 4);
-
-                        TextButton {
-                            Text: "{{title}}";
-                            Style: (
-                                Default: (LabelStyle: (TextColor: #bfbfbf, Wrap: true)),
-                                Hovered: (LabelStyle: (TextColor: #ffffffff, Wrap: true)),
-                                Pressed: (LabelStyle: (TextColor: #e1e1e1, Wrap: true)),
-                                Sounds: (
-                                    Activate: (
-                                        SoundPath: "Sounds/ButtonsLightActivate.ogg",
-                                        MinPitch: -0.4,
-                                        MaxPitch: 0.4,
-                                        Volume: 4
-                                    ),
-                                    MouseHover: (
-                                        SoundPath: "Sounds/ButtonsLightHover.ogg",
-                                        Volume: 6
-                                    )
-                                )
-                            );
-                        }
-                    }
-                    """
-                        .replace("{{padding}}", String.valueOf(padding))
-                        .replace("{{title}}", title)
-                );
+                HEADING_TEMPLATE.appendTo(chaptersUI, String.valueOf(padding), title);
             }
         } else {
             chaptersUI.append(
@@ -145,9 +150,7 @@ public class TopicChapterTreeRenderer implements Renderer<Topic> {
 
         chaptersUI.append("}");
 
-        var topicUIContext = DocsContext.of(ctx);
         ctx.getCommandBuilder().clear(TOPIC_CHAPTER_TREE_SELECTOR);
         ctx.getCommandBuilder().appendInline(TOPIC_CHAPTER_TREE_SELECTOR, chaptersUI.toString());
-        topicUIContext.mergeInto(ctx);
     }
 }
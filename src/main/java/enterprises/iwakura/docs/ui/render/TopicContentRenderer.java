@@ -1,7 +1,13 @@
 package enterprises.iwakura.docs.ui.render;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 
 import org.commonmark.ext.gfm.tables.TableBlock;
@@ -36,12 +42,18 @@ import org.commonmark.node.ThematicBreak;
 import org.commonmark.renderer.NodeRenderer;
 import org.commonmark.renderer.markdown.MarkdownWriter;
 
+import com.hypixel.hytale.math.vector.Vector2d;
+import com.hypixel.hytale.protocol.packets.interface_.CustomUICommand;
+import com.hypixel.hytale.protocol.packets.interface_.CustomUIEventBinding;
 import com.hypixel.hytale.protocol.packets.interface_.CustomUIEventBindingType;
 import com.hypixel.hytale.server.core.Message;
 import com.hypixel.hytale.server.core.ui.builder.EventData;
 
+import enterprises.iwakura.docs.config.DocsConfig;
+import enterprises.iwakura.docs.object.LocaleType;
 import enterprises.iwakura.docs.object.Topic;
 import enterprises.iwakura.docs.object.DocsContext;
+import enterprises.iwakura.docs.service.ConfigurationService;
 import enterprises.iwakura.docs.service.MarkdownService;
 import enterprises.iwakura.docs.service.RuntimeImageAssetService;
 import enterprises.iwakura.docs.ui.CommonStyles;
@@ -50,7 +62,9 @@ import enterprises.iwakura.docs.ui.DocumentationViewerPage.PageData.InterfaceAct
 import enterprises.iwakura.docs.util.ExceptionUtils;
 import enterprises.iwakura.docs.util.InterfaceUtils;
 import enterprises.iwakura.docs.util.Logger;
+import enterprises.iwakura.docs.util.ReflectionUtils;
 import enterprises.iwakura.docs.util.ResizeUtils;
+import enterprises.iwakura.docs.util.UITemplate;
 import enterprises.iwakura.sigewine.core.annotations.Bean;
 import fr.brouillard.oss.commonmark.ext.notifications.NotificationBlock;
 import io.github.insideranh.talemessage.TaleMessage;
@@ -63,6 +77,15 @@ public class TopicContentRenderer implements Renderer<Topic> {
 
     public static final Pattern IMAGE_RESIZE_HINT_PATTERN = Pattern.compile("\\{(\\d+)x(\\d+)}$");
     public static final int MAX_IMAGE_SIZE = 900;
+    /**
+     * Maximum number of rendered topic contents kept in memory
+     */
+    public static final int MAX_RENDERED_TOPIC_CONTENTS = 128;
+    /**
+     * Marks image slots within rendered markup. Commonmark replaces NUL characters in the parsed content, so it cannot
+     * appear in the markup otherwise.
+     */
+    static final char IMAGE_SLOT_MARKER = '\u0000';
 
     public static final String FAILED_TO_PARSE_MARKDOWN =
         """
@@ -190,24 +213,379 @@ public class TopicContentRenderer implements Renderer<Topic> {
         }
         """;
 
+    private static final UITemplate FAILED_TO_PARSE_MARKDOWN_TEMPLATE = UITemplate.compile(
+        FAILED_TO_PARSE_MARKDOWN, "exception-message", "exception-stacktrace"
+    );
+    private static final UITemplate FAILED_TO_WRITE_MARKDOWN_TEMPLATE = UITemplate.compile(
+        FAILED_TO_WRITE_MARKDOWN, "topic-id", "exception-message"
+    );
+
+    private static final UITemplate HEADING_BREAK_TEMPLATE = UITemplate.compile(
+        """
+        Group {
+            Padding: (Bottom: 16);
+
+            Group {
+                Anchor: (Height: {{height}});
+                Background: #2f4f77;
+            }
+        }
+        """, "height");
+    private static final String HEADING_BREAK_LEVEL_1 = HEADING_BREAK_TEMPLATE.render("4");
+    private static final String HEADING_BREAK_LEVEL_2 = HEADING_BREAK_TEMPLATE.render("2");
+
+    private static final UITemplate HEADING_TEMPLATE = UITemplate.compile(
+        """
+        // TopicContentRender#visit(Heading)
+        Group {
+            LayoutMode: Top;
+
+            Label #{{label-selector}} {
+                Style: (
+                    FontSize: {{font-size}},
+                    RenderBold: true,
+                    Wrap: true
+                );
+            }
+
+            {{break}}
+        }
+        """, "label-selector", "font-size", "break");
+
+    private static final UITemplate PARAGRAPH_TEMPLATE = UITemplate.compile(
+        """
+        // TopicContentRender#visit(Paragraph) @ TestParagraph
+        Group {
+            Padding: (Bottom: {{bottom-padding}});
+            LayoutMode: Left;
+
+            Label #{{label-selector}} {
+                Style: (Wrap: true);
+            }
+        }
+        """, "label-selector", "bottom-padding");
+
+    private static final UITemplate IMAGE_PARAGRAPH_START_TEMPLATE = UITemplate.compile(
+        """
+        // TopicContentRender#visit(Paragraph) @ ImageParagraph
+        Group {
+            Padding: (Bottom: {{bottom-padding}});
+            LayoutMode: LeftCenterWrap;
+        """, "bottom-padding");
+
+    private static final UITemplate BLOCK_QUOTE_START_TEMPLATE = UITemplate.compile(
+        """
+        // TopicContentRender#visit(BlockQuote)
+        Group {
+            Padding: (Horizontal: 15, Bottom: 16, Top: {{top-padding}});
+            LayoutMode: Left;
+
+            Group {
+                LayoutMode: Top;
+                Padding: (Full: 15);
+                Background: #121a24;
+                OutlineColor: #203651;
+                OutlineSize: 2;
+        """, "top-padding");
+
+    static final UITemplate FENCED_CODE_BLOCK_TEMPLATE = UITemplate.builder(
+        """
+        // TopicContentRender#visit(FencedCodeBlock)
+        Group {
+            Padding: (Top: 8, Bottom: {{bottom-padding}});
+
+            Group {
+                LayoutMode: Top;
+                Padding: (Full: 15);
+                Background: #121a24;
+                OutlineColor: #203651;
+                OutlineSize: 2;
+
+                CodeEditor #{{code-selector}} {
+                    Anchor: (MinWidth: 900);
+                    Style: (TextColor: #cccccc, FontSize: 16, FontName: "Mono");
+                    IsReadOnly: true;
+                    LineNumberBackground: #000000(0.0);
+                    LineNumberTextColor: #000000(0.0);
+                    LineNumberWidth: 0;
+
+                    ScrollbarStyle: {{scrollbar-style}};
+                }
+            }
+        }
+        """)
+        .constant("scrollbar-style", CommonStyles.SCROLLBAR_STYLE)
+        .slots("code-selector", "bottom-padding")
+        .build();
+
+    private static final UITemplate INDENTED_CODE_BLOCK_TEMPLATE = UITemplate.builder(
+        """
+        // TopicContentRender#visit(IndentedCodeBlock)
+        Group {
+            Padding: (Top: 8, Bottom: {{bottom-padding}});
+
+            Group {
+                LayoutMode: Top;
+                Padding: (Full: 15);
+                Background: #0e151d;
+                OutlineColor: #203651;
+                OutlineSize: 2;
+
+                CodeEditor #{{code-selector}} {
+                    Style: (TextColor: #cccccc, FontSize: 16, FontName: "Mono");
+                    IsReadOnly: true;
+                    LineNumberBackground: #000000(0.0);
+                    LineNumberTextColor: #000000(0.0);
+                    LineNumberWidth: 0;
+
+                    ScrollbarStyle: {{scrollbar-style}};
+                }
+            }
+        }
+        """)
+        .constant("scrollbar-style", CommonStyles.SCROLLBAR_STYLE)
+        .slots("code-selector", "bottom-padding")
+        .build();
+
+    private static final UITemplate BULLET_LIST_START_TEMPLATE = UITemplate.compile(
+        """
+        // TopicContentRender#visit(BulletList)
+        Group {
+            Padding: (Left: 30, Top: {{top-padding}}, Bottom: {{bottom-padding}});
+            LayoutMode: Top;
+        """, "top-padding", "bottom-padding");
+
+    private static final UITemplate ORDERED_LIST_START_TEMPLATE = UITemplate.compile(
+        """
+        // TopicContentRender#visit(OrderedList)
+        Group {
+            Padding: (Left: 30, Top: {{top-padding}}, Bottom: {{bottom-padding}});
+            LayoutMode: Top;
+        """, "top-padding", "bottom-padding");
+
+    private static final UITemplate LIST_ITEM_START_TEMPLATE = UITemplate.compile(
+        """
+        // TopicContentRender#visit(ListItem)
+        Group {
+            LayoutMode: Top;
+
+            Group {
+                LayoutMode: Left;
+                Padding: (Bottom: 4);
+
+                Group {
+                    Padding: (Right: 2);
+                    Label #{{marker-selector}} {
+                        Style: (Wrap: true);
+                    }
+                }
+
+                Group {
+                    Label #{{label-selector}} {
+                        Style: (Wrap: true);
+                    }
+                }
+            }
+        """, "marker-selector", "label-selector");
+
+    static final UITemplate IMAGE_TEMPLATE = UITemplate.builder(
+        """
+        // TopicContentRender#visit(Image)
+        Group {
+            Padding: (Full: 4);
+            {{tooltip}}
+            TextTooltipStyle: {{tooltip-style}};
+
+            Group {
+                Padding: (Full: 8);
+                Background: #121a24;
+                OutlineColor: #203651;
+                OutlineSize: 2;
+
+                AssetImage {
+                    {{image-slot}}
+                }
+            }
+        }
+        """)
+        .constant("tooltip-style", CommonStyles.TOOLTIP_STYLE_WIDE)
+        .constant("image-slot", String.valueOf(IMAGE_SLOT_MARKER))
+        .slots("tooltip")
+        .build();
+
+    private static final UITemplate TABLE_BLOCK_START_TEMPLATE = UITemplate.compile(
+        """
+        // TopicContentRender#visit(TableBlock)
+        Group {
+            LayoutMode: MiddleCenter;
+            Padding: (Top: {{top-padding}}, Bottom: {{bottom-padding}});
+
+            Group {
+                LayoutMode: Top;
+                Padding: (Left: 2, Right: 2, Top: 2, Bottom: 3); // what. For some reason, bottom outline is cut out by 1 pixel.
+                OutlineColor: #203651;
+                OutlineSize: 2;
+                Background: #141e2a;
+        """, "top-padding", "bottom-padding");
+
+    static final UITemplate TABLE_CELL_TEMPLATE = UITemplate.compile(
+        """
+        // TopicContentRender#visit(TableCell)
+        Group {
+            Padding: (Horizontal: 15, Vertical: 10);
+            LayoutMode: Left;
+            FlexWeight: 1;
+            Background: {{background-color}};
+
+            Group {
+                Label #{{text-selector}} {
+                    // TODO: Possible cell width with Width: xyz style
+                    Anchor: (MaxWidth: 800);
+                    Style: (
+                        Wrap: true,
+                        RenderBold: {{render-bold}},
+                        HorizontalAlignment: {{content-alignment}}
+                    );
+                }
+            }
+        }
+        """, "text-selector", "content-alignment", "render-bold", "background-color");
+
+    private static final UITemplate NOTIFICATION_BLOCK_START_TEMPLATE = UITemplate.compile(
+        """
+        // TopicContentRender#visit(NotificationBlock)
+        Group {
+            Padding: (Horizontal: 15, Bottom: 16, Top: {{top-padding}});
+            LayoutMode: Left;
+
+            Group {
+                LayoutMode: Top;
+                Padding: (Full: 15);
+                Background: {{background-color}}(0.4);
+                OutlineColor: {{outline-color}};
+                OutlineSize: 2;
+
+                Group {
+                    LayoutMode: Left;
+                    AssetImage {
+                        Anchor: (Top: -26, Left: -26, Width: 24, Height: 24);
+                        AssetPath: "UI/Custom/Docs/Images/{{notification-type}}-icon.png";
+                    }
+                }
+        """, "background-color", "outline-color", "top-padding", "notification-type");
+
+    private static final UITemplate BUTTON_TEMPLATE = UITemplate.compile(
+        """
+        // TopicContentRender.HtmlBlockParser#parse()[button]
+        Group {
+            Padding: (Right: 10, Bottom: 8);
+
+            Button #{{button-selector}} {
+                Anchor: (Height: 44);
+                Padding: (Horizontal: 24);
+                Style: (
+                    Default: (Background: PatchStyle(TexturePath: "Common/Buttons/Secondary.png", Border: 12)),
+                    Hovered: (Background: PatchStyle(TexturePath: "Common/Buttons/Secondary_Hovered.png", Border: 12)),
+                    Pressed: (Background: PatchStyle(TexturePath: "Common/Buttons/Secondary_Pressed.png", Border: 12)),
+                    Disabled: (Background: PatchStyle(TexturePath: "Common/Buttons/Disabled.png", Border: 12)),
+                    Sounds: (
+                        Activate: (
+                            SoundPath: "Sounds/ButtonsLightActivate.ogg",
+                            MinPitch: -0.4,
+                            MaxPitch: 0.4,
+                            Volume: 4
+                        ),
+                        MouseHover: (
+                            SoundPath: "Sounds/ButtonsLightHover.ogg",
+                            Volume: 6
+                        )
+                    )
+                );
+
+                Group {
+                    LayoutMode: Center;
+
+                    Label {
+                        Text: "{{button-content}}";
+                        Style: (
+                            FontSize: 17,
+                            TextColor: #bfcdd5,
+                            RenderBold: true,
+                            RenderUppercase: true,
+                            HorizontalAlignment: Center,
+                            VerticalAlignment: Center
+                        );
+                    }
+
+                    Group { Padding: (Left: 5); }
+
+                    AssetImage {
+                        Anchor: (Width: 20, Height: 20, Left: 5);
+                        AssetPath: "UI/Custom/Docs/Images/{{icon-name}}";
+                    }
+                }
+            }
+        }
+        """, "button-content", "button-selector", "icon-name");
+
+    static final UITemplate IMAGE_SLOT_TEMPLATE = UITemplate.compile(
+        """
+        Anchor: (Width: {{width}}, Height: {{height}});
+        AssetPath: "{{path}}";
+        """, "width", "height", "path");
+
     private final MarkdownService markdownService;
     private final RuntimeImageAssetService runtimeImageAssetService;
+    private final ConfigurationService configurationService;
     private final Logger logger;
 
+    /**
+     * Rendered topic contents keyed by topic identity, the least recently used first
+     */
+    private final Map<TopicKey, RenderedTopicContent> renderedTopicContents = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TopicKey, RenderedTopicContent> eldest) {
+            return size() > MAX_RENDERED_TOPIC_CONTENTS;
+        }
+    };
+    private final AtomicLong renderedTopicContentHits = new AtomicLong();
+    private final AtomicLong renderedTopicContentMisses = new AtomicLong();
+
     @Override
     public String render(DocsContext ctx, Topic topic) {
-        DocsContext topicContentDocsContext = DocsContext.of(ctx);
+        var topicContent = renderChunked(ctx, topic);
+        var output = new StringBuilder();
+        for (int i = 0; i < topicContent.getChunkCount(); i++) {
+            output.append(topicContent.renderChunk(ctx, i));
+        }
+        return output.toString();
+    }
 
+    /**
+     * Renders the topic content split into chunks of top-level blocks, see {@link DocsConfig#getTopicContentChunkSize()}.
+     * Chunks are resolved for the player one by one with {@link TopicContentChunks#renderChunk(DocsContext, int)}, so
+     * the first chunk can be sent before the rest of the content is resolved. Online images of the whole topic start
+     * downloading right away and are shown as placeholders until they are downloaded.
+     *
+     * @param ctx   Docs context
+     * @param topic Topic
+     *
+     * @return Chunked topic content, at least one chunk
+     */
+    public TopicContentChunks renderChunked(DocsContext ctx, Topic topic) {
         Node document;
+        boolean cacheable = true;
         try {
-            document = markdownService.parseMarkdown(topic.getMarkdownContent(), false);
+            document = markdownService.parseTopicMarkdown(topic, false);
         } catch (Exception exception) {
             logger.error("Failed to parse markdown for topic content renderer! Topic ID: %s".formatted(topic.getId()),
                 exception);
-            document = markdownService.parseMarkdown(FAILED_TO_PARSE_MARKDOWN
-                    .replace("{{exception-message}}", exception.getMessage())
-                    .replace("{{exception-stacktrace}}", ExceptionUtils.dumpExceptionStacktrace(null, exception)),
+            document = markdownService.parseMarkdown(FAILED_TO_PARSE_MARKDOWN_TEMPLATE.render(
+                    String.valueOf(exception.getMessage()),
+                    ExceptionUtils.dumpExceptionStacktrace(null, exception)
+                ),
                 true);
+            cacheable = false;
         }
 
         try {
@@ -215,20 +593,319 @@ public class TopicContentRenderer implements Renderer<Topic> {
                 throw new IllegalStateException("Failed to parse markdown content which resulted in markdown error message which then wasn't properly parsed! This is a bug in Docs.");
             }
 
-            var output = new StringBuilder();
-            MarkdownWriter writer = new MarkdownWriter(output);
-            HytaleUIRenderer renderer = new HytaleUIRenderer(writer, topicContentDocsContext);
-
-            document.accept(renderer);
-            // Prevent getting hytale UI Renderer's command builders/event builders into the main one
-            // if error occurs
-            topicContentDocsContext.mergeInto(ctx);
-            return output.toString();
+            var renderedTopicContent = cacheable
+                ? getRenderedTopicContent(ctx, topic, document)
+                : renderTopicContent(ctx, topic, document);
+            if (ctx.getPlayerRef() != null) {
+                // All images of the topic are downloaded in parallel, chunks resolve them without waiting
+                runtimeImageAssetService.prefetch(renderedTopicContent.imageSources());
+            }
+            return new TopicContentChunks(topic, renderedTopicContent);
         } catch (Exception exception) {
             logger.error("Failed to write parsed markdown content into Hytale UI markup language!", exception);
-            return FAILED_TO_WRITE_MARKDOWN
-                .replace("{{topic-id}}", topic.getId())
-                .replace("{{exception-message}}", markdownService.escapeText(exception.getMessage()));
+            return new TopicContentChunks(topic, RenderedTopicContent.ofMarkup(
+                FAILED_TO_WRITE_MARKDOWN_TEMPLATE.render(topic.getId(), markdownService.escapeText(exception.getMessage()))
+            ));
+        }
+    }
+
+    /**
+     * Returns the rendered topic content from the cache or renders it
+     *
+     * @param ctx      Docs context
+     * @param topic    Topic
+     * @param document Parsed document of the topic, see {@link MarkdownService#parseTopicMarkdown(Topic, boolean)}
+     *
+     * @return Rendered topic content
+     */
+    private RenderedTopicContent getRenderedTopicContent(DocsContext ctx, Topic topic, Node document) {
+        var key = new TopicKey(topic);
+        int chunkSize = configurationService.getDocsConfig().getTopicContentChunkSize();
+
+        synchronized (renderedTopicContents) {
+            var renderedTopicContent = renderedTopicContents.get(key);
+            if (renderedTopicContent != null && renderedTopicContent.isRenderedFrom(topic, document, chunkSize)) {
+                renderedTopicContentHits.incrementAndGet();
+                return renderedTopicContent;
+            }
+        }
+
+        renderedTopicContentMisses.incrementAndGet();
+        var renderedTopicContent = renderTopicContent(ctx, topic, document);
+        synchronized (renderedTopicContents) {
+            renderedTopicContents.put(key, renderedTopicContent);
+        }
+        return renderedTopicContent;
+    }
+
+    /**
+     * Renders the document into player independent Hytale UI markup, commands and events. Top-level blocks are rendered
+     * one by one and the content is split after the block that fills the chunk.
+     *
+     * @param ctx      Docs context
+     * @param topic    Topic
+     * @param document Parsed document
+     *
+     * @return Rendered topic content
+     */
+    private RenderedTopicContent renderTopicContent(DocsContext ctx, Topic topic, Node document) {
+        // Prevent getting hytale UI Renderer's command builders/event builders into the main one
+        // if error occurs
+        var topicContentDocsContext = DocsContext.of(ctx);
+        var commandBuilder = topicContentDocsContext.getCommandBuilder();
+        var eventBuilder = topicContentDocsContext.getEventBuilder();
+        int chunkSize = configurationService.getDocsConfig().getTopicContentChunkSize();
+
+        var output = new StringBuilder();
+        MarkdownWriter writer = new MarkdownWriter(output);
+        HytaleUIRenderer renderer = new HytaleUIRenderer(writer, topicContentDocsContext);
+
+        var chunkEnds = new ArrayList<ChunkEnd>();
+        int chunkStart = 0;
+        // Same as visiting the document, but with a chance to end the chunk between top-level blocks
+        Node block = document.getFirstChild();
+        while (block != null) {
+            Node next = block.getNext();
+            renderer.render(block);
+            if (chunkSize > 0 && next != null && output.length() - chunkStart >= chunkSize) {
+                chunkEnds.add(new ChunkEnd(output.length(), renderer.imageSlots.size(), ReflectionUtils.getCommands(commandBuilder).size(), ReflectionUtils.getEvents(eventBuilder).size()));
+                chunkStart = output.length();
+            }
+            block = next;
+        }
+        writer.line();
+
+        var commands = commandBuilder.getCommands();
+        var events = eventBuilder.getEvents();
+        chunkEnds.add(new ChunkEnd(output.length(), renderer.imageSlots.size(), commands.length, events.length));
+
+        var chunks = new ArrayList<RenderedChunk>(chunkEnds.size());
+        var previousEnd = new ChunkEnd(0, 0, 0, 0);
+        for (ChunkEnd chunkEnd : chunkEnds) {
+            chunks.add(new RenderedChunk(
+                List.of(output.substring(previousEnd.markup(), chunkEnd.markup()).split(String.valueOf(IMAGE_SLOT_MARKER), -1)),
+                List.copyOf(renderer.imageSlots.subList(previousEnd.imageSlots(), chunkEnd.imageSlots())),
+                Arrays.copyOfRange(commands, previousEnd.commands(), chunkEnd.commands()),
+                Arrays.copyOfRange(events, previousEnd.events(), chunkEnd.events())
+            ));
+            previousEnd = chunkEnd;
+        }
+
+        return new RenderedTopicContent(document, topic.getLocaleType(), chunkSize, chunks);
+    }
+
+    /**
+     * Resolves image slots of the rendered chunk for the player and adds its commands and events into the context
+     *
+     * @param ctx           Docs context
+     * @param renderedChunk Rendered chunk
+     *
+     * @return Hytale UI markup
+     */
+    private String applyRenderedChunk(DocsContext ctx, RenderedChunk renderedChunk) {
+        var markupParts = renderedChunk.markupParts();
+        var imageSlots = renderedChunk.imageSlots();
+
+        var output = new StringBuilder(markupParts.getFirst());
+        for (int i = 0; i < imageSlots.size(); i++) {
+            renderImageSlot(output, ctx, imageSlots.get(i));
+            output.append(markupParts.get(i + 1));
+        }
+
+        ReflectionUtils.mergeInto(
+            renderedChunk.commands(), ctx.getCommandBuilder(),
+            renderedChunk.events(), ctx.getEventBuilder()
+        );
+        return output.toString();
+    }
+
+    /**
+     * Renders the image slot for the player
+     *
+     * @param output    Output
+     * @param ctx       Docs context
+     * @param imageSlot Image slot
+     */
+    private void renderImageSlot(StringBuilder output, DocsContext ctx, ImageSlot imageSlot) {
+        var resolvedAsset = runtimeImageAssetService.resolve(
+            ctx.getPlayerRef(), imageSlot.destination(), ctx.getTopic(), ctx.getTopic().getTopicFilePath(),
+            originalSize -> getDisplaySize(originalSize, imageSlot)
+        );
+        var imageSize = resolvedAsset.getImageSize();
+
+        IMAGE_SLOT_TEMPLATE.appendTo(
+            output,
+            String.valueOf(imageSize.getX()),
+            String.valueOf(imageSize.getY()),
+            resolvedAsset.getCommonAssetPath()
+        );
+    }
+
+    /**
+     * Returns the size the image is shown at, with the resize hint of the image slot applied and limited to
+     * {@link #MAX_IMAGE_SIZE}
+     *
+     * @param imageSize Size of the image
+     * @param imageSlot Image slot
+     *
+     * @return Display size
+     */
+    private static Vector2d getDisplaySize(Vector2d imageSize, ImageSlot imageSlot) {
+        if (imageSlot.alternativeWidth() != null) {
+            imageSize = ResizeUtils.resize(imageSize, imageSlot.alternativeWidth(), imageSlot.alternativeHeight());
+        }
+
+        if (imageSize.getX() > MAX_IMAGE_SIZE) {
+            imageSize = ResizeUtils.resize(imageSize, String.valueOf(MAX_IMAGE_SIZE), "0");
+        }
+
+        return imageSize;
+    }
+
+    /**
+     * Returns the number of cached rendered topic contents
+     *
+     * @return Number of rendered topic contents
+     */
+    public int getRenderedTopicContentCount() {
+        synchronized (renderedTopicContents) {
+            return renderedTopicContents.size();
+        }
+    }
+
+    /**
+     * Returns the number of renders served from the cache
+     *
+     * @return Number of hits
+     */
+    public long getRenderedTopicContentHits() {
+        return renderedTopicContentHits.get();
+    }
+
+    /**
+     * Returns the number of renders that had to traverse the parsed document
+     *
+     * @return Number of misses
+     */
+    public long getRenderedTopicContentMisses() {
+        return renderedTopicContentMisses.get();
+    }
+
+    /**
+     * Topic content rendered into Hytale UI markup, commands and events that are the same for all players. Only images
+     * are resolved for each player, as runtime image assets are registered per player.
+     *
+     * @param document   Parsed document the content was rendered from
+     * @param localeType Locale type of the topic at the time of rendering
+     * @param chunkSize  Chunk size the content was split with
+     * @param chunks     Chunks in the order they are appended, at least one
+     */
+    private record RenderedTopicContent(Node document, LocaleType localeType, int chunkSize, List<RenderedChunk> chunks) {
+
+        static RenderedTopicContent ofMarkup(String markup) {
+            return new RenderedTopicContent(null, null, 0, List.of(
+                new RenderedChunk(List.of(markup), List.of(), new CustomUICommand[0], new CustomUIEventBinding[0])
+            ));
+        }
+
+        List<String> imageSources() {
+            return chunks.stream()
+                .flatMap(chunk -> chunk.imageSlots().stream())
+                .map(ImageSlot::destination)
+                .toList();
+        }
+
+        boolean isRenderedFrom(Topic topic, Node document, int chunkSize) {
+            return this.document == document && this.localeType == topic.getLocaleType() && this.chunkSize == chunkSize;
+        }
+    }
+
+    /**
+     * Consecutive top-level blocks of rendered topic content. Commands and events of a chunk only refer to elements
+     * within the chunk, so chunks can be appended one by one.
+     *
+     * @param markupParts Markup between image slots, always one more than image slots
+     * @param imageSlots  Image slots
+     * @param commands    Commands (e.g. {@code .TextSpans} and {@code .Value})
+     * @param events      Event bindings (e.g. topic buttons)
+     */
+    private record RenderedChunk(
+        List<String> markupParts,
+        List<ImageSlot> imageSlots,
+        CustomUICommand[] commands,
+        CustomUIEventBinding[] events
+    ) {
+
+    }
+
+    /**
+     * Exclusive end of a chunk within the rendered markup, image slots, commands and events
+     */
+    private record ChunkEnd(int markup, int imageSlots, int commands, int events) {
+
+    }
+
+    /**
+     * Image within rendered topic content
+     *
+     * @param destination       Image source
+     * @param alternativeWidth  Width from the resize hint, null if the image has no resize hint
+     * @param alternativeHeight Height from the resize hint, null if the image has no resize hint
+     */
+    private record ImageSlot(String destination, String alternativeWidth, String alternativeHeight) {
+
+    }
+
+    /**
+     * Compares topics by identity, as topics with the same fields may still be different topics
+     */
+    private record TopicKey(Topic topic) {
+
+        @Override
+        public boolean equals(Object object) {
+            return object instanceof TopicKey other && other.topic == topic;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(topic);
+        }
+    }
+
+    /**
+     * Topic content split into chunks, see {@link #renderChunked(DocsContext, Topic)}
+     */
+    @RequiredArgsConstructor
+    public class TopicContentChunks {
+
+        private final Topic topic;
+        private final RenderedTopicContent renderedTopicContent;
+
+        /**
+         * Returns the number of chunks
+         *
+         * @return Number of chunks, at least one
+         */
+        public int getChunkCount() {
+            return renderedTopicContent.chunks().size();
+        }
+
+        /**
+         * Resolves the chunk for the player and adds its commands and events into the context. The commands must be
+         * sent after the returned markup is appended.
+         *
+         * @param ctx   Docs context
+         * @param index Index of the chunk
+         *
+         * @return Hytale UI markup of the chunk
+         */
+        public String renderChunk(DocsContext ctx, int index) {
+            try {
+                return applyRenderedChunk(ctx, renderedTopicContent.chunks().get(index));
+            } catch (Exception exception) {
+                logger.error("Failed to write parsed markdown content into Hytale UI markup language!", exception);
+                return FAILED_TO_WRITE_MARKDOWN_TEMPLATE.render(topic.getId(), markdownService.escapeText(exception.getMessage()));
+            }
         }
     }
 
@@ -237,6 +914,10 @@ public class TopicContentRenderer implements Renderer<Topic> {
 
         private final MarkdownWriter writer;
         private final DocsContext docsContext;
+        /**
+         * Images in the order of their {@link #IMAGE_SLOT_MARKER} within the markup
+         */
+        private final List<ImageSlot> imageSlots = new ArrayList<>();
 
         private ListHolder listHolder;
         private Message message;
@@ -325,38 +1006,11 @@ public class TopicContentRenderer implements Renderer<Topic> {
             };
             writer.line();
 
-            var breakUI =
-                """
-                Group {
-                    Padding: (Bottom: 16);
-
-                    Group {
-                        Anchor: (Height: {{height}});
-                        Background: #2f4f77;
-                    }
-                }
-                """.replace("{{height}}", String.valueOf(heading.getLevel() == 1 ? 4 : 2));
-
-            writer.raw(
-                """
-                    // TopicContentRender#visit(Heading)
-                    Group {
-                        LayoutMode: Top;
-
-                        Label #{{label-selector}} {
-                            Style: (
-                                FontSize: {{font-size}},
-                                RenderBold: true,
-                                Wrap: true
-                            );
-                        }
-
-                        {{break}}
-                    }
-                    """
-                    .replace("{{label-selector}}", textSelector)
-                    .replace("{{font-size}}", String.valueOf(fontSize))
-                    .replace("{{break}}", heading.getLevel() <= 2 ? breakUI : "")
+            HEADING_TEMPLATE.writeTo(
+                writer,
+                textSelector,
+                String.valueOf(fontSize),
+                heading.getLevel() == 1 ? HEADING_BREAK_LEVEL_1 : heading.getLevel() == 2 ? HEADING_BREAK_LEVEL_2 : ""
             );
 
             // Prepare message for heading text
@@ -386,21 +1040,7 @@ public class TopicContentRenderer implements Renderer<Topic> {
 
                 // Paragraph's first child isn't an image, render the paragraph with text etc.
                 writer.line();
-                writer.raw(
-                    """
-                        // TopicContentRender#visit(Paragraph) @ TestParagraph
-                        Group {
-                            Padding: (Bottom: {{bottom-padding}});
-                            LayoutMode: Left;
-
-                            Label #{{label-selector}} {
-                                Style: (Wrap: true);
-                            }
-                        }
-                        """
-                        .replace("{{label-selector}}", textSelector)
-                        .replace("{{bottom-padding}}", shouldSkipPadding ? "0" : "8")
-                );
+                PARAGRAPH_TEMPLATE.writeTo(writer, textSelector, shouldSkipPadding ? "0" : "8");
 
                 // Prepare message for any text
                 message = Message.raw("");
@@ -412,15 +1052,7 @@ public class TopicContentRenderer implements Renderer<Topic> {
                 // Paragraph with images has its children centered in the middle. Any text between those images
                 // are not supported.
                 writer.line();
-                writer.raw(
-                    """
-                        // TopicContentRender#visit(Paragraph) @ ImageParagraph
-                        Group {
-                            Padding: (Bottom: {{bottom-padding}});
-                            LayoutMode: LeftCenterWrap;
-                        """
-                        .replace("{{bottom-padding}}", shouldSkipPadding ? "0" : "8")
-                );
+                IMAGE_PARAGRAPH_START_TEMPLATE.writeTo(writer, shouldSkipPadding ? "0" : "8");
                 visitChildren(paragraph);
                 writer.raw("}");
             }
@@ -474,21 +1106,7 @@ public class TopicContentRenderer implements Renderer<Topic> {
                     (blockQuote.getPrevious() instanceof Heading heading && heading.getLevel() <= 2);
 
             writer.line();
-            writer.raw(
-                """
-                    // TopicContentRender#visit(BlockQuote)
-                    Group {
-                        Padding: (Horizontal: 15, Bottom: 16, Top: {{top-padding}});
-                        LayoutMode: Left;
-
-                        Group {
-                            LayoutMode: Top;
-                            Padding: (Full: 15);
-                            Background: #121a24;
-                            OutlineColor: #203651;
-                            OutlineSize: 2;
-                    """.replace("{{top-padding}}", shouldSkipTopPadding ? "0" : "16")
-            );
+            BLOCK_QUOTE_START_TEMPLATE.writeTo(writer, shouldSkipTopPadding ? "0" : "16");
 
             visitChildren(blockQuote);
 
@@ -514,36 +1132,7 @@ public class TopicContentRenderer implements Renderer<Topic> {
 
             writer.line();
 
-            writer.raw(
-                """
-                    // TopicContentRender#visit(FencedCodeBlock)
-                    Group {
-                        Padding: (Top: 8, Bottom: {{bottom-padding}});
-
-                        Group {
-                            LayoutMode: Top;
-                            Padding: (Full: 15);
-                            Background: #121a24;
-                            OutlineColor: #203651;
-                            OutlineSize: 2;
-
-                            CodeEditor #{{code-selector}} {
-                                Anchor: (MinWidth: 900);
-                                Style: (TextColor: #cccccc, FontSize: 16, FontName: "Mono");
-                                IsReadOnly: true;
-                                LineNumberBackground: #000000(0.0);
-                                LineNumberTextColor: #000000(0.0);
-                                LineNumberWidth: 0;
-
-                                ScrollbarStyle: {{scrollbar-style}};
-                            }
-                        }
-                    }
-                    """
-                    .replace("{{code-selector}}", codeSelector)
-                    .replace("{{bottom-padding}}", skipBottomPadding ? "0" : "8")
-                    .replace("{{scrollbar-style}}", CommonStyles.SCROLLBAR_STYLE)
-            );
+            FENCED_CODE_BLOCK_TEMPLATE.writeTo(writer, codeSelector, skipBottomPadding ? "0" : "8");
 
             writer.block();
 
@@ -561,35 +1150,7 @@ public class TopicContentRenderer implements Renderer<Topic> {
 
             writer.line();
 
-            writer.raw(
-                """
-                    // TopicContentRender#visit(IndentedCodeBlock)
-                    Group {
-                        Padding: (Top: 8, Bottom: {{bottom-padding}});
-
-                        Group {
-                            LayoutMode: Top;
-                            Padding: (Full: 15);
-                            Background: #0e151d;
-                            OutlineColor: #203651;
-                            OutlineSize: 2;
-
-                            CodeEditor #{{code-selector}} {
-                                Style: (TextColor: #cccccc, FontSize: 16, FontName: "Mono");
-                                IsReadOnly: true;
-                                LineNumberBackground: #000000(0.0);
-                                LineNumberTextColor: #000000(0.0);
-                                LineNumberWidth: 0;
-
-                                ScrollbarStyle: {{scrollbar-style}};
-                            }
-                        }
-                    }
-                    """
-                    .replace("{{code-selector}}", codeSelector)
-                    .replace("{{bottom-padding}}", skipBottomPadding ? "0" : "8")
-                    .replace("{{scrollbar-style}}", CommonStyles.SCROLLBAR_STYLE)
-            );
+            INDENTED_CODE_BLOCK_TEMPLATE.writeTo(writer, codeSelector, skipBottomPadding ? "0" : "8");
 
             writer.block();
 
@@ -634,16 +1195,7 @@ public class TopicContentRenderer implements Renderer<Topic> {
                 && !(bulletList.getNext() instanceof IndentedCodeBlock);
 
             writer.line();
-            writer.raw(
-                """
-                    // TopicContentRender#visit(BulletList)
-                    Group {
-                        Padding: (Left: 30, Top: {{top-padding}}, Bottom: {{bottom-padding}});
-                        LayoutMode: Top;
-                    """
-                        .replace("{{top-padding}}", topPadding ? "5" : "0")
-                        .replace("{{bottom-padding}}", bottomPadding ? "10" : "0")
-            );
+            BULLET_LIST_START_TEMPLATE.writeTo(writer, topPadding ? "5" : "0", bottomPadding ? "10" : "0");
             listHolder = new BulletListHolder(listHolder, bulletList);
             visitChildren(bulletList);
             listHolder = listHolder.parent;
@@ -663,16 +1215,7 @@ public class TopicContentRenderer implements Renderer<Topic> {
                 && !(orderedList.getNext() instanceof IndentedCodeBlock);
 
             writer.line();
-            writer.raw(
-                """
-                    // TopicContentRender#visit(OrderedList)
-                    Group {
-                        Padding: (Left: 30, Top: {{top-padding}}, Bottom: {{bottom-padding}});
-                        LayoutMode: Top;
-                    """
-                        .replace("{{top-padding}}", topPadding ? "5" : "0")
-                        .replace("{{bottom-padding}}", bottomPadding ? "10" : "0")
-            );
+            ORDERED_LIST_START_TEMPLATE.writeTo(writer, topPadding ? "5" : "0", bottomPadding ? "10" : "0");
             listHolder = new OrderedListHolder(listHolder, orderedList);
             visitChildren(orderedList);
             listHolder = listHolder.parent;
@@ -696,33 +1239,7 @@ public class TopicContentRenderer implements Renderer<Topic> {
                 throw new IllegalStateException("Unknown list holder type: " + listHolder);
             }
 
-            writer.raw(
-                """
-                    // TopicContentRender#visit(ListItem)
-                    Group {
-                        LayoutMode: Top;
-                    
-                        Group {
-                            LayoutMode: Left;
-                            Padding: (Bottom: 4);
-                    
-                            Group {
-                                Padding: (Right: 2);
-                                Label #{{marker-selector}} {
-                                    Style: (Wrap: true);
-                                }
-                            }
-
-                            Group {
-                                Label #{{label-selector}} {
-                                    Style: (Wrap: true);
-                                }
-                            }
-                        }
-                    """
-                    .replace("{{marker-selector}}", markerSelector)
-                    .replace("{{label-selector}}", textSelector)
-            );
+            LIST_ITEM_START_TEMPLATE.writeTo(writer, markerSelector, textSelector);
 
             message = Message.raw(" ");
             Node child = listItem.getFirstChild();
@@ -774,55 +1291,27 @@ public class TopicContentRenderer implements Renderer<Topic> {
         @Override
         public void visit(Image image) {
             var altText = markdownService.extractText(image);
-            var resolvedAsset = runtimeImageAssetService.resolve(docsContext.getPlayerRef(), image.getDestination(), docsContext.getTopic(), docsContext.getTopic().getTopicFilePath());
-            var imageSize = resolvedAsset.getImageSize();
+            String alternativeWidth = null;
+            String alternativeHeight = null;
 
             if (altText != null) {
                 var imageResizeHintMatcher = IMAGE_RESIZE_HINT_PATTERN.matcher(altText.trim());
                 if (imageResizeHintMatcher.find()) {
-                    var alternativeWidth = imageResizeHintMatcher.group(1);
-                    var alternativeHeight = imageResizeHintMatcher.group(2);
-                    imageSize = ResizeUtils.resize(imageSize, alternativeWidth, alternativeHeight);
+                    alternativeWidth = imageResizeHintMatcher.group(1);
+                    alternativeHeight = imageResizeHintMatcher.group(2);
                     altText = imageResizeHintMatcher.replaceFirst("").trim();
                 }
             }
 
-            if (imageSize.getX() > MAX_IMAGE_SIZE) {
-                imageSize = ResizeUtils.resize(imageSize, String.valueOf(MAX_IMAGE_SIZE), "0");
-            }
-
             var tooltip = altText != null && !altText.isBlank()
                 ? "TooltipText: \"%s\";".formatted(markdownService.escapeText(altText.trim()))
                 : "";
 
-            writer.line();
-            writer.raw(
-                """
-                    // TopicContentRender#visit(Image)
-                    Group {
-                        Padding: (Full: 4);
-                        {{tooltip}}
-                        TextTooltipStyle: {{tooltip-style}};
+            // Image asset is resolved for each player, see renderImageSlot()
+            imageSlots.add(new ImageSlot(image.getDestination(), alternativeWidth, alternativeHeight));
 
-                        Group {
-                            Padding: (Full: 8);
-                            Background: #121a24;
-                            OutlineColor: #203651;
-                            OutlineSize: 2;
-
-                            AssetImage {
-                                Anchor: (Width: {{width}}, Height: {{height}});
-                                AssetPath: "{{path}}";
-                            }
-                        }
-                    }
-                    """
-                    .replace("{{tooltip}}", tooltip)
-                    .replace("{{tooltip-style}}", CommonStyles.TOOLTIP_STYLE_WIDE)
-                    .replace("{{path}}", resolvedAsset.getCommonAssetPath())
-                    .replace("{{width}}", String.valueOf(imageSize.getX()))
-                    .replace("{{height}}", String.valueOf(imageSize.getY()))
-            );
+            writer.line();
+            IMAGE_TEMPLATE.writeTo(writer, tooltip);
 
             writer.block();
         }
@@ -838,24 +1327,7 @@ public class TopicContentRenderer implements Renderer<Topic> {
                     || tableBlock.getParent() instanceof NotificationBlock) && tableBlock.getNext() == null);
 
             // Prep the table group
-            writer.raw(
-                """
-                    // TopicContentRender#visit(TableBlock)
-                    Group {
-                        LayoutMode: MiddleCenter;
-                        Padding: (Top: {{top-padding}}, Bottom: {{bottom-padding}});
-
-                        Group {
-                            LayoutMode: Top;
-                            Padding: (Left: 2, Right: 2, Top: 2, Bottom: 3); // what. For some reason, bottom outline is cut out by 1 pixel.
-                            OutlineColor: #203651;
-                            OutlineSize: 2;
-                            Background: #141e2a;
-
-                """
-                    .replace("{{top-padding}}", shouldSkipTopPadding ? "0" : "10")
-                    .replace("{{bottom-padding}}", bottomPadding ? "10" : "0")
-            );
+            TABLE_BLOCK_START_TEMPLATE.writeTo(writer, shouldSkipTopPadding ? "0" : "10", bottomPadding ? "10" : "0");
 
             // Visits TableHead and optionally TableBody
             visitChildren(tableBlock);
@@ -912,33 +1384,7 @@ public class TopicContentRenderer implements Renderer<Topic> {
                 case RIGHT -> "End";
             };
 
-            writer.raw(
-                """
-                // TopicContentRender#visit(TableCell)
-                Group {
-                    Padding: (Horizontal: 15, Vertical: 10);
-                    LayoutMode: Left;
-                    FlexWeight: 1;
-                    Background: {{background-color}};
-
-                    Group {
-                        Label #{{text-selector}} {
-                            // TODO: Possible cell width with Width: xyz style
-                            Anchor: (MaxWidth: 800);
-                            Style: (
-                                Wrap: true,
-                                RenderBold: {{render-bold}},
-                                HorizontalAlignment: {{content-alignment}}
-                            );
-                        }
-                    }
-                }
-                """
-                .replace("{{text-selector}}", textSelector)
-                .replace("{{content-alignment}}", contentAlignment)
-                .replace("{{render-bold}}", String.valueOf(tableRenderingHead))
-                .replace("{{background-color}}", backgroundColor)
-            );
+            TABLE_CELL_TEMPLATE.writeTo(writer, textSelector, contentAlignment, String.valueOf(tableRenderingHead), backgroundColor);
 
             // Prepare message for any text
             message = Message.raw("");
@@ -970,33 +1416,7 @@ public class TopicContentRenderer implements Renderer<Topic> {
             };
 
             writer.line();
-            writer.raw(
-                """
-                    // TopicContentRender#visit(NotificationBlock)
-                    Group {
-                        Padding: (Horizontal: 15, Bottom: 16, Top: {{top-padding}});
-                        LayoutMode: Left;
-
-                        Group {
-                            LayoutMode: Top;
-                            Padding: (Full: 15);
-                            Background: {{background-color}}(0.4);
-                            OutlineColor: {{outline-color}};
-                            OutlineSize: 2;
-
-                            Group {
-                                LayoutMode: Left;
-                                AssetImage {
-                                    Anchor: (Top: -26, Left: -26, Width: 24, Height: 24);
-                                    AssetPath: "UI/Custom/Docs/Images/{{notification-type}}-icon.png";
-                                }
-                            }
-                    """
-                    .replace("{{background-color}}", backgroundColor)
-                    .replace("{{outline-color}}", outlineColor)
-                    .replace("{{top-padding}}", shouldSkipTopPadding ? "0" : "16")
-                    .replace("{{notification-type}}", notificationBlock.getType().name().toLowerCase())
-            );
+            NOTIFICATION_BLOCK_START_TEMPLATE.writeTo(writer, backgroundColor, outlineColor, shouldSkipTopPadding ? "0" : "16", notificationBlock.getType().name().toLowerCase());
 
             visitChildren(notificationBlock);
 
@@ -1078,63 +1498,7 @@ public class TopicContentRenderer implements Renderer<Topic> {
                             };
 
                             if (elementName.equals("button")) {
-                                writer.raw(
-                                    """
-                                        // TopicContentRender.HtmlBlockParser#parse()[button]
-                                        Group {
-                                            Padding: (Right: 10, Bottom: 8);
-
-                                            Button #{{button-selector}} {
-                                                Anchor: (Height: 44);
-                                                Padding: (Horizontal: 24);
-                                                Style: (
-                                                    Default: (Background: PatchStyle(TexturePath: "Common/Buttons/Secondary.png", Border: 12)),
-                                                    Hovered: (Background: PatchStyle(TexturePath: "Common/Buttons/Secondary_Hovered.png", Border: 12)),
-                                                    Pressed: (Background: PatchStyle(TexturePath: "Common/Buttons/Secondary_Pressed.png", Border: 12)),
-                                                    Disabled: (Background: PatchStyle(TexturePath: "Common/Buttons/Disabled.png", Border: 12)),
-                                                    Sounds: (
-                                                        Activate: (
-                                                            SoundPath: "Sounds/ButtonsLightActivate.ogg",
-                                                            MinPitch: -0.4,
-                                                            MaxPitch: 0.4,
-                                                            Volume: 4
-                                                        ),
-                                                        MouseHover: (
-                                                            SoundPath: "Sounds/ButtonsLightHover.ogg",
-                                                            Volume: 6
-                                                        )
-                                                    )
-                                                );
-
-                                                Group {
-                                                    LayoutMode: Center;
-
-                                                    Label {
-                                                        Text: "{{button-content}}";
-                                                        Style: (
-                                                            FontSize: 17,
-                                                            TextColor: #bfcdd5,
-                                                            RenderBold: true,
-                                                            RenderUppercase: true,
-                                                            HorizontalAlignment: Center,
-                                                            VerticalAlignment: Center
-                                                        );
-                                                    }
-
-                                                    Group { Padding: (Left: 5); }
-
-                                                    AssetImage {
-                                                        Anchor: (Width: 20, Height: 20, Left: 5);
-                                                        AssetPath: "UI/Custom/Docs/Images/{{icon-name}}";
-                                                    }
-                                                }
-                                            }
-                                        }
-                                        """
-                                            .replace("{{button-content}}", markdownService.escapeText(textContent))
-                                            .replace("{{button-selector}}", buttonSelector)
-                                            .replace("{{icon-name}}", iconName)
-                                );
+                                BUTTON_TEMPLATE.writeTo(writer, markdownService.escapeText(textContent), buttonSelector, iconName);
 
                                 if (attributeName.equals("topic")) {
                                     docsContext.getEventBuilder().addEventBinding(
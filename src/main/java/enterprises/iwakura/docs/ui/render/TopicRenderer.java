@@ -5,6 +5,8 @@ import java.util.Optional;
 import enterprises.iwakura.docs.object.Topic;
 import enterprises.iwakura.docs.object.DocsContext;
 import enterprises.iwakura.docs.service.MarkdownService;
+import enterprises.iwakura.docs.ui.render.TopicContentRenderer.TopicContentChunks;
+import enterprises.iwakura.docs.util.UITemplate;
 import enterprises.iwakura.sigewine.core.annotations.Bean;
 import lombok.RequiredArgsConstructor;
 
@@ -17,86 +19,119 @@ public class TopicRenderer implements Renderer<Topic> {
     public static final String TOPIC_AUTHOR_SELECTOR = "#TopicAuthor";
     public static final String TOPIC_CONTENT_SELECTOR = "#TopicContent";
 
-    private final TopicContentRenderer topicContentRenderer;
-    private final MarkdownService markdownService;
+    private static final UITemplate RENDER_TEMPLATE = UITemplate.builder(
+        """
+        // TopicRenderer#render()
+        Group {
+            FlexWeight: 4;
+            LayoutMode: TopScrolling;
+            Padding: (Left: 130, Right: 10);
+            ScrollbarStyle: (...@DefaultScrollbarStyle, OnlyVisibleWhenHovered: true, Spacing: 130);
 
-    @Override
-    public String render(DocsContext ctx, Topic topic) {
-        clearAndAppendInline(ctx, topic);
-
-        return
-            """
-            // TopicRenderer#render()
             Group {
-                FlexWeight: 4;
-                LayoutMode: TopScrolling;
-                Padding: (Left: 130, Right: 10);
-                ScrollbarStyle: (...@DefaultScrollbarStyle, OnlyVisibleWhenHovered: true, Spacing: 130);
-
-                Group {
-                    LayoutMode: Left;
-
-                    Label {{topic-title-selector}} {
-                        Padding: (Bottom: 5, Top: 40);
-                        Text: "{{title}}";
-                        Style: (
-                            FontSize: 32,
-                            Wrap: true,
-                            RenderBold: true
-                        );
-                    }
-                }
+                LayoutMode: Left;
 
-                Group {
-                    LayoutMode: Left;
-
-                    Label {{topic-description-selector}} {
-                        Padding: (Bottom: 5);
-                        Text: "{{description}}";
-                        Style: (
-                            FontSize: 24,
-                            Wrap: true
-                        );
-                    }
+                Label {{topic-title-selector}} {
+                    Padding: (Bottom: 5, Top: 40);
+                    Text: "{{title}}";
+                    Style: (
+                        FontSize: 32,
+                        Wrap: true,
+                        RenderBold: true
+                    );
                 }
+            }
+
+            Group {
+                LayoutMode: Left;
 
-                Group {
-                    LayoutMode: Left;
-
-                    Label {{topic-author-selector}} {
-                        Padding: (Bottom: 20);
-                        Text: "Written by {{author}}";
-                        Style: (
-                            FontSize: 14,
-                            Wrap: true,
-                            TextColor: #d1d3d3
-                        );
-                    }
+                Label {{topic-description-selector}} {
+                    Padding: (Bottom: 5);
+                    Text: "{{description}}";
+                    Style: (
+                        FontSize: 24,
+                        Wrap: true
+                    );
                 }
+            }
 
-                Group #TopicContent {
-                    LayoutMode: Top;
+            Group {
+                LayoutMode: Left;
+
+                Label {{topic-author-selector}} {
+                    Padding: (Bottom: 20);
+                    Text: "Written by {{author}}";
+                    Style: (
+                        FontSize: 14,
+                        Wrap: true,
+                        TextColor: #d1d3d3
+                    );
                 }
             }
-            """
-                .replace("{{title}}", markdownService.escapeText(topic.getName()))
-                .replace("{{description}}", markdownService.escapeText(topic.getDescription()))
-                .replace("{{author}}", markdownService.escapeText(topic.getAuthor()))
-                .replace("{{topic-content-selector}}", TOPIC_CONTENT_SELECTOR)
-                .replace("{{topic-title-selector}}", TOPIC_TITLE_SELECTOR)
-                .replace("{{topic-description-selector}}", TOPIC_DESCRIPTION_SELECTOR)
-                .replace("{{topic-author-selector}}", TOPIC_AUTHOR_SELECTOR);
+
+            Group #TopicContent {
+                LayoutMode: Top;
+            }
+        }
+        """)
+        .constant("topic-title-selector", TOPIC_TITLE_SELECTOR)
+        .constant("topic-description-selector", TOPIC_DESCRIPTION_SELECTOR)
+        .constant("topic-author-selector", TOPIC_AUTHOR_SELECTOR)
+        .slots("title", "description", "author")
+        .build();
+
+    private final TopicContentRenderer topicContentRenderer;
+    private final MarkdownService markdownService;
+
+    @Override
+    public String render(DocsContext ctx, Topic topic) {
+        clearAndAppendInline(ctx, topic);
+
+        return RENDER_TEMPLATE.render(
+            markdownService.escapeText(topic.getName()),
+            markdownService.escapeText(topic.getDescription()),
+            markdownService.escapeText(topic.getAuthor())
+        );
     }
 
     public void clearAndAppendInline(DocsContext ctx, Topic topic) {
-        var topicUIContext = DocsContext.of(ctx);
-        var topicContentUI = topicContentRenderer.render(topicUIContext, topic);
+        var topicContent = clearAndAppendFirstChunkInline(ctx, topic);
+        for (int i = 1; i < topicContent.getChunkCount(); i++) {
+            appendChunkInline(ctx, topicContent, i);
+        }
+    }
+
+    /**
+     * Replaces the shown topic with the specified one, but appends only the first chunk of its content. The remaining
+     * chunks are appended with {@link #appendChunkInline(DocsContext, TopicContentChunks, int)}.
+     *
+     * @param ctx   Docs context
+     * @param topic Topic
+     *
+     * @return Chunked topic content
+     */
+    public TopicContentChunks clearAndAppendFirstChunkInline(DocsContext ctx, Topic topic) {
+        var topicContent = topicContentRenderer.renderChunked(ctx, topic);
         ctx.getCommandBuilder().clear(TOPIC_CONTENT_SELECTOR);
         ctx.getCommandBuilder().set(TOPIC_CONTENT_SELECTOR + ".LayoutMode", "Top");
         ctx.getCommandBuilder().set(TOPIC_TITLE_SELECTOR + ".Text", Optional.ofNullable(topic.getName()).orElse("N/A"));
         ctx.getCommandBuilder().set(TOPIC_DESCRIPTION_SELECTOR + ".Text", Optional.ofNullable(topic.getDescription()).orElse("N/A"));
         ctx.getCommandBuilder().set(TOPIC_AUTHOR_SELECTOR + ".Text", "Written by " + Optional.ofNullable(topic.getAuthor()).orElse("N/A"));
-        ctx.getCommandBuilder().appendInline(TOPIC_CONTENT_SELECTOR, topicContentUI);
-        topicUIContext.mergeInto(ctx);
+        appendChunkInline(ctx, topicContent, 0);
+        return topicContent;
+    }
+
+    /**
+     * Appends the chunk of the topic content after the previously appended chunks
+     *
+     * @param ctx          Docs context
+     * @param topicContent Chunked topic content
+     * @param index        Index of the chunk
+     */
+    public void appendChunkInline(DocsContext ctx, TopicContentChunks topicContent, int index) {
+        try (var chunkUIContext = ctx.openSegment()) {
+            var chunkUI = topicContent.renderChunk(chunkUIContext, index);
+            chunkUIContext.commitAfter(commandBuilder -> commandBuilder.appendInline(TOPIC_CONTENT_SELECTOR, chunkUI));
+        }
     }
 }
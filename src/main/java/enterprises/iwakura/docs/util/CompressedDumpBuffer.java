@@ -0,0 +1,227 @@
+package enterprises.iwakura.docs.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Keeps the most recent dumps for each player, compressed with Deflate. Each player has a ring buffer of a fixed
+ * capacity, and the total size of all compressed dumps is kept within a byte budget by dropping the oldest dumps of
+ * any player. Dumps are only decompressed when read.
+ * <p>
+ * Thread-safe.
+ */
+public class CompressedDumpBuffer {
+
+    private final Map<UUID, ArrayDeque<Entry>> entriesByPlayer = new HashMap<>();
+    /**
+     * All entries in the order they were put, may contain entries that were already removed from their player
+     */
+    private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+    private int entryCount;
+    private long compressedBytes;
+    private long uncompressedBytes;
+
+    /**
+     * Compresses and puts the dump for the player, dropping the player's oldest dump if their buffer is full and the
+     * oldest dumps of all players if the byte budget is exceeded
+     *
+     * @param playerUuid Player UUID
+     * @param dump       Dump
+     * @param capacity   Maximum number of dumps kept for each player
+     * @param byteBudget Maximum number of compressed bytes kept for all players
+     */
+    public void put(UUID playerUuid, String dump, int capacity, long byteBudget) {
+        if (capacity <= 0 || byteBudget <= 0) {
+            return;
+        }
+
+        var bytes = dump.getBytes(StandardCharsets.UTF_8);
+        var entry = new Entry(playerUuid, System.currentTimeMillis(), compress(bytes), bytes.length);
+        if (entry.data.length > byteBudget) {
+            return;
+        }
+
+        synchronized (this) {
+            var playerEntries = entriesByPlayer.computeIfAbsent(playerUuid, key -> new ArrayDeque<>());
+            while (playerEntries.size() >= capacity) {
+                markRemoved(playerEntries.pollFirst());
+            }
+            playerEntries.addLast(entry);
+            entries.addLast(entry);
+            entryCount++;
+            compressedBytes += entry.data.length;
+            uncompressedBytes += entry.uncompressedLength;
+
+            while (compressedBytes > byteBudget) {
+                var oldestEntry = entries.pollFirst();
+                if (!oldestEntry.removed) {
+                    removeFromPlayer(oldestEntry);
+                }
+            }
+            compactIfNeeded();
+        }
+    }
+
+    /**
+     * Returns the player's dumps that are not older than the specified age, decompressed
+     *
+     * @param playerUuid   Player UUID
+     * @param maxAgeMillis Maximum age of the dumps (in milliseconds)
+     *
+     * @return Dumps, the oldest first
+     */
+    public List<Dump> getDumps(UUID playerUuid, long maxAgeMillis) {
+        List<Entry> playerEntries;
+        synchronized (this) {
+            var deque = entriesByPlayer.get(playerUuid);
+            if (deque == null) {
+                return List.of();
+            }
+            playerEntries = new ArrayList<>(deque);
+        }
+
+        long now = System.currentTimeMillis();
+        var dumps = new ArrayList<Dump>(playerEntries.size());
+        for (Entry entry : playerEntries) {
+            if (now - entry.createdAt <= maxAgeMillis) {
+                dumps.add(new Dump(entry.createdAt, new String(decompress(entry.data, entry.uncompressedLength), StandardCharsets.UTF_8)));
+            }
+        }
+        return dumps;
+    }
+
+    /**
+     * Removes all dumps of the player
+     *
+     * @param playerUuid Player UUID
+     */
+    public synchronized void remove(UUID playerUuid) {
+        var playerEntries = entriesByPlayer.remove(playerUuid);
+        if (playerEntries != null) {
+            playerEntries.forEach(this::markRemoved);
+            compactIfNeeded();
+        }
+    }
+
+    /**
+     * Returns the number of kept dumps
+     *
+     * @return Number of dumps
+     */
+    public synchronized int size() {
+        return entryCount;
+    }
+
+    /**
+     * Returns the size of all kept dumps, compressed
+     *
+     * @return Number of bytes
+     */
+    public synchronized long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    /**
+     * Returns the size of all kept dumps, uncompressed
+     *
+     * @return Number of bytes
+     */
+    public synchronized long getUncompressedBytes() {
+        return uncompressedBytes;
+    }
+
+    private void removeFromPlayer(Entry entry) {
+        var playerEntries = entriesByPlayer.get(entry.playerUuid);
+        // The oldest entry overall is also the oldest entry of its player
+        playerEntries.pollFirst();
+        if (playerEntries.isEmpty()) {
+            entriesByPlayer.remove(entry.playerUuid);
+        }
+        markRemoved(entry);
+    }
+
+    private void markRemoved(Entry entry) {
+        entry.removed = true;
+        entryCount--;
+        compressedBytes -= entry.data.length;
+        uncompressedBytes -= entry.uncompressedLength;
+    }
+
+    /**
+     * Drops removed entries from the ordered entries once they make up most of them
+     */
+    private void compactIfNeeded() {
+        if (entries.size() > 16 && entries.size() > entryCount * 2) {
+            entries.removeIf(entry -> entry.removed);
+        }
+    }
+
+    private static byte[] compress(byte[] bytes) {
+        var deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            var output = new ByteArrayOutputStream(bytes.length / 4 + 64);
+            var buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                output.write(buffer, 0, length);
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] decompress(byte[] data, int uncompressedLength) {
+        var inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            var bytes = new byte[uncompressedLength];
+            int offset = 0;
+            while (offset < uncompressedLength && !inflater.finished()) {
+                offset += inflater.inflate(bytes, offset, uncompressedLength - offset);
+            }
+            return bytes;
+        } catch (DataFormatException exception) {
+            throw new IllegalStateException("Failed to decompress dump", exception);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Decompressed dump
+     *
+     * @param createdAt When the dump was put (in epoch milliseconds)
+     * @param content   Content of the dump
+     */
+    public record Dump(long createdAt, String content) {
+
+    }
+
+    private static final class Entry {
+
+        private final UUID playerUuid;
+        private final long createdAt;
+        private final byte[] data;
+        private final int uncompressedLength;
+        private boolean removed;
+
+        private Entry(UUID playerUuid, long createdAt, byte[] data, int uncompressedLength) {
+            this.playerUuid = playerUuid;
+            this.createdAt = createdAt;
+            this.data = data;
+            this.uncompressedLength = uncompressedLength;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package enterprises.iwakura.docs.util;
+
+import com.hypixel.hytale.math.vector.Vector2d;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Reads image size from the headers of PNG, JPEG, WebP and GIF images without decoding them
+ */
+@UtilityClass
+public class ImageHeaderUtils {
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    /**
+     * Checks if the data starts with the PNG signature
+     *
+     * @param data Image data
+     *
+     * @return True if yes, false otherwise
+     */
+    public static boolean isPng(byte[] data) {
+        return startsWith(data, 0, PNG_SIGNATURE);
+    }
+
+    /**
+     * Reads the image size from the image header
+     *
+     * @param data Image data
+     *
+     * @return {@link Vector2d} where x is the width and y is the height, null if the format is not known or the header
+     * is malformed
+     */
+    public static Vector2d readImageSize(byte[] data) {
+        if (data == null) {
+            return null;
+        }
+
+        if (isPng(data)) {
+            return readPngSize(data);
+        } else if (startsWith(data, 0, "GIF87a") || startsWith(data, 0, "GIF89a")) {
+            return readGifSize(data);
+        } else if (data.length >= 2 && (data[0] & 0xFF) == 0xFF && (data[1] & 0xFF) == 0xD8) {
+            return readJpegSize(data);
+        } else if (startsWith(data, 0, "RIFF") && startsWith(data, 8, "WEBP")) {
+            return readWebpSize(data);
+        }
+
+        return null;
+    }
+
+    private static Vector2d readPngSize(byte[] data) {
+        // IHDR must be the first chunk: length, type, width and height
+        if (data.length < 24 || !startsWith(data, 12, "IHDR")) {
+            return null;
+        }
+        return toSize(readIntBigEndian(data, 16), readIntBigEndian(data, 20));
+    }
+
+    private static Vector2d readGifSize(byte[] data) {
+        // Logical screen descriptor follows the signature
+        if (data.length < 10) {
+            return null;
+        }
+        return toSize(readShortLittleEndian(data, 6), readShortLittleEndian(data, 8));
+    }
+
+    private static Vector2d readJpegSize(byte[] data) {
+        int offset = 2;
+
+        while (offset + 4 <= data.length) {
+            if ((data[offset] & 0xFF) != 0xFF) {
+                return null;
+            }
+            int marker = data[offset + 1] & 0xFF;
+
+            if (marker == 0xFF) {
+                // Fill byte
+                offset++;
+                continue;
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                // Markers without a segment
+                offset += 2;
+                continue;
+            }
+            if (marker == 0xD9 || marker == 0xDA) {
+                // End of image or start of scan before any frame header
+                return null;
+            }
+
+            int segmentLength = readShortBigEndian(data, offset + 2);
+            if (segmentLength < 2) {
+                return null;
+            }
+
+            // Start of frame markers, except DHT, JPG and DAC that share the range
+            if (marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC) {
+                // Segment length, sample precision, height and width
+                if (offset + 9 > data.length) {
+                    return null;
+                }
+                return toSize(readShortBigEndian(data, offset + 7), readShortBigEndian(data, offset + 5));
+            }
+
+            offset += 2 + segmentLength;
+        }
+
+        return null;
+    }
+
+    private static Vector2d readWebpSize(byte[] data) {
+        if (data.length < 30) {
+            return null;
+        }
+
+        if (startsWith(data, 12, "VP8 ")) {
+            // Lossy: frame tag and start code precede 14 bit dimensions
+            if ((data[23] & 0xFF) != 0x9D || (data[24] & 0xFF) != 0x01 || (data[25] & 0xFF) != 0x2A) {
+                return null;
+            }
+            return toSize(readShortLittleEndian(data, 26) & 0x3FFF, readShortLittleEndian(data, 28) & 0x3FFF);
+        } else if (startsWith(data, 12, "VP8L")) {
+            // Lossless: signature followed by 14 bit dimensions minus one
+            if ((data[20] & 0xFF) != 0x2F) {
+                return null;
+            }
+            int bits = (data[21] & 0xFF) | (data[22] & 0xFF) << 8 | (data[23] & 0xFF) << 16 | (data[24] & 0xFF) << 24;
+            return toSize((bits & 0x3FFF) + 1, ((bits >>> 14) & 0x3FFF) + 1);
+        } else if (startsWith(data, 12, "VP8X")) {
+            // Extended: flags and 24 bit canvas dimensions minus one
+            return toSize(readInt24LittleEndian(data, 24) + 1, readInt24LittleEndian(data, 27) + 1);
+        }
+
+        return null;
+    }
+
+    private static Vector2d toSize(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+        return new Vector2d(width, height);
+    }
+
+    private static boolean startsWith(byte[] data, int offset, String prefix) {
+        if (data.length < offset + prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (data[offset + i] != (byte) prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWith(byte[] data, int offset, byte[] prefix) {
+        if (data == null || data.length < offset + prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[offset + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int readIntBigEndian(byte[] data, int offset) {
+        return (data[offset] & 0xFF) << 24 | (data[offset + 1] & 0xFF) << 16 | (data[offset + 2] & 0xFF) << 8
+            | (data[offset + 3] & 0xFF);
+    }
+
+    private static int readShortBigEndian(byte[] data, int offset) {
+        return (data[offset] & 0xFF) << 8 | (data[offset + 1] & 0xFF);
+    }
+
+    private static int readShortLittleEndian(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8;
+    }
+
+    private static int readInt24LittleEndian(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8 | (data[offset + 2] & 0xFF) << 16;
+    }
+}
@@ -1,5 +1,6 @@
 package enterprises.iwakura.docs.util;
 
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 
 import lombok.experimental.UtilityClass;
@@ -15,4 +16,15 @@ public class InterfaceUtils {
     public static String generateSelector() {
         return "Generated" + UUID.randomUUID().toString().replace("-", "");
     }
+
+    /**
+     * Generates selector that is always the same for the same key, so elements keep their selectors between renders
+     *
+     * @param key Key identifying the element, e.g. path of the topic within the documentation tree
+     *
+     * @return Selector (without hashtag)
+     */
+    public static String generateSelector(String key) {
+        return "Generated" + UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString().replace("-", "");
+    }
 }
@@ -0,0 +1,259 @@
+package enterprises.iwakura.docs.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable inverted index mapping terms to posting lists of document numbers.
+ * <p>
+ * Texts are expected to be normalized with {@link LocaleUtils#normalize(String)} and are split into terms on every
+ * character that is not a letter or a digit. To support substring queries (the same semantics as
+ * {@link BoyerMooreSearch.SearchPattern#containedIn(String)}), the index keeps a sorted suffix array over the
+ * vocabulary, so a query term matches every indexed term that contains it.
+ * <p>
+ * The result of {@link #findCandidates(String)} is a superset of the documents containing the query, the caller is
+ * expected to verify the candidates against the actual text.
+ */
+public class InvertedIndex {
+
+    public static final InvertedIndex EMPTY = new Builder().build();
+
+    /**
+     * Vocabulary, indexed by term number
+     */
+    private final String[] terms;
+    /**
+     * Sorted document numbers for each term number
+     */
+    private final int[][] postings;
+    /**
+     * Suffixes of all terms in the vocabulary, encoded as {@code termNumber << 32 | offset} and sorted by the suffix
+     */
+    private final long[] suffixes;
+
+    private InvertedIndex(String[] terms, int[][] postings, long[] suffixes) {
+        this.terms = terms;
+        this.postings = postings;
+        this.suffixes = suffixes;
+    }
+
+    /**
+     * Creates new {@link Builder}
+     *
+     * @return Builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Splits normalized text into terms
+     *
+     * @param normalizedText Normalized text
+     *
+     * @return List of terms, in order of occurrence (may contain duplicates)
+     */
+    public static List<String> tokenize(String normalizedText) {
+        var tokens = new ArrayList<String>();
+        if (normalizedText == null) {
+            return tokens;
+        }
+
+        int start = -1;
+        for (int i = 0; i < normalizedText.length(); i++) {
+            if (Character.isLetterOrDigit(normalizedText.charAt(i))) {
+                if (start == -1) {
+                    start = i;
+                }
+            } else if (start != -1) {
+                tokens.add(normalizedText.substring(start, i));
+                start = -1;
+            }
+        }
+        if (start != -1) {
+            tokens.add(normalizedText.substring(start));
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the number of distinct terms in the index
+     *
+     * @return Number of terms
+     */
+    public int getTermCount() {
+        return terms.length;
+    }
+
+    /**
+     * Finds documents that may contain the specified normalized query. Every term of the query has to be contained in
+     * some term of the document.
+     *
+     * @param normalizedQuery Normalized query
+     *
+     * @return Candidate document numbers or null if the query has no terms and thus cannot be answered by the index
+     */
+    public BitSet findCandidates(String normalizedQuery) {
+        var queryTerms = tokenize(normalizedQuery);
+        if (queryTerms.isEmpty()) {
+            return null;
+        }
+
+        BitSet candidates = null;
+        for (String queryTerm : queryTerms) {
+            var termCandidates = findTermCandidates(queryTerm);
+            if (candidates == null) {
+                candidates = termCandidates;
+            } else {
+                candidates.and(termCandidates);
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Finds documents having a term that contains the specified query term
+     *
+     * @param queryTerm Query term
+     *
+     * @return Document numbers
+     */
+    private BitSet findTermCandidates(String queryTerm) {
+        var documents = new BitSet();
+        var visitedTerms = new BitSet(terms.length);
+
+        for (int i = lowerBound(queryTerm); i < suffixes.length; i++) {
+            int termNumber = (int) (suffixes[i] >>> 32);
+            int offset = (int) suffixes[i];
+            if (!terms[termNumber].startsWith(queryTerm, offset)) {
+                break;
+            }
+            if (!visitedTerms.get(termNumber)) {
+                visitedTerms.set(termNumber);
+                for (int document : postings[termNumber]) {
+                    documents.set(document);
+                }
+            }
+        }
+        return documents;
+    }
+
+    /**
+     * Finds the index of the first suffix that is greater or equal to the query term
+     *
+     * @param queryTerm Query term
+     *
+     * @return Index into {@link #suffixes}
+     */
+    private int lowerBound(String queryTerm) {
+        int low = 0;
+        int high = suffixes.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            var suffix = suffixes[middle];
+            if (compareSuffix(terms[(int) (suffix >>> 32)], (int) suffix, queryTerm, 0) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int compareSuffix(String first, int firstOffset, String second, int secondOffset) {
+        int firstLength = first.length() - firstOffset;
+        int secondLength = second.length() - secondOffset;
+        int length = Math.min(firstLength, secondLength);
+        for (int i = 0; i < length; i++) {
+            int difference = first.charAt(firstOffset + i) - second.charAt(secondOffset + i);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return firstLength - secondLength;
+    }
+
+    /**
+     * Builder for {@link InvertedIndex}. Documents must be added in ascending order of their numbers.
+     */
+    public static class Builder {
+
+        private final Map<String, Integer> termNumbers = new HashMap<>();
+        private final List<String> terms = new ArrayList<>();
+        private final List<int[]> postings = new ArrayList<>();
+        private final List<Integer> postingSizes = new ArrayList<>();
+
+        /**
+         * Adds normalized text of the specified document
+         *
+         * @param document       Document number
+         * @param normalizedText Normalized text
+         *
+         * @return Current instance
+         */
+        public Builder add(int document, String normalizedText) {
+            for (String term : tokenize(normalizedText)) {
+                int termNumber = termNumbers.computeIfAbsent(term, key -> {
+                    terms.add(key);
+                    postings.add(new int[4]);
+                    postingSizes.add(0);
+                    return terms.size() - 1;
+                });
+
+                int size = postingSizes.get(termNumber);
+                var posting = postings.get(termNumber);
+                if (size > 0 && posting[size - 1] == document) {
+                    continue;
+                }
+                if (size == posting.length) {
+                    posting = Arrays.copyOf(posting, size * 2);
+                    postings.set(termNumber, posting);
+                }
+                posting[size] = document;
+                postingSizes.set(termNumber, size + 1);
+            }
+            return this;
+        }
+
+        /**
+         * Builds the immutable index
+         *
+         * @return Inverted index
+         */
+        public InvertedIndex build() {
+            var builtTerms = terms.toArray(String[]::new);
+            var builtPostings = new int[builtTerms.length][];
+            int suffixCount = 0;
+
+            for (int i = 0; i < builtTerms.length; i++) {
+                builtPostings[i] = Arrays.copyOf(postings.get(i), postingSizes.get(i));
+                suffixCount += builtTerms[i].length();
+            }
+
+            var boxedSuffixes = new Long[suffixCount];
+            int index = 0;
+            for (int termNumber = 0; termNumber < builtTerms.length; termNumber++) {
+                for (int offset = 0; offset < builtTerms[termNumber].length(); offset++) {
+                    boxedSuffixes[index++] = ((long) termNumber << 32) | offset;
+                }
+            }
+            Arrays.sort(boxedSuffixes, (first, second) -> compareSuffix(
+                builtTerms[(int) (first >>> 32)], (int) (long) first,
+                builtTerms[(int) (second >>> 32)], (int) (long) second
+            ));
+
+            var builtSuffixes = new long[suffixCount];
+            for (int i = 0; i < suffixCount; i++) {
+                builtSuffixes[i] = boxedSuffixes[i];
+            }
+            return new InvertedIndex(builtTerms, builtPostings, builtSuffixes);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package enterprises.iwakura.docs.util;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import lombok.experimental.UtilityClass;
@@ -17,4 +18,31 @@ public class ListUtils {
     public static <T> List<T> emptyIfNull(T[] array) {
         return array == null ? new ArrayList<>() : Arrays.asList(array);
     }
+
+    /**
+     * Removes all elements from the index to the end of the list
+     *
+     * @param list List
+     * @param size New size of the list
+     */
+    public static void truncate(List<?> list, int size) {
+        if (size < list.size()) {
+            list.subList(size, list.size()).clear();
+        }
+    }
+
+    /**
+     * Moves all elements from the index to the end of the list before the element at the target index, keeping their
+     * order
+     *
+     * @param list      List
+     * @param fromIndex Index of the first moved element
+     * @param toIndex   Index the first moved element ends up at, not greater than fromIndex
+     */
+    public static void moveTailTo(List<?> list, int fromIndex, int toIndex) {
+        if (fromIndex == toIndex || fromIndex == list.size()) {
+            return;
+        }
+        Collections.rotate(list.subList(toIndex, list.size()), list.size() - fromIndex);
+    }
 }
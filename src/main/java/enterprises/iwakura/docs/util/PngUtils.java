@@ -0,0 +1,133 @@
+package enterprises.iwakura.docs.util;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+public class PngUtils {
+
+    public static final int MAX_PALETTE_SIZE = 256;
+
+    /**
+     * Ancillary chunks that are kept when stripping metadata: transparency and color space information, including
+     * embedded ICC profiles
+     */
+    private static final Set<String> KEPT_ANCILLARY_CHUNK_TYPES = Set.of("tRNS", "gAMA", "cHRM", "sRGB", "iCCP");
+    private static final int SIGNATURE_LENGTH = 8;
+
+    /**
+     * Converts the image into an indexed image if it has at most {@link #MAX_PALETTE_SIZE} colors. The conversion is
+     * lossless, so images with more colors are not converted.
+     *
+     * @param image Image
+     *
+     * @return Indexed image or null if the image has too many colors
+     */
+    public static BufferedImage toPaletteImage(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        var palette = new int[MAX_PALETTE_SIZE];
+        int paletteSize = 0;
+        // Open addressing table of palette colors, slots hold the palette index + 1
+        var colors = new int[MAX_PALETTE_SIZE * 4];
+        var slots = new int[MAX_PALETTE_SIZE * 4];
+        var indexes = new byte[width * height];
+        var row = new int[width];
+
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int x = 0; x < width; x++) {
+                int color = row[x];
+                int slot = (color * 0x9E3779B1) >>> 22; // Top 10 bits address the 1024 slots
+                while (slots[slot] != 0 && colors[slot] != color) {
+                    slot = (slot + 1) & (slots.length - 1);
+                }
+                if (slots[slot] == 0) {
+                    if (paletteSize == MAX_PALETTE_SIZE) {
+                        return null;
+                    }
+                    palette[paletteSize++] = color;
+                    colors[slot] = color;
+                    slots[slot] = paletteSize;
+                }
+                indexes[y * width + x] = (byte) (slots[slot] - 1);
+            }
+        }
+
+        var reds = new byte[paletteSize];
+        var greens = new byte[paletteSize];
+        var blues = new byte[paletteSize];
+        var alphas = new byte[paletteSize];
+        boolean opaque = true;
+        for (int i = 0; i < paletteSize; i++) {
+            reds[i] = (byte) (palette[i] >> 16);
+            greens[i] = (byte) (palette[i] >> 8);
+            blues[i] = (byte) palette[i];
+            alphas[i] = (byte) (palette[i] >>> 24);
+            opaque &= alphas[i] == (byte) 0xFF;
+        }
+
+        var colorModel = opaque
+            ? new IndexColorModel(8, paletteSize, reds, greens, blues)
+            : new IndexColorModel(8, paletteSize, reds, greens, blues, alphas);
+        var paletteImage = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_INDEXED, colorModel);
+        paletteImage.getRaster().setDataElements(0, 0, width, height, indexes);
+        return paletteImage;
+    }
+
+    /**
+     * Removes ancillary chunks (text, time, EXIF, ...) from the PNG data, except transparency and color space chunks
+     * (including the ICC profile) that affect how the image looks
+     *
+     * @param pngData PNG data
+     *
+     * @return PNG data without the chunks, or the same data if there was nothing to remove or the data is malformed
+     */
+    public static byte[] stripAncillaryChunks(byte[] pngData) {
+        if (!ImageHeaderUtils.isPng(pngData)) {
+            return pngData;
+        }
+
+        var output = new ByteArrayOutputStream(pngData.length);
+        output.write(pngData, 0, SIGNATURE_LENGTH);
+        int offset = SIGNATURE_LENGTH;
+        boolean stripped = false;
+
+        while (offset < pngData.length) {
+            // Length, type, data and CRC
+            if (offset + 12 > pngData.length) {
+                return pngData;
+            }
+            long dataLength = readUnsignedInt(pngData, offset);
+            long chunkLength = 12 + dataLength;
+            if (offset + chunkLength > pngData.length) {
+                return pngData;
+            }
+
+            var chunkType = new String(pngData, offset + 4, 4, StandardCharsets.ISO_8859_1);
+            // Critical chunks start with an uppercase letter
+            if (Character.isUpperCase(chunkType.charAt(0)) || KEPT_ANCILLARY_CHUNK_TYPES.contains(chunkType)) {
+                output.write(pngData, offset, (int) chunkLength);
+            } else {
+                stripped = true;
+            }
+            offset += (int) chunkLength;
+
+            if (chunkType.equals("IEND")) {
+                break;
+            }
+        }
+
+        return stripped ? output.toByteArray() : pngData;
+    }
+
+    private static long readUnsignedInt(byte[] data, int offset) {
+        return ((data[offset] & 0xFFL) << 24) | ((data[offset + 1] & 0xFFL) << 16) | ((data[offset + 2] & 0xFFL) << 8)
+            | (data[offset + 3] & 0xFFL);
+    }
+}
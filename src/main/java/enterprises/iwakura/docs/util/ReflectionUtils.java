@@ -1,5 +1,8 @@
 package enterprises.iwakura.docs.util;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
 import java.util.List;
 
 import com.hypixel.hytale.protocol.packets.interface_.CustomUICommand;
@@ -13,32 +16,59 @@ import lombok.experimental.UtilityClass;
 @UtilityClass
 public class ReflectionUtils {
 
-    @SneakyThrows
+    /**
+     * Handles of the lists the builders collect commands and events into, looked up once
+     */
+    private static final VarHandle COMMANDS_HANDLE = findVarHandle(UICommandBuilder.class, "commands");
+    private static final VarHandle EVENTS_HANDLE = findVarHandle(UIEventBuilder.class, "events");
+
     public static void mergeInto(
         UICommandBuilder fromCommandBuilder,
         UICommandBuilder toCommandBuilder,
         UIEventBuilder fromEventBuilder,
         UIEventBuilder toEventBuilder
     ) {
-        var commandBuilderClass = UICommandBuilder.class;
-        var commandsField = commandBuilderClass.getDeclaredField("commands");
-        commandsField.setAccessible(true);
-        //noinspection unchecked
-        ((List<CustomUICommand>) commandsField.get(toCommandBuilder)).addAll(List.of(fromCommandBuilder.getCommands()));
-
-        var eventBuilderClass = UIEventBuilder.class;
-        var eventsField = eventBuilderClass.getDeclaredField("events");
-        eventsField.setAccessible(true);
-        //noinspection unchecked
-        ((List<CustomUIEventBinding>) eventsField.get(toEventBuilder)).addAll(List.of(fromEventBuilder.getEvents()));
+        getCommands(toCommandBuilder).addAll(getCommands(fromCommandBuilder));
+        getEvents(toEventBuilder).addAll(getEvents(fromEventBuilder));
     }
 
-    @SneakyThrows
+    public static void mergeInto(
+        CustomUICommand[] commands,
+        UICommandBuilder toCommandBuilder,
+        CustomUIEventBinding[] events,
+        UIEventBuilder toEventBuilder
+    ) {
+        getCommands(toCommandBuilder).addAll(Arrays.asList(commands));
+        getEvents(toEventBuilder).addAll(Arrays.asList(events));
+    }
+
+    /**
+     * Returns the modifiable list of commands of the builder
+     *
+     * @param commandBuilder Command builder
+     *
+     * @return List of commands
+     */
+    @SuppressWarnings("unchecked")
     public static List<CustomUICommand> getCommands(UICommandBuilder commandBuilder) {
-        var commandBuilderClass = UICommandBuilder.class;
-        var commandsField = commandBuilderClass.getDeclaredField("commands");
-        commandsField.setAccessible(true);
-        //noinspection unchecked
-        return ((List<CustomUICommand>) commandsField.get(commandBuilder));
+        return (List<CustomUICommand>) COMMANDS_HANDLE.get(commandBuilder);
+    }
+
+    /**
+     * Returns the modifiable list of event bindings of the builder
+     *
+     * @param eventBuilder Event builder
+     *
+     * @return List of event bindings
+     */
+    @SuppressWarnings("unchecked")
+    public static List<CustomUIEventBinding> getEvents(UIEventBuilder eventBuilder) {
+        return (List<CustomUIEventBinding>) EVENTS_HANDLE.get(eventBuilder);
+    }
+
+    @SneakyThrows
+    private static VarHandle findVarHandle(Class<?> clazz, String fieldName) {
+        var field = clazz.getDeclaredField(fieldName);
+        return MethodHandles.privateLookupIn(clazz, MethodHandles.lookup()).unreflectVarHandle(field);
     }
 }
@@ -1,5 +1,9 @@
 package enterprises.iwakura.docs.util;
 
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
 import com.hypixel.hytale.math.vector.Vector2d;
 
 import lombok.experimental.UtilityClass;
@@ -44,4 +48,41 @@ public class ResizeUtils {
             }
         }
     }
+
+    /**
+     * Downscales the image to the specified size. The image is halved in steps with bilinear interpolation until it
+     * reaches the size, which keeps the quality close to area averaging while being much faster.
+     *
+     * @param image  Image
+     * @param width  Width, at most the width of the image
+     * @param height Height, at most the height of the image
+     *
+     * @return Downscaled image or the original image, if it already has the size
+     */
+    public BufferedImage downscale(BufferedImage image, int width, int height) {
+        int imageType = image.getTransparency() == Transparency.OPAQUE
+            ? BufferedImage.TYPE_INT_RGB
+            : BufferedImage.TYPE_INT_ARGB;
+        var current = image;
+        int currentWidth = image.getWidth();
+        int currentHeight = image.getHeight();
+
+        while (currentWidth != width || currentHeight != height) {
+            currentWidth = Math.max(currentWidth / 2, width);
+            currentHeight = Math.max(currentHeight / 2, height);
+
+            var next = new BufferedImage(currentWidth, currentHeight, imageType);
+            var graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        }
+
+        return current;
+    }
 }
@@ -9,6 +9,12 @@ public class StringUtils {
 
     public static final double DEFAULT_THRESHOLD = 0.85;
 
+    private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME64_3 = 0x165667B19E3779F9L;
+    private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+
     /**
      * Computes the Jaro-Winkler similarity between two strings.
      * Returns a value between 0.0 (no similarity) and 1.0 (identical).
@@ -129,4 +135,76 @@ public class StringUtils {
     public static boolean isSimilar(String originalString, String otherString) {
         return getSimilarityScore(originalString, otherString) >= DEFAULT_THRESHOLD;
     }
+
+    /**
+     * Computes 64-bit hash of the text. Uses the XXH64 algorithm over the UTF-16 code units of the text, four code
+     * units per 64-bit lane, so the text does not have to be encoded into bytes first. Not suitable for security
+     * purposes.
+     *
+     * @param text the text
+     *
+     * @return 64-bit hash
+     */
+    public static long hash64(CharSequence text) {
+        final int length = text.length();
+        int i = 0;
+        long hash;
+
+        if (length >= 16) {
+            long v1 = PRIME64_1 + PRIME64_2;
+            long v2 = PRIME64_2;
+            long v3 = 0;
+            long v4 = -PRIME64_1;
+            for (; i + 16 <= length; i += 16) {
+                v1 = hashRound(v1, lane(text, i));
+                v2 = hashRound(v2, lane(text, i + 4));
+                v3 = hashRound(v3, lane(text, i + 8));
+                v4 = hashRound(v4, lane(text, i + 12));
+            }
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = mergeRound(hash, v1);
+            hash = mergeRound(hash, v2);
+            hash = mergeRound(hash, v3);
+            hash = mergeRound(hash, v4);
+        } else {
+            hash = PRIME64_5;
+        }
+
+        hash += length * 2L;
+
+        for (; i + 4 <= length; i += 4) {
+            hash ^= hashRound(0, lane(text, i));
+            hash = Long.rotateLeft(hash, 27) * PRIME64_1 + PRIME64_4;
+        }
+        for (; i < length; i++) {
+            hash ^= text.charAt(i) * PRIME64_5;
+            hash = Long.rotateLeft(hash, 11) * PRIME64_1;
+        }
+
+        // Avalanche
+        hash ^= hash >>> 33;
+        hash *= PRIME64_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME64_3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+    private static long lane(CharSequence text, int index) {
+        return text.charAt(index)
+            | (long) text.charAt(index + 1) << 16
+            | (long) text.charAt(index + 2) << 32
+            | (long) text.charAt(index + 3) << 48;
+    }
+
+    private static long hashRound(long accumulator, long lane) {
+        accumulator += lane * PRIME64_2;
+        accumulator = Long.rotateLeft(accumulator, 31);
+        return accumulator * PRIME64_1;
+    }
+
+    private static long mergeRound(long hash, long accumulator) {
+        hash ^= hashRound(0, accumulator);
+        return hash * PRIME64_1 + PRIME64_4;
+    }
 }
@@ -0,0 +1,164 @@
+package enterprises.iwakura.docs.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Immutable index mapping character trigrams to posting lists of document numbers, used to shortlist documents that
+ * are similar to a query even if it contains typos.
+ * <p>
+ * Texts are expected to be normalized with {@link LocaleUtils#normalize(String)}. Each term (see
+ * {@link InvertedIndex#tokenize(String)}) is padded with a space on both sides, so {@code "craft"} yields
+ * {@code " cr"}, {@code "cra"}, {@code "raf"}, {@code "aft"} and {@code "ft "}. Documents are scored by the Dice
+ * coefficient of their trigram sets and the query's trigram set.
+ */
+public class TrigramIndex {
+
+    public static final TrigramIndex EMPTY = new Builder().build();
+
+    /**
+     * Sorted document numbers for each trigram
+     */
+    private final Map<Long, int[]> postings;
+    /**
+     * Number of distinct trigrams of each document
+     */
+    private final int[] trigramCounts;
+
+    private TrigramIndex(Map<Long, int[]> postings, int[] trigramCounts) {
+        this.postings = postings;
+        this.trigramCounts = trigramCounts;
+    }
+
+    /**
+     * Creates new {@link Builder}
+     *
+     * @return Builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Extracts distinct trigrams of the normalized text
+     *
+     * @param normalizedText Normalized text
+     *
+     * @return Distinct trigrams, each encoded as three 16-bit characters
+     */
+    public static long[] trigrams(String normalizedText) {
+        var trigrams = new ArrayList<Long>();
+        for (String term : InvertedIndex.tokenize(normalizedText)) {
+            var paddedTerm = " " + term + " ";
+            for (int i = 0; i + 3 <= paddedTerm.length(); i++) {
+                trigrams.add(((long) paddedTerm.charAt(i) << 32) | ((long) paddedTerm.charAt(i + 1) << 16) | paddedTerm.charAt(i + 2));
+            }
+        }
+        return trigrams.stream().mapToLong(Long::longValue).distinct().toArray();
+    }
+
+    /**
+     * Returns the number of indexed documents
+     *
+     * @return Number of documents
+     */
+    public int getDocumentCount() {
+        return trigramCounts.length;
+    }
+
+    /**
+     * Finds documents that share the most trigrams with the normalized query
+     *
+     * @param normalizedQuery Normalized query
+     * @param allowedDocument Predicate for documents that may be returned
+     * @param limit           Maximum number of documents to return
+     *
+     * @return Document numbers, the most similar first
+     */
+    public int[] shortlist(String normalizedQuery, IntPredicate allowedDocument, int limit) {
+        var queryTrigrams = trigrams(normalizedQuery);
+        if (queryTrigrams.length == 0 || limit <= 0) {
+            return new int[0];
+        }
+
+        var sharedTrigrams = new int[trigramCounts.length];
+        var touchedDocuments = new int[trigramCounts.length];
+        int touchedCount = 0;
+        for (long trigram : queryTrigrams) {
+            var posting = postings.get(trigram);
+            if (posting == null) {
+                continue;
+            }
+            for (int document : posting) {
+                if (sharedTrigrams[document]++ == 0) {
+                    touchedDocuments[touchedCount++] = document;
+                }
+            }
+        }
+
+        // Documents sharing less than a third of the query's trigrams are hardly similar
+        int minimumSharedTrigrams = Math.max(1, queryTrigrams.length / 3);
+        var candidates = new long[touchedCount];
+        int candidateCount = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int document = touchedDocuments[i];
+            int shared = sharedTrigrams[document];
+            if (shared >= minimumSharedTrigrams && allowedDocument.test(document)) {
+                double dice = 2.0 * shared / (queryTrigrams.length + trigramCounts[document]);
+                // Sort by descending score, ties by ascending document number
+                long encodedScore = (long) ((1.0 - dice) * Integer.MAX_VALUE);
+                candidates[candidateCount++] = (encodedScore << 32) | document;
+            }
+        }
+
+        Arrays.sort(candidates, 0, candidateCount);
+        var shortlist = new int[Math.min(limit, candidateCount)];
+        for (int i = 0; i < shortlist.length; i++) {
+            shortlist[i] = (int) candidates[i];
+        }
+        return shortlist;
+    }
+
+    /**
+     * Builder for {@link TrigramIndex}. Documents must be added in ascending order of their numbers, starting at zero.
+     */
+    public static class Builder {
+
+        private final Map<Long, List<Integer>> postings = new HashMap<>();
+        private final List<Integer> trigramCounts = new ArrayList<>();
+
+        /**
+         * Adds normalized text of the next document
+         *
+         * @param normalizedText Normalized text
+         *
+         * @return Document number of the added document
+         */
+        public int add(String normalizedText) {
+            int document = trigramCounts.size();
+            var trigrams = trigrams(normalizedText);
+            for (long trigram : trigrams) {
+                postings.computeIfAbsent(trigram, key -> new ArrayList<>()).add(document);
+            }
+            trigramCounts.add(trigrams.length);
+            return document;
+        }
+
+        /**
+         * Builds the immutable index
+         *
+         * @return Trigram index
+         */
+        public TrigramIndex build() {
+            var builtPostings = new HashMap<Long, int[]>(postings.size() * 2);
+            postings.forEach((trigram, documents) -> {
+                builtPostings.put(trigram, documents.stream().mapToInt(Integer::intValue).toArray());
+            });
+            return new TrigramIndex(builtPostings, trigramCounts.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package enterprises.iwakura.docs.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.commonmark.renderer.markdown.MarkdownWriter;
+
+/**
+ * Hytale UI markup template with {@code {{slot}}} placeholders. The template is parsed once into literal and slot
+ * segments, so rendering only appends the segments and slot values into the output instead of copying the whole
+ * markup for each replaced placeholder.
+ * <p>
+ * Slots are either constants, which are inlined into the literals when the template is built, or value slots, which
+ * are filled when rendering. Values are passed in the order the value slots were declared in. Values are inserted as
+ * they are, placeholders within them are not replaced.
+ * <pre>{@code
+ * private static final UITemplate LABEL_TEMPLATE = UITemplate.builder("""
+ *     Label #{{label-selector}} {
+ *         Style: {{label-style}};
+ *     }
+ *     """)
+ *     .constant("label-style", CommonStyles.TOOLTIP_STYLE_SHORT)
+ *     .slots("label-selector")
+ *     .build();
+ *
+ * LABEL_TEMPLATE.appendTo(output, selector);
+ * }</pre>
+ */
+public final class UITemplate {
+
+    private static final Pattern SLOT_PATTERN = Pattern.compile("\\{\\{([\\w-]+)}}");
+
+    /**
+     * Literal segments, always one more than slot segments
+     */
+    private final String[] literals;
+    /**
+     * Index of the value for each slot segment
+     */
+    private final int[] slotValueIndexes;
+    private final int valueCount;
+    private final int literalLength;
+
+    private UITemplate(String[] literals, int[] slotValueIndexes, int valueCount) {
+        this.literals = literals;
+        this.slotValueIndexes = slotValueIndexes;
+        this.valueCount = valueCount;
+        int literalLength = 0;
+        for (String literal : literals) {
+            literalLength += literal.length();
+        }
+        this.literalLength = literalLength;
+    }
+
+    /**
+     * Creates new {@link Builder} for the template
+     *
+     * @param template Template with {@code {{slot}}} placeholders
+     *
+     * @return Builder
+     */
+    public static Builder builder(String template) {
+        return new Builder(template);
+    }
+
+    /**
+     * Compiles the template with value slots only
+     *
+     * @param template  Template with {@code {{slot}}} placeholders
+     * @param slotNames Names of the value slots, in the order of values passed when rendering
+     *
+     * @return Compiled template
+     *
+     * @throws IllegalArgumentException If the template has an undeclared slot or a declared slot is not in the
+     *                                  template
+     */
+    public static UITemplate compile(String template, String... slotNames) {
+        return builder(template).slots(slotNames).build();
+    }
+
+    /**
+     * Renders the template into new string
+     *
+     * @param values Values of the value slots
+     *
+     * @return Rendered markup
+     */
+    public String render(CharSequence... values) {
+        checkValues(values);
+        int length = literalLength;
+        for (int slotValueIndex : slotValueIndexes) {
+            length += values[slotValueIndex].length();
+        }
+        return appendTo(new StringBuilder(length), values).toString();
+    }
+
+    /**
+     * Renders the template into the output
+     *
+     * @param output Output
+     * @param values Values of the value slots
+     *
+     * @return The output
+     */
+    public StringBuilder appendTo(StringBuilder output, CharSequence... values) {
+        checkValues(values);
+        output.append(literals[0]);
+        for (int i = 0; i < slotValueIndexes.length; i++) {
+            output.append(values[slotValueIndexes[i]]);
+            output.append(literals[i + 1]);
+        }
+        return output;
+    }
+
+    /**
+     * Renders the template into the writer as raw content
+     *
+     * @param writer Markdown writer
+     * @param values Values of the value slots
+     */
+    public void writeTo(MarkdownWriter writer, CharSequence... values) {
+        checkValues(values);
+        writer.raw(literals[0]);
+        for (int i = 0; i < slotValueIndexes.length; i++) {
+            writer.raw(values[slotValueIndexes[i]].toString());
+            writer.raw(literals[i + 1]);
+        }
+    }
+
+    private void checkValues(CharSequence[] values) {
+        if (values.length != valueCount) {
+            throw new IllegalArgumentException("Expected %d values for the template, got %d".formatted(valueCount, values.length));
+        }
+        for (CharSequence value : values) {
+            if (value == null) {
+                throw new IllegalArgumentException("Template values must not be null");
+            }
+        }
+    }
+
+    /**
+     * Builder for {@link UITemplate}
+     */
+    public static class Builder {
+
+        private final String template;
+        private final Map<String, String> constants = new HashMap<>();
+        private final List<String> slotNames = new ArrayList<>();
+
+        private Builder(String template) {
+            this.template = template;
+        }
+
+        /**
+         * Declares a constant slot, inlined when the template is built
+         *
+         * @param slotName Slot name
+         * @param value    Value
+         *
+         * @return Current instance
+         */
+        public Builder constant(String slotName, String value) {
+            if (value == null) {
+                throw new IllegalArgumentException("Value of the constant slot {{%s}} must not be null".formatted(slotName));
+            }
+            constants.put(slotName, value);
+            return this;
+        }
+
+        /**
+         * Declares value slots
+         *
+         * @param slotNames Slot names, in the order of values passed when rendering
+         *
+         * @return Current instance
+         */
+        public Builder slots(String... slotNames) {
+            this.slotNames.addAll(List.of(slotNames));
+            return this;
+        }
+
+        /**
+         * Parses the template
+         *
+         * @return Compiled template
+         *
+         * @throws IllegalArgumentException If the template has an undeclared slot or a declared slot is not in the
+         *                                  template
+         */
+        public UITemplate build() {
+            var literals = new ArrayList<String>();
+            var slotValueIndexes = new ArrayList<Integer>();
+            Set<String> usedSlotNames = new HashSet<>();
+
+            var literal = new StringBuilder();
+            var matcher = SLOT_PATTERN.matcher(template);
+            int literalStart = 0;
+            while (matcher.find()) {
+                var slotName = matcher.group(1);
+                literal.append(template, literalStart, matcher.start());
+                literalStart = matcher.end();
+                usedSlotNames.add(slotName);
+
+                var constant = constants.get(slotName);
+                if (constant != null) {
+                    literal.append(constant);
+                    continue;
+                }
+
+                int slotValueIndex = slotNames.indexOf(slotName);
+                if (slotValueIndex == -1) {
+                    throw new IllegalArgumentException("Template has undeclared slot {{%s}}".formatted(slotName));
+                }
+                literals.add(literal.toString());
+                slotValueIndexes.add(slotValueIndex);
+                literal.setLength(0);
+            }
+            literal.append(template, literalStart, template.length());
+            literals.add(literal.toString());
+
+            for (String slotName : constants.keySet()) {
+                if (!usedSlotNames.contains(slotName)) {
+                    throw new IllegalArgumentException("Constant slot {{%s}} is not in the template".formatted(slotName));
+                }
+            }
+            for (String slotName : slotNames) {
+                if (!usedSlotNames.contains(slotName)) {
+                    throw new IllegalArgumentException("Slot {{%s}} is not in the template".formatted(slotName));
+                }
+            }
+
+            return new UITemplate(
+                literals.toArray(String[]::new),
+                slotValueIndexes.stream().mapToInt(Integer::intValue).toArray(),
+                slotNames.size()
+            );
+        }
+    }
+}
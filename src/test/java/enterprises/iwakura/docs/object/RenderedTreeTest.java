@@ -0,0 +1,208 @@
+package enterprises.iwakura.docs.object;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.hypixel.hytale.protocol.packets.interface_.CustomUICommand;
+import com.hypixel.hytale.protocol.packets.interface_.CustomUICommandType;
+import com.hypixel.hytale.protocol.packets.interface_.CustomUIEventBindingType;
+import com.hypixel.hytale.server.core.ui.builder.EventData;
+import com.hypixel.hytale.server.core.ui.builder.UICommandBuilder;
+import com.hypixel.hytale.server.core.ui.builder.UIEventBuilder;
+
+import enterprises.iwakura.docs.util.ReflectionUtils;
+
+public class RenderedTreeTest {
+
+    private static final String PARENT_SELECTOR = "#Tree";
+
+    private final RenderedTree.HeaderSelectors headerSelectors = new RenderedTree.HeaderSelectors();
+    private UICommandBuilder commandBuilder;
+    private UIEventBuilder eventBuilder;
+
+    private static RenderedTree.Node node(String selector, String text, RenderedTree.Node... children) {
+        var headerSelector = selector + "Header";
+        return new RenderedTree.Node(
+            selector,
+            "Group #" + selector + " {\n",
+            new RenderedTree.Header(
+                headerSelector,
+                "Button #" + headerSelector + " { Text: \"" + text + "\"; }\n",
+                text,
+                (eventBuilder, selectors) -> eventBuilder.addEventBinding(
+                    CustomUIEventBindingType.Activating,
+                    "#" + selectors.apply(headerSelector),
+                    new EventData(),
+                    true
+                )
+            ),
+            List.of(children)
+        );
+    }
+
+    private static RenderedTree tree(RenderedTree.Node... nodes) {
+        return new RenderedTree(List.of(nodes));
+    }
+
+    /**
+     * Diffs the trees into fresh builders, the previous tree is sent first so its headers are known
+     */
+    private void diff(RenderedTree previous, RenderedTree tree) {
+        previous.diffInto(null, headerSelectors, PARENT_SELECTOR, new UICommandBuilder(), new UIEventBuilder());
+        commandBuilder = new UICommandBuilder();
+        eventBuilder = new UIEventBuilder();
+        tree.diffInto(previous, headerSelectors, PARENT_SELECTOR, commandBuilder, eventBuilder);
+    }
+
+    private List<CustomUICommand> commands() {
+        return ReflectionUtils.getCommands(commandBuilder);
+    }
+
+    private List<String> boundSelectors() {
+        return ReflectionUtils.getEvents(eventBuilder).stream().map(event -> event.selector).toList();
+    }
+
+    private static void assertCommand(CustomUICommand command, CustomUICommandType type, String selector) {
+        Assertions.assertEquals(type, command.type);
+        Assertions.assertEquals(selector, command.selector);
+    }
+
+    @Test
+    public void testReplace() {
+        commandBuilder = new UICommandBuilder();
+        eventBuilder = new UIEventBuilder();
+        var tree = tree(node("A", "a", node("B", "b")));
+
+        tree.diffInto(null, headerSelectors, PARENT_SELECTOR, commandBuilder, eventBuilder);
+
+        Assertions.assertEquals(2, commands().size());
+        assertCommand(commands().get(0), CustomUICommandType.Clear, PARENT_SELECTOR);
+        assertCommand(commands().get(1), CustomUICommandType.AppendInline, PARENT_SELECTOR);
+        Assertions.assertEquals(tree.toMarkup(), commands().get(1).text);
+        Assertions.assertEquals(List.of("#AHeader", "#BHeader"), boundSelectors());
+    }
+
+    @Test
+    public void testSameTree() {
+        var tree = tree(node("A", "a"), node("B", "b"));
+
+        diff(tree, tree(node("A", "a"), node("B", "b")));
+
+        Assertions.assertTrue(commands().isEmpty());
+        Assertions.assertTrue(boundSelectors().isEmpty());
+    }
+
+    @Test
+    public void testInsert() {
+        diff(tree(node("A", "a"), node("C", "c")), tree(node("A", "a"), node("B", "b"), node("C", "c"), node("D", "d")));
+
+        Assertions.assertEquals(2, commands().size());
+        assertCommand(commands().get(0), CustomUICommandType.InsertBeforeInline, "#C");
+        Assertions.assertEquals(node("B", "b").toMarkup(), commands().get(0).text);
+        assertCommand(commands().get(1), CustomUICommandType.AppendInline, PARENT_SELECTOR);
+        Assertions.assertEquals(node("D", "d").toMarkup(), commands().get(1).text);
+        Assertions.assertEquals(List.of("#BHeader", "#DHeader"), boundSelectors());
+    }
+
+    @Test
+    public void testInsertChild() {
+        diff(tree(node("A", "a")), tree(node("A", "a", node("B", "b"))));
+
+        Assertions.assertEquals(1, commands().size());
+        assertCommand(commands().get(0), CustomUICommandType.AppendInline, "#A");
+        Assertions.assertEquals(List.of("#BHeader"), boundSelectors());
+    }
+
+    @Test
+    public void testRemove() {
+        diff(tree(node("A", "a", node("B", "b")), node("C", "c")), tree(node("A", "a")));
+
+        Assertions.assertEquals(2, commands().size());
+        assertCommand(commands().get(0), CustomUICommandType.Remove, "#C");
+        assertCommand(commands().get(1), CustomUICommandType.Remove, "#B");
+        Assertions.assertTrue(boundSelectors().isEmpty());
+    }
+
+    @Test
+    public void testReorder() {
+        diff(tree(node("A", "a"), node("B", "b")), tree(node("B", "b"), node("A", "a")));
+
+        Assertions.assertEquals(4, commands().size());
+        assertCommand(commands().get(0), CustomUICommandType.Remove, "#A");
+        assertCommand(commands().get(1), CustomUICommandType.Remove, "#B");
+        assertCommand(commands().get(2), CustomUICommandType.AppendInline, PARENT_SELECTOR);
+        assertCommand(commands().get(3), CustomUICommandType.AppendInline, PARENT_SELECTOR);
+
+        // Headers were sent before, so they are inserted with new selectors
+        var boundSelectors = boundSelectors();
+        Assertions.assertEquals(2, boundSelectors.size());
+        Assertions.assertNotEquals("#BHeader", boundSelectors.get(0));
+        Assertions.assertNotEquals("#AHeader", boundSelectors.get(1));
+        Assertions.assertTrue(commands().get(2).text.contains(boundSelectors.get(0) + " "));
+        Assertions.assertTrue(commands().get(3).text.contains(boundSelectors.get(1) + " "));
+    }
+
+    @Test
+    public void testHeaderReplace() {
+        var previous = tree(node("A", "a", node("B", "b")));
+        diff(previous, tree(node("A", "changed", node("B", "b"))));
+
+        Assertions.assertEquals(2, commands().size());
+        assertCommand(commands().get(0), CustomUICommandType.Remove, "#AHeader");
+        assertCommand(commands().get(1), CustomUICommandType.InsertBeforeInline, "#B");
+
+        var boundSelectors = boundSelectors();
+        Assertions.assertEquals(1, boundSelectors.size());
+        var replacedSelector = boundSelectors.getFirst();
+        Assertions.assertNotEquals("#AHeader", replacedSelector);
+        Assertions.assertTrue(commands().get(1).text.contains(replacedSelector + " "));
+
+        // Replacing the header again removes the element under its new selector and binds yet another one
+        commandBuilder = new UICommandBuilder();
+        eventBuilder = new UIEventBuilder();
+        previous.diffInto(tree(node("A", "changed", node("B", "b"))), headerSelectors, PARENT_SELECTOR, commandBuilder, eventBuilder);
+
+        assertCommand(commands().get(0), CustomUICommandType.Remove, replacedSelector);
+        Assertions.assertEquals(1, boundSelectors().size());
+        Assertions.assertNotEquals(replacedSelector, boundSelectors().getFirst());
+        Assertions.assertNotEquals("#AHeader", boundSelectors().getFirst());
+    }
+
+    @Test
+    public void testReinsertedNodeHasNewSelectors() {
+        var previous = tree(node("A", "a", node("B", "b")));
+        diff(previous, tree(node("A", "a")));
+
+        // Collapsed and expanded again
+        commandBuilder = new UICommandBuilder();
+        eventBuilder = new UIEventBuilder();
+        previous.diffInto(tree(node("A", "a")), headerSelectors, PARENT_SELECTOR, commandBuilder, eventBuilder);
+
+        Assertions.assertEquals(1, commands().size());
+        assertCommand(commands().get(0), CustomUICommandType.AppendInline, "#A");
+        Assertions.assertEquals(1, boundSelectors().size());
+        Assertions.assertNotEquals("#BHeader", boundSelectors().getFirst());
+    }
+
+    @Test
+    public void testDuplicateSelectorsReplaceTree() {
+        var duplicates = tree(node("A", "first"), node("A", "second"));
+        Assertions.assertFalse(duplicates.hasUniqueSelectors());
+
+        diff(tree(node("A", "a")), duplicates);
+
+        Assertions.assertEquals(2, commands().size());
+        assertCommand(commands().get(0), CustomUICommandType.Clear, PARENT_SELECTOR);
+        assertCommand(commands().get(1), CustomUICommandType.AppendInline, PARENT_SELECTOR);
+        Assertions.assertEquals(2, boundSelectors().size());
+    }
+
+    @Test
+    public void testHeaderSelectorMustStartWithGroupSelector() {
+        var header = new RenderedTree.Header("Other", "Label #Other {}\n", null, null);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new RenderedTree.Node("A", "Group #A {\n", header, List.of()));
+    }
+}
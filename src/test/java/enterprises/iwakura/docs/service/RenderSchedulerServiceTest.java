@@ -0,0 +1,188 @@
+package enterprises.iwakura.docs.service;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import enterprises.iwakura.docs.config.DocsConfig;
+import enterprises.iwakura.docs.util.Logger;
+
+public class RenderSchedulerServiceTest {
+
+    private static final UUID FIRST_PLAYER = UUID.randomUUID();
+    private static final UUID SECOND_PLAYER = UUID.randomUUID();
+
+    private DocsConfig docsConfig;
+    private RenderSchedulerService renderSchedulerService;
+    /**
+     * Names of the renders in the order they ran
+     */
+    private final List<String> renders = new CopyOnWriteArrayList<>();
+    /**
+     * Names of the renders that were dropped
+     */
+    private final List<String> droppedRenders = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        docsConfig = new DocsConfig();
+        var configurationService = new ConfigurationService(null, null, null) {
+            @Override
+            public DocsConfig getDocsConfig() {
+                return docsConfig;
+            }
+        };
+        renderSchedulerService = new RenderSchedulerService(configurationService, new Logger("RenderSchedulerServiceTest"));
+    }
+
+    private void submit(UUID playerUuid, String key, String name) {
+        renderSchedulerService.submit(playerUuid, key, () -> renders.add(name), () -> droppedRenders.add(name));
+    }
+
+    /**
+     * Submits a render that runs until it's released
+     */
+    private Blocker submitBlocker(UUID playerUuid) throws InterruptedException {
+        var blocker = new Blocker();
+        renderSchedulerService.submit(playerUuid, null, blocker);
+        Assertions.assertTrue(blocker.started.await(5, TimeUnit.SECONDS));
+        return blocker;
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (renderSchedulerService.getRunningRenders() > 0 || renderSchedulerService.getQueuedRenders() > 0) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "Renders did not finish in time");
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void testPlayersTakeTurns() throws InterruptedException {
+        docsConfig.setMaxConcurrentRenders(1);
+        var blocker = submitBlocker(FIRST_PLAYER);
+
+        submit(FIRST_PLAYER, null, "first-1");
+        submit(FIRST_PLAYER, null, "first-2");
+        submit(SECOND_PLAYER, null, "second-1");
+        submit(SECOND_PLAYER, null, "second-2");
+        blocker.release.countDown();
+        awaitIdle();
+
+        // The first player had the slot, so the second player goes first and then they take turns
+        Assertions.assertEquals(List.of("second-1", "first-1", "second-2", "first-2"), renders);
+        Assertions.assertTrue(droppedRenders.isEmpty());
+        Assertions.assertEquals(0, renderSchedulerService.getRenderingPlayers());
+    }
+
+    @Test
+    public void testNewerRenderSupersedesQueued() throws InterruptedException {
+        docsConfig.setMaxConcurrentRenders(1);
+        var blocker = submitBlocker(FIRST_PLAYER);
+
+        submit(FIRST_PLAYER, "topic", "topic-1");
+        submit(FIRST_PLAYER, "search", "search-1");
+        submit(FIRST_PLAYER, "topic", "topic-2");
+        submit(SECOND_PLAYER, "topic", "other-player-topic");
+        blocker.release.countDown();
+        awaitIdle();
+
+        Assertions.assertEquals(List.of("topic-1"), droppedRenders);
+        Assertions.assertEquals(3, renders.size());
+        Assertions.assertTrue(renders.containsAll(List.of("search-1", "topic-2", "other-player-topic")));
+        Assertions.assertTrue(renders.indexOf("search-1") < renders.indexOf("topic-2"));
+        Assertions.assertEquals(1, renderSchedulerService.getSupersededRenders());
+    }
+
+    @Test
+    public void testFullPlayerQueueDropsOldestRender() throws InterruptedException {
+        docsConfig.setMaxConcurrentRenders(1);
+        docsConfig.setMaxQueuedRendersPerPlayer(2);
+        var blocker = submitBlocker(FIRST_PLAYER);
+
+        submit(FIRST_PLAYER, null, "first-1");
+        submit(FIRST_PLAYER, null, "first-2");
+        submit(FIRST_PLAYER, null, "first-3");
+        Assertions.assertEquals(List.of("first-1"), droppedRenders);
+        blocker.release.countDown();
+        awaitIdle();
+
+        Assertions.assertEquals(List.of("first-2", "first-3"), renders);
+        Assertions.assertEquals(1, renderSchedulerService.getShedRenders());
+    }
+
+    @Test
+    public void testFullQueuesRejectNewRender() throws InterruptedException {
+        docsConfig.setMaxConcurrentRenders(1);
+        docsConfig.setMaxQueuedRenders(2);
+        var blocker = submitBlocker(FIRST_PLAYER);
+
+        submit(FIRST_PLAYER, null, "first-1");
+        submit(SECOND_PLAYER, null, "second-1");
+        submit(SECOND_PLAYER, null, "second-2");
+        Assertions.assertEquals(List.of("second-2"), droppedRenders);
+        Assertions.assertEquals(2, renderSchedulerService.getQueuedRenders());
+        blocker.release.countDown();
+        awaitIdle();
+
+        Assertions.assertEquals(List.of("second-1", "first-1"), renders);
+        Assertions.assertEquals(1, renderSchedulerService.getShedRenders());
+    }
+
+    @Test
+    public void testConcurrentRendersAreCapped() throws InterruptedException {
+        docsConfig.setMaxConcurrentRenders(2);
+        var running = new AtomicInteger();
+        var peakRunning = new AtomicInteger();
+        var started = new CountDownLatch(2);
+        var release = new CountDownLatch(1);
+
+        for (int i = 0; i < 6; i++) {
+            renderSchedulerService.submit(UUID.randomUUID(), null, () -> {
+                peakRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+            });
+        }
+
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(2, renderSchedulerService.getRunningRenders());
+        Assertions.assertEquals(4, renderSchedulerService.getQueuedRenders());
+        release.countDown();
+        awaitIdle();
+
+        Assertions.assertEquals(2, peakRunning.get());
+        Assertions.assertEquals(6, renderSchedulerService.getCompletedRenders());
+    }
+
+    /**
+     * Render that runs until it's released
+     */
+    private static final class Blocker implements Runnable {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void run() {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package enterprises.iwakura.docs.ui.render;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import enterprises.iwakura.docs.ui.CommonStyles;
+
+/**
+ * Checks that the compiled templates of {@link TopicContentRenderer} render the same markup as the replace chains they
+ * replaced. The expected markup is built by the replace-based code of the visitor as it was before the templates,
+ * copied verbatim.
+ */
+public class TopicContentTemplatesTest {
+
+    /**
+     * TopicContentRenderer.TopicContentVisitor#visit(FencedCodeBlock), before the templates
+     */
+    private static String replacedFencedCodeBlock(String codeSelector, boolean skipBottomPadding) {
+        return
+                """
+                    // TopicContentRender#visit(FencedCodeBlock)
+                    Group {
+                        Padding: (Top: 8, Bottom: {{bottom-padding}});
+
+                        Group {
+                            LayoutMode: Top;
+                            Padding: (Full: 15);
+                            Background: #121a24;
+                            OutlineColor: #203651;
+                            OutlineSize: 2;
+
+                            CodeEditor #{{code-selector}} {
+                                Anchor: (MinWidth: 900);
+                                Style: (TextColor: #cccccc, FontSize: 16, FontName: "Mono");
+                                IsReadOnly: true;
+                                LineNumberBackground: #000000(0.0);
+                                LineNumberTextColor: #000000(0.0);
+                                LineNumberWidth: 0;
+
+                                ScrollbarStyle: {{scrollbar-style}};
+                            }
+                        }
+                    }
+                    """
+                    .replace("{{code-selector}}", codeSelector)
+                    .replace("{{bottom-padding}}", skipBottomPadding ? "0" : "8")
+                    .replace("{{scrollbar-style}}", CommonStyles.SCROLLBAR_STYLE);
+    }
+
+    /**
+     * TopicContentRenderer.TopicContentVisitor#visit(TableCell), before the templates
+     */
+    private static String replacedTableCell(String textSelector, String contentAlignment, boolean tableRenderingHead, String backgroundColor) {
+        return
+                """
+                // TopicContentRender#visit(TableCell)
+                Group {
+                    Padding: (Horizontal: 15, Vertical: 10);
+                    LayoutMode: Left;
+                    FlexWeight: 1;
+                    Background: {{background-color}};
+
+                    Group {
+                        Label #{{text-selector}} {
+                            // TODO: Possible cell width with Width: xyz style
+                            Anchor: (MaxWidth: 800);
+                            Style: (
+                                Wrap: true,
+                                RenderBold: {{render-bold}},
+                                HorizontalAlignment: {{content-alignment}}
+                            );
+                        }
+                    }
+                }
+                """
+                .replace("{{text-selector}}", textSelector)
+                .replace("{{content-alignment}}", contentAlignment)
+                .replace("{{render-bold}}", String.valueOf(tableRenderingHead))
+                .replace("{{background-color}}", backgroundColor);
+    }
+
+    /**
+     * TopicContentRenderer.TopicContentVisitor#visit(Image), before the templates
+     */
+    private static String replacedImage(String tooltip) {
+        return
+                """
+                    // TopicContentRender#visit(Image)
+                    Group {
+                        Padding: (Full: 4);
+                        {{tooltip}}
+                        TextTooltipStyle: {{tooltip-style}};
+
+                        Group {
+                            Padding: (Full: 8);
+                            Background: #121a24;
+                            OutlineColor: #203651;
+                            OutlineSize: 2;
+
+                            AssetImage {
+                                {{image-slot}}
+                            }
+                        }
+                    }
+                    """
+                    .replace("{{tooltip}}", tooltip)
+                    .replace("{{tooltip-style}}", CommonStyles.TOOLTIP_STYLE_WIDE)
+                    .replace("{{image-slot}}", String.valueOf(TopicContentRenderer.IMAGE_SLOT_MARKER));
+    }
+
+    /**
+     * TopicContentRenderer#renderImageSlot(), before the templates
+     */
+    private static String replacedImageSlot(String commonAssetPath, double width, double height) {
+        return
+            """
+            Anchor: (Width: {{width}}, Height: {{height}});
+            AssetPath: "{{path}}";
+            """
+                .replace("{{path}}", commonAssetPath)
+                .replace("{{width}}", String.valueOf(width))
+                .replace("{{height}}", String.valueOf(height));
+    }
+
+    @Test
+    public void testFencedCodeBlockMatchesReplace() {
+        for (boolean skipBottomPadding : new boolean[] {false, true}) {
+            Assertions.assertEquals(
+                replacedFencedCodeBlock("GeneratedCode", skipBottomPadding),
+                TopicContentRenderer.FENCED_CODE_BLOCK_TEMPLATE.render("GeneratedCode", skipBottomPadding ? "0" : "8")
+            );
+        }
+    }
+
+    @Test
+    public void testTableCellMatchesReplace() {
+        for (boolean tableRenderingHead : new boolean[] {false, true}) {
+            String backgroundColor = tableRenderingHead ? "#0e151d" : "#121a24";
+            for (String contentAlignment : new String[] {"Start", "Center", "End"}) {
+                Assertions.assertEquals(
+                    replacedTableCell("GeneratedText", contentAlignment, tableRenderingHead, backgroundColor),
+                    TopicContentRenderer.TABLE_CELL_TEMPLATE.render("GeneratedText", contentAlignment, String.valueOf(tableRenderingHead), backgroundColor)
+                );
+            }
+        }
+    }
+
+    @Test
+    public void testImageMatchesReplace() {
+        for (String tooltip : new String[] {"", "TooltipText: \"Screenshot\";"}) {
+            Assertions.assertEquals(replacedImage(tooltip), TopicContentRenderer.IMAGE_TEMPLATE.render(tooltip));
+        }
+    }
+
+    @Test
+    public void testImageSlotMatchesReplace() {
+        var path = "UI/Custom/Docs/Runtime/image.png";
+
+        Assertions.assertEquals(
+            replacedImageSlot(path, 640.0, 360.0),
+            TopicContentRenderer.IMAGE_SLOT_TEMPLATE.render(String.valueOf(640.0), String.valueOf(360.0), path)
+        );
+    }
+}
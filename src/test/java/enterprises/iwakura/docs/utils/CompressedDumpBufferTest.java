@@ -0,0 +1,76 @@
+package enterprises.iwakura.docs.utils;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import enterprises.iwakura.docs.util.CompressedDumpBuffer;
+import enterprises.iwakura.docs.util.CompressedDumpBuffer.Dump;
+
+public class CompressedDumpBufferTest {
+
+    private static final UUID FIRST_PLAYER = new UUID(0, 1);
+    private static final UUID SECOND_PLAYER = new UUID(0, 2);
+
+    private static String createDump(int index) {
+        return ("// Dump %d\nGroup #Generated%d {\n    LayoutMode: Top;\n}\n".formatted(index, index)).repeat(50);
+    }
+
+    private static List<String> getContents(CompressedDumpBuffer buffer, UUID playerUuid) {
+        return buffer.getDumps(playerUuid, Long.MAX_VALUE).stream().map(Dump::content).toList();
+    }
+
+    @Test
+    public void testRoundTripAndCompression() {
+        var buffer = new CompressedDumpBuffer();
+        buffer.put(FIRST_PLAYER, createDump(1), 4, Long.MAX_VALUE);
+
+        Assertions.assertEquals(List.of(createDump(1)), getContents(buffer, FIRST_PLAYER));
+        Assertions.assertEquals(List.of(), getContents(buffer, SECOND_PLAYER));
+        Assertions.assertEquals(createDump(1).length(), buffer.getUncompressedBytes());
+        Assertions.assertTrue(buffer.getCompressedBytes() * 4 < buffer.getUncompressedBytes(),
+            "Compressed %d bytes into %d bytes".formatted(buffer.getUncompressedBytes(), buffer.getCompressedBytes()));
+    }
+
+    @Test
+    public void testCapacityPerPlayer() {
+        var buffer = new CompressedDumpBuffer();
+        for (int i = 0; i < 5; i++) {
+            buffer.put(FIRST_PLAYER, createDump(i), 2, Long.MAX_VALUE);
+        }
+        buffer.put(SECOND_PLAYER, createDump(10), 2, Long.MAX_VALUE);
+
+        Assertions.assertEquals(List.of(createDump(3), createDump(4)), getContents(buffer, FIRST_PLAYER));
+        Assertions.assertEquals(List.of(createDump(10)), getContents(buffer, SECOND_PLAYER));
+        Assertions.assertEquals(3, buffer.size());
+
+        buffer.remove(FIRST_PLAYER);
+        Assertions.assertEquals(List.of(), getContents(buffer, FIRST_PLAYER));
+        Assertions.assertEquals(1, buffer.size());
+    }
+
+    @Test
+    public void testByteBudgetDropsOldestDumps() {
+        var sizing = new CompressedDumpBuffer();
+        sizing.put(FIRST_PLAYER, createDump(1), 1, Long.MAX_VALUE);
+        long dumpBytes = sizing.getCompressedBytes();
+
+        // Room for about three dumps
+        long byteBudget = dumpBytes * 3 + dumpBytes / 2;
+        var buffer = new CompressedDumpBuffer();
+        buffer.put(FIRST_PLAYER, createDump(1), 4, byteBudget);
+        buffer.put(SECOND_PLAYER, createDump(2), 4, byteBudget);
+        buffer.put(FIRST_PLAYER, createDump(3), 4, byteBudget);
+        buffer.put(SECOND_PLAYER, createDump(4), 4, byteBudget);
+
+        Assertions.assertEquals(List.of(createDump(3)), getContents(buffer, FIRST_PLAYER));
+        Assertions.assertEquals(List.of(createDump(2), createDump(4)), getContents(buffer, SECOND_PLAYER));
+        Assertions.assertTrue(buffer.getCompressedBytes() <= byteBudget);
+
+        // Dumps over the budget are not kept at all
+        buffer.put(FIRST_PLAYER, createDump(5), 4, 1);
+        Assertions.assertEquals(List.of(createDump(3)), getContents(buffer, FIRST_PLAYER));
+    }
+}
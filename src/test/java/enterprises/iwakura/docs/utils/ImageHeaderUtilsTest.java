@@ -0,0 +1,82 @@
+package enterprises.iwakura.docs.utils;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.hypixel.hytale.math.vector.Vector2d;
+
+import enterprises.iwakura.docs.util.ImageHeaderUtils;
+
+public class ImageHeaderUtilsTest {
+
+    private static byte[] encode(String format, int width, int height) throws IOException {
+        var image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        try (var baos = new ByteArrayOutputStream()) {
+            Assertions.assertTrue(ImageIO.write(image, format, baos));
+            return baos.toByteArray();
+        }
+    }
+
+    private static byte[] webp(String chunkType, int... chunkData) {
+        var data = new byte[30];
+        System.arraycopy("RIFF".getBytes(), 0, data, 0, 4);
+        System.arraycopy("WEBP".getBytes(), 0, data, 8, 4);
+        System.arraycopy(chunkType.getBytes(), 0, data, 12, 4);
+        for (int i = 0; i < chunkData.length; i++) {
+            data[20 + i] = (byte) chunkData[i];
+        }
+        return data;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"png", "gif", "jpg", "bmp"})
+    public void testReadImageSizeMatchesImageIO(String format) throws IOException {
+        var data = encode(format, 321, 123);
+        var expectedImage = ImageIO.read(new ByteArrayInputStream(data));
+        var imageSize = ImageHeaderUtils.readImageSize(data);
+
+        if (format.equals("bmp")) {
+            // Not probed, read by ImageIO instead
+            Assertions.assertNull(imageSize);
+        } else {
+            Assertions.assertEquals(new Vector2d(expectedImage.getWidth(), expectedImage.getHeight()), imageSize);
+        }
+    }
+
+    @Test
+    public void testReadWebpImageSize() {
+        // VP8: frame tag, start code, 14 bit width and height
+        Assertions.assertEquals(new Vector2d(400, 300),
+            ImageHeaderUtils.readImageSize(webp("VP8 ", 0, 0, 0, 0x9D, 0x01, 0x2A, 400 & 0xFF, 400 >> 8, 300 & 0xFF, 300 >> 8)));
+        // VP8L: signature, width - 1 and height - 1 packed in 14 bits each
+        int bits = (400 - 1) | (300 - 1) << 14;
+        Assertions.assertEquals(new Vector2d(400, 300),
+            ImageHeaderUtils.readImageSize(webp("VP8L", 0x2F, bits & 0xFF, bits >> 8 & 0xFF, bits >> 16 & 0xFF, bits >> 24 & 0xFF)));
+        // VP8X: flags, reserved, width - 1 and height - 1 in 24 bits each
+        Assertions.assertEquals(new Vector2d(4000, 3000),
+            ImageHeaderUtils.readImageSize(webp("VP8X", 0, 0, 0, 0, 3999 & 0xFF, 3999 >> 8, 0, 2999 & 0xFF, 2999 >> 8, 0)));
+    }
+
+    @Test
+    public void testReadImageSizeOfMalformedData() throws IOException {
+        var png = encode("png", 16, 16);
+
+        Assertions.assertNull(ImageHeaderUtils.readImageSize(null));
+        Assertions.assertNull(ImageHeaderUtils.readImageSize(new byte[0]));
+        Assertions.assertNull(ImageHeaderUtils.readImageSize(Arrays.copyOf(png, 20)));
+        Assertions.assertNull(ImageHeaderUtils.readImageSize(new byte[] {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xDA, 0, 2}));
+        Assertions.assertNull(ImageHeaderUtils.readImageSize(webp("VP8 ", 0, 0, 0, 1, 2, 3)));
+        Assertions.assertTrue(ImageHeaderUtils.isPng(png));
+        Assertions.assertFalse(ImageHeaderUtils.isPng(encode("gif", 16, 16)));
+    }
+}
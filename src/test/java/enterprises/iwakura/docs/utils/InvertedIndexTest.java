@@ -0,0 +1,63 @@
+package enterprises.iwakura.docs.utils;
+
+import java.util.BitSet;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import enterprises.iwakura.docs.util.InvertedIndex;
+
+public class InvertedIndexTest {
+
+    private static final InvertedIndex INDEX = InvertedIndex.builder()
+        .add(0, "crafting table recipes")
+        .add(1, "the crafter's guide")
+        .add(2, "tables and chairs")
+        .add(3, "ancient gateway")
+        .build();
+
+    private static Stream<Arguments> findCandidatesArguments() {
+        return Stream.of(
+            // Whole terms
+            Arguments.of("table", new int[] {0, 2}),
+            Arguments.of("guide", new int[] {1}),
+
+            // Prefixes, suffixes and infixes of terms
+            Arguments.of("craft", new int[] {0, 1}),
+            Arguments.of("raft", new int[] {0, 1}),
+            Arguments.of("ipes", new int[] {0}),
+
+            // Multiple terms must all be present
+            Arguments.of("ing tab", new int[] {0}),
+            Arguments.of("crafter guide", new int[] {1}),
+            Arguments.of("crafter chairs", new int[] {}),
+
+            // No match
+            Arguments.of("zzz", new int[] {})
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("findCandidatesArguments")
+    public void testFindCandidates(String query, int[] documents) {
+        var expected = new BitSet();
+        for (int document : documents) {
+            expected.set(document);
+        }
+        Assertions.assertEquals(expected, INDEX.findCandidates(query));
+    }
+
+    @Test
+    public void testQueryWithoutTerms() {
+        Assertions.assertNull(INDEX.findCandidates(" - "));
+    }
+
+    @Test
+    public void testEmptyIndex() {
+        Assertions.assertTrue(InvertedIndex.EMPTY.findCandidates("table").isEmpty());
+    }
+}
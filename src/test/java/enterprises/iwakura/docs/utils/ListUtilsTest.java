@@ -0,0 +1,42 @@
+package enterprises.iwakura.docs.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import enterprises.iwakura.docs.util.ListUtils;
+
+public class ListUtilsTest {
+
+    @Test
+    public void testTruncate() {
+        var list = new ArrayList<>(List.of(1, 2, 3, 4, 5));
+
+        ListUtils.truncate(list, 5);
+        Assertions.assertEquals(List.of(1, 2, 3, 4, 5), list);
+
+        ListUtils.truncate(list, 2);
+        Assertions.assertEquals(List.of(1, 2), list);
+
+        ListUtils.truncate(list, 0);
+        Assertions.assertEquals(List.of(), list);
+    }
+
+    @Test
+    public void testMoveTailTo() {
+        var list = new ArrayList<>(List.of("parent", "child-1", "child-2", "append"));
+
+        ListUtils.moveTailTo(list, 3, 1);
+        Assertions.assertEquals(List.of("parent", "append", "child-1", "child-2"), list);
+
+        ListUtils.moveTailTo(list, 4, 1);
+        Assertions.assertEquals(List.of("parent", "append", "child-1", "child-2"), list);
+
+        list.add("first");
+        list.add("second");
+        ListUtils.moveTailTo(list, 4, 0);
+        Assertions.assertEquals(List.of("first", "second", "parent", "append", "child-1", "child-2"), list);
+    }
+}
@@ -0,0 +1,122 @@
+package enterprises.iwakura.docs.utils;
+
+import java.awt.color.ColorSpace;
+import java.awt.color.ICC_Profile;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import enterprises.iwakura.docs.util.PngUtils;
+
+public class PngUtilsTest {
+
+    private static byte[] encode(BufferedImage image) throws IOException {
+        try (var baos = new ByteArrayOutputStream()) {
+            Assertions.assertTrue(ImageIO.write(image, "png", baos));
+            return baos.toByteArray();
+        }
+    }
+
+    private static byte[] chunk(String type, byte[] data) {
+        var typeBytes = type.getBytes(StandardCharsets.ISO_8859_1);
+        var crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+
+        var baos = new ByteArrayOutputStream();
+        baos.writeBytes(new byte[] {(byte) (data.length >>> 24), (byte) (data.length >>> 16), (byte) (data.length >>> 8), (byte) data.length});
+        baos.writeBytes(typeBytes);
+        baos.writeBytes(data);
+        long value = crc.getValue();
+        baos.writeBytes(new byte[] {(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value});
+        return baos.toByteArray();
+    }
+
+    /**
+     * Profile name, compression method and the zlib compressed sRGB profile
+     */
+    private static byte[] iccProfileData() {
+        var profile = ICC_Profile.getInstance(ColorSpace.CS_sRGB).getData();
+        var baos = new ByteArrayOutputStream();
+        baos.writeBytes("sRGB\0\0".getBytes(StandardCharsets.ISO_8859_1));
+        try (var deflater = new DeflaterOutputStream(baos)) {
+            deflater.write(profile);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return baos.toByteArray();
+    }
+
+    @Test
+    public void testToPaletteImage() {
+        var image = new BufferedImage(64, 32, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, (x % 4) * 0x40000000 | (y % 8) * 0x101010);
+            }
+        }
+
+        var paletteImage = PngUtils.toPaletteImage(image);
+
+        Assertions.assertNotNull(paletteImage);
+        Assertions.assertEquals(32, ((IndexColorModel) paletteImage.getColorModel()).getMapSize());
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                Assertions.assertEquals(image.getRGB(x, y), paletteImage.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testToPaletteImageWithTooManyColors() {
+        var image = new BufferedImage(PngUtils.MAX_PALETTE_SIZE + 1, 1, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < image.getWidth(); x++) {
+            image.setRGB(x, 0, x);
+        }
+
+        Assertions.assertNull(PngUtils.toPaletteImage(image));
+    }
+
+    @Test
+    public void testStripAncillaryChunks() throws IOException {
+        var png = encode(new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB));
+        // Inserts ICC profile, text and time chunks after IHDR (signature and IHDR chunk take 33 bytes)
+        var iccProfile = chunk("iCCP", iccProfileData());
+        var baos = new ByteArrayOutputStream();
+        baos.write(png, 0, 33);
+        baos.writeBytes(iccProfile);
+        baos.writeBytes(chunk("tEXt", "Comment\0Hello".getBytes(StandardCharsets.ISO_8859_1)));
+        baos.writeBytes(chunk("tIME", new byte[7]));
+        baos.write(png, 33, png.length - 33);
+        var pngWithMetadata = baos.toByteArray();
+        // ICC profile changes how colors look, so it is kept
+        baos.reset();
+        baos.write(png, 0, 33);
+        baos.writeBytes(iccProfile);
+        baos.write(png, 33, png.length - 33);
+        var expected = baos.toByteArray();
+
+        var stripped = PngUtils.stripAncillaryChunks(pngWithMetadata);
+
+        Assertions.assertArrayEquals(expected, stripped);
+        Assertions.assertSame(png, PngUtils.stripAncillaryChunks(png));
+        Assertions.assertNotNull(ImageIO.read(new ByteArrayInputStream(stripped)));
+    }
+
+    @Test
+    public void testStripAncillaryChunksOfMalformedData() {
+        var data = new byte[] {1, 2, 3};
+        Assertions.assertSame(data, PngUtils.stripAncillaryChunks(data));
+    }
+}
@@ -1,8 +1,10 @@
 package enterprises.iwakura.docs.utils;
 
+import java.util.HashSet;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -100,4 +102,24 @@ public class StringUtilsTest {
     public void testIsSimilar(String first, String second, boolean result) {
         Assertions.assertEquals(result, StringUtils.isSimilar(first, second));
     }
+
+    @Test
+    public void testHash64() {
+        var text = "Group #GeneratedSelector { LayoutMode: Top; Padding: (Left: 15); }";
+        var hashes = new HashSet<Long>();
+
+        for (int length = 0; length <= text.length(); length++) {
+            var prefix = text.substring(0, length);
+            long hash = StringUtils.hash64(prefix);
+            Assertions.assertEquals(hash, StringUtils.hash64(new StringBuilder(prefix)));
+            Assertions.assertTrue(hashes.add(hash), "Hash collision for prefix of length " + length);
+        }
+
+        // Single changed character in every lane position
+        for (int i = 0; i < text.length(); i++) {
+            var changed = new StringBuilder(text);
+            changed.setCharAt(i, (char) (text.charAt(i) + 1));
+            Assertions.assertNotEquals(StringUtils.hash64(text), StringUtils.hash64(changed));
+        }
+    }
 }
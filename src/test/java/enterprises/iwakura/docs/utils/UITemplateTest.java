@@ -0,0 +1,32 @@
+package enterprises.iwakura.docs.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import enterprises.iwakura.docs.util.UITemplate;
+
+public class UITemplateTest {
+
+    @Test
+    public void testValuesAreNotReplacedAgain() {
+        var template = UITemplate.compile("Text: \"{{name}}\"; Id: {{id}};", "name", "id");
+
+        Assertions.assertEquals("Text: \"{{id}}\"; Id: 1;", template.render("{{id}}", "1"));
+    }
+
+    @Test
+    public void testRepeatedSlot() {
+        var template = UITemplate.compile("{{a}}-{{b}}-{{a}}", "a", "b");
+
+        Assertions.assertEquals("x-y-x", template.render("x", "y"));
+        Assertions.assertEquals("prefix x-y-x", template.appendTo(new StringBuilder("prefix "), "x", "y").toString());
+    }
+
+    @Test
+    public void testInvalidTemplates() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> UITemplate.compile("{{a}} {{b}}", "a"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> UITemplate.compile("{{a}}", "a", "b"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> UITemplate.builder("{{a}}").constant("b", "x").slots("a").build());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> UITemplate.compile("{{a}} {{b}}", "a", "b").render("x"));
+    }
+}